@@ -0,0 +1,251 @@
+package wayanad;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Java port of {@code Generate_Wayanad_Data()} from {@code script mini.sql}, multiplied by {@code scale}.
+ *
+ * Scale 1 produces what one CALL of the procedure does (800 persons, ~420 victims, 60 camps, 300
+ * operations, 400 movements, 301 donors with a donation, 200 missing persons, ...); every count grows
+ * linearly with the scale. Values follow the procedure's distributions but come from a fixed seed, so
+ * two runs at the same scale load identical data. Rows are inserted in JDBC batches.
+ */
+final class BenchData {
+
+    static final int PERSON_BASE = 200_000;
+    private static final int BATCH = 1_000;
+
+    private static final String[] GENDERS = {"M", "F", "O"};
+    private static final String[] ROLES = {"victim", "volunteer", "rescuer", "donor", "admin"};
+    private static final String[] VICTIM_STATUS = {"missing", "rescued", "deceased", "hospitalized", "relocated"};
+    private static final String[] CAMP_LOCATIONS = {"Kalpetta", "Meppadi", "Mundakkai", "Chooralmala", "Attamala", "Chundale", "Kozhikode", "Sulthan Bathery"};
+    private static final String[] OP_LOCATIONS = {"Mundakkai", "Chooralmala", "Punjirimattom", "Vellarmala", "Attamala", "Meppadi", "Kalpetta", "Chundale"};
+    private static final String[][] TEAMS = {{"Odisha Rescue", "NDRF-12"}, {"Local Volunteers", "Community"}, {"NGO - ReliefOrg", "Medical"}, {"IAG Group", "Coordination"}};
+    private static final Object[][] SUPPLIES = {{"Sanitary Kits", 5000, "sets"}, {"Baby Food", 2000, "packs"}, {"Cooking Gas Cylinder", 200, "units"}, {"Clothes", 8000, "pieces"}, {"Solar Lamps", 1000, "units"}};
+    private static final String[] SOURCES = {"Central Warehouse", "Airport", "Railhead", "Local NGO Depot", "Govt Storage", "Donor Warehouse"};
+    private static final String[] DONATION_TYPES = {"cash", "in-kind", "food"};
+    private static final String[] MISSING_STATUS = {"missing", "found", "identified"};
+
+    private static final LocalDate JUL_30 = LocalDate.of(2024, 7, 30), JUL_31 = JUL_30.plusDays(1);
+    private static final LocalDateTime JUL_31_MIDNIGHT = JUL_31.atStartOfDay();
+
+    private BenchData() {}
+
+    /** Row counts written by {@link #seed}. */
+    record Counts(int persons, int victims, int camps, int teams, int supplies, int donors) {}
+
+    static Counts seed(Connection con, int scale) throws SQLException {
+        Random rnd = new Random(20240730L + scale);
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            LocalDate today = LocalDate.now();
+
+            // Persons (800 per scale) and victims (70% of the first 600 per scale)
+            int persons = 800 * scale, victimRange = 600 * scale;
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO Person(person_id,name,age,gender,aadhar_no,phone,role) VALUES(?,?,?,?,?,?,?)")) {
+                for (int k=0;k<persons;k++) {
+                    int id = PERSON_BASE + k;
+                    ps.setInt(1, id);
+                    ps.setString(2, "Person_" + id);
+                    ps.setInt(3, 18 + rnd.nextInt(60));
+                    ps.setString(4, pick(rnd, GENDERS));
+                    ps.setString(5, "A" + pad(id, 9));
+                    ps.setString(6, "+91" + pad(id, 10));
+                    ps.setString(7, pick(rnd, ROLES));
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+            int victims = 0;
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO Victim(victim_id,family_id,status,injuries,displaced,registration_date) VALUES(?,?,?,?,?,?)")) {
+                for (int k=0;k<victimRange;k++) {
+                    if (rnd.nextDouble() >= 0.7) continue;
+                    int id = PERSON_BASE + k;
+                    ps.setInt(1, id);
+                    ps.setString(2, "F-" + pad(id, 6));
+                    ps.setString(3, pick(rnd, VICTIM_STATUS));
+                    ps.setString(4, rnd.nextDouble() < 0.4 ? "minor injuries" : rnd.nextDouble() < 0.6 ? "fracture" : null);
+                    ps.setBoolean(5, true);
+                    ps.setDate(6, Date.valueOf(today.minusDays(rnd.nextInt(30))));
+                    add(con, ps, victims++);
+                }
+                flush(con, ps);
+            }
+
+            // Camps (60 per scale)
+            int camps = 60 * scale;
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO Camp(name,location,capacity,established_date,current_occupancy) VALUES(?,?,?,?,?)")) {
+                for (int k=1;k<=camps;k++) {
+                    ps.setString(1, "Relief Camp " + k);
+                    ps.setString(2, pick(rnd, CAMP_LOCATIONS));
+                    ps.setInt(3, 150 + rnd.nextInt(300));
+                    ps.setDate(4, Date.valueOf(JUL_31.minusDays(rnd.nextInt(10))));
+                    ps.setInt(5, 50 + rnd.nextInt(150));
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+
+            // Rescue teams (4 per scale) and operations (300 per scale)
+            int teams = TEAMS.length * scale;
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO RescueTeam(agency,team_type,contact) VALUES(?,?,'N/A')")) {
+                for (int k=0;k<teams;k++) {
+                    String[] t = TEAMS[k % TEAMS.length];
+                    ps.setString(1, k < TEAMS.length ? t[0] : t[0] + " " + (k / TEAMS.length + 1));
+                    ps.setString(2, t[1]);
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO RescueOperation(team_id,location,start_time,end_time,personnel_count,notes) VALUES(?,?,?,?,?,?)")) {
+                for (int k=1;k<=300*scale;k++) {
+                    ps.setInt(1, 1 + rnd.nextInt(teams));
+                    ps.setString(2, pick(rnd, OP_LOCATIONS));
+                    ps.setTimestamp(3, Timestamp.valueOf(JUL_31_MIDNIGHT.plusHours(rnd.nextInt(10))));
+                    ps.setTimestamp(4, Timestamp.valueOf(JUL_31_MIDNIGHT.plusHours(2 + rnd.nextInt(200))));
+                    ps.setInt(5, 10 + rnd.nextInt(90));
+                    ps.setString(6, "Operation auto-generated #" + k);
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+
+            // Supplies (5 per scale) and movements (400 per scale)
+            int supplies = SUPPLIES.length * scale;
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO Supply(name,quantity_on_hand,unit) VALUES(?,?,?)")) {
+                for (int k=0;k<supplies;k++) {
+                    Object[] s = SUPPLIES[k % SUPPLIES.length];
+                    ps.setString(1, k < SUPPLIES.length ? (String) s[0] : s[0] + " " + (k / SUPPLIES.length + 1));
+                    ps.setInt(2, (Integer) s[1]);
+                    ps.setString(3, (String) s[2]);
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO Supply_Movement(supply_id,from_location,to_camp_id,qty,moved_on) VALUES(?,?,?,?,?)")) {
+                for (int k=1;k<=400*scale;k++) {
+                    ps.setInt(1, 1 + rnd.nextInt(supplies));
+                    ps.setString(2, pick(rnd, SOURCES));
+                    ps.setInt(3, 1 + rnd.nextInt(camps));
+                    ps.setInt(4, 5 + rnd.nextInt(55));
+                    ps.setTimestamp(5, Timestamp.valueOf(JUL_31_MIDNIGHT.plusHours(rnd.nextInt(20))));
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+
+            // Donors (the relief fund + 301 per scale), each with one donation. The procedure numbers donors
+            // from 301000; here they follow the generated persons so larger scales cannot collide with them.
+            int fund = PERSON_BASE + persons, donors = 301 * scale;
+            try (PreparedStatement person = con.prepareStatement(
+                         "INSERT INTO Person(person_id,name,age,gender,aadhar_no,phone,role) VALUES(?,?,NULL,?,NULL,?,'donor')");
+                 PreparedStatement donation = con.prepareStatement(
+                         "INSERT INTO Donation(donor_id,amount,donation_type,date_received,notes) VALUES(?,?,?,?,?)")) {
+                person.setInt(1, fund); person.setString(2, "State Govt Relief Fund"); person.setString(3, "O"); person.setNull(4, Types.VARCHAR);
+                person.addBatch();
+                for (int k=1;k<=donors;k++) {
+                    int id = fund + k;
+                    person.setInt(1, id);
+                    person.setString(2, "Donor_" + k);
+                    person.setString(3, pick(rnd, GENDERS));
+                    person.setString(4, "+91" + pad(id, 10));
+                    person.addBatch();
+                    donation.setInt(1, id);
+                    donation.setBigDecimal(2, BigDecimal.valueOf(100_000 + rnd.nextInt(5_000_000), 2));
+                    donation.setString(3, pick(rnd, DONATION_TYPES));
+                    donation.setDate(4, Date.valueOf(JUL_31.plusDays(rnd.nextInt(30))));
+                    donation.setString(5, "Auto donation " + k);
+                    donation.addBatch();
+                    if (k % BATCH == 0) { person.executeBatch(); donation.executeBatch(); con.commit(); }
+                }
+                person.executeBatch(); donation.executeBatch(); con.commit();
+            }
+
+            // Missing persons (200 per scale), 30% with a body identification record
+            try (PreparedStatement missing = con.prepareStatement(
+                         "INSERT INTO MissingPerson(name,age,gender,last_seen_location,date_reported,status) VALUES(?,?,?,?,?,?)");
+                 PreparedStatement body = con.prepareStatement(
+                         "INSERT INTO BodyIdentification(missing_id,dna_sample_id,identified,id_date,notes) VALUES(?,?,?,?,'Auto-gen body record')")) {
+                for (int k=1;k<=200*scale;k++) {
+                    missing.setString(1, "Missing_" + k);
+                    missing.setInt(2, 5 + rnd.nextInt(70));
+                    missing.setString(3, pick(rnd, GENDERS));
+                    missing.setString(4, pick(rnd, OP_LOCATIONS));
+                    missing.setDate(5, Date.valueOf(JUL_30.plusDays(rnd.nextInt(10))));
+                    missing.setString(6, pick(rnd, MISSING_STATUS));
+                    missing.addBatch();
+                    if (rnd.nextDouble() < 0.30) {
+                        body.setInt(1, k);      // fresh table: the k-th missing person gets missing_id k
+                        body.setString(2, "DNA-" + rnd.nextInt(1_000_000));
+                        body.setBoolean(3, rnd.nextDouble() < 0.6);
+                        body.setDate(4, Date.valueOf(LocalDate.of(2024, 8, 2).plusDays(rnd.nextInt(30))));
+                        body.addBatch();
+                    }
+                    if (k % BATCH == 0) { missing.executeBatch(); body.executeBatch(); con.commit(); }
+                }
+                missing.executeBatch(); body.executeBatch(); con.commit();
+            }
+
+            // Victim_Camp links (up to 800 per scale) and rehab allocations (300 per scale)
+            int[] victimIds = new int[victims];
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT victim_id FROM Victim ORDER BY victim_id")) {
+                for (int k=0;k<victims && rs.next();k++) victimIds[k] = rs.getInt(1);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO Victim_Camp(victim_id,camp_id,date_admitted,date_released) VALUES(?,?,?,NULL)")) {
+                for (int k=0;k<Math.min(victims, 800 * scale);k++) {
+                    ps.setInt(1, victimIds[k]);
+                    ps.setInt(2, 1 + rnd.nextInt(camps));
+                    ps.setDate(3, Date.valueOf(JUL_31.plusDays(rnd.nextInt(10))));
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO RehabAllocation(victim_id,house_id,allocation_date,amount_granted) VALUES(?,?,?,?)")) {
+                for (int k=1;k<=300*scale && victims > 0;k++) {
+                    ps.setInt(1, victimIds[rnd.nextInt(victims)]);
+                    ps.setString(2, "HOUSE-" + pad(rnd.nextInt(9999), 6));
+                    ps.setDate(3, Date.valueOf(LocalDate.of(2024, 8, 15).plusDays(rnd.nextInt(30))));
+                    ps.setBigDecimal(4, BigDecimal.valueOf(2_000_000 + rnd.nextInt(5_000_000), 2));
+                    add(con, ps, k);
+                }
+                flush(con, ps);
+            }
+            return new Counts(persons + donors + 1, victims, camps, teams, supplies, donors + 1);
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+    }
+
+    // ---------- HELPERS ----------
+    private static void add(Connection con, PreparedStatement ps, int n) throws SQLException {
+        ps.addBatch();
+        if ((n + 1) % BATCH == 0) { ps.executeBatch(); con.commit(); }
+    }
+
+    private static void flush(Connection con, PreparedStatement ps) throws SQLException {
+        ps.executeBatch();
+        con.commit();
+    }
+
+    private static String pick(Random rnd, String[] values) { return values[rnd.nextInt(values.length)]; }
+
+    private static String pad(int v, int width) {
+        String s = Integer.toString(v);
+        return s.length() >= width ? s : "0".repeat(width - s.length()) + s;
+    }
+}
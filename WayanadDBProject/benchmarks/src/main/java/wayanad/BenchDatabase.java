@@ -0,0 +1,64 @@
+package wayanad;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded H2 database (MySQL mode) standing in for MySQL in the benchmarks.
+ *
+ * {@link #open} points the app's configuration ({@code -Dwayanad.jdbc.*}) at an in-memory database,
+ * creates the tables and indexes from {@code bench-schema.sql} and seeds it with {@link BenchData}. JMH
+ * forks a fresh JVM per parameter combination, so each fork opens exactly one database; it must happen
+ * before anything reads {@link DbConfig} (the pool, search, lookups).
+ */
+final class BenchDatabase {
+
+    static final String USER = "sa", PASSWORD = "bench";   // DbConfig treats a blank password as unset
+
+    private static String url;
+    private static BenchData.Counts counts;
+
+    private BenchDatabase() {}
+
+    static synchronized BenchData.Counts open(int scale) throws SQLException {
+        if (url != null) return counts;
+        String u = "jdbc:h2:mem:wayanad_" + scale + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+        System.setProperty("wayanad.jdbc.url", u);
+        System.setProperty("wayanad.jdbc.user", USER);
+        System.setProperty("wayanad.jdbc.password", PASSWORD);
+        try (Connection con = DriverManager.getConnection(u, USER, PASSWORD)) {
+            try (Statement st = con.createStatement()) {
+                for (String stmt : schema().split(";\\s*\\n")) {
+                    if (!stmt.isBlank()) st.execute(stmt);
+                }
+            }
+            counts = BenchData.seed(con, scale);
+        }
+        url = u;
+        System.out.println("[bench] seeded H2 at scale " + scale + ": " + counts);
+        return counts;
+    }
+
+    /** A new unpooled connection, as the app made before {@link ConnectionPool}. */
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, USER, PASSWORD);
+    }
+
+    private static String schema() {
+        try (InputStream in = BenchDatabase.class.getResourceAsStream("/bench-schema.sql")) {
+            if (in == null) throw new IllegalStateException("bench-schema.sql is not on the classpath");
+            StringBuilder sb = new StringBuilder();
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (!line.stripLeading().startsWith("--")) sb.append(line).append('\n');
+            }
+            return sb.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read bench-schema.sql", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection acquisition: a new {@code DriverManager} connection per operation (the old
+ * {@code getConnection()}) versus borrowing from {@link ConnectionPool}.
+ *
+ * An in-memory H2 connection costs far less than a MySQL handshake (TCP, TLS, auth), so the gap measured
+ * here is a lower bound for the real one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConnectionBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    @Setup
+    public void setup() throws SQLException { BenchDatabase.open(scale); }
+
+    @Benchmark
+    public boolean driverManager() throws SQLException {
+        try (Connection con = BenchDatabase.connect()) { return con.getAutoCommit(); }
+    }
+
+    @Benchmark
+    public boolean pooled() throws SQLException {
+        try (Connection con = ConnectionPool.shared().getConnection()) { return con.getAutoCommit(); }
+    }
+}
@@ -0,0 +1,79 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import wayanad.Schema.FieldSpec;
+
+/**
+ * Per-operation latency of the record managers' and the API's single-row work on Person, each on a freshly
+ * borrowed pooled connection as the app does: SELECT by key, UPDATE of one column, INSERT followed by
+ * DELETE, and a keyset page. {@code statementCache=0} prepares every statement anew (the old behaviour);
+ * {@code 64} serves the {@link SqlTemplates} texts from the connection's statement cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CrudBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"0", "64"})
+    public int statementCache;
+
+    private Schema.TableSpec spec;
+    private List<FieldSpec> insertable, phone;
+    private long persons;
+    private int nextId = 20_000_000;
+
+    @Setup
+    public void setup() throws SQLException {
+        System.setProperty("wayanad.pool.statementCache", String.valueOf(statementCache));
+        persons = BenchDatabase.open(scale).persons();
+        spec = Schema.spec("Person");
+        insertable = Records.insertable(spec);
+        phone = List.of(Records.field(spec, "phone"));
+    }
+
+    @Benchmark
+    public Map<String, Object> selectByPk() throws SQLException {
+        try (Connection con = ConnectionPool.shared().getConnection()) { return Records.get(con, spec, randomPerson()); }
+    }
+
+    @Benchmark
+    public int updateByPk() throws SQLException {
+        long id = randomPerson();
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            return Records.update(con, spec, id, phone, List.of("+91" + id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int insertDelete() throws SQLException {
+        int id = nextId++;
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            Records.insert(con, spec, insertable, List.of(id, "Bench_" + id, 30, "F", "B" + id, "+91" + id, "volunteer"));
+        }
+        try (Connection con = ConnectionPool.shared().getConnection()) { return Records.delete(con, spec, id); }
+    }
+
+    @Benchmark
+    public int keysetPage() throws SQLException {
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            return Records.page(con, spec, randomPerson(), 50).size();
+        }
+    }
+
+    private long randomPerson() { return BenchData.PERSON_BASE + ThreadLocalRandom.current().nextLong(persons); }
+}
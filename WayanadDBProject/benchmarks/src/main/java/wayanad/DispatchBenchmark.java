@@ -0,0 +1,97 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Supply dispatch throughput with {@value #REQUESTERS} concurrent requesters (depot tablets posting movements)
+ * spread over the first {@code hotSupplies} supplies. {@code perRequestLocking} does what the Supply_Movement
+ * triggers do, one transaction per movement: lock the Supply row, log a shortfall, insert the movement, deduct,
+ * audit, commit. {@code groupCommit} goes through {@link SupplyDispatchService}. The bench schema has no
+ * triggers, so both paths write the same rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(DispatchBenchmark.REQUESTERS)
+public class DispatchBenchmark {
+
+    static final int REQUESTERS = 64;
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"2"})
+    public int hotSupplies;
+
+    private int camps;
+
+    @Setup
+    public void setup() throws SQLException {
+        camps = BenchDatabase.open(scale).camps();
+        try (Connection con = ConnectionPool.shared().getConnection(); Statement st = con.createStatement()) {
+            st.executeUpdate("UPDATE Supply SET quantity_on_hand = 1000000000");
+        }
+    }
+
+    @Benchmark
+    public int perRequestLocking() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int supply = 1 + rnd.nextInt(hotSupplies), qty = 5 + rnd.nextInt(50);
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                long avail;
+                try (PreparedStatement ps = con.prepareStatement("SELECT quantity_on_hand FROM Supply WHERE supply_id = ? FOR UPDATE")) {
+                    ps.setInt(1, supply);
+                    try (ResultSet rs = ps.executeQuery()) { avail = rs.next() ? rs.getLong(1) : 0; }
+                }
+                int granted = (int) Math.min(qty, avail);
+                if (granted < qty) {
+                    try (PreparedStatement ps = con.prepareStatement(
+                            "INSERT INTO Transfer_Error_Log(supply_id, requested_qty, adjusted_qty, message) VALUES (?,?,?,?)")) {
+                        ps.setInt(1, supply); ps.setInt(2, qty); ps.setInt(3, granted); ps.setString(4, "adjusted");
+                        ps.executeUpdate();
+                    }
+                }
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO Supply_Movement(supply_id, from_location, to_camp_id, qty, moved_on) VALUES (?,?,?,?,?)")) {
+                    ps.setInt(1, supply); ps.setString(2, "Bench Depot"); ps.setInt(3, 1 + rnd.nextInt(camps));
+                    ps.setInt(4, granted); ps.setTimestamp(5, now);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = con.prepareStatement("UPDATE Supply SET quantity_on_hand = ? WHERE supply_id = ?")) {
+                    ps.setLong(1, avail - granted); ps.setInt(2, supply);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = con.prepareStatement(
+                        "INSERT INTO Supply_Audit(supply_id, change_qty, new_qty, changed_on, reason) VALUES (?,?,?,?,'Auto Audit: Quantity adjusted')")) {
+                    ps.setInt(1, supply); ps.setInt(2, -granted); ps.setLong(3, avail - granted); ps.setTimestamp(4, now);
+                    ps.executeUpdate();
+                }
+                con.commit();
+                return granted;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Benchmark
+    public int groupCommit() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        SupplyDispatchService.Request r = new SupplyDispatchService.Request(1 + rnd.nextInt(hotSupplies),
+                5 + rnd.nextInt(50), "Bench Depot", 1 + rnd.nextInt(camps), null);
+        return SupplyDispatchService.shared().dispatch(r).join().dispatched();
+    }
+}
@@ -0,0 +1,59 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JComboBox;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import wayanad.Schema.Item;
+
+/**
+ * Filling an FK combo and selecting the item for a grid row: {@code JComboBox.addItem} per row plus a
+ * linear scan (the old {@code loadFK}/{@code selectFK}) against {@link FkLookup.FkComboModel} over the
+ * shared item array plus the O(1) {@link FkLookup.Lookup#find}. Items are loaded once in setup, so only
+ * the Swing-side work is measured (headless; no EDT involved).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FkComboBenchmark {
+
+    @Param({"1", "25"})
+    public int scale;
+
+    private FkLookup.Lookup lookup;
+    private Object wanted;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchDatabase.open(scale);
+        // the Victim dialog's person picker: every person with role 'victim'
+        String query = Schema.spec("Victim").fields.get(0).fkQuery;
+        lookup = FkLookup.get(query).get(30, TimeUnit.SECONDS);
+        wanted = lookup.items[lookup.items.length * 3 / 4].id;
+    }
+
+    @Benchmark
+    public Object addItemAndLinearSelect() {
+        JComboBox<Item> cb = new JComboBox<>();
+        for (Item it : lookup.items) cb.addItem(new Item(it.id, it.label));
+        for (int i=0;i<cb.getItemCount();i++) {
+            Item it = cb.getItemAt(i);
+            if (Objects.equals(String.valueOf(it.id), String.valueOf(wanted))) { cb.setSelectedIndex(i); break; }
+        }
+        return cb.getSelectedItem();
+    }
+
+    @Benchmark
+    public Object sharedModelAndLookup() {
+        FkLookup.FkComboModel model = new FkLookup.FkComboModel();
+        JComboBox<Item> cb = new JComboBox<>(model);
+        model.setItems(lookup.items);
+        cb.getModel().setSelectedItem(lookup.find(wanted));
+        return cb.getSelectedItem();
+    }
+}
@@ -0,0 +1,87 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import wayanad.Schema.FieldSpec;
+
+/**
+ * Inserting {@value #ROWS} Person rows: one auto-committed statement per row (the record manager's Add
+ * button) against one {@code executeBatch} and commit (the CSV importer). Both bind through
+ * {@link Records#bindParams}; scores are per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OperationsPerInvocation(InsertBenchmark.ROWS)
+public class InsertBenchmark {
+
+    static final int ROWS = 100;
+
+    @Param({"1"})
+    public int scale;
+
+    private Connection con;
+    private List<FieldSpec> fields;
+    private String sql;
+    private int nextId = 10_000_000;
+
+    @Setup
+    public void setup() throws SQLException {
+        BenchDatabase.open(scale);
+        con = ConnectionPool.shared().getConnection();
+        Schema.TableSpec spec = Schema.spec("Person");
+        fields = Records.insertable(spec);
+        StringBuilder cols = new StringBuilder(), qs = new StringBuilder();
+        for (FieldSpec f : fields) {
+            if (cols.length() > 0) { cols.append(','); qs.append(','); }
+            cols.append(f.name); qs.append('?');
+        }
+        sql = "INSERT INTO Person (" + cols + ") VALUES (" + qs + ")";
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        con.setAutoCommit(true);
+        con.close();
+    }
+
+    @Benchmark
+    public int singleAutoCommit() throws SQLException {
+        con.setAutoCommit(true);
+        int n = 0;
+        for (int i=0;i<ROWS;i++) {
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                Records.bindParams(ps, fields, values(nextId++));
+                n += ps.executeUpdate();
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    public int batched() throws SQLException {
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i=0;i<ROWS;i++) {
+                Records.bindParams(ps, fields, values(nextId++));
+                ps.addBatch();
+            }
+            int n = ps.executeBatch().length;
+            con.commit();
+            return n;
+        }
+    }
+
+    private static List<Object> values(int id) {
+        return List.of(id, "Bench_" + id, 30, "F", "B" + id, "+91" + id, "volunteer");
+    }
+}
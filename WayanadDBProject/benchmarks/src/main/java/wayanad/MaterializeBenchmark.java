@@ -0,0 +1,77 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ResultSet} → row materialisation for the same query: {@code Vector} rows appended to a
+ * {@link DefaultTableModel} (fires a table event per row), plain {@code Object[]} rows (what
+ * {@link RowStream} emits), and column-label maps (what {@link Records} returns to the HTTP API).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MaterializeBenchmark {
+
+    @Param({"1"})
+    public int scale;
+
+    @Param({"1000"})
+    public int rows;
+
+    private Connection con;
+    private String sql;
+
+    @Setup
+    public void setup() throws SQLException {
+        BenchDatabase.open(scale);
+        con = ConnectionPool.shared().getConnection();
+        sql = "SELECT * FROM Person ORDER BY person_id LIMIT " + rows;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException { con.close(); }
+
+    @Benchmark
+    public DefaultTableModel vectorRows() throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int cols = meta.getColumnCount();
+            Vector<String> names = new Vector<>(cols);
+            for (int i=1;i<=cols;i++) names.add(meta.getColumnName(i));
+            DefaultTableModel model = new DefaultTableModel(names, 0);
+            while (rs.next()) {
+                Vector<Object> row = new Vector<>(cols);
+                for (int i=1;i<=cols;i++) row.add(rs.getObject(i));
+                model.addRow(row);
+            }
+            return model;
+        }
+    }
+
+    @Benchmark
+    public List<Object[]> arrayRows() throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            int cols = rs.getMetaData().getColumnCount();
+            List<Object[]> out = new ArrayList<>(rows);
+            while (rs.next()) {
+                Object[] row = new Object[cols];
+                for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+                out.add(row);
+            }
+            return out;
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> recordMaps() throws SQLException {
+        return Records.page(con, Schema.spec("Person"), null, rows);
+    }
+}
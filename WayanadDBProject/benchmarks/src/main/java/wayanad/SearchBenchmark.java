@@ -0,0 +1,71 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Viewer search: the old {@code LOWER(CONCAT(every column)) LIKE '%term%'} scan against the typed,
+ * index-backed predicates planned by {@link SearchEngine}. Each case is {@code table:term}.
+ *
+ * H2 has no FULLTEXT indexes, so text terms use the {@code LIKE 'term%'} prefix path here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchBenchmark {
+
+    @Param({"1", "25"})
+    public int scale;
+
+    @Param({"Person:Person_200123", "Victim:rescued", "Camp:Kalpetta", "Donation:2024-08-05", "Victim_Camp:200042"})
+    public String search;
+
+    private Connection con;
+    private Schema.TableSpec spec;
+    private String term, concatSql;
+
+    @Setup
+    public void setup() throws SQLException {
+        BenchDatabase.open(scale);
+        con = ConnectionPool.shared().getConnection();
+        spec = Schema.spec(search.substring(0, search.indexOf(':')));
+        term = search.substring(search.indexOf(':') + 1);
+        StringBuilder concat = new StringBuilder("CONCAT(");
+        for (int i=0;i<spec.fields.size();i++) { if (i > 0) concat.append(", '|', "); concat.append(spec.fields.get(i).name); }
+        concatSql = "SELECT * FROM " + spec.table + " WHERE LOWER(" + concat + ")) LIKE LOWER(?)";
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException { con.close(); }
+
+    @Benchmark
+    public int concatLike() throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(concatSql)) {
+            ps.setString(1, "%" + term + "%");
+            return drain(ps);
+        }
+    }
+
+    @Benchmark
+    public int indexed() throws SQLException {
+        SearchEngine.Query q = SearchEngine.plan(con, spec, term, Integer.MAX_VALUE);
+        try (PreparedStatement ps = con.prepareStatement(q.sql())) {
+            SearchEngine.bind(ps, q.params());
+            return drain(ps);
+        }
+    }
+
+    private static int drain(PreparedStatement ps) throws SQLException {
+        int n = 0;
+        try (ResultSet rs = ps.executeQuery()) {
+            int cols = rs.getMetaData().getColumnCount();
+            while (rs.next()) { for (int i=1;i<=cols;i++) rs.getObject(i); n++; }
+        }
+        return n;
+    }
+}
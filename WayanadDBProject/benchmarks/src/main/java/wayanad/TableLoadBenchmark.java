@@ -0,0 +1,81 @@
+package wayanad;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening a table in the viewer: the old {@code loadTableData} ({@code SELECT *} copied row by row into a
+ * {@link DefaultTableModel}) against the first keyset page from {@link Records#page} and the streamed
+ * {@code Object[]} rows the {@link StreamingTableModel} receives, capped at {@code stream.maxRows}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TableLoadBenchmark {
+
+    @Param({"1", "25"})
+    public int scale;
+
+    @Param({"Person", "Supply_Movement"})
+    public String table;
+
+    private Connection con;
+    private Schema.TableSpec spec;
+
+    @Setup
+    public void setup() throws SQLException {
+        BenchDatabase.open(scale);
+        con = ConnectionPool.shared().getConnection();
+        spec = Schema.spec(table);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException { con.close(); }
+
+    @Benchmark
+    public DefaultTableModel fullLoadIntoDefaultTableModel() throws SQLException {
+        DefaultTableModel model = new DefaultTableModel();
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT * FROM " + table)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int cols = meta.getColumnCount();
+            for (int i=1;i<=cols;i++) model.addColumn(meta.getColumnName(i));
+            while (rs.next()) {
+                Object[] row = new Object[cols];
+                for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+                model.addRow(row);
+            }
+        }
+        return model;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> firstKeysetPage() throws SQLException {
+        return Records.page(con, spec, null, 200);
+    }
+
+    @Benchmark
+    public void streamedRows(Blackhole bh) throws SQLException {
+        int limit = RowStream.maxRows();
+        try (PreparedStatement ps = RowStream.prepare(con, "SELECT * FROM " + table); ResultSet rs = ps.executeQuery()) {
+            int cols = rs.getMetaData().getColumnCount();
+            List<Object[]> chunk = new ArrayList<>(256);
+            for (int n=0;n<limit && rs.next();n++) {
+                Object[] row = new Object[cols];
+                for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+                chunk.add(row);
+                if (chunk.size() == 256) { bh.consume(chunk); chunk = new ArrayList<>(256); }
+            }
+            bh.consume(chunk);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+-- Benchmark schema: tables and search indexes from "script mini.sql" (sections 1 and 1b) for H2 in MySQL mode.
+-- Differences: TEXT columns are VARCHAR(1000) so they come back as strings like MySQL TEXT does,
+-- FULLTEXT indexes and triggers are left out (H2 supports neither in MySQL syntax).
+
+CREATE TABLE Person (
+  person_id INT PRIMARY KEY,
+  name VARCHAR(150) NOT NULL,
+  age TINYINT,
+  gender ENUM('M','F','O'),
+  aadhar_no VARCHAR(20) UNIQUE NULL,
+  phone VARCHAR(20),
+  role ENUM('victim','volunteer','rescuer','donor','admin') NOT NULL,
+  created_on DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE Victim (
+  victim_id INT PRIMARY KEY,
+  family_id VARCHAR(50),
+  status ENUM('missing','rescued','deceased','hospitalized','relocated') DEFAULT 'missing',
+  injuries VARCHAR(1000),
+  displaced BOOLEAN DEFAULT TRUE,
+  registration_date DATE DEFAULT CURRENT_DATE,
+  FOREIGN KEY (victim_id) REFERENCES Person(person_id) ON DELETE CASCADE
+);
+
+CREATE TABLE Camp (
+  camp_id INT AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(150),
+  location VARCHAR(150),
+  capacity INT,
+  established_date DATE,
+  current_occupancy INT DEFAULT 0
+);
+
+CREATE TABLE Victim_Camp (
+  vc_id INT AUTO_INCREMENT PRIMARY KEY,
+  victim_id INT,
+  camp_id INT,
+  date_admitted DATE,
+  date_released DATE,
+  FOREIGN KEY (victim_id) REFERENCES Victim(victim_id),
+  FOREIGN KEY (camp_id) REFERENCES Camp(camp_id)
+);
+
+CREATE TABLE RescueTeam (
+  team_id INT AUTO_INCREMENT PRIMARY KEY,
+  agency VARCHAR(150),
+  team_type VARCHAR(100),
+  contact VARCHAR(50)
+);
+
+CREATE TABLE RescueOperation (
+  op_id INT AUTO_INCREMENT PRIMARY KEY,
+  team_id INT,
+  location VARCHAR(150),
+  start_time DATETIME,
+  end_time DATETIME,
+  personnel_count INT,
+  notes VARCHAR(1000),
+  FOREIGN KEY (team_id) REFERENCES RescueTeam(team_id)
+);
+
+CREATE TABLE Supply (
+  supply_id INT AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(100),
+  quantity_on_hand INT DEFAULT 0,
+  unit VARCHAR(20)
+);
+
+CREATE TABLE Supply_Movement (
+  move_id INT AUTO_INCREMENT PRIMARY KEY,
+  supply_id INT,
+  from_location VARCHAR(150),
+  to_camp_id INT,
+  qty INT,
+  moved_on DATETIME,
+  FOREIGN KEY (supply_id) REFERENCES Supply(supply_id),
+  FOREIGN KEY (to_camp_id) REFERENCES Camp(camp_id)
+);
+
+CREATE TABLE Donation (
+  donation_id INT AUTO_INCREMENT PRIMARY KEY,
+  donor_id INT,
+  amount DECIMAL(12,2),
+  donation_type VARCHAR(100),
+  date_received DATE,
+  notes VARCHAR(1000),
+  FOREIGN KEY (donor_id) REFERENCES Person(person_id)
+);
+
+CREATE TABLE MissingPerson (
+  missing_id INT AUTO_INCREMENT PRIMARY KEY,
+  name VARCHAR(150),
+  age TINYINT,
+  gender ENUM('M','F','O'),
+  last_seen_location VARCHAR(150),
+  date_reported DATE,
+  status ENUM('missing','found','identified') DEFAULT 'missing'
+);
+
+CREATE TABLE BodyIdentification (
+  body_id INT AUTO_INCREMENT PRIMARY KEY,
+  missing_id INT NULL,
+  dna_sample_id VARCHAR(100),
+  identified BOOLEAN DEFAULT FALSE,
+  id_date DATE,
+  notes VARCHAR(1000),
+  FOREIGN KEY (missing_id) REFERENCES MissingPerson(missing_id)
+);
+
+CREATE TABLE RehabAllocation (
+  alloc_id INT AUTO_INCREMENT PRIMARY KEY,
+  victim_id INT,
+  house_id VARCHAR(100),
+  allocation_date DATE,
+  amount_granted DECIMAL(12,2),
+  allocation_round VARCHAR(64),
+  FOREIGN KEY (victim_id) REFERENCES Victim(victim_id)
+);
+
+CREATE TABLE Supply_Audit (
+  audit_id INT AUTO_INCREMENT PRIMARY KEY,
+  supply_id INT,
+  change_qty INT,
+  new_qty INT,
+  changed_on DATETIME,
+  reason VARCHAR(200),
+  FOREIGN KEY (supply_id) REFERENCES Supply(supply_id)
+);
+
+CREATE TABLE Activity_Log (
+  log_id INT AUTO_INCREMENT PRIMARY KEY,
+  table_name VARCHAR(50),
+  action_type ENUM('INSERT','UPDATE','DELETE'),
+  record_id INT,
+  action_timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Table to log auto-adjusted transfers (Option B)
+CREATE TABLE Transfer_Error_Log (
+  log_id INT AUTO_INCREMENT PRIMARY KEY,
+  supply_id INT,
+  requested_qty INT,
+  adjusted_qty INT,
+  message VARCHAR(255),
+  log_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (supply_id) REFERENCES Supply(supply_id)
+);
+
+-- search indexes (section 1b)
+CREATE INDEX idx_person_name ON Person(name);
+CREATE INDEX idx_person_phone ON Person(phone);
+CREATE INDEX idx_victim_family ON Victim(family_id);
+CREATE INDEX idx_victim_status ON Victim(status);
+CREATE INDEX idx_camp_name ON Camp(name);
+CREATE INDEX idx_camp_location ON Camp(location);
+CREATE INDEX idx_supply_name ON Supply(name);
+CREATE INDEX idx_movement_moved_on ON Supply_Movement(moved_on);
+CREATE INDEX idx_donation_date ON Donation(date_received);
+CREATE INDEX idx_missing_status ON MissingPerson(status);
+CREATE INDEX idx_missing_reported ON MissingPerson(date_reported);
+CREATE INDEX idx_body_dna ON BodyIdentification(dna_sample_id);
+CREATE INDEX idx_team_agency ON RescueTeam(agency);
+CREATE INDEX idx_op_location ON RescueOperation(location);
+CREATE INDEX idx_op_start ON RescueOperation(start_time);
+CREATE INDEX idx_audit_changed_on ON Supply_Audit(changed_on);
+CREATE INDEX idx_activity_table_record ON Activity_Log(table_name, record_id);
+-- relief rounds (section 1d)
+CREATE UNIQUE INDEX uq_rehab_round ON RehabAllocation(victim_id, allocation_round);
+CREATE INDEX idx_vc_camp_open ON Victim_Camp(camp_id, date_released, victim_id);
@@ -0,0 +1,399 @@
+package wayanad;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.TableSpec;
+
+/**
+ * Headless HTTP/JSON API over {@link Records}, so camp tablets and field teams can read and write
+ * without a desktop client or database credentials of their own.
+ *
+ * Runs on the JDK's {@code com.sun.net.httpserver} with one virtual thread per exchange; JDBC work
+ * borrows from the shared {@link ConnectionPool}, whose {@code pool.maxSize} is the effective limit on
+ * concurrent queries. Connections are HTTP/1.1 keep-alive, so clients can pipeline requests.
+ *
+ * <pre>
+ * GET    /api/tables                       table and field metadata
+ * GET    /api/stats                        dashboard counters
+ * GET    /api/camps/occupancy              free capacity by location, near-full camps
+ * GET    /api/camps/nearest?k=&amp;minFree=     nearest camps with free places to an origin:
+ *                                          place=, lat=&amp;lon=, op= (RescueOperation) or missing= (MissingPerson)
+ * GET    /api/camps/within?km=&amp;minFree=     camps within a radius of the same origins, with total free places
+ * GET    /api/metrics                      query latency, pool and error metrics (Prometheus text format)
+ * GET    /api/{table}?after=&amp;limit=         rows in key order; "next" is the cursor for the next page
+ * GET    /api/{table}?q=term&amp;limit=         indexed search (same syntax as the table viewer)
+ * GET    /api/{table}/{id}                 one row
+ *                                          (Camp, RescueOperation, MissingPerson: with latitude/longitude of the place)
+ * POST   /api/{table}                      insert a JSON object; returns the new id
+ *                                          (Supply_Movement: group-committed by {@link SupplyDispatchService},
+ *                                          also returns requested/dispatched/remaining)
+ * PUT    /api/{table}/{id}                 update the fields present in the JSON object
+ * DELETE /api/{table}/{id}
+ * </pre>
+ * When {@code api.token} is set every request must carry {@code Authorization: Bearer <token>}.
+ *
+ * Start with {@code java -cp <classpath> wayanad.ApiServer}; settings come from {@link DbConfig}.
+ */
+final class ApiServer {
+
+    private static final int MAX_BODY = 1 << 20;
+
+    private final HttpServer server;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final byte[] token;
+    private final int maxPage;
+
+    ApiServer(String host, int port, DbConfig cfg) throws IOException {
+        String t = cfg.str("api.token", "");
+        this.token = t.isBlank() ? null : t.getBytes(StandardCharsets.UTF_8);
+        this.maxPage = Math.max(1, cfg.integer("api.maxPage", 1_000));
+        server = HttpServer.create(new InetSocketAddress(host, port), cfg.integer("api.backlog", 1_024));
+        server.createContext("/api/", this::handle);
+        server.setExecutor(workers);
+    }
+
+    void start() { server.start(); }
+
+    void stop(int delaySec) {
+        server.stop(delaySec);
+        workers.close();
+    }
+
+    InetSocketAddress address() { return server.getAddress(); }
+
+    public static void main(String[] args) throws Exception {
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        DbConfig cfg = DbConfig.get();
+        ApiServer api = new ApiServer(cfg.str("api.host", "127.0.0.1"), cfg.integer("api.port", 8080), cfg);
+        api.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> api.stop(1), "wayanad-api-shutdown"));
+        System.out.println("Wayanad API listening on http://" + api.address().getHostString() + ":" + api.address().getPort() + "/api/"
+                + (api.token == null ? "  (no api.token set: requests are not authenticated)" : ""));
+    }
+
+    // ---------- ROUTING ----------
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!authorized(ex)) { send(ex, 401, Map.of("error", "Missing or invalid bearer token")); return; }
+            String[] path = ex.getRequestURI().getPath().substring("/api/".length()).split("/");
+            String method = ex.getRequestMethod();
+            Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+            QueryMetrics.Scope label = QueryMetrics.label("api");
+            try {
+                if (path.length == 1 && path[0].equals("metrics") && method.equals("GET")) { QueryMetrics.respond(ex); return; }
+                if (path.length == 1 && path[0].equals("tables") && method.equals("GET")) { send(ex, 200, tables()); return; }
+                if (path.length == 1 && path[0].equals("stats") && method.equals("GET")) { send(ex, 200, stats()); return; }
+                if (path.length == 2 && path[0].equals("camps") && path[1].equals("occupancy") && method.equals("GET")) { send(ex, 200, occupancy()); return; }
+                if (path.length == 2 && path[0].equals("camps") && path[1].equals("nearest") && method.equals("GET")) { send(ex, 200, nearest(query, false)); return; }
+                if (path.length == 2 && path[0].equals("camps") && path[1].equals("within") && method.equals("GET")) { send(ex, 200, nearest(query, true)); return; }
+
+                TableSpec spec = path.length >= 1 && Schema.TABLES.contains(path[0]) ? Schema.spec(path[0]) : null;
+                if (spec == null || path.length > 2) { send(ex, 404, Map.of("error", "Unknown resource")); return; }
+                Long id = path.length == 2 ? key(path[1]) : null;
+                boolean write = !method.equals("GET");
+                if (write && spec.readOnly) { send(ex, 405, Map.of("error", spec.table + " is read-only")); return; }
+
+                switch (method + (id == null ? "" : " id")) {
+                    case "GET" -> list(ex, spec, query);
+                    case "GET id" -> {
+                        Map<String, Object> row;
+                        try (Connection con = ConnectionPool.shared().getConnection()) { row = Records.get(con, spec, id); }
+                        if (row == null) { send(ex, 404, Map.of("error", "No " + spec.table + " with " + spec.pk + "=" + id)); return; }
+                        GeoIndex.annotate(spec.table, row);
+                        send(ex, 200, row);
+                    }
+                    case "POST" -> {
+                        if (spec.table.equals("Supply_Movement") && DbConfig.get().bool("dispatch.enabled", true)) { send(ex, 201, dispatch(ex, spec)); return; }
+                        Map<String, Object> body = body(ex);
+                        List<FieldSpec> fields = new ArrayList<>();
+                        List<Object> values = new ArrayList<>();
+                        for (FieldSpec f : Records.insertable(spec)) {
+                            if (body.containsKey(f.name)) { fields.add(f); values.add(Records.parse(f, text(body.get(f.name)), f.nullable)); }
+                            else if (!f.nullable) throw new IllegalArgumentException(f.label + " (" + f.name + ") is required");
+                        }
+                        checkKnown(body.keySet(), fields, spec);
+                        Object pk;
+                        try (Connection con = ConnectionPool.shared().getConnection()) { pk = Records.insert(con, spec, fields, values); }
+                        send(ex, 201, Collections.singletonMap("id", pk));
+                    }
+                    case "PUT id" -> {
+                        Map<String, Object> body = body(ex);
+                        List<FieldSpec> fields = new ArrayList<>();
+                        List<Object> values = new ArrayList<>();
+                        for (FieldSpec f : Records.updatable(spec)) {
+                            if (body.containsKey(f.name)) { fields.add(f); values.add(Records.parse(f, text(body.get(f.name)), f.nullable)); }
+                        }
+                        checkKnown(body.keySet(), fields, spec);
+                        if (fields.isEmpty()) throw new IllegalArgumentException("Nothing to update");
+                        int n;
+                        try (Connection con = ConnectionPool.shared().getConnection()) { n = Records.update(con, spec, id, fields, values); }
+                        send(ex, n == 0 ? 404 : 200, Map.of("updated", n));
+                    }
+                    case "DELETE id" -> {
+                        int n;
+                        try (Connection con = ConnectionPool.shared().getConnection()) { n = Records.delete(con, spec, id); }
+                        send(ex, n == 0 ? 404 : 200, Map.of("deleted", n));
+                    }
+                    default -> send(ex, 405, Map.of("error", "Method not allowed"));
+                }
+            } catch (IllegalArgumentException e) {
+                send(ex, 400, Map.of("error", String.valueOf(e.getMessage())));
+            } catch (SQLTransientException e) {
+                send(ex, 503, Map.of("error", "Database busy, retry later"));
+            } catch (SQLException e) {
+                String state = e.getSQLState() == null ? "" : e.getSQLState();
+                int status = state.startsWith("23") ? 409 : state.equals("45000") || state.startsWith("22") ? 400 : 500;
+                if (status == 500) System.err.println("[api] " + ex.getRequestMethod() + " " + ex.getRequestURI() + ": " + e);
+                send(ex, status, Map.of("error", String.valueOf(e.getMessage())));
+            } catch (RuntimeException e) {
+                System.err.println("[api] " + ex.getRequestMethod() + " " + ex.getRequestURI() + ": " + e);
+                send(ex, 500, Map.of("error", "Internal error"));
+            } finally {
+                label.close();
+            }
+        }
+    }
+
+    private void list(HttpExchange ex, TableSpec spec, Map<String, String> query) throws IOException, SQLException {
+        int limit = Math.min(maxPage, Math.max(1, intParam(query, "limit", 100)));
+        String q = query.get("q");
+        List<Map<String, Object>> rows;
+        Map<String, Object> out = new LinkedHashMap<>();
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            if (q != null && !q.isBlank()) {
+                rows = Records.search(con, spec, q, limit);
+            } else {
+                String after = query.get("after");
+                rows = Records.page(con, spec, after == null || after.isBlank() ? null : key(after), limit);
+                Object next = null;
+                if (rows.size() == limit)
+                    for (Map.Entry<String, Object> e : rows.get(rows.size() - 1).entrySet())
+                        if (e.getKey().equalsIgnoreCase(spec.pk)) next = e.getValue();
+                out.put("next", next);
+            }
+        }
+        for (Map<String, Object> row : rows) GeoIndex.annotate(spec.table, row);
+        out.put("count", rows.size());
+        out.put("rows", rows);
+        send(ex, 200, out);
+    }
+
+    // ---------- RESOURCES ----------
+    private static List<Map<String, Object>> tables() {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (String t : Schema.TABLES) {
+            TableSpec spec = Schema.spec(t);
+            List<Map<String, Object>> fields = new ArrayList<>();
+            for (FieldSpec f : spec.fields) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("name", f.name); m.put("label", f.label); m.put("type", f.type.name());
+                m.put("nullable", f.nullable); m.put("readOnly", f.readonly);
+                if (f.enumCSV != null) m.put("values", f.enumCSV.split("\\s*,\\s*"));
+                fields.add(m);
+            }
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("table", spec.table); m.put("pk", spec.pk); m.put("readOnly", spec.readOnly); m.put("fields", fields);
+            out.add(m);
+        }
+        return out;
+    }
+
+    private static Map<String, Object> stats() {
+        Statistics s = Statistics.shared();
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Statistics.Counter c : Statistics.Counter.values()) out.put(c.table, s.get(c) < 0 ? null : s.get(c));
+        out.put("reconciledAt", s.refreshedAt() == 0 ? null : new Date(s.refreshedAt()).toInstant().toString());
+        return out;
+    }
+
+    private static Map<String, Object> occupancy() {
+        CampOccupancy o = CampOccupancy.shared();
+        List<Map<String, Object>> locations = new ArrayList<>();
+        for (CampOccupancy.LocationSummary l : o.byLocation())
+            locations.add(Map.of("location", l.location(), "camps", l.camps(), "capacity", l.capacity(), "occupancy", l.occupancy(), "free", l.free()));
+        List<Map<String, Object>> nearFull = new ArrayList<>();
+        for (CampOccupancy.Camp c : o.nearFull(DbConfig.get().integer("occupancy.nearFullPct", 90))) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("camp_id", c.id); m.put("name", c.name); m.put("location", c.location);
+            m.put("occupancy", c.occupancy.get()); m.put("capacity", c.capacity); m.put("percentFull", c.percentFull());
+            nearFull.add(m);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("locations", locations);
+        out.put("nearFull", nearFull);
+        return out;
+    }
+
+    // k nearest camps, or all within km, with at least minFree free places (default 1: full camps are left out)
+    private static Map<String, Object> nearest(Map<String, String> query, boolean radius) throws SQLException {
+        String place = origin(query);
+        GeoIndex.Point from;
+        if (query.containsKey("lat") || query.containsKey("lon")) {
+            try { from = new GeoIndex.Point(Double.parseDouble(query.getOrDefault("lat", "")), Double.parseDouble(query.getOrDefault("lon", ""))); }
+            catch (NumberFormatException e) { throw new IllegalArgumentException("lat and lon must both be numbers"); }
+        } else {
+            if (place == null) throw new IllegalArgumentException("Give place=, lat=&lon=, op= or missing=");
+            from = GeoIndex.locate(place);
+            if (from == null) throw new IllegalArgumentException("Unknown place: " + place);
+        }
+        int minFree = intParam(query, "minFree", 1);
+        GeoIndex geo = GeoIndex.shared();
+        List<GeoIndex.Nearby> found;
+        double km = 0;
+        if (radius) {
+            try { km = Double.parseDouble(query.getOrDefault("km", "10")); }
+            catch (NumberFormatException e) { throw new IllegalArgumentException("Invalid km: " + query.get("km")); }
+            found = geo.within(from, km, minFree);
+        } else {
+            found = geo.nearest(from, Math.min(maxNearest(), Math.max(1, intParam(query, "k", 5))), minFree);
+        }
+        List<Map<String, Object>> camps = new ArrayList<>();
+        long free = 0;
+        for (GeoIndex.Nearby n : found) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("camp_id", n.camp().id); m.put("name", n.camp().name); m.put("location", n.camp().location);
+            m.put("latitude", n.at().lat()); m.put("longitude", n.at().lon());
+            m.put("km", Math.round(n.km() * 100) / 100.0); m.put("free", n.free()); m.put("capacity", n.camp().capacity);
+            camps.add(m);
+            free += n.free();
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (place != null) out.put("place", place);
+        out.put("latitude", from.lat()); out.put("longitude", from.lon());
+        if (radius) { out.put("km", km); out.put("free", free); }
+        out.put("camps", camps);
+        if (!geo.unlocated().isEmpty()) out.put("unlocatedCamps", geo.unlocated());
+        return out;
+    }
+
+    private static int maxNearest() { return DbConfig.get().integer("geo.maxNearest", 50); }
+
+    // the place text named by place=, or by the location of the operation (op=) or missing person (missing=)
+    private static String origin(Map<String, String> query) throws SQLException {
+        if (query.get("place") != null && !query.get("place").isBlank()) return query.get("place").trim();
+        String table = query.containsKey("op") ? "RescueOperation" : query.containsKey("missing") ? "MissingPerson" : null;
+        if (table == null) return null;
+        TableSpec spec = Schema.spec(table);
+        Long id = key(query.get(table.equals("RescueOperation") ? "op" : "missing"));
+        Map<String, Object> row;
+        try (Connection con = ConnectionPool.shared().getConnection()) { row = Records.get(con, spec, id); }
+        if (row == null) throw new IllegalArgumentException("No " + table + " with " + spec.pk + "=" + id);
+        String col = GeoIndex.locationColumn(table);
+        for (Map.Entry<String, Object> e : row.entrySet())
+            if (e.getKey().equalsIgnoreCase(col) && e.getValue() != null) return e.getValue().toString();
+        throw new IllegalArgumentException(table + " " + id + " has no location");
+    }
+
+    private static Map<String, Object> dispatch(HttpExchange ex, TableSpec spec) throws IOException, SQLException {
+        Map<String, Object> body = body(ex), v = new HashMap<>();
+        List<FieldSpec> fields = new ArrayList<>();
+        for (FieldSpec f : Records.insertable(spec)) {
+            if (body.containsKey(f.name)) { fields.add(f); v.put(f.name, Records.parse(f, text(body.get(f.name)), f.nullable)); }
+            else if (!f.nullable) throw new IllegalArgumentException(f.label + " (" + f.name + ") is required");
+        }
+        checkKnown(body.keySet(), fields, spec);
+        if (!(v.get("supply_id") instanceof Number supply)) throw new IllegalArgumentException("supply_id is required");
+        SupplyDispatchService.Request r = new SupplyDispatchService.Request(supply.intValue(),
+                v.get("qty") instanceof Number q ? q.intValue() : null, (String) v.get("from_location"),
+                v.get("to_camp_id") instanceof Number c ? c.intValue() : null,
+                v.get("moved_on") instanceof String t ? java.sql.Timestamp.valueOf(t) : null);
+        SupplyDispatchService.Dispatch d;
+        try {
+            d = SupplyDispatchService.shared().dispatch(r).join();
+        } catch (java.util.concurrent.CompletionException e) {
+            if (e.getCause() instanceof SQLException se) throw se;
+            throw e;
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", d.moveId()); out.put("requested", d.requested()); out.put("dispatched", d.dispatched());
+        out.put("remaining", d.remaining());
+        return out;
+    }
+
+    // ---------- HELPERS ----------
+    private boolean authorized(HttpExchange ex) {
+        if (token == null) return true;
+        String h = ex.getRequestHeaders().getFirst("Authorization");
+        if (h == null || !h.startsWith("Bearer ")) return false;
+        return MessageDigest.isEqual(token, h.substring(7).trim().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) { out.write(bytes); }
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        byte[] bytes;
+        try (InputStream in = ex.getRequestBody()) { bytes = in.readNBytes(MAX_BODY + 1); }
+        if (bytes.length > MAX_BODY) throw new IllegalArgumentException("Request body too large");
+        Object v = Json.parse(new String(bytes, StandardCharsets.UTF_8));
+        if (!(v instanceof Map<?, ?> m)) throw new IllegalArgumentException("Expected a JSON object");
+        Map<String, Object> out = new LinkedHashMap<>();
+        m.forEach((k, val) -> out.put(String.valueOf(k), val));
+        return out;
+    }
+
+    /** JSON value → the text form {@link Records#parse} validates. */
+    private static String text(Object v) {
+        return switch (v) {
+            case null -> "";
+            case BigDecimal d -> d.toPlainString();
+            case String s -> s;
+            case Boolean b -> b.toString();
+            default -> throw new IllegalArgumentException("Expected a scalar value, got " + Json.write(v));
+        };
+    }
+
+    private static void checkKnown(Set<String> keys, List<FieldSpec> used, TableSpec spec) {
+        for (String k : keys) {
+            boolean ok = false;
+            for (FieldSpec f : used) if (f.name.equals(k)) { ok = true; break; }
+            if (!ok) throw new IllegalArgumentException(Records.field(spec, k) == null
+                    ? "Unknown field '" + k + "'" : "Field '" + k + "' cannot be written");
+        }
+    }
+
+    private static Long key(String s) {
+        try { return Long.valueOf(s); }
+        catch (NumberFormatException e) { throw new IllegalArgumentException("Invalid id: " + s); }
+    }
+
+    private static int intParam(Map<String, String> q, String name, int def) {
+        String v = q.get(name);
+        if (v == null || v.isBlank()) return def;
+        try { return Integer.parseInt(v.trim()); }
+        catch (NumberFormatException e) { throw new IllegalArgumentException("Invalid " + name + ": " + v); }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null) return out;
+        for (String part : raw.split("&")) {
+            int eq = part.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? part : part.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(part.substring(eq + 1), StandardCharsets.UTF_8);
+            out.put(k, v);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,286 @@
+package wayanad;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.*;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.TableSpec;
+
+/**
+ * Batched CSV import for the tables described by {@link TableSpec}.
+ *
+ * The file is parsed as a stream (one row in memory at a time plus the current batch). The header row is
+ * matched against field names or labels; every value is checked against its {@link FieldSpec} type and
+ * nullability before it reaches MySQL, and bad rows go to {@code <file>.rejects.csv} with the reason.
+ * Valid rows are sent with {@code addBatch/executeBatch} and committed every {@code import.batchSize}
+ * rows. With {@code rewriteBatchedStatements=true} on the JDBC URL, Connector/J turns each batch into a
+ * multi-row INSERT; row-level triggers (trg_log_person_insert, trg_victim_camp_add, ...) still fire once
+ * per row. If the server rejects a batch for its data (SQLState class 22 or 23, or a trigger's 45000), it
+ * is rolled back and replayed row by row so only the offending rows are rejected. A deadlock or lock wait
+ * timeout rolls the batch back and retries it up to {@code import.retries} times; a lost link or any other
+ * error stops the import, keeping the batches already committed.
+ */
+final class BulkImporter {
+
+    record Result(long read, long inserted, long rejected, Path rejects, long millis) {
+        long rowsPerSecond() { return millis == 0 ? inserted : inserted * 1000 / millis; }
+    }
+
+    private record Row(long line, List<String> raw, List<Object> values) {}
+
+    private final TableSpec spec;
+    private final QueryExecutor.QueryTask<?> task;
+    private final int batchSize, retries;
+    private final Path rejectsFile;
+    private BufferedWriter rejects;
+    private List<String> header;
+    private long read, inserted, rejected;
+
+    private BulkImporter(TableSpec spec, QueryExecutor.QueryTask<?> task, Path file) {
+        this.spec = spec; this.task = task;
+        this.batchSize = Math.max(1, DbConfig.get().integer("import.batchSize", 1_000));
+        this.retries = Math.max(0, DbConfig.get().integer("import.retries", 3));
+        this.rejectsFile = file.resolveSibling(file.getFileName() + ".rejects.csv");
+    }
+
+    /** Imports {@code file} into {@code spec.table}; emits the running count of processed rows after each batch. */
+    static Result importCsv(Connection con, QueryExecutor.QueryTask<?> task, TableSpec spec, Path file)
+            throws SQLException, IOException {
+        if (spec.readOnly) throw new SQLException(spec.table + " is read-only.");
+        return new BulkImporter(spec, task, file).run(con, file);
+    }
+
+    private Result run(Connection con, Path file) throws SQLException, IOException {
+        long started = System.nanoTime();
+        try (CsvReader in = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            header = in.next();
+            if (header == null) throw new SQLException("The file is empty.");
+            int[] columnOf = mapColumns(header);
+            List<FieldSpec> fields = new ArrayList<>();
+            List<Integer> source = new ArrayList<>();
+            for (int i=0;i<spec.fields.size();i++) if (columnOf[i] >= 0) { fields.add(spec.fields.get(i)); source.add(columnOf[i]); }
+
+            boolean genKey = spec.pkAuto && fields.stream().noneMatch(f -> f.name.equals(spec.pk));
+            String sql = SqlTemplates.of(spec).insert(fields);
+
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = task.track(genKey
+                    ? con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : con.prepareStatement(sql))) {
+                List<Row> batch = new ArrayList<>(batchSize);
+                List<String> raw;
+                while (!task.isCancelled() && (raw = in.next()) != null) {
+                    read++;
+                    if (raw.size() == 1 && raw.get(0).isBlank()) continue; // trailing empty line
+                    List<Object> values = new ArrayList<>(fields.size());
+                    try {
+                        for (int i=0;i<fields.size();i++) {
+                            FieldSpec f = fields.get(i);
+                            int c = source.get(i);
+                            // an empty auto-increment key lets MySQL assign the id
+                            boolean optional = f.nullable || (f.name.equals(spec.pk) && spec.pkAuto);
+                            values.add(Records.parse(f, c < raw.size() ? raw.get(c) : "", optional));
+                        }
+                    } catch (IllegalArgumentException ex) {
+                        reject(in.line(), raw, ex.getMessage());
+                        continue;
+                    }
+                    batch.add(new Row(in.line(), raw, values));
+                    if (batch.size() == batchSize) { flush(con, ps, fields, batch, genKey); task.emit(inserted + rejected); }
+                }
+                if (task.isCancelled()) con.rollback();
+                else flush(con, ps, fields, batch, genKey);
+            } finally {
+                con.setAutoCommit(true);
+            }
+        } finally {
+            if (rejects != null) rejects.close();
+        }
+        return new Result(read, inserted, rejected, rejected > 0 ? rejectsFile : null, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Index of the CSV column feeding each spec field, or -1 (read-only fields are never imported). */
+    private int[] mapColumns(List<String> header) throws SQLException {
+        int[] columnOf = new int[spec.fields.size()];
+        for (int i=0;i<spec.fields.size();i++) {
+            FieldSpec f = spec.fields.get(i);
+            columnOf[i] = -1;
+            if (f.readonly) continue;
+            for (int c=0;c<header.size();c++) {
+                String h = header.get(c).trim();
+                if (h.equalsIgnoreCase(f.name) || h.equalsIgnoreCase(f.label)) { columnOf[i] = c; break; }
+            }
+            boolean required = !f.nullable && !(f.name.equals(spec.pk) && spec.pkAuto);
+            if (columnOf[i] < 0 && required) throw new SQLException("CSV has no column for required field '" + f.label + "' (" + f.name + ").");
+        }
+        return columnOf;
+    }
+
+    // ---------- WRITE ----------
+    private void flush(Connection con, PreparedStatement ps, List<FieldSpec> fields, List<Row> batch, boolean genKey)
+            throws SQLException, IOException {
+        if (batch.isEmpty()) return;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                insertBatch(con, ps, fields, batch, genKey);
+                break;
+            } catch (SQLException ex) {
+                con.rollback();
+                ps.clearBatch();
+                if (rowLevel(ex)) {
+                    replay(con, ps, fields, batch, genKey);
+                    break;
+                }
+                if (!transientFailure(ex) || attempt >= retries) throw stopped(batch, ex);
+                pause(attempt);
+            }
+        }
+        batch.clear();
+    }
+
+    private void insertBatch(Connection con, PreparedStatement ps, List<FieldSpec> fields, List<Row> batch, boolean genKey)
+            throws SQLException {
+        Object[] keys = new Object[batch.size()];
+        for (Row r : batch) { Records.bindParams(ps, fields, r.values()); ps.addBatch(); }
+        ps.executeBatch();
+        if (genKey) try (ResultSet k = ps.getGeneratedKeys()) {
+            for (int i=0;i<keys.length && k.next();i++) keys[i] = k.getObject(1);
+        }
+        con.commit();
+        inserted += batch.size();
+        for (int i=0;i<keys.length;i++) publish(fields, batch.get(i), keys[i]);
+    }
+
+    // find the offending rows: replay the rolled-back batch one row per transaction
+    private void replay(Connection con, PreparedStatement ps, List<FieldSpec> fields, List<Row> batch, boolean genKey)
+            throws SQLException, IOException {
+        for (int i=0;i<batch.size();i++) {
+            Row r = batch.get(i);
+            try {
+                Records.bindParams(ps, fields, r.values());
+                ps.executeUpdate();
+                Object key = null;
+                if (genKey) try (ResultSet k = ps.getGeneratedKeys()) { if (k.next()) key = k.getObject(1); }
+                con.commit();
+                inserted++;
+                publish(fields, r, key);
+            } catch (SQLException rowEx) {
+                con.rollback();
+                if (!rowLevel(rowEx)) throw stopped(batch.subList(i, batch.size()), rowEx);
+                reject(r.line(), r.raw(), rowEx.getMessage());
+            }
+        }
+    }
+
+    /** The row's own data is at fault: SQLState class 22 (data) or 23 (constraint), or a trigger's SIGNAL 45000. */
+    private static boolean rowLevel(SQLException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLIntegrityConstraintViolationException || t instanceof SQLDataException) return true;
+            String state = t instanceof SQLException e ? e.getSQLState() : null;
+            if (state != null && (state.startsWith("22") || state.startsWith("23") || state.equals("45000"))) return true;
+        }
+        return ex.getNextException() != null && rowLevel(ex.getNextException());
+    }
+
+    // deadlock or lock wait timeout (40001, transient): the batch can simply run again; a lost link cannot
+    private static boolean transientFailure(SQLException ex) {
+        boolean retry = false;
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLNonTransientConnectionException || t instanceof SQLRecoverableException) return false;
+            String state = t instanceof SQLException e ? e.getSQLState() : null;
+            if (state != null && state.startsWith("08")) return false;
+            if (t instanceof SQLTransientException || "40001".equals(state)) retry = true;
+        }
+        return retry;
+    }
+
+    private SQLException stopped(List<Row> unsent, SQLException cause) {
+        return new SQLException("Import stopped at line " + unsent.get(0).line() + " after " + inserted + " row(s) were saved ("
+                + rejected + " rejected); the rest of the file was not imported: " + cause.getMessage(), cause.getSQLState(), cause);
+    }
+
+    private static void pause(int attempt) throws SQLException {
+        try {
+            Thread.sleep(200L << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying the import", e);
+        }
+    }
+
+    private void publish(List<FieldSpec> fields, Row r, Object key) {
+        DataEvents.publish(Records.rowChange(spec, DataEvents.Op.INSERT, key, fields, r.values()));
+    }
+
+    private void reject(long line, List<String> raw, String reason) throws IOException {
+        rejected++;
+        if (rejects == null) {
+            rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8);
+            rejects.write("line,error");
+            for (String h : header) { rejects.write(','); RowStream.writeCsv(rejects, h); }
+            rejects.write("\r\n");
+        }
+        rejects.write(Long.toString(line)); rejects.write(',');
+        RowStream.writeCsv(rejects, reason);
+        for (String v : raw) { rejects.write(','); RowStream.writeCsv(rejects, v); }
+        rejects.write("\r\n");
+    }
+
+    // ---------- CSV ----------
+    /** RFC 4180 reader: quoted fields, doubled quotes, embedded line breaks; strips a UTF-8 BOM. */
+    static final class CsvReader implements Closeable {
+        private final Reader in;
+        private long line, nextLine = 1;
+        private int peek = -2;
+
+        CsvReader(Reader in) { this.in = in; }
+
+        /** Physical line on which the last returned record started. */
+        long line() { return line; }
+
+        List<String> next() throws IOException {
+            int ch = read();
+            if (ch == -1) return null;
+            if (ch == '\uFEFF' && nextLine == 1) ch = read();
+            line = nextLine;
+            List<String> out = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (ch == -1) throw new IOException("Unterminated quoted field starting on line " + line);
+                    if (ch == '"') {
+                        int n = read();
+                        if (n == '"') sb.append('"');
+                        else { quoted = false; ch = n; continue; }
+                    } else {
+                        if (ch == '\n') nextLine++;
+                        sb.append((char) ch);
+                    }
+                } else if (ch == '"' && sb.isEmpty()) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    out.add(sb.toString()); sb.setLength(0);
+                } else if (ch == '\r' || ch == '\n' || ch == -1) {
+                    if (ch == '\r') { int n = read(); if (n != '\n') peek = n; }
+                    if (ch != -1) nextLine++;
+                    out.add(sb.toString());
+                    return out;
+                } else {
+                    sb.append((char) ch);
+                }
+                ch = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (peek != -2) { int p = peek; peek = -2; return p; }
+            return in.read();
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+}
@@ -0,0 +1,183 @@
+package wayanad;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live camp → (capacity, occupancy) index for the occupancy board.
+ *
+ * Every camp has its own {@link AtomicInteger}, so admissions to different camps never contend and
+ * an admission is a single CAS, clamped to capacity exactly like {@code trg_victim_camp_add}. The index
+ * follows {@link DataEvents}: a Victim_Camp insert adds one immediately; releases, moves and deletes
+ * (whose old values the event does not carry) and Camp edits trigger a coalesced reconcile. The whole
+ * index is also reconciled against {@code Camp.current_occupancy} every {@code occupancy.reconcileSec}
+ * seconds, which picks up admissions made by other clients. Readers never touch MySQL.
+ */
+final class CampOccupancy {
+
+    /** Per-camp slot; name/location/capacity change only on reconcile or Camp edits. */
+    static final class Camp {
+        final int id;
+        volatile String name, location;
+        volatile int capacity;
+        final AtomicInteger occupancy = new AtomicInteger();
+
+        Camp(int id) { this.id = id; }
+
+        int free() { return Math.max(0, capacity - occupancy.get()); }
+        /** Occupancy as a percentage of capacity (100 for camps without a capacity but with people). */
+        int percentFull() {
+            int cap = capacity, occ = occupancy.get();
+            return cap <= 0 ? (occ > 0 ? 100 : 0) : (int) Math.min(100L, occ * 100L / cap);
+        }
+    }
+
+    /** Totals for one location on the board. */
+    record LocationSummary(String location, int camps, long capacity, long occupancy) {
+        long free() { return Math.max(0, capacity - occupancy); }
+    }
+
+    private static volatile CampOccupancy shared;
+
+    static CampOccupancy shared() {
+        CampOccupancy o = shared;
+        if (o == null) {
+            synchronized (CampOccupancy.class) {
+                if (shared == null) {
+                    shared = new CampOccupancy(Math.max(5, DbConfig.get().integer("occupancy.reconcileSec", 30)));
+                    DataEvents.subscribe(shared::onRowChanged);
+                    // changes made elsewhere carry no values: re-read the counts
+                    ChangeFeed.subscribe(cs -> { if (cs.stream().anyMatch(c -> "Camp".equalsIgnoreCase(c.table()) || "Victim_Camp".equalsIgnoreCase(c.table()))) shared.requestReconcile(); });
+                }
+                o = shared;
+            }
+        }
+        return o;
+    }
+
+    private final Map<Integer, Camp> camps = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong layout = new AtomicLong();     // camps added/removed, renamed or moved (GeoIndex)
+    private final AtomicBoolean reconcilePending = new AtomicBoolean();
+    private final ScheduledExecutorService timer;
+    private volatile long reconciledAt;
+    private volatile String lastError;
+
+    private CampOccupancy(int reconcileSec) {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-occupancy"); t.setDaemon(true); return t;
+        });
+        timer.scheduleWithFixedDelay(this::reconcileQuietly, 0, reconcileSec, TimeUnit.SECONDS);
+    }
+
+    /** Bumped on every change; the board redraws only when it moves. */
+    long version() { return version.get(); }
+    long reconciledAt() { return reconciledAt; }
+    /** Changes when camps are added or removed or their name or location changes; not on admissions. */
+    long layoutVersion() { return layout.get(); }
+    String lastError() { return lastError; }
+
+    Collection<Camp> camps() { return Collections.unmodifiableCollection(camps.values()); }
+
+    /** Camps at or above {@code percent} full, fullest first. */
+    List<Camp> nearFull(int percent) {
+        List<Camp> out = new ArrayList<>();
+        for (Camp c : camps.values()) if (c.percentFull() >= percent) out.add(c);
+        out.sort(Comparator.comparingInt(Camp::percentFull).reversed().thenComparingInt(Camp::free));
+        return out;
+    }
+
+    /** Capacity and occupancy per location, most free places first. */
+    List<LocationSummary> byLocation() {
+        Map<String, long[]> acc = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Camp c : camps.values()) {
+            long[] a = acc.computeIfAbsent(c.location == null || c.location.isBlank() ? "(unknown)" : c.location.trim(), k -> new long[3]);
+            a[0]++; a[1] += Math.max(0, c.capacity); a[2] += c.occupancy.get();
+        }
+        List<LocationSummary> out = new ArrayList<>(acc.size());
+        acc.forEach((loc, a) -> out.add(new LocationSummary(loc, (int) a[0], a[1], a[2])));
+        out.sort(Comparator.comparingLong(LocationSummary::free).reversed());
+        return out;
+    }
+
+    // ---------- INCREMENTAL ----------
+    private void onRowChanged(DataEvents.RowChange c) {
+        if ("Victim_Camp".equalsIgnoreCase(c.table())) {
+            if (c.op() == DataEvents.Op.INSERT && c.get("camp_id") instanceof Number id) {
+                Camp camp = camps.get(id.intValue());
+                if (camp == null) { requestReconcile(); return; }
+                // same rule as trg_victim_camp_add: LEAST(current_occupancy + 1, capacity)
+                camp.occupancy.updateAndGet(v -> Math.min(v + 1, Math.max(camp.capacity, v)));
+                version.incrementAndGet();
+            } else {
+                requestReconcile();
+            }
+        } else if ("Camp".equalsIgnoreCase(c.table())) {
+            if (c.op() == DataEvents.Op.DELETE && c.pk() instanceof Number id) {
+                camps.remove(id.intValue());
+                version.incrementAndGet();
+                layout.incrementAndGet();
+            } else if (c.pk() instanceof Number id) {
+                Camp camp = camps.computeIfAbsent(id.intValue(), Camp::new);
+                if (c.has("name")) camp.name = (String) c.get("name");
+                if (c.has("location")) camp.location = (String) c.get("location");
+                if (c.has("capacity")) camp.capacity = c.get("capacity") instanceof Number n ? n.intValue() : 0;
+                version.incrementAndGet();
+                layout.incrementAndGet();
+            } else {
+                requestReconcile();
+            }
+        }
+    }
+
+    /** Schedules one reconcile shortly; further requests until it runs are folded into it. */
+    void requestReconcile() {
+        if (reconcilePending.compareAndSet(false, true)) timer.schedule(this::reconcileQuietly, 500, TimeUnit.MILLISECONDS);
+    }
+
+    // ---------- RECONCILE ----------
+    void reconcile() throws SQLException {
+        reconcilePending.set(false);
+        Set<Integer> seen = new HashSet<>();
+        QueryMetrics.Scope label = QueryMetrics.label("occupancy");
+        try (Connection con = ConnectionPool.shared().getConnection(); Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT camp_id, name, location, capacity, current_occupancy FROM Camp")) {
+            boolean moved = false;
+            while (rs.next()) {
+                Camp camp = camps.get(rs.getInt(1));
+                if (camp == null) { camp = camps.computeIfAbsent(rs.getInt(1), Camp::new); moved = true; }
+                moved |= !Objects.equals(camp.name, rs.getString(2)) || !Objects.equals(camp.location, rs.getString(3));
+                camp.name = rs.getString(2);
+                camp.location = rs.getString(3);
+                camp.capacity = rs.getInt(4);
+                camp.occupancy.set(rs.getInt(5));
+                seen.add(camp.id);
+            }
+            if (camps.keySet().retainAll(seen) || moved) layout.incrementAndGet();
+        } finally {
+            label.close();
+        }
+        reconciledAt = System.currentTimeMillis();
+        lastError = null;
+        version.incrementAndGet();
+    }
+
+    private void reconcileQuietly() {
+        try { reconcile(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            version.incrementAndGet();
+            System.err.println("[occupancy] reconcile failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package wayanad;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row changes made by anyone (other desktops, the API, procedures), tailed from {@code Activity_Log}.
+ *
+ * The change-capture triggers in {@code script mini.sql} (3.7) log every insert/update/delete on the
+ * managed tables. One background thread reads the log by {@code log_id} every {@code changes.pollMs}
+ * ({@code WHERE log_id > ?}, a primary-key range scan) and hands each batch, coalesced per row, to the
+ * subscribers: open grids ({@link PagedTableModel}), {@link FkLookup}, {@link LocalReplica} and
+ * {@link CampOccupancy}. Unlike {@link DataEvents} a change carries only the key, and the app's own writes
+ * come back through here as well, so listeners must be idempotent.
+ *
+ * Auto-increment ids can commit out of order; an id missing below the newest one is waited for up to
+ * {@code changes.gapWaitMs} before the feed moves past it.
+ *
+ * Retention is off unless {@code changes.keepDays} is set, as Activity_Log is also the audit trail. When on,
+ * the feed records its cursor in {@code ChangeFeed_Cursor} every minute, and once an hour it deletes log rows
+ * older than {@code changes.keepDays} that every client seen within that time has read past,
+ * {@code changes.pruneChunk} rows per statement (as {@link WriteJournal} prunes Journal_Applied).
+ */
+final class ChangeFeed {
+
+    /** {@code logId} is the newest log entry folded into this change. */
+    record Change(long logId, String table, DataEvents.Op op, long pk) {}
+
+    @FunctionalInterface
+    interface Listener { void changed(List<Change> changes); }
+
+    private static final int MAX_GAPS = 1_000;
+    private static final String CURSOR_DDL = "CREATE TABLE IF NOT EXISTS ChangeFeed_Cursor ("
+            + "client_id CHAR(36) PRIMARY KEY, log_id INT NOT NULL, seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile ChangeFeed shared;
+
+    static boolean enabled() { return DbConfig.get().bool("changes.enabled", true); }
+
+    /** Starts tailing (once); does nothing with {@code changes.enabled=false}. */
+    static void start() {
+        if (shared != null || !enabled()) return;
+        synchronized (ChangeFeed.class) {
+            if (shared == null) shared = new ChangeFeed(DbConfig.get());
+        }
+    }
+
+    static void subscribe(Listener l) { LISTENERS.add(l); }
+    static void unsubscribe(Listener l) { LISTENERS.remove(l); }
+
+    /** Newest log id, read on {@code con}: changes up to it are already visible to reads made after this call. */
+    static long mark(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(log_id), 0) FROM Activity_Log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private final int batch, keepDays, pruneChunk;
+    private final long gapWaitMs;
+    private final String clientId = UUID.randomUUID().toString();
+    private long cursor = -1, maxSeen;                          // feed thread only
+    private long prunedAt;                                      // feed thread only
+    private boolean cursorTable;                                // feed thread only
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();   // missing id -> first noticed (ms)
+    private volatile String lastError;
+
+    private ChangeFeed(DbConfig cfg) {
+        this.batch = Math.max(100, cfg.integer("changes.batch", 5_000));
+        this.gapWaitMs = Math.max(0, cfg.longValue("changes.gapWaitMs", 3_000));
+        this.keepDays = cfg.integer("changes.keepDays", 0);
+        this.pruneChunk = Math.max(100, cfg.integer("changes.pruneChunk", 10_000));
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-changes"); t.setDaemon(true); return t;
+        });
+        long poll = Math.max(100, cfg.longValue("changes.pollMs", 1_000));
+        timer.scheduleWithFixedDelay(this::pollQuietly, 0, poll, TimeUnit.MILLISECONDS);
+        if (keepDays > 0) timer.scheduleWithFixedDelay(this::retainQuietly, 1, 1, TimeUnit.MINUTES);
+    }
+
+    // ---------- TAILING ----------
+    private void pollQuietly() {
+        try { poll(); }
+        catch (SQLException | RuntimeException e) {
+            if (!Objects.equals(e.getMessage(), lastError)) System.err.println("[changes] poll failed: " + e.getMessage());
+            lastError = e.getMessage();
+        }
+    }
+
+    private void poll() throws SQLException {
+        List<Change> read = new ArrayList<>();
+        QueryMetrics.Scope label = QueryMetrics.label("changes");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            if (cursor < 0) { cursor = maxSeen = mark(con); return; }   // start from now, not from history
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT log_id, table_name, action_type, record_id FROM Activity_Log WHERE log_id > ? ORDER BY log_id LIMIT ?")) {
+                ps.setLong(1, cursor);
+                ps.setInt(2, batch);
+                try (ResultSet rs = ps.executeQuery()) {
+                    long now = System.currentTimeMillis();
+                    while (rs.next()) {
+                        long id = rs.getLong(1);
+                        if (id <= maxSeen && gaps.remove(id) == null) continue;   // delivered on an earlier poll
+                        if (id > maxSeen) {
+                            if (id - maxSeen - 1 <= MAX_GAPS) for (long g = maxSeen + 1; g < id; g++) gaps.put(g, now);
+                            maxSeen = id;
+                        }
+                        String op = rs.getString(3);
+                        if (op == null || rs.getObject(4) == null) continue;
+                        read.add(new Change(id, rs.getString(2), DataEvents.Op.valueOf(op), rs.getLong(4)));
+                    }
+                }
+            }
+        } finally {
+            label.close();
+        }
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(seen -> now - seen > gapWaitMs);
+        cursor = gaps.isEmpty() ? maxSeen : gaps.firstKey() - 1;
+        lastError = null;
+        if (read.isEmpty()) return;
+
+        List<Change> changes = coalesce(read);
+        for (Listener l : LISTENERS) {
+            try { l.changed(changes); }
+            catch (RuntimeException e) { System.err.println("[changes] listener failed: " + e); }
+        }
+    }
+
+    // ---------- RETENTION ----------
+    private void retainQuietly() {
+        try { retain(); }
+        catch (SQLException | RuntimeException e) { System.err.println("[changes] retention failed: " + e.getMessage()); }
+    }
+
+    // Runs on the feed thread, so cursor is this client's current position.
+    private void retain() throws SQLException {
+        if (cursor < 0) return;
+        long now = System.currentTimeMillis();
+        Timestamp cutoff = new Timestamp(now - TimeUnit.DAYS.toMillis(keepDays));
+        QueryMetrics.Scope label = QueryMetrics.label("changes");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            if (!cursorTable) {
+                try (Statement st = con.createStatement()) { st.execute(CURSOR_DDL); }
+                cursorTable = true;
+            }
+            try (PreparedStatement up = con.prepareStatement("UPDATE ChangeFeed_Cursor SET log_id = ?, seen_at = CURRENT_TIMESTAMP WHERE client_id = ?")) {
+                up.setLong(1, cursor);
+                up.setString(2, clientId);
+                if (up.executeUpdate() == 0) {
+                    try (PreparedStatement ins = con.prepareStatement("INSERT INTO ChangeFeed_Cursor (client_id, log_id) VALUES (?, ?)")) {
+                        ins.setString(1, clientId);
+                        ins.setLong(2, cursor);
+                        ins.executeUpdate();
+                    }
+                }
+            }
+            if (now - prunedAt < TimeUnit.HOURS.toMillis(1)) return;
+            prunedAt = now;
+            // clients not seen within keepDays are gone (or will reload anyway); the rest hold the log back
+            try (PreparedStatement ps = con.prepareStatement("DELETE FROM ChangeFeed_Cursor WHERE seen_at < ?")) {
+                ps.setTimestamp(1, cutoff);
+                ps.executeUpdate();
+            }
+            long oldest = cursor;
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT MIN(log_id) FROM ChangeFeed_Cursor")) {
+                if (rs.next() && rs.getObject(1) != null) oldest = Math.min(oldest, rs.getLong(1));
+            }
+            try (PreparedStatement ps = con.prepareStatement(
+                    "DELETE FROM Activity_Log WHERE log_id <= ? AND action_timestamp < ? LIMIT ?")) {
+                ps.setLong(1, oldest);
+                ps.setTimestamp(2, cutoff);
+                ps.setInt(3, pruneChunk);
+                while (ps.executeUpdate() >= pruneChunk) { /* next chunk */ }
+            }
+        } finally {
+            label.close();
+        }
+    }
+
+    // One change per row: insert+update = insert, insert+delete = nothing, delete+insert = update.
+    private static List<Change> coalesce(List<Change> read) {
+        Map<String, Change> byRow = new LinkedHashMap<>();
+        for (Change c : read) {
+            String key = c.table() + "#" + c.pk();
+            Change prev = byRow.remove(key);
+            DataEvents.Op op = c.op();
+            if (prev != null) {
+                if (prev.op() == DataEvents.Op.INSERT && op == DataEvents.Op.DELETE) continue;
+                if (prev.op() == DataEvents.Op.INSERT) op = DataEvents.Op.INSERT;
+                else if (prev.op() == DataEvents.Op.DELETE && op == DataEvents.Op.INSERT) op = DataEvents.Op.UPDATE;
+            }
+            byRow.put(key, new Change(c.logId(), c.table(), op, c.pk()));
+        }
+        return new ArrayList<>(byRow.values());
+    }
+}
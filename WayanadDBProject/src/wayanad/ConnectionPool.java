@@ -0,0 +1,444 @@
+package wayanad;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used behind {@code WayanadDBApp.getConnection()}.
+ *
+ * - at most {@code pool.maxSize} physical connections; borrowers wait up to {@code pool.borrowTimeoutMs}
+ * - connections are validated on borrow when they sat idle longer than {@code pool.validateAfterMs}
+ * - a housekeeper evicts idle connections above {@code pool.minIdle}, retires connections older
+ *   than {@code pool.maxLifetimeMs} and reports borrows held longer than {@code pool.leakThresholdMs}
+ * - each physical connection keeps its last {@code pool.statementCache} prepared statements: closing one
+ *   returns it to the cache, and preparing the same SQL again on that connection hands it back without a
+ *   round trip (with {@code cachePrepStmts}/{@code useServerPrepStmts} on the URL the server keeps the plan too)
+ * - an SQLState 08 error from the connection, a statement or a result set retires the connection; after any
+ *   other error it is validated before it is handed out again
+ * - borrowers that change session state ({@code foreign_key_checks}, trigger switches) call
+ *   {@link #sessionChanged}, and the connection is put back to the defaults when it is returned
+ * - {@link #metrics()} gives a snapshot for diagnostics; statements are timed by {@link QueryMetrics}
+ *
+ * Callers keep the usual try-with-resources pattern: closing the handed-out connection
+ * returns it to the pool instead of closing the socket.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private static volatile ConnectionPool shared;
+
+    static ConnectionPool shared() {
+        ConnectionPool p = shared;
+        if (p == null) {
+            synchronized (ConnectionPool.class) {
+                if (shared == null) {
+                    shared = new ConnectionPool(DbConfig.get());
+                    Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "wayanad-pool-shutdown"));
+                }
+                p = shared;
+            }
+        }
+        return p;
+    }
+
+    // ---------- CONFIG ----------
+    final String url, user, password;
+    final boolean mysql;
+    final int maxSize, minIdle, validationTimeoutSec, statementCache;
+    final long borrowTimeoutMs, idleTimeoutMs, maxLifetimeMs, leakThresholdMs, validateAfterMs;
+
+    // ---------- STATE ----------
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> all = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // ---------- METRICS ----------
+    private final AtomicLong borrows = new AtomicLong(), created = new AtomicLong(), destroyed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong(), validationFailures = new AtomicLong(), leaks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong(), maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong(), statementMisses = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    ConnectionPool(DbConfig cfg) {
+        this.url = cfg.url(); this.user = cfg.user(); this.password = cfg.password();
+        this.mysql = url.startsWith("jdbc:mysql:");
+        this.maxSize = Math.max(1, cfg.integer("pool.maxSize", 8));
+        this.minIdle = Math.min(maxSize, Math.max(0, cfg.integer("pool.minIdle", 1)));
+        this.borrowTimeoutMs = cfg.longValue("pool.borrowTimeoutMs", 10_000);
+        this.idleTimeoutMs = cfg.longValue("pool.idleTimeoutMs", 5 * 60_000);
+        this.maxLifetimeMs = cfg.longValue("pool.maxLifetimeMs", 30 * 60_000);
+        this.leakThresholdMs = cfg.longValue("pool.leakThresholdMs", 60_000);
+        this.validateAfterMs = cfg.longValue("pool.validateAfterMs", 500);
+        this.validationTimeoutSec = Math.max(1, cfg.integer("pool.validationTimeoutSec", 2));
+        this.statementCache = Math.max(0, cfg.integer("pool.statementCache", 64));
+        this.permits = new Semaphore(maxSize, true);
+
+        long period = Math.max(1_000, cfg.longValue("pool.housekeepingMs", 30_000));
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-pool-housekeeper"); t.setDaemon(true); return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // ---------- BORROW / RETURN ----------
+    Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("No database connection available within " + borrowTimeoutMs
+                        + " ms (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        try {
+            PooledConnection pc = takeValidIdle();
+            if (pc == null) pc = create();
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowSite = leakThresholdMs > 0 ? new Throwable("Connection borrowed here") : null;
+            long waited = System.nanoTime() - start;
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            QueryMetrics.recordPoolWait(waited);
+            borrows.incrementAndGet();
+            return pc.handOut();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pc;
+        long now = System.currentTimeMillis();
+        while ((pc = idle.pollFirst()) != null) {
+            if (pc.expired(now)) { destroy(pc); continue; }
+            if (now - pc.lastUsed > validateAfterMs && !pc.isValid()) {
+                validationFailures.incrementAndGet();
+                destroy(pc);
+                continue;
+            }
+            return pc;
+        }
+        return null;
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, user, password);
+        PooledConnection pc;
+        try { pc = new PooledConnection(raw); }
+        catch (SQLException | RuntimeException e) { raw.close(); throw e; }
+        all.add(pc);
+        created.incrementAndGet();
+        return pc;
+    }
+
+    private void release(PooledConnection pc) {
+        pc.borrowedAt = 0; pc.borrowSite = null;
+        pc.lastUsed = System.currentTimeMillis();
+        if (pc.suspect && !pc.broken && !pc.isValid()) { validationFailures.incrementAndGet(); pc.broken = true; }
+        pc.suspect = false;
+        boolean reusable = !closed && !pc.broken && !pc.expired(pc.lastUsed) && pc.reset();
+        if (reusable) idle.offerFirst(pc); // LIFO keeps hot connections hot, lets cold ones age out
+        else destroy(pc);
+        permits.release();
+    }
+
+    private void destroy(PooledConnection pc) {
+        if (all.remove(pc)) destroyed.incrementAndGet();
+        try { pc.raw.close(); } catch (SQLException ignore) {}
+    }
+
+    /**
+     * Notes that the borrower is about to change session state on {@code con} (a pooled connection): session
+     * variables such as {@code @wayanad_dispatch}/{@code @wayanad_restore}, {@code foreign_key_checks} or
+     * {@code unique_checks}, the isolation level, table locks. They are reset to the defaults when the connection
+     * is returned, whether or not the borrower's own reset ran, and a connection whose reset fails is closed
+     * rather than reused.
+     */
+    static void sessionChanged(Connection con) {
+        if (Proxy.isProxyClass(con.getClass()) && Proxy.getInvocationHandler(con) instanceof Handle h) h.pooled.sessionChanged = true;
+    }
+
+    // ---------- HOUSEKEEPING ----------
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            for (PooledConnection pc : idle) {
+                boolean surplus = all.size() > minIdle && now - pc.lastUsed > idleTimeoutMs;
+                if ((surplus || pc.expired(now)) && idle.remove(pc)) destroy(pc);
+            }
+            if (leakThresholdMs > 0) {
+                for (PooledConnection pc : all) {
+                    long at = pc.borrowedAt;
+                    if (at > 0 && now - at > leakThresholdMs && !pc.leakReported) {
+                        pc.leakReported = true;
+                        leaks.incrementAndGet();
+                        System.err.println("[pool] connection held for " + (now - at) + " ms – possible leak");
+                        Throwable site = pc.borrowSite;
+                        if (site != null) site.printStackTrace();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[pool] housekeeping failed: " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) destroy(pc);
+    }
+
+    // ---------- METRICS ----------
+    record Metrics(int total, int active, int idle, int waiting, int maxSize,
+                   long borrows, long created, long destroyed, long timeouts,
+                   long validationFailures, long leaks, double avgWaitMs, double maxWaitMs,
+                   long statementHits, long statementMisses) {
+        @Override public String toString() {
+            return String.format("pool %d/%d (active %d, idle %d, waiting %d) | borrows %d, created %d, destroyed %d, "
+                            + "timeouts %d, invalid %d, leaks %d | wait avg %.2f ms, max %.2f ms | statements cached %d, prepared %d",
+                    total, maxSize, active, idle, waiting, borrows, created, destroyed,
+                    timeouts, validationFailures, leaks, avgWaitMs, maxWaitMs, statementHits, statementMisses);
+        }
+    }
+
+    Metrics metrics() {
+        int total = all.size(), idleNow = idle.size();
+        long b = borrows.get();
+        return new Metrics(total, Math.max(0, total - idleNow), idleNow, waiting.get(), maxSize,
+                b, created.get(), destroyed.get(), timeouts.get(), validationFailures.get(), leaks.get(),
+                b == 0 ? 0 : totalWaitNanos.get() / 1e6 / b, maxWaitNanos.get() / 1e6,
+                statementHits.get(), statementMisses.get());
+    }
+
+    // ---------- POOLED CONNECTION ----------
+    private final class PooledConnection {
+        final Connection raw;
+        final int isolation;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsed = createdAt, borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean broken, leakReported;
+        volatile boolean suspect, sessionChanged;    // an SQLException was seen; session state set by the borrower
+        // idle prepared statements by SQL, least recently used first; only the borrower's thread touches it
+        private final LinkedHashMap<StatementKey, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection raw) throws SQLException { this.raw = raw; this.isolation = raw.getTransactionIsolation(); }
+
+        boolean expired(long now) { return maxLifetimeMs > 0 && now - createdAt > maxLifetimeMs; }
+
+        boolean isValid() {
+            try { return raw.isValid(validationTimeoutSec); } catch (SQLException e) { return false; }
+        }
+
+        /** Undo per-borrow state so the next borrower sees a fresh session. */
+        boolean reset() {
+            try {
+                if (!raw.getAutoCommit()) { raw.rollback(); raw.setAutoCommit(true); }
+                if (raw.isReadOnly()) raw.setReadOnly(false);
+                if (sessionChanged) {
+                    try (Statement st = raw.createStatement()) {
+                        if (mysql) { st.execute("UNLOCK TABLES"); st.execute(RESET_SESSION); }
+                        else for (String v : SESSION_VARIABLES) st.execute("SET " + v + " = NULL");
+                    }
+                    if (raw.getTransactionIsolation() != isolation) raw.setTransactionIsolation(isolation);
+                    sessionChanged = false;
+                }
+                raw.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        // an SQLException from the connection or anything created on it
+        void failed(Throwable t) {
+            if (t instanceof SQLException se) {
+                if (isFatal(se)) broken = true;
+                else suspect = true;
+            }
+        }
+
+        private PreparedStatement prepare(StatementKey key, Connection proxy) throws SQLException {
+            PreparedStatement ps = statements.remove(key);
+            if (ps != null && !ps.isClosed()) statementHits.incrementAndGet();
+            else {
+                statementMisses.incrementAndGet();
+                ps = key.generatedKeys() < 0 ? raw.prepareStatement(key.sql()) : raw.prepareStatement(key.sql(), key.generatedKeys());
+            }
+            PreparedStatement target = ps;
+            AtomicBoolean done = new AtomicBoolean();
+            boolean[] tainted = {false};
+            ResultSet[] last = {null};
+            InvocationHandler h = (p, m, args) -> {
+                switch (m.getName()) {
+                    case "close" -> { if (done.compareAndSet(false, true)) checkIn(key, target, last[0], tainted[0] || proxy.isClosed()); return null; }
+                    case "isClosed" -> { return done.get(); }
+                    case "getConnection" -> { return proxy; }
+                    case "equals" -> { return p == args[0]; }
+                    case "hashCode" -> { return System.identityHashCode(p); }
+                    default -> {}
+                }
+                if (done.get()) throw new SQLException("Statement is closed");
+                if (SESSION_SETTERS.contains(m.getName())) tainted[0] = true;
+                try {
+                    Object r = m.invoke(target, args);
+                    if (r instanceof ResultSet rs) { last[0] = rs; return guard(rs, ResultSet.class, p); }
+                    return r;
+                } catch (InvocationTargetException e) {
+                    failed(e.getCause());
+                    throw e.getCause();
+                }
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, h);
+        }
+
+        // back into the cache with its parameters and result cleared; the least recently used one beyond the limit
+        // is closed, and so is one that was reconfigured, closed after its connection went back, or a duplicate
+        private void checkIn(StatementKey key, PreparedStatement ps, ResultSet open, boolean discard) throws SQLException {
+            try {
+                if (open != null) open.close();
+                if (discard || broken || statements.containsKey(key)) { ps.close(); return; }
+                ps.clearParameters();
+                ps.clearBatch();
+                ps.clearWarnings();
+                statements.put(key, ps);
+            } catch (SQLException e) {
+                ps.close();
+                throw e;
+            }
+            if (statements.size() > statementCache) {
+                Iterator<PreparedStatement> eldest = statements.values().iterator();
+                PreparedStatement evicted = eldest.next();
+                eldest.remove();
+                try { evicted.close(); } catch (SQLException ignore) {}
+            }
+        }
+
+        // Passes calls through to a statement or result set, noting the errors it raises like those of the
+        // connection itself; result sets it returns are guarded too. {@code owner} is what getConnection or
+        // getStatement hands back.
+        private <T> T guard(T target, Class<T> type, Object owner) {
+            InvocationHandler h = (p, m, args) -> {
+                switch (m.getName()) {
+                    case "getConnection", "getStatement" -> { return owner; }
+                    case "equals" -> { return p == args[0]; }
+                    case "hashCode" -> { return System.identityHashCode(p); }
+                    default -> {}
+                }
+                try {
+                    Object r = m.invoke(target, args);
+                    return r instanceof ResultSet rs && type != ResultSet.class ? guard(rs, ResultSet.class, p) : r;
+                } catch (InvocationTargetException e) {
+                    failed(e.getCause());
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, h));
+        }
+
+        Connection handOut() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+
+        private Object invoke(AtomicBoolean returned, Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close" -> { if (returned.compareAndSet(false, true)) release(this); return null; }
+                case "isClosed" -> { return returned.get() || raw.isClosed(); }
+                case "unwrap" -> { if (args[0] == Connection.class) return proxy; }
+                case "equals" -> { return proxy == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(proxy); }
+                case "toString" -> { return "Pooled[" + raw + "]"; }
+                default -> {}
+            }
+            if (returned.get()) throw new SQLException("Connection already returned to the pool");
+            try {
+                Object r = cacheable(m, args) ? prepare(new StatementKey((String) args[0], args.length > 1 ? (int) args[1] : -1), (Connection) proxy)
+                        : m.invoke(raw, args);
+                if (r instanceof Statement st && !Proxy.isProxyClass(st.getClass())) r = guard(st, statementType(st), proxy);
+                if (r instanceof Statement st && QueryMetrics.ENABLED)
+                    return QueryMetrics.trace(st, (Connection) proxy, args != null && args.length > 0 && args[0] instanceof String sql ? sql : null);
+                return r;
+            } catch (InvocationTargetException e) {
+                failed(e.getCause());
+                throw e.getCause();
+            } catch (SQLException e) {
+                failed(e);
+                throw e;
+            }
+        }
+    }
+
+    // the handed-out connection's handler, so sessionChanged can find the pooled connection behind a proxy
+    private static final class Handle implements InvocationHandler {
+        final PooledConnection pooled;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        Handle(PooledConnection pooled) { this.pooled = pooled; }
+
+        @Override public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            return pooled.invoke(returned, proxy, m, args);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Statement> statementType(Statement st) {
+        return (Class<Statement>) (Class<?>) (st instanceof CallableStatement ? CallableStatement.class
+                : st instanceof PreparedStatement ? PreparedStatement.class : Statement.class);
+    }
+
+    // what sessionChanged borrowers may have altered, back to the server defaults (other databases: the variables only)
+    private static final List<String> SESSION_VARIABLES = List.of("@wayanad_dispatch", "@wayanad_restore");
+    private static final String RESET_SESSION = "SET @wayanad_dispatch=NULL, @wayanad_restore=NULL, foreign_key_checks=1, unique_checks=1";
+
+    // ---------- STATEMENT CACHE ----------
+    private record StatementKey(String sql, int generatedKeys) {}
+
+    // Statement.set* calls that outlive the statement's use; a statement they touched is closed, not cached
+    private static final Set<String> SESSION_SETTERS = Set.of("setMaxRows", "setLargeMaxRows", "setFetchSize", "setFetchDirection",
+            "setQueryTimeout", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion");
+
+    // prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys); cursor types and column lists are not cached
+    private boolean cacheable(Method m, Object[] args) {
+        return statementCache > 0 && m.getName().equals("prepareStatement") && args != null
+                && (args.length == 1 || args.length == 2 && m.getParameterTypes()[1] == int.class);
+    }
+
+    /** SQLState class 08 = connection exception; such connections are never recycled. */
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
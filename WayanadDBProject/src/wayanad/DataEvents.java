@@ -0,0 +1,40 @@
+package wayanad;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process notifications for rows written through the app.
+ *
+ * {@code RecordManager} publishes a {@link RowChange} after each successful insert/update/delete so
+ * in-memory structures (name index, caches, counters) can follow along without re-querying MySQL.
+ * Events are delivered on the thread that performed the write; listeners must be thread-safe and quick.
+ */
+final class DataEvents {
+
+    enum Op { INSERT, UPDATE, DELETE }
+
+    /** {@code values} holds the column values that were written (FKs as raw ids); empty for deletes. */
+    record RowChange(String table, Op op, Object pk, Map<String, Object> values) {
+        Object get(String column) { return values.get(column); }
+        boolean has(String column) { return values.containsKey(column); }
+    }
+
+    @FunctionalInterface
+    interface Listener { void rowChanged(RowChange change); }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DataEvents() {}
+
+    static void subscribe(Listener l) { LISTENERS.add(l); }
+    static void unsubscribe(Listener l) { LISTENERS.remove(l); }
+
+    static void publish(RowChange change) {
+        for (Listener l : LISTENERS) {
+            try { l.rowChanged(change); }
+            catch (RuntimeException e) { System.err.println("[events] listener failed for " + change.table() + ": " + e); }
+        }
+    }
+}
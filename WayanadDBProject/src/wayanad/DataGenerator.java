@@ -0,0 +1,587 @@
+package wayanad;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic data at district or state scale for load tests ({@code java -cp ... wayanad.DataGenerator 1000000}).
+ *
+ * Replaces calling {@code Generate_Wayanad_Data()} in a loop: the row counts follow {@code gen.persons}
+ * (10k … 10M), and the data is correlated the way the real registry is:
+ * - victims, donors and rescuers are persons; households of four share a family id;
+ * - camp capacities are heavy-tailed, and admissions pick camps by capacity weighted towards the first
+ *   (nearest) camps, so those fill up (and are clamped by trg_victim_camp_add) while remote ones stay half empty;
+ * - supply movements pick items and destination camps by Zipf; every supply is stocked for its expected
+ *   demand, so trg_supply_movement_before_insert_adjust does not have to cut transfers;
+ * - registrations, admissions, operations and movements follow a surge curve starting on 2024-07-30
+ *   01:00 and are written in time order, so auto-increment ids, Activity_Log and Supply_Audit are too;
+ * - identified missing persons get a matching body identification record.
+ * Every value is a pure function of {@code gen.seed} and the row index, so chunks can be generated in
+ * parallel and two runs produce the same data.
+ *
+ * Tables are written in three dependency phases on {@code gen.threads} threads. {@code gen.mode=jdbc} sends
+ * multi-row INSERTs of {@code gen.batchRows} rows, one commit each. {@code gen.mode=files} writes
+ * tab-separated files plus {@code load.sql} with {@code LOAD DATA LOCAL INFILE} statements to
+ * {@code gen.out}. Either way, new ids continue after the current maximum of each table, so it can be
+ * run on top of the seed data. Tables whose triggers update a shared row (Victim_Camp → Camp,
+ * Supply_Movement → Supply) are written by a single writer to avoid lock waits and deadlocks.
+ */
+final class DataGenerator {
+
+    private static final LocalDateTime SURGE = LocalDateTime.of(2024, 7, 30, 1, 0);
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int CHUNK = 100_000;
+
+    private static final String[] FIRST = {"Anil", "Sunil", "Rajesh", "Suresh", "Biju", "Shaji", "Manoj", "Vinod", "Sajith", "Ashraf",
+            "Muhammed", "Abdul", "Joseph", "Thomas", "Jose", "George", "Babu", "Ravi", "Gopi", "Krishnan", "Lakshmi", "Sreeja", "Anitha",
+            "Bindu", "Suja", "Deepa", "Divya", "Fathima", "Ayisha", "Sabitha", "Mary", "Rosamma", "Annamma", "Shobha", "Geetha", "Radha",
+            "Ammini", "Kunjan", "Arjun", "Adithya", "Nandana", "Gouri", "Aswin", "Akhil", "Aparna", "Anjali", "Fasil", "Shahana"};
+    private static final String[] LAST = {"K", "P", "M", "Nair", "Menon", "Pillai", "Varghese", "Kurian", "Mathew", "Chacko", "Haji",
+            "Kutty", "Thampi", "Panicker", "Warrier", "Namboothiri", "Kunhi", "Moosa", "Koya", "Paul", "Antony", "Das", "Raj", "Kumar"};
+    // ordered by closeness to the slide, i.e. by how much relief work happens there
+    private static final String[] LOCATIONS = {"Meppadi", "Chooralmala", "Mundakkai", "Punjirimattom", "Attamala", "Vellarmala",
+            "Kalpetta", "Chundale", "Sulthan Bathery", "Mananthavady", "Vythiri", "Ambalavayal", "Panamaram", "Kozhikode"};
+    private static final String[] SOURCES = {"Central Warehouse", "Kalpetta Collectorate", "Airport", "Railhead", "Local NGO Depot",
+            "Govt Storage", "Donor Warehouse", "Kozhikode Depot"};
+    private static final String[][] AGENCIES = {{"NDRF", "NDRF"}, {"Indian Army", "Army"}, {"Fire and Rescue Services", "Fire"},
+            {"Kerala Police", "Police"}, {"Local Volunteers", "Community"}, {"NGO - ReliefOrg", "Medical"}, {"Coast Guard", "Coast Guard"},
+            {"IAG Group", "Coordination"}};
+    private static final String[][] SUPPLIES = {{"Rice", "kg"}, {"Drinking Water", "litres"}, {"Blankets", "pieces"},
+            {"Medical Kits", "kits"}, {"Clothes", "pieces"}, {"Sanitary Kits", "sets"}, {"Baby Food", "packs"}, {"Dal", "kg"},
+            {"Cooking Oil", "litres"}, {"Mats", "pieces"}, {"Tarpaulin", "sheets"}, {"Solar Lamps", "units"}, {"Soap", "bars"},
+            {"ORS Packets", "packs"}, {"Milk Powder", "packs"}, {"Candles", "boxes"}, {"Torch", "units"}, {"Buckets", "units"},
+            {"Cooking Gas Cylinder", "units"}, {"Footwear", "pairs"}};
+    private static final String[] ROLES = {"victim", "volunteer", "rescuer", "donor", "admin"};
+    private static final double[] ROLE_WEIGHT = {0.60, 0.15, 0.10, 0.12, 0.03};
+    private static final String[] VICTIM_STATUS = {"rescued", "relocated", "hospitalized", "missing", "deceased"};
+    private static final double[] VICTIM_STATUS_WEIGHT = {0.45, 0.25, 0.12, 0.10, 0.08};
+
+    /** Row counts derived from {@code gen.persons}. */
+    record Plan(long persons, int camps, int teams, int supplies, long operations, long movements, long missing, int days) {
+        static Plan of(long persons, int days) {
+            return new Plan(persons, (int) Math.max(10, persons / 400), (int) Math.max(8, persons / 2_000),
+                    Math.clamp(persons / 1_000, SUPPLIES.length, 2_000), Math.max(100, persons / 20),
+                    Math.max(400, persons * 2 / 5), Math.max(50, persons / 50), days);
+        }
+    }
+
+    /** First new id of each table that other tables reference. */
+    private record Ids(long person, long camp, long team, long supply, long missing) {}
+
+    /** Inserted rows per table. */
+    record Result(Map<String, Long> rows, Path loadScript, long millis) {
+        long total() { return rows.values().stream().mapToLong(Long::longValue).sum(); }
+        long rowsPerSecond() { return millis == 0 ? total() : total() * 1000 / millis; }
+    }
+
+    private final Plan plan;
+    private final long seed;
+    private final boolean files;
+    private final Path out;
+    private final int batchRows;
+    private final DbConfig cfg;
+    private final Map<String, AtomicLong> counts = new ConcurrentSkipListMap<>();
+    private final List<String> loads = Collections.synchronizedList(new ArrayList<>());
+    private Ids ids;
+    private Sampler campPick, supplyPick, locationPick, teamPick, sourcePick;
+
+    DataGenerator(DbConfig cfg, long persons) {
+        this.cfg = cfg;
+        this.plan = Plan.of(Math.max(1_000, persons), Math.max(1, cfg.integer("gen.days", 30)));
+        this.seed = cfg.longValue("gen.seed", 20240730L);
+        this.files = cfg.str("gen.mode", "jdbc").equalsIgnoreCase("files");
+        this.out = Path.of(cfg.str("gen.out", "generated"));
+        this.batchRows = Math.max(1, cfg.integer("gen.batchRows", 1_000));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        DbConfig cfg = DbConfig.get();
+        long persons = args.length > 0 ? Long.parseLong(args[0].replace("_", "")) : cfg.longValue("gen.persons", 10_000);
+        DataGenerator gen = new DataGenerator(cfg, persons);
+        System.out.println("Generating " + gen.plan);
+        Result r = gen.run(Math.max(1, cfg.integer("gen.threads", Runtime.getRuntime().availableProcessors())));
+        r.rows().forEach((t, n) -> System.out.printf("  %-20s %,12d%n", t, n));
+        System.out.printf("%,d rows in %.1f s (%,d rows/s)%n", r.total(), r.millis() / 1000.0, r.rowsPerSecond());
+        if (r.loadScript() != null) System.out.println("Load with: mysql --local-infile=1 <database> < " + r.loadScript().toAbsolutePath());
+    }
+
+    // ---------- RUN ----------
+    Result run(int threads) throws Exception {
+        long started = System.nanoTime();
+        ids = nextIds();
+        double[] campWeight = new double[plan.camps];
+        for (int k = 0; k < plan.camps; k++) campWeight[k] = capacity(k) / Math.sqrt(k + 1);
+        campPick = new Sampler(campWeight);
+        supplyPick = Sampler.zipf(plan.supplies, 1.1);
+        locationPick = Sampler.zipf(LOCATIONS.length, 0.8);
+        teamPick = Sampler.zipf(plan.teams, 0.9);
+        sourcePick = Sampler.zipf(SOURCES.length, 1.0);
+        if (files) {
+            Files.createDirectories(out);
+            loads.add("SET foreign_key_checks=0;");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "wayanad-gen"); t.setDaemon(true); return t;
+        });
+        try {
+            List<Callable<Long>> phase = new ArrayList<>();
+            chunked(phase, plan.persons, this::persons);
+            phase.add(this::camps);
+            phase.add(this::teams);
+            phase.add(this::supplies);
+            phase.add(this::missingPersons);
+            runPhase(pool, phase);
+
+            phase.clear();
+            chunked(phase, plan.persons, this::victims);
+            chunked(phase, plan.persons, this::donations);
+            phase.add(this::operations);
+            phase.add(this::bodies);
+            runPhase(pool, phase);
+
+            phase.clear();
+            phase.add(this::admissions);
+            phase.add(this::movements);
+            chunked(phase, plan.persons, this::rehab);
+            runPhase(pool, phase);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Path script = null;
+        if (files) {
+            loads.add("SET foreign_key_checks=1;");
+            script = out.resolve("load.sql");
+            Files.write(script, loads, StandardCharsets.UTF_8);
+        }
+        Map<String, Long> rows = new LinkedHashMap<>();
+        counts.forEach((t, n) -> rows.put(t, n.get()));
+        return new Result(rows, script, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private interface Range { long write(long from, long to) throws Exception; }
+
+    private static void chunked(List<Callable<Long>> phase, long n, Range r) {
+        for (long from = 0; from < n; from += CHUNK) {
+            long f = from, t = Math.min(n, from + CHUNK);
+            phase.add(() -> r.write(f, t));
+        }
+    }
+
+    private static void runPhase(ExecutorService pool, List<Callable<Long>> tasks) throws Exception {
+        for (Future<Long> f : pool.invokeAll(tasks)) {
+            try { f.get(); }
+            catch (ExecutionException e) { throw e.getCause() instanceof Exception ex ? ex : e; }
+        }
+    }
+
+    private Ids nextIds() throws SQLException {
+        try (Connection con = ConnectionPool.shared().getConnection(); Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT (SELECT COALESCE(MAX(person_id),0) FROM Person), (SELECT COALESCE(MAX(camp_id),0) FROM Camp),"
+                     + " (SELECT COALESCE(MAX(team_id),0) FROM RescueTeam), (SELECT COALESCE(MAX(supply_id),0) FROM Supply),"
+                     + " (SELECT COALESCE(MAX(missing_id),0) FROM MissingPerson)")) {
+            rs.next();
+            // generated persons start on a round number clear of the seed data's 100001/200000/300000 ranges
+            return new Ids(Math.max(1_000_000, (rs.getLong(1) / 1_000_000 + 1) * 1_000_000),
+                    rs.getLong(2) + 1, rs.getLong(3) + 1, rs.getLong(4) + 1, rs.getLong(5) + 1);
+        }
+    }
+
+    // ---------- PHASE 1 ----------
+    private long persons(long from, long to) throws Exception {
+        try (Sink s = sink("Person", from, "person_id", "name", "age", "gender", "aadhar_no", "phone", "role")) {
+            for (long i = from; i < to; i++) {
+                SplittableRandom r = rnd(1, i);
+                String role = ROLES[role(i)];
+                int age = role.equals("victim") ? (int) Math.min(95, Math.abs(r.nextGaussian() * 22 + 36)) : 18 + r.nextInt(45);
+                long id = ids.person + i;
+                s.row(id, FIRST[r.nextInt(FIRST.length)] + " " + LAST[r.nextInt(LAST.length)], age,
+                        r.nextInt(100) < 49 ? "M" : r.nextInt(50) < 49 ? "F" : "O",
+                        r.nextInt(10) < 9 ? "G" + pad(id, 11) : null, "+91" + (9_000_000_000L + r.nextLong(1_000_000_000L)), role);
+            }
+            return s.rows;
+        }
+    }
+
+    private long camps() throws Exception {
+        try (Sink s = sink("Camp", 0, "camp_id", "name", "location", "capacity", "established_date", "current_occupancy")) {
+            for (int k = 0; k < plan.camps; k++) {
+                SplittableRandom r = rnd(2, k);
+                String location = LOCATIONS[locationPick.sample(r)];
+                // occupancy starts at 0; trg_victim_camp_add counts the generated admissions in
+                s.row(ids.camp + k, "Relief Camp " + location + " " + (k + 1), location, capacity(k),
+                        SURGE.toLocalDate().plusDays(Math.min(k, r.nextInt(10))), 0);
+            }
+            return s.rows;
+        }
+    }
+
+    private long teams() throws Exception {
+        try (Sink s = sink("RescueTeam", 0, "team_id", "agency", "team_type", "contact")) {
+            for (int k = 0; k < plan.teams; k++) {
+                String[] a = AGENCIES[k % AGENCIES.length];
+                s.row(ids.team + k, a[0] + (k < AGENCIES.length ? "" : " Unit " + (k / AGENCIES.length + 1)), a[1],
+                        "+91" + (9_400_000_000L + k));
+            }
+            return s.rows;
+        }
+    }
+
+    private long supplies() throws Exception {
+        try (Sink s = sink("Supply", 0, "supply_id", "name", "quantity_on_hand", "unit")) {
+            for (int k = 0; k < plan.supplies; k++) {
+                String[] sp = SUPPLIES[k % SUPPLIES.length];
+                // stock for the expected number of movements (Zipf share) at the maximum quantity, plus 6 sigma
+                double expected = plan.movements * supplyPick.p(k);
+                long stock = (long) Math.ceil(100 * (expected + 6 * Math.sqrt(expected) + 10));
+                s.row(ids.supply + k, sp[0] + (k < SUPPLIES.length ? "" : " (lot " + (k / SUPPLIES.length + 1) + ")"),
+                        (int) Math.min(Integer.MAX_VALUE, stock), sp[1]);
+            }
+            return s.rows;
+        }
+    }
+
+    private long missingPersons() throws Exception {
+        try (Sink s = sink("MissingPerson", 0, "missing_id", "name", "age", "gender", "last_seen_location", "date_reported", "status")) {
+            for (long k = 0; k < plan.missing; k++) {
+                SplittableRandom r = rnd(3, k);
+                s.row(ids.missing + k, FIRST[r.nextInt(FIRST.length)] + " " + LAST[r.nextInt(LAST.length)], 2 + r.nextInt(85),
+                        r.nextBoolean() ? "M" : "F", LOCATIONS[locationPick.sample(r)], at(k, plan.missing, 10).toLocalDate(),
+                        missingStatus(k));
+            }
+            return s.rows;
+        }
+    }
+
+    // ---------- PHASE 2 ----------
+    private long victims(long from, long to) throws Exception {
+        try (Sink s = sink("Victim", from, "victim_id", "family_id", "status", "injuries", "displaced", "registration_date")) {
+            for (long i = from; i < to; i++) {
+                if (role(i) != 0) continue;
+                SplittableRandom r = rnd(4, i);
+                String status = VICTIM_STATUS[pick(r, VICTIM_STATUS_WEIGHT)];
+                String injuries = switch (status) {
+                    case "hospitalized" -> r.nextBoolean() ? "fracture" : "head injury";
+                    case "deceased", "missing" -> null;
+                    default -> r.nextInt(10) < 3 ? "minor injuries" : null;
+                };
+                s.row(ids.person + i, "F-" + pad(ids.person / 4 + i / 4, 8), status, injuries, r.nextInt(10) < 9,
+                        at(i, plan.persons, plan.days).toLocalDate());
+            }
+            return s.rows;
+        }
+    }
+
+    private long donations(long from, long to) throws Exception {
+        try (Sink s = sink("Donation", from, "donor_id", "amount", "donation_type", "date_received", "notes")) {
+            for (long i = from; i < to; i++) {
+                if (role(i) != 3) continue;
+                SplittableRandom r = rnd(5, i);
+                LocalDate first = at(i, plan.persons, plan.days).toLocalDate();
+                for (int d = 0, n = 1 + (int) (-Math.log(1 - r.nextDouble()) * 0.7); d < n; d++) {
+                    double amount = Math.min(10_000_000, Math.exp(8.5 + 1.2 * r.nextGaussian()));
+                    s.row(ids.person + i, BigDecimal.valueOf(Math.round(amount * 100), 2),
+                            r.nextInt(10) < 7 ? "cash" : r.nextBoolean() ? "in-kind" : "food", first.plusDays(d * 7L), "Generated donation");
+                }
+            }
+            return s.rows;
+        }
+    }
+
+    private long operations() throws Exception {
+        try (Sink s = sink("RescueOperation", 0, "team_id", "location", "start_time", "end_time", "personnel_count", "notes")) {
+            for (long k = 0; k < plan.operations; k++) {
+                SplittableRandom r = rnd(6, k);
+                LocalDateTime start = at(k, plan.operations, plan.days);
+                String location = LOCATIONS[locationPick.sample(r)];
+                s.row(ids.team + teamPick.sample(r), location, start, start.plusHours(2 + r.nextInt(46)), 5 + r.nextInt(116),
+                        "Search and rescue, " + location);
+            }
+            return s.rows;
+        }
+    }
+
+    private long bodies() throws Exception {
+        try (Sink s = sink("BodyIdentification", 0, "missing_id", "dna_sample_id", "identified", "id_date", "notes")) {
+            for (long k = 0; k < plan.missing; k++) {
+                SplittableRandom r = rnd(7, k);
+                boolean identified = missingStatus(k).equals("identified");
+                if (!identified && r.nextInt(10) != 0) continue;
+                s.row(ids.missing + k, "DNA-" + pad(ids.missing + k, 8), identified,
+                        at(k, plan.missing, 10).toLocalDate().plusDays(2 + r.nextInt(28)), identified ? "Matched to missing report" : "Pending match");
+            }
+            return s.rows;
+        }
+    }
+
+    // ---------- PHASE 3 ----------
+    private long admissions() throws Exception {
+        try (Sink s = sink("Victim_Camp", 0, "victim_id", "camp_id", "date_admitted", "date_released")) {
+            for (long i = 0; i < plan.persons; i++) {
+                if (role(i) != 0) continue;
+                SplittableRandom r = rnd(8, i);
+                if (r.nextInt(10) >= 8) continue;
+                s.row(ids.person + i, ids.camp + campPick.sample(r), at(i, plan.persons, plan.days).toLocalDate(), null);
+            }
+            return s.rows;
+        }
+    }
+
+    private long movements() throws Exception {
+        try (Sink s = sink("Supply_Movement", 0, "supply_id", "from_location", "to_camp_id", "qty", "moved_on")) {
+            for (long k = 0; k < plan.movements; k++) {
+                SplittableRandom r = rnd(9, k);
+                s.row(ids.supply + supplyPick.sample(r), SOURCES[sourcePick.sample(r)], ids.camp + campPick.sample(r),
+                        5 + r.nextInt(96), at(k, plan.movements, plan.days));
+            }
+            return s.rows;
+        }
+    }
+
+    private long rehab(long from, long to) throws Exception {
+        try (Sink s = sink("RehabAllocation", from, "victim_id", "house_id", "allocation_date", "amount_granted")) {
+            for (long i = from; i < to; i++) {
+                if (role(i) != 0) continue;
+                SplittableRandom r = rnd(10, i);
+                if (r.nextInt(4) != 0) continue;
+                s.row(ids.person + i, "HOUSE-" + pad(i, 8), at(i, plan.persons, plan.days).toLocalDate().plusDays(15 + r.nextInt(46)),
+                        BigDecimal.valueOf(20_000 + r.nextInt(130_001)).setScale(2));
+            }
+            return s.rows;
+        }
+    }
+
+    // ---------- DISTRIBUTIONS ----------
+    /** Independent generator for row {@code i} of stream {@code stream}. */
+    private SplittableRandom rnd(int stream, long i) { return new SplittableRandom(mix(seed * 31 + stream) ^ mix(i)); }
+
+    private int role(long i) { return pick(rnd(0, i), ROLE_WEIGHT); }
+
+    /** Pareto(1.4) from 50: mostly classrooms for 50-150 people, a few halls for thousands. */
+    private int capacity(int camp) { return (int) Math.min(5_000, 50 / Math.pow(1 - rnd(12, camp).nextDouble(), 1 / 1.4)); }
+
+    private String missingStatus(long k) {
+        int p = rnd(11, k).nextInt(100);
+        return p < 40 ? "missing" : p < 85 ? "found" : "identified";
+    }
+
+    /**
+     * Time of the {@code k}-th of {@code n} events within {@code days} after the surge: quantiles of a truncated
+     * exponential (a quarter of the window as mean), so most activity is in the first days and times rise with k.
+     */
+    private static LocalDateTime at(long k, long n, int days) {
+        double span = days * 24.0, mean = span / 4, q = (k + 0.5) / n;
+        double hours = -mean * Math.log(1 - q * (1 - Math.exp(-span / mean)));
+        return SURGE.plusSeconds((long) (hours * 3600));
+    }
+
+    private static int pick(SplittableRandom r, double[] weights) {
+        double u = r.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) if ((u -= weights[i]) < 0) return i;
+        return weights.length - 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String pad(long v, int width) {
+        String s = Long.toString(v);
+        return s.length() >= width ? s : "0".repeat(width - s.length()) + s;
+    }
+
+    /** Picks index k with probability proportional to {@code weights[k]}, by inverse CDF (binary search). */
+    static final class Sampler {
+        private final double[] cdf;
+
+        Sampler(double[] weights) {
+            cdf = new double[weights.length];
+            double sum = 0;
+            for (int k = 0; k < weights.length; k++) cdf[k] = sum += weights[k];
+            for (int k = 0; k < cdf.length; k++) cdf[k] /= sum;
+        }
+
+        /** Zipf(s) over ranks 0..n-1. */
+        static Sampler zipf(int n, double s) {
+            double[] w = new double[n];
+            for (int k = 0; k < n; k++) w[k] = 1 / Math.pow(k + 1, s);
+            return new Sampler(w);
+        }
+
+        int sample(SplittableRandom r) {
+            int i = Arrays.binarySearch(cdf, r.nextDouble());
+            return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+        }
+
+        double p(int k) { return cdf[k] - (k == 0 ? 0 : cdf[k - 1]); }
+    }
+
+    // ---------- SINKS ----------
+    private Sink sink(String table, long part, String... cols) throws SQLException, IOException {
+        AtomicLong total = counts.computeIfAbsent(table, t -> new AtomicLong());
+        return files ? new FileSink(table, part, cols, total) : new JdbcSink(table, cols, total);
+    }
+
+    /** Receives the rows of one table (or one chunk of it) from one thread. */
+    private abstract static class Sink implements AutoCloseable {
+        final String table;
+        final String[] cols;
+        final AtomicLong total;
+        long rows;
+
+        Sink(String table, String[] cols, AtomicLong total) { this.table = table; this.cols = cols; this.total = total; }
+
+        final void row(Object... values) throws SQLException, IOException {
+            write(values);
+            rows++;
+            total.incrementAndGet();
+        }
+
+        abstract void write(Object[] values) throws SQLException, IOException;
+        @Override public abstract void close() throws SQLException, IOException;
+    }
+
+    /** Multi-row {@code INSERT ... VALUES (...),(...)}; one statement and one commit per {@code gen.batchRows} rows. */
+    private final class JdbcSink extends Sink {
+        private final Connection con;
+        private final int perStatement;
+        private final Object[] buffer;
+        private final boolean mysql;
+        private PreparedStatement full;
+        private int buffered;
+
+        JdbcSink(String table, String[] cols, AtomicLong total) throws SQLException {
+            super(table, cols, total);
+            // MySQL allows at most 65535 placeholders per statement
+            perStatement = Math.max(1, Math.min(batchRows, 65_535 / cols.length));
+            buffer = new Object[perStatement * cols.length];
+            con = ConnectionPool.shared().getConnection();
+            mysql = cfg.url().startsWith("jdbc:mysql:");
+            try {
+                // the generated rows are consistent by construction; skip per-row FK lookups on the parents
+                if (mysql) {
+                    ConnectionPool.sessionChanged(con);
+                    try (Statement st = con.createStatement()) { st.execute("SET foreign_key_checks=0"); }
+                }
+                con.setAutoCommit(false);
+            } catch (SQLException e) {
+                con.close();
+                throw e;
+            }
+        }
+
+        @Override void write(Object[] values) throws SQLException {
+            System.arraycopy(values, 0, buffer, buffered * cols.length, cols.length);
+            if (++buffered == perStatement) flush();
+        }
+
+        private void flush() throws SQLException {
+            if (buffered == 0) return;
+            if (buffered == perStatement) {
+                if (full == null) full = con.prepareStatement(insertSql(perStatement));
+                execute(full);
+            } else {
+                try (PreparedStatement ps = con.prepareStatement(insertSql(buffered))) { execute(ps); }
+            }
+            buffered = 0;
+        }
+
+        private void execute(PreparedStatement ps) throws SQLException {
+            for (int i = 0; i < buffered * cols.length; i++) ps.setObject(i + 1, jdbcValue(buffer[i]));
+            ps.executeUpdate();
+            con.commit();
+        }
+
+        private String insertSql(int rows) {
+            String tuple = "(" + "?,".repeat(cols.length - 1) + "?)";
+            StringBuilder sb = new StringBuilder("INSERT INTO ").append(table).append(" (").append(String.join(",", cols)).append(") VALUES ");
+            for (int r = 0; r < rows; r++) sb.append(r == 0 ? "" : ",").append(tuple);
+            return sb.toString();
+        }
+
+        @Override public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                try {
+                    if (full != null) full.close();
+                    if (mysql) try (Statement st = con.createStatement()) { st.execute("SET foreign_key_checks=1"); }
+                    con.setAutoCommit(true);
+                } finally {
+                    con.close();
+                }
+            }
+        }
+    }
+
+    private static Object jdbcValue(Object v) {
+        return switch (v) {
+            case LocalDate d -> java.sql.Date.valueOf(d);
+            case LocalDateTime t -> Timestamp.valueOf(t);
+            case null, default -> v;
+        };
+    }
+
+    /** {@code <table>.<part>.tsv} in LOAD DATA's default format (tab, newline, backslash escapes, \N for NULL). */
+    private final class FileSink extends Sink {
+        private final Path file;
+        private final BufferedWriter w;
+
+        FileSink(String table, long part, String[] cols, AtomicLong total) throws IOException {
+            super(table, cols, total);
+            file = out.resolve(table + "." + pad(part / CHUNK, 4) + ".tsv");
+            w = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+
+        @Override void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) w.write('\t');
+                Object v = values[i];
+                switch (v) {
+                    case null -> w.write("\\N");
+                    case Boolean b -> w.write(b ? '1' : '0');
+                    case LocalDateTime t -> w.write(t.format(TS));
+                    case BigDecimal d -> w.write(d.toPlainString());
+                    default -> escape(v.toString());
+                }
+            }
+            w.write('\n');
+        }
+
+        private void escape(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '\t' -> w.write("\\t");
+                    case '\n' -> w.write("\\n");
+                    case '\r' -> w.write("\\r");
+                    case '\\' -> w.write("\\\\");
+                    default -> w.write(c);
+                }
+            }
+        }
+
+        @Override public void close() throws IOException {
+            w.close();
+            if (rows == 0) { Files.delete(file); return; }
+            // phases run in order and a phase's files are closed before the next starts, so load.sql keeps FK order
+            loads.add("LOAD DATA LOCAL INFILE '" + file.toAbsolutePath().toString().replace("\\", "/").replace("'", "''")
+                    + "' INTO TABLE " + table + " CHARACTER SET utf8mb4 (" + String.join(",", cols) + ");");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package wayanad;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Runtime configuration for the Wayanad app.
+ *
+ * Values are read (later wins) from: built-in defaults, {@code wayanad.properties}
+ * on the classpath, {@code wayanad.properties} in the working directory, the file
+ * named by {@code -Dwayanad.config=...}, and finally {@code -Dwayanad.*} system properties.
+ */
+final class DbConfig {
+
+    static final String FILE_NAME = "wayanad.properties";
+
+    private static volatile DbConfig shared;
+
+    private final Properties props;
+
+    private DbConfig(Properties props) { this.props = props; }
+
+    static DbConfig get() {
+        DbConfig c = shared;
+        if (c == null) {
+            synchronized (DbConfig.class) {
+                if (shared == null) shared = load();
+                c = shared;
+            }
+        }
+        return c;
+    }
+
+    static DbConfig load() {
+        Properties p = new Properties();
+        p.setProperty("jdbc.url", WayanadDBApp.JDBC_URL);
+        p.setProperty("jdbc.user", WayanadDBApp.JDBC_USER);
+        p.setProperty("jdbc.password", WayanadDBApp.JDBC_PASSWORD);
+
+        try (InputStream in = DbConfig.class.getResourceAsStream("/" + FILE_NAME)) {
+            if (in != null) p.load(in);
+        } catch (IOException ignore) {}
+        loadFile(p, Path.of(FILE_NAME));
+        String explicit = System.getProperty("wayanad.config");
+        if (explicit != null) loadFile(p, Path.of(explicit));
+
+        for (String k : System.getProperties().stringPropertyNames())
+            if (k.startsWith("wayanad.") && !k.equals("wayanad.config"))
+                p.setProperty(k.substring("wayanad.".length()), System.getProperty(k));
+        return new DbConfig(p);
+    }
+
+    private static void loadFile(Properties p, Path file) {
+        if (!Files.isRegularFile(file)) return;
+        try (InputStream in = Files.newInputStream(file)) { p.load(in); }
+        catch (IOException e) { System.err.println("Could not read " + file + ": " + e.getMessage()); }
+    }
+
+    // ---------- ACCESSORS ----------
+    String url()      { return str("jdbc.url", WayanadDBApp.JDBC_URL); }
+    String user()     { return str("jdbc.user", WayanadDBApp.JDBC_USER); }
+    String password() { return str("jdbc.password", WayanadDBApp.JDBC_PASSWORD); }
+
+    String str(String key, String def) {
+        String v = props.getProperty(key);
+        return v == null || v.isBlank() ? def : v.trim();
+    }
+    int integer(String key, int def) {
+        try { return Integer.parseInt(str(key, String.valueOf(def))); }
+        catch (NumberFormatException e) { return def; }
+    }
+    long longValue(String key, long def) {
+        try { return Long.parseLong(str(key, String.valueOf(def))); }
+        catch (NumberFormatException e) { return def; }
+    }
+    boolean bool(String key, boolean def) { return Boolean.parseBoolean(str(key, String.valueOf(def))); }
+}
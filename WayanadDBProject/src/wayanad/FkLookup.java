@@ -0,0 +1,189 @@
+package wayanad;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import wayanad.Schema.Item;
+
+/**
+ * Foreign-key lookups shared by every RecordManager dialog.
+ *
+ * Results are cached per FK query (e.g. the donor list) with an id → item map, so opening a dialog
+ * no longer re-runs the query and selecting a grid row finds its FK item in O(1). An entry is dropped
+ * whenever its parent table (the table after FROM) is written, as reported by {@link DataEvents}.
+ *
+ * Parents held by {@link LocalReplica} are built from the local copy without a query; the replica drops the
+ * cached entries for a table whenever its sync changed them.
+ *
+ * Parents with more than {@code fk.eagerLimit} rows (Victim at district scale) are not loaded in full:
+ * their combos become editable type-ahead boxes that query matching rows as the user types, and ids
+ * are resolved one at a time when a grid row is selected.
+ */
+final class FkLookup {
+
+    static final String KEY = "wayanad.fkLookup";
+
+    private static final Pattern FROM = Pattern.compile("\\bFROM\\s+([A-Za-z_][A-Za-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+    private static final Map<String, CompletableFuture<Lookup>> CACHE = new ConcurrentHashMap<>();
+
+    static {
+        DataEvents.subscribe(c -> invalidate(c.table()));
+        ChangeFeed.subscribe(cs -> cs.stream().map(ChangeFeed.Change::table).distinct().forEach(FkLookup::invalidate));
+    }
+
+    private FkLookup() {}
+
+    /** Items for one FK query; {@code complete == false} means only a prefix was loaded (type-ahead mode). */
+    static final class Lookup {
+        final String query;
+        final Item[] items;
+        final boolean complete;
+        private final Map<String, Item> byId;
+        private final Map<String, Item> resolved = Collections.synchronizedMap(lru(2_000));
+
+        Lookup(String query, Item[] items, boolean complete) {
+            this.query = query; this.items = items; this.complete = complete;
+            Map<String, Item> m = new HashMap<>(items.length * 2);
+            for (Item it : items) m.put(String.valueOf(it.id), it);
+            this.byId = m;
+        }
+
+        Item find(Object id) {
+            if (id == null) return null;
+            Item it = byId.get(String.valueOf(id));
+            return it != null || complete ? it : resolved.get(String.valueOf(id));
+        }
+        void remember(Item it) { if (!complete && it != null) resolved.put(String.valueOf(it.id), it); }
+    }
+
+    // ---------- CACHE ----------
+    static CompletableFuture<Lookup> get(String query) {
+        CompletableFuture<Lookup> f = CACHE.get(query);
+        if (f != null) return f;
+        CompletableFuture<Lookup> mine = new CompletableFuture<>();
+        f = CACHE.putIfAbsent(query, mine);
+        if (f != null) return f;
+
+        int limit = Math.max(1, DbConfig.get().integer("fk.eagerLimit", 5_000));
+        Item[] local = LocalReplica.shared().items(query);
+        if (local != null && local.length <= limit) {
+            mine.complete(new Lookup(query, local, true));
+            return mine;
+        }
+        QueryExecutor.shared().<Lookup>submit(QueryMetrics.as("fk", (con, task) -> {
+            List<Item> items = new ArrayList<>();
+            try (PreparedStatement ps = task.track(con.prepareStatement("SELECT id, label FROM (" + query + ") f LIMIT ?"))) {
+                ps.setInt(1, limit + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) items.add(new Item(rs.getObject("id"), Objects.toString(rs.getObject("label"), "")));
+                }
+            }
+            boolean complete = items.size() <= limit;
+            if (!complete) items = items.subList(0, limit);
+            return new Lookup(query, items.toArray(new Item[0]), complete);
+        }), mine::complete, ex -> {
+            CACHE.remove(query, mine);
+            mine.completeExceptionally(ex);
+        });
+        return mine;
+    }
+
+    static void invalidate(String table) {
+        CACHE.keySet().removeIf(q -> table.equalsIgnoreCase(parentTable(q)));
+    }
+
+    static String parentTable(String query) {
+        Matcher m = FROM.matcher(query);
+        return m.find() ? m.group(1) : "";
+    }
+
+    // ---------- LAZY MODE ----------
+    /** Looks a single id up (type-ahead mode); {@code onFound} runs on the EDT, with null if missing. */
+    static void resolve(Lookup l, Object id, Consumer<Item> onFound) {
+        QueryExecutor.shared().<Item>submit(QueryMetrics.as("fk", (con, task) -> {
+            try (PreparedStatement ps = task.track(con.prepareStatement("SELECT id, label FROM (" + l.query + ") f WHERE id = ?"))) {
+                ps.setObject(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? new Item(rs.getObject("id"), Objects.toString(rs.getObject("label"), "")) : null;
+                }
+            }
+        }), it -> { l.remember(it); onFound.accept(it); }, ex -> onFound.accept(null));
+    }
+
+    /** Turns {@code cb} into an editable box that fetches up to 50 matching rows as the user types. */
+    static void enableTypeAhead(JComboBox<Item> cb, Lookup l) {
+        FkComboModel model = (FkComboModel) cb.getModel();
+        cb.setEditable(true);
+        cb.setToolTipText("Type an id or part of the name");
+        JTextComponent editor = (JTextComponent) cb.getEditor().getEditorComponent();
+        QueryExecutor.QueryTask<?>[] pending = {null};
+        javax.swing.Timer debounce = new javax.swing.Timer(250, e -> {
+            String term = editor.getText().trim();
+            Object sel = model.getSelectedItem();
+            if (term.isEmpty() || (sel instanceof Item it && term.equals(it.label))) return;
+            if (pending[0] != null) pending[0].abort();
+            pending[0] = QueryExecutor.shared().<Item[]>submit(QueryMetrics.as("fk", (con, task) -> {
+                List<Item> out = new ArrayList<>();
+                String sql = "SELECT id, label FROM (" + l.query + ") f WHERE CAST(id AS CHAR) LIKE ? OR label LIKE ? LIMIT 50";
+                try (PreparedStatement ps = task.track(con.prepareStatement(sql))) {
+                    ps.setString(1, SearchEngine.escapeLike(term) + "%");
+                    ps.setString(2, "%" + SearchEngine.escapeLike(term) + "%");
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) out.add(new Item(rs.getObject("id"), Objects.toString(rs.getObject("label"), "")));
+                    }
+                }
+                return out.toArray(new Item[0]);
+            }), items -> {
+                for (Item it : items) l.remember(it);
+                model.setItems(items);
+                editor.setText(term); // keep what the user typed while the list changes underneath
+                if (items.length > 0 && cb.isShowing()) cb.showPopup();
+            }, ex -> {});
+        });
+        debounce.setRepeats(false);
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+            public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+            public void changedUpdate(DocumentEvent e) {}
+        });
+    }
+
+    // ---------- COMBO MODEL ----------
+    /** Combo model over a shared, immutable item array; only the selection is per combo. */
+    static final class FkComboModel extends AbstractListModel<Item> implements ComboBoxModel<Item> {
+        private Item[] items = new Item[0];
+        private Object selected;
+
+        void setItems(Item[] items) {
+            int old = this.items.length;
+            this.items = items;
+            if (old > 0) fireIntervalRemoved(this, 0, old - 1);
+            if (items.length > 0) fireIntervalAdded(this, 0, items.length - 1);
+        }
+
+        @Override public int getSize() { return items.length; }
+        @Override public Item getElementAt(int i) { return items[i]; }
+        @Override public Object getSelectedItem() { return selected; }
+        @Override public void setSelectedItem(Object o) {
+            if (Objects.equals(selected, o)) return;
+            selected = o;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    private static <K, V> Map<K, V> lru(int max) {
+        return new LinkedHashMap<>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, V> e) { return size() > max; }
+        };
+    }
+}
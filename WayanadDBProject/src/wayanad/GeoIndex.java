@@ -0,0 +1,279 @@
+package wayanad;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates for the free-text places in Camp.location, RescueOperation.location and
+ * MissingPerson.last_seen_location, and a spatial index over the camps for nearest-camp and radius queries.
+ *
+ * Places resolve through a gazetteer of Wayanad localities (approximate centroids, good to a kilometre or
+ * so), optionally extended or corrected by a {@code place,lat,lon} CSV named by {@code geo.gazetteer}. A text
+ * resolves if it is a known place or contains one as a whole word ("Govt. school, Meppadi"); the longest
+ * match wins.
+ *
+ * The index is a uniform grid of {@code geo.cellKm} cells over the camps of {@link CampOccupancy}, rebuilt
+ * only when its {@link CampOccupancy#layoutVersion layout} changes. Free capacity is read live from the
+ * camps' counters at query time, so admissions never rebuild it. k-nearest searches rings of cells outward
+ * from the origin and stops once no unvisited cell can hold a closer camp; distances are great-circle
+ * (haversine), not road distances.
+ */
+final class GeoIndex {
+
+    record Point(double lat, double lon) {}
+
+    /** A camp and its distance from the query origin; {@code free} is the free capacity when queried. */
+    record Nearby(CampOccupancy.Camp camp, Point at, double km, int free) {}
+
+    private record Entry(CampOccupancy.Camp camp, Point at) {}
+    private record Place(String name, Point at) {}
+
+    /** One immutable build: cell key → camps in it, plus the cell bounds for ring expansion. */
+    private record Grid(long layout, double cellKm, double cellLat, double cellLon, Map<Long, Entry[]> cells,
+                        int minRow, int maxRow, int minCol, int maxCol, int located, List<String> unlocated) {
+        int row(double lat) { return (int) Math.floor(lat / cellLat); }
+        int col(double lon) { return (int) Math.floor(lon / cellLon); }
+    }
+
+    private static final double EARTH_KM = 6371.0088, KM_PER_DEG = 111.195;
+
+    // Approximate centroids; aliases cover the spellings found in the data.
+    private static final Object[][] PLACES = {
+            {"Kalpetta", 11.6085, 76.0830}, {"Meppadi", 11.5560, 76.1340}, {"Mundakkai", 11.4960, 76.1520},
+            {"Mundakai", 11.4960, 76.1520}, {"Chooralmala", 11.5060, 76.1440}, {"Churalmala", 11.5060, 76.1440},
+            {"Attamala", 11.4866, 76.1350}, {"Punjirimattom", 11.4930, 76.1590}, {"Vellarmala", 11.5030, 76.1470},
+            {"Chundale", 11.5800, 76.0600}, {"Sulthan Bathery", 11.6650, 76.2600}, {"Bathery", 11.6650, 76.2600},
+            {"Mananthavady", 11.8014, 76.0044}, {"Vythiri", 11.5510, 76.0390}, {"Ambalavayal", 11.6170, 76.2100},
+            {"Panamaram", 11.7400, 76.0700}, {"Meenangadi", 11.6590, 76.1700}, {"Muttil", 11.6800, 76.1000},
+            {"Pulpally", 11.7910, 76.1640}, {"Padinjarathara", 11.6640, 75.9760}, {"Lakkidi", 11.5170, 76.0200},
+            {"Kaniyambetta", 11.6950, 76.0880}, {"Vaduvanchal", 11.5530, 76.2000}, {"Kozhikode", 11.2588, 75.7804},
+            {"Calicut", 11.2588, 75.7804},
+    };
+
+    private static final int MAX_RESOLVED = 10_000;
+    private static volatile Map<String, Place> gazetteer;     // normalized name -> place
+    private static final Map<String, Optional<Point>> RESOLVED = new ConcurrentHashMap<>();
+    private static volatile GeoIndex shared;
+
+    static GeoIndex shared() {
+        GeoIndex g = shared;
+        if (g == null) {
+            synchronized (GeoIndex.class) {
+                if (shared == null) shared = new GeoIndex(DbConfig.get().integer("geo.cellKm", 2));
+                g = shared;
+            }
+        }
+        return g;
+    }
+
+    private final double cellKm;
+    private volatile Grid grid;
+
+    private GeoIndex(int cellKm) { this.cellKm = Math.max(1, cellKm); }
+
+    // ---------- GAZETTEER ----------
+    /** Coordinates of a free-text place, or null when it names no known place. */
+    static Point locate(String text) {
+        if (text == null || text.isBlank()) return null;
+        Optional<Point> p = RESOLVED.get(text);
+        if (p == null) {
+            if (RESOLVED.size() >= MAX_RESOLVED) RESOLVED.clear();
+            p = Optional.ofNullable(resolve(text));
+            RESOLVED.put(text, p);
+        }
+        return p.orElse(null);
+    }
+
+    /** Known place names, for pickers; aliases included. */
+    static SortedSet<String> places() {
+        SortedSet<String> out = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Place p : gazetteer().values()) out.add(p.name());
+        return out;
+    }
+
+    /** Column holding the place text of {@code table}'s rows, or null for tables without one. */
+    static String locationColumn(String table) {
+        return switch (table) {
+            case "Camp", "RescueOperation" -> "location";
+            case "MissingPerson" -> "last_seen_location";
+            default -> null;
+        };
+    }
+
+    /** Adds {@code latitude}/{@code longitude} to a row of a located table when its place is known. */
+    static void annotate(String table, Map<String, Object> row) {
+        String col = locationColumn(table);
+        if (col == null) return;
+        Object text = null;
+        for (Map.Entry<String, Object> e : row.entrySet()) if (e.getKey().equalsIgnoreCase(col)) text = e.getValue();
+        Point p = text == null ? null : locate(text.toString());
+        row.put("latitude", p == null ? null : p.lat());
+        row.put("longitude", p == null ? null : p.lon());
+    }
+
+    private static Point resolve(String text) {
+        Map<String, Place> g = gazetteer();
+        String norm = normalize(text);
+        Place exact = g.get(norm);
+        if (exact != null) return exact.at();
+        String padded = " " + norm + " ", best = null;
+        for (String place : g.keySet())
+            if ((best == null || place.length() > best.length()) && padded.contains(" " + place + " ")) best = place;
+        return best == null ? null : g.get(best).at();
+    }
+
+    private static String normalize(String s) {
+        return s.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static Map<String, Place> gazetteer() {
+        Map<String, Place> g = gazetteer;
+        if (g == null) {
+            synchronized (GeoIndex.class) {
+                if (gazetteer == null) gazetteer = loadGazetteer(DbConfig.get().str("geo.gazetteer", ""));
+                g = gazetteer;
+            }
+        }
+        return g;
+    }
+
+    private static Map<String, Place> loadGazetteer(String file) {
+        Map<String, Place> g = new HashMap<>();
+        for (Object[] p : PLACES) g.put(normalize((String) p[0]), new Place((String) p[0], new Point((Double) p[1], (Double) p[2])));
+        if (file.isBlank()) return g;
+        try {
+            int n = 0;
+            for (String line : Files.readAllLines(Path.of(file))) {
+                String[] f = line.split(",");
+                if (line.isBlank() || line.startsWith("#") || f.length < 3) continue;
+                try {
+                    g.put(normalize(f[0]), new Place(f[0].trim(), new Point(Double.parseDouble(f[1].trim()), Double.parseDouble(f[2].trim()))));
+                    n++;
+                } catch (NumberFormatException e) {
+                    System.err.println("[geo] skipping gazetteer line: " + line);
+                }
+            }
+            System.err.println("[geo] " + n + " places from " + file);
+        } catch (IOException e) {
+            System.err.println("[geo] cannot read gazetteer " + file + ": " + e.getMessage());
+        }
+        return g;
+    }
+
+    // ---------- QUERIES ----------
+    /**
+     * Up to {@code k} camps with at least {@code minFree} free places, nearest first (ties: more free first).
+     * {@code minFree} below 1 includes full camps.
+     */
+    List<Nearby> nearest(Point from, int k, int minFree) {
+        Grid g = grid();
+        if (k <= 0 || g.cells.isEmpty()) return List.of();
+        Comparator<Nearby> order = Comparator.comparingDouble(Nearby::km).thenComparing(Comparator.comparingInt(Nearby::free).reversed());
+        PriorityQueue<Nearby> best = new PriorityQueue<>(order.reversed());
+        int row = g.row(from.lat()), col = g.col(from.lon());
+        // rings nearer than the grid's bounding box are empty, rings past its far corner too
+        int first = Math.max(0, Math.max(Math.max(g.minRow - row, row - g.maxRow), Math.max(g.minCol - col, col - g.maxCol)));
+        int last = Math.max(Math.max(Math.abs(row - g.minRow), Math.abs(row - g.maxRow)),
+                Math.max(Math.abs(col - g.minCol), Math.abs(col - g.maxCol)));
+        for (int r = first; r <= last; r++) {
+            // every camp outside rings 0..r-1 is at least r-1 whole cells away (1% slack for the curvature)
+            if (best.size() == k && best.peek().km() <= (r - 1) * g.cellKm * 0.99) break;
+            for (int rr = Math.max(row - r, g.minRow); rr <= Math.min(row + r, g.maxRow); rr++) {
+                boolean edge = rr == row - r || rr == row + r;
+                for (int cc = col - r; cc <= col + r; cc += edge || r == 0 ? 1 : 2 * r) {
+                    if (cc < g.minCol || cc > g.maxCol) continue;
+                    Entry[] cell = g.cells.get(key(rr, cc));
+                    if (cell == null) continue;
+                    for (Entry e : cell) {
+                        int free = e.camp().free();
+                        if (free < minFree) continue;
+                        Nearby n = new Nearby(e.camp(), e.at(), km(from, e.at()), free);
+                        if (best.size() < k) best.add(n);
+                        else if (order.compare(n, best.peek()) < 0) { best.poll(); best.add(n); }
+                    }
+                }
+            }
+        }
+        List<Nearby> out = new ArrayList<>(best);
+        out.sort(order);
+        return out;
+    }
+
+    /** Camps within {@code radiusKm} with at least {@code minFree} free places, nearest first. */
+    List<Nearby> within(Point from, double radiusKm, int minFree) {
+        Grid g = grid();
+        List<Nearby> out = new ArrayList<>();
+        int row = g.row(from.lat()), col = g.col(from.lon()), span = (int) Math.ceil(radiusKm / g.cellKm);
+        for (int r = Math.max(row - span, g.minRow); r <= Math.min(row + span, g.maxRow); r++) {
+            for (int c = Math.max(col - span, g.minCol); c <= Math.min(col + span, g.maxCol); c++) {
+                Entry[] cell = g.cells.get(key(r, c));
+                if (cell == null) continue;
+                for (Entry e : cell) {
+                    int free = e.camp().free();
+                    if (free < minFree) continue;
+                    double d = km(from, e.at());
+                    if (d <= radiusKm) out.add(new Nearby(e.camp(), e.at(), d, free));
+                }
+            }
+        }
+        out.sort(Comparator.comparingDouble(Nearby::km));
+        return out;
+    }
+
+    /** Camps in the index (those whose location resolved). */
+    int located() { return grid().located; }
+    /** Names of camps left out because their location is not in the gazetteer. */
+    List<String> unlocated() { return grid().unlocated; }
+
+    static double km(Point a, Point b) {
+        double dLat = Math.toRadians(b.lat() - a.lat()), dLon = Math.toRadians(b.lon() - a.lon());
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(a.lat())) * Math.cos(Math.toRadians(b.lat())) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    // ---------- GRID ----------
+    private static long key(int row, int col) { return ((long) row << 32) | (col & 0xffffffffL); }
+
+    private Grid grid() {
+        CampOccupancy occ = CampOccupancy.shared();
+        Grid g = grid;
+        if (g != null && g.layout == occ.layoutVersion()) return g;
+        synchronized (this) {
+            long layout = occ.layoutVersion();
+            if (grid == null || grid.layout != layout) grid = build(layout, occ.camps());
+            return grid;
+        }
+    }
+
+    private Grid build(long layout, Collection<CampOccupancy.Camp> camps) {
+        List<Entry> entries = new ArrayList<>();
+        List<String> unlocated = new ArrayList<>();
+        double maxAbsLat = 0;
+        for (CampOccupancy.Camp c : camps) {
+            Point p = locate(c.location);
+            if (p == null) { unlocated.add(c.name == null ? "#" + c.id : c.name); continue; }
+            entries.add(new Entry(c, p));
+            maxAbsLat = Math.max(maxAbsLat, Math.abs(p.lat()));
+        }
+        // cells are at least cellKm wide everywhere: longitude degrees sized at the camp furthest from the equator
+        double cellLat = cellKm / KM_PER_DEG;
+        double cellLon = cellKm / (KM_PER_DEG * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89, maxAbsLat)))));
+        Grid shape = new Grid(layout, cellKm, cellLat, cellLon, Map.of(), 0, 0, 0, 0, 0, List.of());
+        Map<Long, List<Entry>> byCell = new HashMap<>();
+        int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE, minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+        for (Entry e : entries) {
+            int r = shape.row(e.at().lat()), c = shape.col(e.at().lon());
+            byCell.computeIfAbsent(key(r, c), x -> new ArrayList<>()).add(e);
+            minRow = Math.min(minRow, r); maxRow = Math.max(maxRow, r);
+            minCol = Math.min(minCol, c); maxCol = Math.max(maxCol, c);
+        }
+        Map<Long, Entry[]> cells = new HashMap<>(byCell.size() * 2);
+        byCell.forEach((k, v) -> cells.put(k, v.toArray(new Entry[0])));
+        if (cells.isEmpty()) { minRow = maxRow = minCol = maxCol = 0; }
+        return new Grid(layout, cellKm, cellLat, cellLon, cells, minRow, maxRow, minCol, maxCol, entries.size(), List.copyOf(unlocated));
+    }
+}
@@ -0,0 +1,177 @@
+package wayanad;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Minimal JSON reader/writer for the HTTP API (no external dependency).
+ *
+ * Writes maps, collections, arrays, strings, numbers, booleans and null; anything else (dates,
+ * timestamps) is written as its {@code toString()}. Reads objects as {@link LinkedHashMap}, arrays as
+ * {@link ArrayList} and numbers as {@link BigDecimal}.
+ */
+final class Json {
+
+    private Json() {}
+
+    // ---------- WRITE ----------
+    static String write(Object v) {
+        StringBuilder sb = new StringBuilder(256);
+        write(sb, v);
+        return sb.toString();
+    }
+
+    static void write(StringBuilder sb, Object v) {
+        switch (v) {
+            case null -> sb.append("null");
+            case Map<?, ?> m -> {
+                sb.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> e : m.entrySet()) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    string(sb, String.valueOf(e.getKey()));
+                    sb.append(':');
+                    write(sb, e.getValue());
+                }
+                sb.append('}');
+            }
+            case Iterable<?> it -> {
+                sb.append('[');
+                boolean first = true;
+                for (Object o : it) { if (!first) sb.append(','); first = false; write(sb, o); }
+                sb.append(']');
+            }
+            case Object[] arr -> write(sb, Arrays.asList(arr));
+            case Boolean b -> sb.append(b);
+            case BigDecimal d -> sb.append(d.toPlainString());
+            case Double d when d.isNaN() || d.isInfinite() -> sb.append("null");
+            case Float f when f.isNaN() || f.isInfinite() -> sb.append("null");
+            case Number n -> sb.append(n);
+            default -> string(sb, v.toString());
+        }
+    }
+
+    private static void string(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i=0;i<s.length();i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ---------- READ ----------
+    static Object parse(String text) {
+        Reader r = new Reader(text);
+        r.ws();
+        Object v = r.value();
+        r.ws();
+        if (r.pos != text.length()) throw r.error("trailing characters");
+        return v;
+    }
+
+    private static final class Reader {
+        final String s;
+        int pos;
+
+        Reader(String s) { this.s = s; }
+
+        Object value() {
+            if (pos >= s.length()) throw error("unexpected end");
+            char c = s.charAt(pos);
+            return switch (c) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> number();
+            };
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++; ws();
+            if (peek() == '}') { pos++; return m; }
+            while (true) {
+                ws();
+                if (peek() != '"') throw error("expected a key");
+                String k = string();
+                ws(); expect(':'); ws();
+                m.put(k, value());
+                ws();
+                char c = next();
+                if (c == '}') return m;
+                if (c != ',') throw error("expected , or }");
+            }
+        }
+
+        List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            pos++; ws();
+            if (peek() == ']') { pos++; return l; }
+            while (true) {
+                ws(); l.add(value()); ws();
+                char c = next();
+                if (c == ']') return l;
+                if (c != ',') throw error("expected , or ]");
+            }
+        }
+
+        String string() {
+            pos++;
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                char e = next();
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw error("bad \\u escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            }
+        }
+
+        BigDecimal number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("unexpected character");
+            try { return new BigDecimal(s.substring(start, pos)); }
+            catch (NumberFormatException e) { throw error("bad number"); }
+        }
+
+        Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error("unexpected token");
+            pos += word.length();
+            return v;
+        }
+
+        void ws() { while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++; }
+        char peek() { return pos < s.length() ? s.charAt(pos) : '\0'; }
+        char next() { if (pos >= s.length()) throw error("unexpected end"); return s.charAt(pos++); }
+        void expect(char c) { if (next() != c) throw error("expected " + c); }
+        IllegalArgumentException error(String msg) { return new IllegalArgumentException("Invalid JSON at " + pos + ": " + msg); }
+    }
+}
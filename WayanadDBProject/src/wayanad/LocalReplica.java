@@ -0,0 +1,478 @@
+package wayanad;
+
+import javax.swing.table.AbstractTableModel;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import wayanad.Schema.Item;
+
+/**
+ * Local read replica of the reference tables ({@code replica.tables}: Camp, Supply, RescueTeam, Person).
+ *
+ * Each table is kept in memory keyed by primary key and saved to {@code replica.dir/<Table>.snap} in a
+ * compact binary format, so a new session starts with last session's rows instead of re-querying them.
+ * FK combos ({@link FkLookup}), the table viewer and the dashboard counts read from here; a background
+ * thread reconciles with MySQL every {@code replica.syncSec} seconds and keeps serving the local copy
+ * while MySQL is unreachable.
+ *
+ * - tables up to {@code replica.fullReloadRows} rows are reloaded in full on every sync
+ * - larger ones sync incrementally: rows above the primary-key high-water mark, rows named by their change
+ *   feed since its last id ({@code Activity_Log} for Person, {@code Supply_Audit} for Supply) and rows written
+ *   through the app ({@link DataEvents}); a row-count mismatch (deletes, unlogged edits) or
+ *   {@code replica.fullSyncMin} minutes since the last full load triggers a full reload
+ * - rows named by {@link ChangeFeed} (writes from other clients) are re-read within a second, between syncs
+ * - tables above {@code replica.maxRows} rows are not replicated at all
+ * - columns listed in {@code replica.excludeColumns} (Person's Aadhar number and phone by default) are never
+ *   held or written to disk; the table viewer reads such tables from MySQL instead
+ */
+final class LocalReplica {
+
+    private static final int MAGIC = 0x57595250, VERSION = 1;   // "WYRP"
+    private static final int IN_CHUNK = 500;
+    private static final Pattern FK_QUERY = Pattern.compile(
+            "SELECT (\\w+) AS id, (?:CONCAT\\((\\w+),' - ',(\\w+)\\)|(\\w+)) AS label FROM (\\w+)(?: WHERE (\\w+)='([^']*)')?");
+
+    /** Change feeds: {@code ?} is the last feed id seen; returns (feed id, changed primary key). */
+    private static final Map<String, String> FEEDS = Map.of(
+            "Person", "SELECT log_id, record_id FROM Activity_Log WHERE log_id > ? AND table_name = 'Person' ORDER BY log_id",
+            "Supply", "SELECT audit_id, supply_id FROM Supply_Audit WHERE audit_id > ? ORDER BY audit_id");
+    private static final Map<String, String> FEED_MAX = Map.of(
+            "Person", "SELECT COALESCE(MAX(log_id), 0) FROM Activity_Log",
+            "Supply", "SELECT COALESCE(MAX(audit_id), 0) FROM Supply_Audit");
+
+    private static volatile LocalReplica shared;
+
+    static LocalReplica shared() {
+        LocalReplica r = shared;
+        if (r == null) {
+            synchronized (LocalReplica.class) {
+                if (shared == null) {
+                    shared = new LocalReplica(DbConfig.get());
+                    DataEvents.subscribe(shared::onRowChanged);
+                    ChangeFeed.subscribe(shared::onFeed);
+                    Runtime.getRuntime().addShutdownHook(new Thread(shared::saveQuietly, "wayanad-replica-shutdown"));
+                }
+                r = shared;
+            }
+        }
+        return r;
+    }
+
+    /** One replicated table; {@code rows} is replaced wholesale on a full reload. */
+    private static final class Table {
+        final String name, pk;
+        final Set<String> excluded;                            // lower-case column names
+        volatile String[] columns;
+        volatile int pkCol = -1;
+        volatile ConcurrentSkipListMap<Long, Object[]> rows;   // null until loaded
+        volatile long fullAt, feedCursor;
+        final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+        volatile boolean changed;
+
+        Table(String name, String pk, Set<String> excluded) { this.name = name; this.pk = pk; this.excluded = excluded; }
+        boolean ready() { return rows != null && columns != null; }
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int fullReloadRows, maxRows;
+    private final long fullSyncMs;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private volatile long syncedAt;
+    private volatile String lastError;
+
+    private LocalReplica(DbConfig cfg) {
+        this.enabled = cfg.bool("replica.enabled", true);
+        this.dir = Path.of(cfg.str("replica.dir", "replica"));
+        this.fullReloadRows = cfg.integer("replica.fullReloadRows", 5_000);
+        this.maxRows = cfg.integer("replica.maxRows", 200_000);
+        this.fullSyncMs = TimeUnit.MINUTES.toMillis(Math.max(1, cfg.integer("replica.fullSyncMin", 30)));
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread th = new Thread(r, "wayanad-replica"); th.setDaemon(true); return th;
+        });
+        if (!enabled) return;
+        Map<String, Set<String>> excluded = new HashMap<>();
+        for (String c : cfg.str("replica.excludeColumns", "Person.aadhar_no,Person.phone").split("\\s*,\\s*")) {
+            int dot = c.indexOf('.');
+            if (dot > 0) excluded.computeIfAbsent(c.substring(0, dot).toLowerCase(Locale.ROOT), k -> new HashSet<>())
+                    .add(c.substring(dot + 1).toLowerCase(Locale.ROOT));
+        }
+        for (String t : cfg.str("replica.tables", "Camp,Supply,RescueTeam,Person").split("\\s*,\\s*")) {
+            Schema.TableSpec spec = Schema.spec(t);
+            if (spec == null) { System.err.println("[replica] unknown table in replica.tables: " + t); continue; }
+            Table table = new Table(spec.table, spec.pk, excluded.getOrDefault(spec.table.toLowerCase(Locale.ROOT), Set.of()));
+            load(table);
+            tables.put(spec.table, table);
+        }
+        timer.scheduleWithFixedDelay(this::syncQuietly, 0, Math.max(5, cfg.integer("replica.syncSec", 60)), TimeUnit.SECONDS);
+    }
+
+    // ---------- READS ----------
+    /** Row count of a replicated table, or -1. */
+    long count(String table) {
+        Table t = tables.get(table);
+        return t != null && t.ready() ? t.rows.size() : -1;
+    }
+
+    long syncedAt() { return syncedAt; }
+    String lastError() { return lastError; }
+
+    /**
+     * Items for an FK query of the shapes used in {@link Schema} ({@code SELECT x AS id, CONCAT(x,' - ',col)
+     * AS label FROM T [WHERE col='v']}), or null when the parent is not replicated or the query has another shape.
+     */
+    Item[] items(String fkQuery) {
+        Matcher m = FK_QUERY.matcher(fkQuery.trim());
+        if (!m.matches()) return null;
+        Table t = tables.get(m.group(5));
+        if (t == null || !t.ready()) return null;
+        String[] cols = t.columns;
+        int id = column(cols, m.group(1));
+        int labelId = m.group(2) != null ? column(cols, m.group(2)) : column(cols, m.group(4));
+        int labelText = m.group(3) != null ? column(cols, m.group(3)) : -2;
+        int where = m.group(6) != null ? column(cols, m.group(6)) : -2;
+        if (id < 0 || labelId < 0 || labelText == -1 || where == -1) return null;
+        List<Item> out = new ArrayList<>();
+        for (Object[] row : t.rows.values()) {
+            if (where >= 0 && !m.group(7).equalsIgnoreCase(String.valueOf(row[where]))) continue;
+            // MySQL's CONCAT yields NULL when any part is NULL; FkLookup shows that as an empty label
+            String label = labelText < 0 ? Objects.toString(row[labelId], "")
+                    : row[labelId] == null || row[labelText] == null ? "" : row[labelId] + " - " + row[labelText];
+            out.add(new Item(row[id], label));
+        }
+        return out.toArray(new Item[0]);
+    }
+
+    /** Read-only model over the local rows in key order, or null when {@code table} is not replicated in full. */
+    AbstractTableModel tableModel(String table) {
+        Table t = tables.get(table);
+        if (t == null || !t.ready() || !t.excluded.isEmpty()) return null;
+        String[] cols = t.columns;
+        Object[][] rows = t.rows.values().toArray(new Object[0][]);
+        return new AbstractTableModel() {
+            @Override public int getRowCount() { return rows.length; }
+            @Override public int getColumnCount() { return cols.length; }
+            @Override public String getColumnName(int c) { return cols[c]; }
+            @Override public Object getValueAt(int r, int c) { return rows[r][c]; }
+        };
+    }
+
+    private static int column(String[] cols, String name) {
+        for (int i=0;i<cols.length;i++) if (cols[i].equalsIgnoreCase(name)) return i;
+        return -1;
+    }
+
+    // ---------- LOCAL WRITES ----------
+    // Applied at once so the app sees its own writes; the row is re-read on the next sync (defaults, triggers).
+    private void onRowChanged(DataEvents.RowChange c) {
+        Table t = tables.get(c.table());
+        if (t == null || !t.ready() || !(c.pk() instanceof Number n)) return;
+        long key = n.longValue();
+        if (c.op() == DataEvents.Op.DELETE) t.rows.remove(key);
+        else {
+            String[] cols = t.columns;
+            Object[] row = t.rows.getOrDefault(key, new Object[cols.length]).clone();
+            row[t.pkCol] = c.pk();
+            c.values().forEach((k, v) -> { int i = column(cols, k); if (i >= 0) row[i] = v; });
+            t.rows.put(key, row);
+            t.dirty.add(key);
+        }
+        t.changed = true;
+    }
+
+    // ---------- CHANGE FEED ----------
+    // Keys changed by other clients; re-read on the replica thread so it never races a sync.
+    private void onFeed(List<ChangeFeed.Change> changes) {
+        boolean any = false;
+        for (ChangeFeed.Change c : changes) {
+            Table t = tables.get(c.table());
+            if (t != null && t.ready()) { t.dirty.add(c.pk()); any = true; }
+        }
+        if (any && refreshPending.compareAndSet(false, true)) timer.execute(this::refreshQuietly);
+    }
+
+    private void refreshQuietly() {
+        refreshPending.set(false);
+        QueryMetrics.Scope label = QueryMetrics.label("replica");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            for (Table t : tables.values()) {
+                if (t.dirty.isEmpty() || !t.ready()) continue;
+                Set<Long> ids = new HashSet<>(t.dirty);
+                if (refetch(con, t, ids)) reload(con, t);
+                t.dirty.removeAll(ids);
+                save(t);
+                FkLookup.invalidate(t.name);
+            }
+        } catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();   // keys stay dirty for the next sync
+        } finally {
+            label.close();
+        }
+    }
+
+    // ---------- SYNC ----------
+    private void syncQuietly() {
+        try { sync(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("[replica] sync failed, serving the local copy: " + e.getMessage());
+        }
+    }
+
+    void sync() throws SQLException {
+        QueryMetrics.Scope label = QueryMetrics.label("replica");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            for (Table t : tables.values()) {
+                sync(con, t);
+                if (t.changed) {
+                    save(t);
+                    FkLookup.invalidate(t.name);
+                }
+            }
+        } finally {
+            label.close();
+        }
+        syncedAt = System.currentTimeMillis();
+        lastError = null;
+    }
+
+    private void sync(Connection con, Table t) throws SQLException {
+        long remote;
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + t.name)) {
+            rs.next(); remote = rs.getLong(1);
+        }
+        if (remote > maxRows) {
+            if (t.rows != null) System.err.println("[replica] " + t.name + " has " + remote + " rows (> replica.maxRows), not replicated");
+            t.rows = null; t.columns = null;
+            return;
+        }
+        boolean full = !t.ready() || remote <= fullReloadRows || System.currentTimeMillis() - t.fullAt > fullSyncMs;
+        if (!full) {
+            Set<Long> ids = new HashSet<>(t.dirty);
+            t.dirty.removeAll(ids);
+            long cursor = feed(con, t, ids);
+            int before = t.rows.size();
+            ConcurrentSkipListMap<Long, Object[]> rows = t.rows;
+            boolean reshaped = select(con, t, " WHERE " + t.pk + " > ?", List.of(rows.isEmpty() ? Long.MIN_VALUE : rows.lastKey()), rows);
+            reshaped |= refetch(con, t, ids);
+            t.feedCursor = cursor;
+            if (rows.size() != before || !ids.isEmpty()) t.changed = true;
+            full = reshaped || rows.size() != remote;
+        }
+        if (full) reload(con, t);
+    }
+
+    private void reload(Connection con, Table t) throws SQLException {
+        long cursor = 0;
+        String max = FEED_MAX.get(t.name);
+        if (max != null) {  // read first: changes made during the reload are picked up by the next sync
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(max)) { rs.next(); cursor = rs.getLong(1); }
+        }
+        ConcurrentSkipListMap<Long, Object[]> rows = new ConcurrentSkipListMap<>();
+        select(con, t, "", List.of(), rows);
+        if (!sameRows(rows, t.rows)) t.changed = true;
+        t.rows = rows;
+        t.dirty.clear();
+        t.feedCursor = cursor;
+        t.fullAt = System.currentTimeMillis();
+    }
+
+    private static boolean sameRows(Map<Long, Object[]> a, Map<Long, Object[]> b) {
+        if (b == null || a.size() != b.size()) return false;
+        for (Map.Entry<Long, Object[]> e : a.entrySet()) if (!Arrays.equals(e.getValue(), b.get(e.getKey()))) return false;
+        return true;
+    }
+
+    // Adds the keys named by the table's change feed to ids; returns the new feed cursor.
+    private static long feed(Connection con, Table t, Set<Long> ids) throws SQLException {
+        String sql = FEEDS.get(t.name);
+        if (sql == null) return t.feedCursor;
+        long cursor = t.feedCursor;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, cursor);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) { cursor = rs.getLong(1); ids.add(rs.getLong(2)); }
+            }
+        }
+        return cursor;
+    }
+
+    private static boolean refetch(Connection con, Table t, Set<Long> ids) throws SQLException {
+        boolean reshaped = false;
+        List<Long> all = new ArrayList<>(ids);
+        for (int i=0;i<all.size();i+=IN_CHUNK) {
+            List<Long> chunk = all.subList(i, Math.min(all.size(), i + IN_CHUNK));
+            ConcurrentSkipListMap<Long, Object[]> found = new ConcurrentSkipListMap<>();
+            reshaped |= select(con, t, " WHERE " + t.pk + " IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    new ArrayList<>(chunk), found);
+            for (Long id : chunk) {
+                Object[] row = found.get(id);
+                if (row == null) t.rows.remove(id); else t.rows.put(id, row);
+            }
+        }
+        return reshaped;
+    }
+
+    /** Reads matching rows into {@code into}; true when the column list differed from the one held (schema change). */
+    private static boolean select(Connection con, Table t, String where, List<Object> params,
+                                  Map<Long, Object[]> into) throws SQLException {
+        boolean reshaped = false;
+        try (PreparedStatement ps = con.prepareStatement("SELECT * FROM " + t.name + where + " ORDER BY " + t.pk)) {
+            for (int i=0;i<params.size();i++) ps.setObject(i + 1, params.get(i));
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData md = rs.getMetaData();
+                List<String> names = new ArrayList<>();
+                List<Integer> source = new ArrayList<>();   // result-set column of each kept column
+                for (int i=1;i<=md.getColumnCount();i++) {
+                    String c = md.getColumnLabel(i);
+                    if (t.excluded.contains(c.toLowerCase(Locale.ROOT))) continue;
+                    names.add(c); source.add(i);
+                }
+                int n = names.size();
+                if (t.columns == null || !Arrays.equals(t.columns, names.toArray())) {
+                    String[] cols = names.toArray(new String[0]);
+                    t.pkCol = column(cols, t.pk);
+                    t.columns = cols;
+                    reshaped = true;
+                }
+                int[] src = source.stream().mapToInt(Integer::intValue).toArray();
+                while (rs.next()) {
+                    Object[] row = new Object[n];
+                    for (int i=0;i<n;i++) row[i] = rs.getObject(src[i]);
+                    into.put(((Number) row[t.pkCol]).longValue(), row);
+                }
+            }
+        }
+        return reshaped;
+    }
+
+    // ---------- SNAPSHOT FILES ----------
+    // int magic, int version, long fullAt, long feedCursor, columns, pk column, rows of tagged values
+    private void save(Table t) {
+        if (!t.ready()) return;
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve(t.name + ".snap"), tmp = dir.resolve(t.name + ".snap.tmp");
+            t.changed = false;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                String[] cols = t.columns;
+                out.writeInt(MAGIC); out.writeInt(VERSION);
+                out.writeLong(t.fullAt); out.writeLong(t.feedCursor);
+                out.writeInt(cols.length);
+                for (String c : cols) out.writeUTF(c);
+                out.writeInt(t.pkCol);
+                Collection<Object[]> rows = new ArrayList<>(t.rows.values());
+                out.writeInt(rows.size());
+                for (Object[] row : rows) for (Object v : row) writeValue(out, v);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            t.changed = true;
+            System.err.println("[replica] could not save " + t.name + ": " + e.getMessage());
+        }
+    }
+
+    private void saveQuietly() {
+        for (Table t : tables.values()) if (t.changed) save(t);
+    }
+
+    private void load(Table t) {
+        Path file = dir.resolve(t.name + ".snap");
+        if (!Files.isRegularFile(file)) return;
+        String stale = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            long fullAt = in.readLong(), cursor = in.readLong();
+            String[] cols = new String[in.readInt()];
+            for (int i=0;i<cols.length;i++) cols[i] = in.readUTF();
+            for (String c : cols) {
+                if (t.excluded.contains(c.toLowerCase(Locale.ROOT))) { stale = c; break; }   // written before the column was excluded
+            }
+            if (stale == null) {
+                int pkCol = in.readInt();
+                ConcurrentSkipListMap<Long, Object[]> rows = new ConcurrentSkipListMap<>();
+                for (int r=in.readInt();r>0;r--) {
+                    Object[] row = new Object[cols.length];
+                    for (int i=0;i<cols.length;i++) row[i] = readValue(in);
+                    rows.put(((Number) row[pkCol]).longValue(), row);
+                }
+                t.columns = cols; t.pkCol = pkCol; t.fullAt = fullAt; t.feedCursor = cursor; t.rows = rows;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[replica] ignoring unreadable " + file + ": " + e.getMessage());
+            return;
+        }
+        if (stale == null) return;
+        try {
+            Files.delete(file);
+            System.err.println("[replica] deleted " + file + ": it holds excluded column " + stale);
+        } catch (IOException e) {
+            System.err.println("[replica] could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static final byte NULL = 0, INT = 1, LONG = 2, STRING = 3, DECIMAL = 4, BOOL = 5, DATE = 6, DATETIME = 7, TIMESTAMP = 8, DOUBLE = 9;
+
+    private static void writeValue(DataOutputStream out, Object v) throws IOException {
+        switch (v) {
+            case null -> out.writeByte(NULL);
+            case Integer i -> { out.writeByte(INT); out.writeInt(i); }
+            case Long l -> { out.writeByte(LONG); out.writeLong(l); }
+            case BigDecimal d -> { out.writeByte(DECIMAL); writeString(out, d.toPlainString()); }
+            case Boolean b -> { out.writeByte(BOOL); out.writeBoolean(b); }
+            case java.sql.Date d -> { out.writeByte(DATE); out.writeLong(d.toLocalDate().toEpochDay()); }
+            case LocalDate d -> { out.writeByte(DATE); out.writeLong(d.toEpochDay()); }
+            case Timestamp ts -> { out.writeByte(TIMESTAMP); out.writeLong(ts.getTime()); }
+            case LocalDateTime dt -> { out.writeByte(DATETIME); writeString(out, dt.toString()); }
+            case Double d -> { out.writeByte(DOUBLE); out.writeDouble(d); }
+            default -> { out.writeByte(STRING); writeString(out, v.toString()); }
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case STRING -> readString(in);
+            case DECIMAL -> new BigDecimal(readString(in));
+            case BOOL -> in.readBoolean();
+            case DATE -> java.sql.Date.valueOf(LocalDate.ofEpochDay(in.readLong()));
+            case DATETIME -> LocalDateTime.parse(readString(in));
+            case TIMESTAMP -> new Timestamp(in.readLong());
+            case DOUBLE -> in.readDouble();
+            default -> throw new IOException("bad value tag " + tag);
+        };
+    }
+
+    // writeUTF stops at 64 KB; TEXT columns may be longer
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length); out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] b = new byte[in.readInt()];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,374 @@
+package wayanad;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for help-desk lookups of people by name, place, phone or Aadhaar.
+ *
+ * Covers MissingPerson.name / last_seen_location and Person.name / phone / aadhar_no. Text is folded
+ * ({@link #normalize}) so common transliteration variants of Malayalam names meet
+ * (Shaji/Shaaji, Thomas/Tomas, Azhikode/Alikode, Nimmy/Nimy), split into padded trigrams and
+ * each trigram maps to a primitive {@code int[]} posting list of document numbers. A query
+ * counts shared trigrams per document and ranks by Dice similarity, never touching MySQL.
+ *
+ * Loaded once in the background at startup ({@link #startLoading}) and kept current from
+ * {@link DataEvents} published by RecordManager writes.
+ */
+final class NameIndex {
+
+    enum Source {
+        MISSING_NAME("MissingPerson", "name", false),
+        MISSING_LOCATION("MissingPerson", "last_seen_location", false),
+        PERSON_NAME("Person", "name", false),
+        PERSON_PHONE("Person", "phone", true),
+        PERSON_AADHAR("Person", "aadhar_no", true);
+
+        final String table, column;
+        final boolean identifier; // phone/Aadhaar: separators dropped, no phonetic folding
+        Source(String t, String c, boolean id) { table = t; column = c; identifier = id; }
+    }
+
+    record Match(Source source, int id, String text, float score) {}
+
+    // ' ' + a-z + 0-9 → every trigram fits a dense int code
+    private static final int ALPHABET = 37, GRAMS = ALPHABET * ALPHABET * ALPHABET;
+    private static final Source[] SOURCES = Source.values();
+
+    private static volatile NameIndex shared;
+
+    static NameIndex shared() {
+        NameIndex n = shared;
+        if (n == null) {
+            synchronized (NameIndex.class) {
+                if (shared == null) {
+                    shared = new NameIndex();
+                    DataEvents.subscribe(shared::onRowChanged);
+                }
+                n = shared;
+            }
+        }
+        return n;
+    }
+
+    // ---------- STATE (guarded by lock) ----------
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[][] postings = new int[GRAMS][];
+    private int[] postingLen = new int[GRAMS];
+    private int[] docKey = new int[1024];
+    private byte[] docSource = new byte[1024];
+    private short[] docGrams = new short[1024];
+    private String[] docText = new String[1024];
+    private BitSet deleted = new BitSet();
+    private int docs, dead;
+    private LongIntMap byKey = new LongIntMap();
+    private List<Runnable> replay;             // writes seen while a reload is streaming
+    private volatile boolean ready;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    boolean isReady() { return ready; }
+
+    int size() {
+        lock.readLock().lock();
+        try { return docs - dead; } finally { lock.readLock().unlock(); }
+    }
+
+    // ---------- LOADING ----------
+    /** Streams both tables into a fresh index in the background and swaps it in. */
+    void startLoading() {
+        QueryExecutor.shared().<Integer>submit(QueryMetrics.as("nameIndex", (con, task) -> reload(con)), n -> {},
+                ex -> System.err.println("[name-index] load failed: " + ex.getMessage()));
+    }
+
+    int reload(Connection con) throws SQLException {
+        lock.writeLock().lock();
+        try { replay = new ArrayList<>(); } finally { lock.writeLock().unlock(); }
+        NameIndex fresh = new NameIndex();
+        try {
+            try (PreparedStatement ps = RowStream.prepare(con, "SELECT missing_id, name, last_seen_location FROM MissingPerson");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    fresh.put(Source.MISSING_NAME, id, rs.getString(2));
+                    fresh.put(Source.MISSING_LOCATION, id, rs.getString(3));
+                }
+            }
+            try (PreparedStatement ps = RowStream.prepare(con, "SELECT person_id, name, phone, aadhar_no FROM Person");
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    fresh.put(Source.PERSON_NAME, id, rs.getString(2));
+                    fresh.put(Source.PERSON_PHONE, id, rs.getString(3));
+                    fresh.put(Source.PERSON_AADHAR, id, rs.getString(4));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            lock.writeLock().lock();
+            try { replay = null; } finally { lock.writeLock().unlock(); }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            postings = fresh.postings; postingLen = fresh.postingLen;
+            docKey = fresh.docKey; docSource = fresh.docSource; docGrams = fresh.docGrams; docText = fresh.docText;
+            deleted = fresh.deleted; docs = fresh.docs; dead = fresh.dead; byKey = fresh.byKey;
+            List<Runnable> pending = replay;
+            replay = null;
+            for (Runnable r : pending) r.run();
+            ready = true;
+            return docs - dead;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------- UPDATES ----------
+    /** Adds or replaces the text indexed for (source, id); null/blank removes it. */
+    void put(Source src, int id, String text) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) replay.add(() -> putLocked(src, id, text));
+            putLocked(src, id, text);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Source src, int id) { put(src, id, null); }
+
+    private void onRowChanged(DataEvents.RowChange c) {
+        if (!(c.pk() instanceof Number n)) return;
+        int id = n.intValue();
+        for (Source s : SOURCES) {
+            if (!s.table.equalsIgnoreCase(c.table())) continue;
+            if (c.op() == DataEvents.Op.DELETE) remove(s, id);
+            else if (c.has(s.column)) put(s, id, Objects.toString(c.get(s.column), null));
+        }
+    }
+
+    private void putLocked(Source src, int id, String text) {
+        long key = ((long) src.ordinal() << 32) | (id & 0xffffffffL);
+        int old = byKey.get(key);
+        if (old >= 0) {
+            if (Objects.equals(docText[old], text)) return;
+            deleted.set(old); dead++;
+            byKey.remove(key);
+        }
+        if (text != null && !text.isBlank()) {
+            int[] grams = grams(src.identifier ? normalizeIdentifier(text) : normalize(text));
+            if (grams.length > 0) {
+                int d = addDoc(src, id, text, grams.length);
+                for (int g : grams) append(g, d);
+                byKey.put(key, d);
+            }
+        }
+        if (dead > 1024 && dead > docs / 2) compact();
+    }
+
+    private int addDoc(Source src, int id, String text, int gramCount) {
+        if (docs == docKey.length) {
+            int cap = docs + (docs >> 1);
+            docKey = Arrays.copyOf(docKey, cap); docSource = Arrays.copyOf(docSource, cap);
+            docGrams = Arrays.copyOf(docGrams, cap); docText = Arrays.copyOf(docText, cap);
+        }
+        docKey[docs] = id; docSource[docs] = (byte) src.ordinal();
+        docGrams[docs] = (short) Math.min(gramCount, Short.MAX_VALUE); docText[docs] = text;
+        return docs++;
+    }
+
+    private void append(int g, int d) {
+        int[] p = postings[g];
+        int len = postingLen[g];
+        if (p == null) p = postings[g] = new int[4];
+        else if (len == p.length) p = postings[g] = Arrays.copyOf(p, len + (len >> 1) + 1);
+        p[len] = d;
+        postingLen[g] = len + 1;
+    }
+
+    /** Drops tombstoned documents and renumbers the rest. */
+    private void compact() {
+        NameIndex fresh = new NameIndex();
+        for (int d = 0; d < docs; d++) if (!deleted.get(d)) fresh.putLocked(SOURCES[docSource[d]], docKey[d], docText[d]);
+        postings = fresh.postings; postingLen = fresh.postingLen;
+        docKey = fresh.docKey; docSource = fresh.docSource; docGrams = fresh.docGrams; docText = fresh.docText;
+        deleted = fresh.deleted; docs = fresh.docs; dead = fresh.dead; byKey = fresh.byKey;
+    }
+
+    // ---------- SEARCH ----------
+    List<Match> search(String query, int limit, float minScore, Set<Source> sources) {
+        int[] qGrams = grams(normalize(query));
+        int[] qIdGrams = grams(normalizeIdentifier(query));
+        if (qGrams.length == 0 && qIdGrams.length == 0) return List.of();
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+
+        lock.readLock().lock();
+        try {
+            Scratch s = scratch.get();
+            s.ensure(docs);
+            collect(qGrams, s, sources, false);
+            rank(s, qGrams.length, limit, minScore, top);
+            collect(qIdGrams, s, sources, true);
+            rank(s, qIdGrams.length, limit, minScore, top);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Match> out = new ArrayList<>(top);
+        out.sort(Comparator.comparingDouble(Match::score).reversed());
+        return out;
+    }
+
+    private void collect(int[] grams, Scratch s, Set<Source> sources, boolean identifiers) {
+        for (int g : grams) {
+            int[] p = postings[g];
+            for (int i = 0, n = postingLen[g]; i < n; i++) {
+                int d = p[i];
+                Source src = SOURCES[docSource[d]];
+                if (src.identifier != identifiers || (sources != null && !sources.contains(src))) continue;
+                if (s.counts[d]++ == 0) s.touch(d);
+            }
+        }
+    }
+
+    private void rank(Scratch s, int qLen, int limit, float minScore, PriorityQueue<Match> top) {
+        for (int i = 0; i < s.touched; i++) {
+            int d = s.docs[i];
+            int common = s.counts[d];
+            s.counts[d] = 0;
+            if (deleted.get(d)) continue;
+            float score = 2f * common / (qLen + docGrams[d]);
+            if (score < minScore) continue;
+            if (top.size() < limit) top.add(new Match(SOURCES[docSource[d]], docKey[d], docText[d], score));
+            else if (score > top.peek().score()) { top.poll(); top.add(new Match(SOURCES[docSource[d]], docKey[d], docText[d], score)); }
+        }
+        s.touched = 0;
+    }
+
+    private static final class Scratch {
+        short[] counts = new short[0];
+        int[] docs = new int[256];
+        int touched;
+        void ensure(int n) { if (counts.length < n) counts = new short[n + (n >> 2)]; }
+        void touch(int d) {
+            if (touched == docs.length) docs = Arrays.copyOf(docs, touched * 2);
+            docs[touched++] = d;
+        }
+    }
+
+    // ---------- TEXT ----------
+    private static final String[][] FOLDS = {
+            {"zh", "l"}, {"th", "t"}, {"dh", "d"}, {"kh", "k"}, {"gh", "g"}, {"bh", "b"}, {"ph", "f"},
+            {"sh", "s"}, {"ch", "c"}, {"ee", "i"}, {"oo", "u"}, {"w", "v"}, {"y", "i"}, {"q", "k"}, {"x", "ks"}
+    };
+
+    /** Lower-case, fold transliteration variants, keep [a-z0-9 ], collapse doubled letters. */
+    static String normalize(String s) {
+        if (s == null) return "";
+        String t = s.toLowerCase(Locale.ROOT);
+        for (String[] f : FOLDS) t = t.replace(f[0], f[1]);
+        StringBuilder sb = new StringBuilder(t.length());
+        char prev = ' ';
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                if (c == prev) continue;
+                sb.append(c); prev = c;
+            } else if (c >= '0' && c <= '9') {
+                sb.append(c); prev = c;
+            } else if (prev != ' ') {
+                sb.append(' '); prev = ' ';
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    /** Phone / Aadhaar: lower-case alphanumerics only, separators dropped. */
+    static String normalizeIdentifier(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = Character.toLowerCase(s.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** Distinct trigram codes of each word padded as "  word ". */
+    static int[] grams(String norm) {
+        if (norm.isEmpty()) return new int[0];
+        int[] out = new int[norm.length() * 2 + 4];
+        int n = 0;
+        for (String w : norm.split(" ")) {
+            if (w.isEmpty()) continue;
+            String padded = "  " + w + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                int g = (code(padded.charAt(i)) * ALPHABET + code(padded.charAt(i + 1))) * ALPHABET + code(padded.charAt(i + 2));
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = g;
+            }
+        }
+        int[] sorted = Arrays.copyOf(out, n);
+        Arrays.sort(sorted);
+        int u = 0;
+        for (int i = 0; i < n; i++) if (i == 0 || sorted[i] != sorted[i - 1]) sorted[u++] = sorted[i];
+        return Arrays.copyOf(sorted, u);
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') return 1 + (c - 'a');
+        if (c >= '0' && c <= '9') return 27 + (c - '0');
+        return 0;
+    }
+
+    // ---------- long → int open-addressing map (no boxing) ----------
+    static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE, GONE = Long.MIN_VALUE + 1;
+        private long[] keys = newKeys(1 << 12);
+        private int[] vals = new int[1 << 12];
+        private int size, used;
+
+        private static long[] newKeys(int n) { long[] k = new long[n]; Arrays.fill(k, EMPTY); return k; }
+        private static int mix(long k) { long h = k * 0x9E3779B97F4A7C15L; return (int) (h ^ (h >>> 32)); }
+
+        int get(long k) {
+            int mask = keys.length - 1;
+            for (int i = mix(k) & mask; ; i = (i + 1) & mask) {
+                long c = keys[i];
+                if (c == EMPTY) return -1;
+                if (c == k) return vals[i];
+            }
+        }
+
+        void put(long k, int v) {
+            if ((used + 1) * 4 >= keys.length * 3) rehash(size * 4 >= keys.length ? keys.length * 2 : keys.length);
+            int mask = keys.length - 1, tomb = -1;
+            for (int i = mix(k) & mask; ; i = (i + 1) & mask) {
+                long c = keys[i];
+                if (c == k) { vals[i] = v; return; }
+                if (c == GONE && tomb < 0) tomb = i;
+                if (c == EMPTY) {
+                    int at = tomb >= 0 ? tomb : i;
+                    if (tomb < 0) used++;
+                    keys[at] = k; vals[at] = v; size++;
+                    return;
+                }
+            }
+        }
+
+        void remove(long k) {
+            int mask = keys.length - 1;
+            for (int i = mix(k) & mask; ; i = (i + 1) & mask) {
+                long c = keys[i];
+                if (c == EMPTY) return;
+                if (c == k) { keys[i] = GONE; size--; return; }
+            }
+        }
+
+        private void rehash(int cap) {
+            long[] ok = keys; int[] ov = vals;
+            keys = newKeys(cap); vals = new int[cap]; size = 0; used = 0;
+            for (int i = 0; i < ok.length; i++) if (ok[i] != EMPTY && ok[i] != GONE) put(ok[i], ov[i]);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package wayanad;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Read-only table model that fetches rows lazily, one keyset page at a time, as the JTable asks for them.
+ *
+ * Pages are read with {@code WHERE pk > last ORDER BY pk LIMIT n} (or {@code <} / DESC), so every fetch is
+ * an index range scan no matter how deep the user scrolls. Only {@code grid.cachedPages} pages are kept
+ * (LRU); besides that the model holds one boundary key per visited page. Jumping far ahead first seeks the
+ * boundary on the primary-key index alone, without reading the skipped rows.
+ *
+ * The row count starts as an estimate (InnoDB's {@code TABLE_ROWS}, or the primary-key span elsewhere) and
+ * is corrected as pages are read: a short page ends the table, a full last page adds another page, and a
+ * seek past the end counts only the rows after the last boundary it passed. No {@code COUNT(*)} of the table.
+ *
+ * While open the model follows {@link ChangeFeed}: rows changed elsewhere are re-read in place, inserts and
+ * deletes adjust the row count and drop the cached pages, which the table then re-reads as it repaints.
+ *
+ * With {@link #setEditable} the listed columns can be edited in place. Edits are only staged: they are
+ * kept by primary key (so they outlive page eviction and live re-reads), shown over the loaded values
+ * and handed out by {@link #staged()}; {@link #applyCommitted} writes saved values into the cached rows.
+ *
+ * All state is touched on the EDT only; fetches run through {@link QueryExecutor}.
+ */
+final class PagedTableModel extends AbstractTableModel {
+
+    private static final int MAX_IN_FLIGHT = 4;
+
+    final String table, pk;
+    final boolean descending;
+    final int pageSize, maxPages;
+    // fixed texts, so the connection's statement cache serves every page after the first
+    private final String firstPage, pageAfter, seekFirst, seekAfter, countFirst, countAfter;
+
+    private String[] columns = new String[0];
+    private int pkCol = -1, rowCount;
+    private boolean closed, exact;   // exact: the row count was confirmed by reaching the end
+    private long logMark;       // changes logged up to here are already in what open() read
+    private final ChangeFeed.Listener live = changes -> SwingUtilities.invokeLater(() -> apply(changes));
+
+    private final LinkedHashMap<Integer, Object[][]> pages;
+    // page -> pk of the last row of the previous page (page 0 starts at the beginning)
+    private final TreeMap<Integer, Object> boundaries = new TreeMap<>();
+    private final LinkedHashMap<Integer, QueryExecutor.QueryTask<?>> inFlight = new LinkedHashMap<>();
+
+    private Set<String> editable = Set.of();                            // lower-case column names
+    // pk (as text) -> the row's key and its edited columns (column index -> value as entered), in edit order
+    private final LinkedHashMap<String, Map.Entry<Object, Map<Integer, Object>>> staged = new LinkedHashMap<>();
+
+    PagedTableModel(String table, String pk, boolean descending) {
+        this.table = table; this.pk = pk; this.descending = descending;
+        DbConfig cfg = DbConfig.get();
+        this.pageSize = Math.max(20, cfg.integer("grid.pageSize", 200));
+        this.maxPages = Math.max(3, cfg.integer("grid.cachedPages", 20));
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> e) { return size() > maxPages; }
+        };
+        boundaries.put(0, null);
+        String order = " ORDER BY " + pk + (descending ? " DESC" : ""), after = " WHERE " + pk + (descending ? " < ?" : " > ?");
+        firstPage = "SELECT * FROM " + table + order + " LIMIT " + pageSize;
+        pageAfter = "SELECT * FROM " + table + after + order + " LIMIT " + pageSize;
+        seekFirst = "SELECT " + pk + " FROM " + table + order + " LIMIT 1 OFFSET ?";
+        seekAfter = "SELECT " + pk + " FROM " + table + after + order + " LIMIT 1 OFFSET ?";
+        countFirst = "SELECT COUNT(*) FROM " + table;
+        countAfter = "SELECT COUNT(*) FROM " + table + after;
+    }
+
+    private record Opened(String[] columns, int estimate, Object[][] firstPage, long logMark) {}
+    private record Loaded(Object after, Object[][] rows, int total) {}   // total: rows in the table when a seek ran past the end, else -1
+
+    /** Reads column names, a row-count estimate and the first page; {@code onReady} runs on the EDT. */
+    QueryExecutor.QueryTask<?> open(Runnable onReady, Consumer<? super Exception> onError) {
+        return QueryExecutor.shared().<Opened>submit(QueryMetrics.as("viewer", (con, task) -> {
+            long mark = ChangeFeed.enabled() ? ChangeFeed.mark(con) : 0;   // before the reads it vouches for
+            String[] cols; int count;
+            try (Statement st = task.track(con.createStatement())) {
+                try (ResultSet rs = st.executeQuery("SELECT * FROM " + table + " WHERE 1=0")) {
+                    ResultSetMetaData m = rs.getMetaData();
+                    cols = new String[m.getColumnCount()];
+                    for (int i=1;i<=cols.length;i++) cols[i-1] = m.getColumnName(i);
+                }
+                count = estimate(con, st);
+            }
+            return new Opened(cols, count, fetchPage(con, task, null), mark);
+        }), o -> {
+            if (closed) return;
+            columns = o.columns(); rowCount = Math.max(1, o.estimate()); logMark = o.logMark();   // install() corrects the count from the first page
+            pkCol = Arrays.asList(columns).indexOf(pk);
+            if (pkCol < 0) for (int i=0;i<columns.length;i++) if (columns[i].equalsIgnoreCase(pk)) pkCol = i;
+            fireTableStructureChanged();
+            install(0, o.firstPage());
+            if (ChangeFeed.enabled()) ChangeFeed.subscribe(live);
+            if (onReady != null) onReady.run();
+        }, onError);
+    }
+
+    /** False while the row count is still the estimate (or a correction of it) rather than the end of the table. */
+    boolean exactCount() { return exact; }
+
+    void close() {
+        closed = true;
+        ChangeFeed.unsubscribe(live);
+        for (QueryExecutor.QueryTask<?> t : inFlight.values()) t.abort();
+        inFlight.clear(); pages.clear(); boundaries.clear();
+    }
+
+    /** Row index of the cached row with key {@code key}, or -1 (not loaded or not present). */
+    int rowOf(Object key) {
+        if (key == null || pkCol < 0) return -1;
+        String k = String.valueOf(key);
+        for (Map.Entry<Integer, Object[][]> e : pages.entrySet()) {
+            Object[][] rows = e.getValue();
+            for (int i=0;i<rows.length;i++) if (k.equals(String.valueOf(rows[i][pkCol]))) return e.getKey() * pageSize + i;
+        }
+        return -1;
+    }
+
+    // ---------- LIVE CHANGES ----------
+    private void apply(List<ChangeFeed.Change> changes) {
+        if (closed || pkCol < 0) return;
+        int delta = 0;
+        boolean structural = false;
+        Set<String> updated = new HashSet<>();
+        for (ChangeFeed.Change c : changes) {
+            if (c.logId() <= logMark || !c.table().equalsIgnoreCase(table)) continue;
+            switch (c.op()) {
+                case INSERT -> { delta++; structural = true; }
+                case DELETE -> { delta--; structural = true; }
+                case UPDATE -> updated.add(String.valueOf(c.pk()));
+            }
+        }
+        if (structural) {
+            // positions shift: count by the log (no COUNT(*)), forget the pages and let the table re-read what it shows
+            rowCount = Math.max(0, rowCount + delta);
+            for (QueryExecutor.QueryTask<?> t : inFlight.values()) t.abort();
+            inFlight.clear(); pages.clear(); boundaries.clear();
+            boundaries.put(0, null);
+            fireTableDataChanged();
+        } else if (!updated.isEmpty()) {
+            reread(updated);
+        }
+    }
+
+    // Re-reads changed rows that are cached, by primary key, and patches them in place.
+    private void reread(Set<String> keys) {
+        List<Object> cached = new ArrayList<>();
+        for (Object[][] rows : pages.values()) for (Object[] row : rows) if (keys.contains(String.valueOf(row[pkCol]))) cached.add(row[pkCol]);
+        if (cached.isEmpty()) return;
+        String sql = "SELECT * FROM " + table + " WHERE " + pk + " IN (" + String.join(",", Collections.nCopies(cached.size(), "?")) + ")";
+        QueryExecutor.shared().<Object[][]>submit(QueryMetrics.as("viewer", (con, t) -> {
+            try (PreparedStatement ps = t.track(con.prepareStatement(sql))) {
+                for (int i=0;i<cached.size();i++) ps.setObject(i + 1, cached.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    int cols = rs.getMetaData().getColumnCount();
+                    List<Object[]> rows = new ArrayList<>();
+                    while (rs.next()) {
+                        Object[] row = new Object[cols];
+                        for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+                        rows.add(row);
+                    }
+                    return rows.toArray(new Object[0][]);
+                }
+            }
+        }), fresh -> {
+            if (closed) return;
+            for (Object[] row : fresh) {
+                int r = rowOf(row[pkCol]);
+                if (r < 0) continue;
+                Object[][] page = pages.get(r / pageSize);
+                if (page != null && row.length == columns.length) { page[r % pageSize] = row; fireTableRowsUpdated(r, r); }
+            }
+        }, ex -> System.err.println("Refreshing changed rows of " + table + " failed: " + ex.getMessage()));
+    }
+
+    // ---------- TableModel ----------
+    @Override public int getRowCount() { return rowCount; }
+    @Override public int getColumnCount() { return columns.length; }
+    @Override public String getColumnName(int c) { return columns[c]; }
+
+    @Override
+    public Object getValueAt(int r, int c) {
+        int p = r / pageSize, i = r % pageSize;
+        Object[][] page = pages.get(p);
+        if (page == null) { requestPage(p); return null; }
+        if (i >= pageSize / 2) requestPage(p + 1); // prefetch while the user is still in this page
+        if (i >= page.length) return null;
+        if (!staged.isEmpty()) {
+            Map.Entry<Object, Map<Integer, Object>> e = staged.get(String.valueOf(page[i][pkCol]));
+            if (e != null && e.getValue().containsKey(c)) return e.getValue().get(c);
+        }
+        return page[i][c];
+    }
+
+    @Override
+    public boolean isCellEditable(int r, int c) {
+        return !editable.isEmpty() && c != pkCol && editable.contains(columns[c].toLowerCase(Locale.ROOT)) && loadedRow(r) != null;
+    }
+
+    @Override
+    public void setValueAt(Object v, int r, int c) {
+        Object[] row = loadedRow(r);
+        if (row == null || !isCellEditable(r, c)) return;
+        String k = String.valueOf(row[pkCol]);
+        if (v instanceof String s && s.isBlank()) v = null;
+        if (Objects.equals(Objects.toString(v, null), Objects.toString(row[c], null))) {   // back to what is stored
+            Map.Entry<Object, Map<Integer, Object>> e = staged.get(k);
+            if (e != null) { e.getValue().remove(c); if (e.getValue().isEmpty()) staged.remove(k); }
+        } else {
+            staged.computeIfAbsent(k, x -> Map.entry(row[pkCol], new LinkedHashMap<>())).getValue().put(c, v);
+        }
+        fireTableCellUpdated(r, c);
+    }
+
+    // ---------- EDITING ----------
+    /** Columns that may be edited in place; empty turns editing off (staged edits are kept). */
+    void setEditable(Collection<String> cols) {
+        Set<String> s = new HashSet<>();
+        for (String c : cols) s.add(c.toLowerCase(Locale.ROOT));
+        editable = s;
+    }
+
+    boolean isStaged(int r, int c) {
+        if (staged.isEmpty()) return false;
+        Object[] row = loadedRow(r);
+        Map.Entry<Object, Map<Integer, Object>> e = row == null ? null : staged.get(String.valueOf(row[pkCol]));
+        return e != null && e.getValue().containsKey(c);
+    }
+
+    int stagedRows() { return staged.size(); }
+
+    /** Staged edits: row key -> column name -> value as entered (null = cleared), in edit order. */
+    Map<Object, Map<String, Object>> staged() {
+        Map<Object, Map<String, Object>> out = new LinkedHashMap<>();
+        for (Map.Entry<Object, Map<Integer, Object>> e : staged.values()) {
+            Map<String, Object> cells = new LinkedHashMap<>();
+            e.getValue().forEach((c, v) -> cells.put(columns[c], v));
+            out.put(e.getKey(), cells);
+        }
+        return out;
+    }
+
+    void discardStaged() {
+        if (staged.isEmpty()) return;
+        staged.clear();
+        fireTableDataChanged();
+    }
+
+    /** Carries staged edits and the editable columns over from the model this one replaces. */
+    void adoptEdits(PagedTableModel old) {
+        editable = old.editable;
+        old.staged.forEach((k, e) -> staged.put(k, Map.entry(e.getKey(), new LinkedHashMap<>(e.getValue()))));
+    }
+
+    /**
+     * Writes saved values (row key -> column name -> stored value) into the cached rows and drops the
+     * matching staged edits; rows not cached are left to the next page read.
+     */
+    void applyCommitted(Map<Object, Map<String, Object>> saved) {
+        if (pkCol < 0) return;
+        Map<String, Integer> colIndex = new HashMap<>();
+        for (int i=0;i<columns.length;i++) colIndex.put(columns[i].toLowerCase(Locale.ROOT), i);
+        saved.forEach((pkVal, cells) -> {
+            String k = String.valueOf(pkVal);
+            Map.Entry<Object, Map<Integer, Object>> e = staged.get(k);
+            int r = rowOf(pkVal);
+            Object[] row = r < 0 ? null : loadedRow(r);
+            cells.forEach((name, v) -> {
+                Integer c = colIndex.get(name.toLowerCase(Locale.ROOT));
+                if (c == null) return;
+                if (row != null) row[c] = v;
+                if (e != null) e.getValue().remove(c);
+            });
+            if (e != null && e.getValue().isEmpty()) staged.remove(k);
+            if (r >= 0) fireTableRowsUpdated(r, r);
+        });
+    }
+
+    private Object[] loadedRow(int r) {
+        if (pkCol < 0 || r < 0) return null;
+        Object[][] page = pages.get(r / pageSize);
+        int i = r % pageSize;
+        return page == null || i >= page.length ? null : page[i];
+    }
+
+    // ---------- PAGING ----------
+    private void requestPage(int p) {
+        if (closed || p < 0 || (long) p * pageSize >= rowCount || pkCol < 0) return;
+        if (pages.containsKey(p) || inFlight.containsKey(p)) return;
+
+        Map.Entry<Integer, Object> known = boundaries.floorEntry(p);
+        int fromPage = known.getKey();
+        Object fromKey = known.getValue();
+        QueryExecutor.QueryTask<Loaded> task = QueryExecutor.shared().<Loaded>submit(QueryMetrics.as("viewer", (con, t) -> {
+            Object after = fromKey;
+            if (fromPage < p) {
+                after = seek(con, t, fromKey, (p - fromPage) * pageSize - 1);
+                if (after == null) return new Loaded(null, new Object[0][], fromPage * pageSize + countAfter(con, t, fromKey));
+            }
+            return new Loaded(after, fetchPage(con, t, after), -1);
+        }), l -> {
+            inFlight.remove(p);
+            if (closed) return;
+            if (l.total() >= 0) { resize(l.total(), true); return; }
+            if (p > 0 && l.after() != null) boundaries.put(p, l.after());
+            install(p, l.rows());
+        }, ex -> {
+            inFlight.remove(p);
+            System.err.println("Page " + p + " of " + table + " failed: " + ex.getMessage());
+        });
+        inFlight.put(p, task);
+
+        // fast scrolling: drop the oldest outstanding request rather than queueing dozens
+        if (inFlight.size() > MAX_IN_FLIGHT) {
+            Iterator<Map.Entry<Integer, QueryExecutor.QueryTask<?>>> it = inFlight.entrySet().iterator();
+            it.next().getValue().abort(); it.remove();
+        }
+    }
+
+    private void install(int p, Object[][] rows) {
+        pages.put(p, rows);
+        int end = (p + 1) * pageSize;
+        if (rows.length < pageSize) resize(p * pageSize + rows.length, true);
+        else if (end > rowCount || !exact && end == rowCount) resize(end + pageSize, false);   // more rows than estimated
+        if (rows.length > 0 && pkCol >= 0) boundaries.putIfAbsent(p + 1, rows[rows.length - 1][pkCol]);
+        int first = p * pageSize, last = Math.min(rowCount, first + pageSize) - 1;
+        if (last >= first) fireTableRowsUpdated(first, last);
+    }
+
+    private void resize(int count, boolean atEnd) {
+        int old = rowCount;
+        rowCount = count;
+        exact = atEnd;
+        if (count > old) fireTableRowsInserted(old, count - 1);
+        else if (count < old) fireTableRowsDeleted(count, old - 1);
+    }
+
+    // InnoDB's estimate from the table statistics; the primary-key span elsewhere (H2 in the benchmarks)
+    private int estimate(Connection con, Statement st) throws SQLException {
+        if ("MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName())) {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) { return rs.next() ? (int) Math.min(Integer.MAX_VALUE, rs.getLong(1)) : 0; }
+            }
+        }
+        try (ResultSet rs = st.executeQuery("SELECT MAX(" + pk + ") - MIN(" + pk + ") + 1 FROM " + table)) {
+            return rs.next() ? (int) Math.min(Integer.MAX_VALUE, rs.getLong(1)) : 0;
+        }
+    }
+
+    // Rows after from (all rows when null); only run once a seek found fewer than a jump's worth of them.
+    private int countAfter(Connection con, QueryExecutor.QueryTask<?> t, Object from) throws SQLException {
+        try (PreparedStatement ps = t.track(con.prepareStatement(from == null ? countFirst : countAfter))) {
+            if (from != null) ps.setObject(1, from);
+            try (ResultSet rs = ps.executeQuery()) { rs.next(); return rs.getInt(1); }
+        }
+    }
+
+    private Object[][] fetchPage(Connection con, QueryExecutor.QueryTask<?> t, Object after) throws SQLException {
+        try (PreparedStatement ps = t.track(con.prepareStatement(after == null ? firstPage : pageAfter))) {
+            if (after != null) ps.setObject(1, after);
+            try (ResultSet rs = ps.executeQuery()) {
+                int cols = rs.getMetaData().getColumnCount();
+                List<Object[]> rows = new ArrayList<>(pageSize);
+                while (rs.next()) {
+                    Object[] row = new Object[cols];
+                    for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+                    rows.add(row);
+                }
+                return rows.toArray(new Object[0][]);
+            }
+        }
+    }
+
+    /** Key of the row {@code skip} rows past {@code from}, read from the PK index only. */
+    private Object seek(Connection con, QueryExecutor.QueryTask<?> t, Object from, int skip) throws SQLException {
+        try (PreparedStatement ps = t.track(con.prepareStatement(from == null ? seekFirst : seekAfter))) {
+            int i = 1;
+            if (from != null) ps.setObject(i++, from);
+            ps.setInt(i, skip);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? rs.getObject(1) : null; }
+        }
+    }
+}
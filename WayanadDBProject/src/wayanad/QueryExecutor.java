@@ -0,0 +1,158 @@
+package wayanad;
+
+import javax.swing.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs JDBC work off the Swing Event Dispatch Thread.
+ *
+ * Each {@link #submit} borrows a pooled connection on a worker (virtual threads by default,
+ * or a bounded platform pool when {@code executor.virtualThreads=false}) and delivers the
+ * result or error back on the EDT. The returned {@link QueryTask} can be aborted; this also
+ * cancels the statement currently executing on the server.
+ */
+final class QueryExecutor {
+
+    /** A unit of JDBC work; runs on a worker thread with a borrowed connection. */
+    @FunctionalInterface
+    interface DbCall<T> { T run(Connection con, QueryTask<T> task) throws Exception; }
+
+    /** Where connections come from (the shared pool in the app). */
+    @FunctionalInterface
+    interface ConnectionSource { Connection get() throws SQLException; }
+
+    private static volatile QueryExecutor shared;
+
+    static QueryExecutor shared() {
+        QueryExecutor e = shared;
+        if (e == null) {
+            synchronized (QueryExecutor.class) {
+                if (shared == null) shared = new QueryExecutor(ConnectionPool.shared()::getConnection, DbConfig.get());
+                e = shared;
+            }
+        }
+        return e;
+    }
+
+    private final ConnectionSource source;
+    private final ExecutorService workers;
+
+    QueryExecutor(ConnectionSource source, DbConfig cfg) {
+        this.source = source;
+        if (cfg.bool("executor.virtualThreads", true)) {
+            workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("wayanad-query-", 0).factory());
+        } else {
+            AtomicInteger n = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(Math.max(1, cfg.integer("executor.threads", 4)), r -> {
+                Thread t = new Thread(r, "wayanad-query-" + n.getAndIncrement()); t.setDaemon(true); return t;
+            });
+        }
+    }
+
+    <T> QueryTask<T> submit(DbCall<T> call, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+        return submit(call, null, onSuccess, onError);
+    }
+
+    /** Like {@link #submit(DbCall, Consumer, Consumer)}, but anything the call {@link QueryTask#emit emits}
+     *  is handed to {@code onChunks} on the EDT while the query is still running. */
+    <T> QueryTask<T> submit(DbCall<T> call, Consumer<List<Object>> onChunks,
+                            Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+        QueryTask<T> task = new QueryTask<>(source, call, onChunks, onSuccess, onError);
+        workers.execute(task);
+        return task;
+    }
+
+    /**
+     * Like {@link #submit(DbCall, Consumer, Consumer, Consumer)} for work that borrows its own connections
+     * (relief rounds, snapshots): the call gets {@code con == null}, so it does not sit on a pooled
+     * connection while its parallel jobs wait for theirs.
+     */
+    <T> QueryTask<T> submitUnpooled(DbCall<T> call, Consumer<List<Object>> onChunks,
+                                    Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+        QueryTask<T> task = new QueryTask<>(() -> null, call, onChunks, onSuccess, onError);
+        workers.execute(task);
+        return task;
+    }
+
+    // ---------- TASK ----------
+    static class QueryTask<T> extends SwingWorker<T, Object> {
+        private final ConnectionSource source;
+        private final DbCall<T> call;
+        private final Consumer<List<Object>> onChunks;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<? super Exception> onError;
+        private volatile Statement active;
+
+        QueryTask(ConnectionSource source, DbCall<T> call, Consumer<List<Object>> onChunks,
+                  Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+            this.source = source; this.call = call; this.onChunks = onChunks;
+            this.onSuccess = onSuccess; this.onError = onError;
+        }
+
+        /** Hand a partial result to the EDT (coalesced by SwingWorker). */
+        void emit(Object chunk) { publish(chunk); }
+
+        @Override
+        protected void process(List<Object> chunks) {
+            if (!isCancelled() && onChunks != null) onChunks.accept(chunks);
+        }
+
+        /** Register the statement being executed so {@link #abort} can stop it server-side. */
+        <S extends Statement> S track(S st) {
+            active = st;
+            if (isCancelled()) cancelStatement();
+            return st;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            if (isCancelled()) return null;
+            try (Connection con = source.get()) {
+                return call.run(con, this);
+            } finally {
+                active = null;
+            }
+        }
+
+        /**
+         * Cancel the task and the statement it is running (SwingWorker.cancel itself is final).
+         * The worker is not interrupted: that would tear down the pooled connection's socket.
+         */
+        boolean abort() {
+            boolean c = cancel(false);
+            cancelStatement();
+            return c;
+        }
+
+        private void cancelStatement() {
+            Statement st = active;
+            if (st != null) try { st.cancel(); } catch (SQLException ignore) {}
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                T v = get();
+                if (onSuccess != null) onSuccess.accept(v);
+            } catch (CancellationException ignore) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Throwable c = e.getCause();
+                Exception ex = c instanceof Exception x ? x : new RuntimeException(c);
+                if (onError != null) onError.accept(ex);
+                else ex.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package wayanad;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Latency, row and error metrics for every statement run on a pooled connection.
+ *
+ * {@link ConnectionPool} hands statements out through {@link #trace}, which times each execution from
+ * {@code execute*} until its result set is closed (so fetching counts), counts rows and estimates the
+ * bytes read through the getters. Samples are grouped by table and operation: the operation is the SQL
+ * verb, prefixed with the label of the feature that ran it ({@link #label}, e.g. {@code search SELECT}).
+ * Latencies go into log-linear histograms in the style of HdrHistogram (about 3% relative error, no
+ * dependency); pool wait times get one of their own.
+ *
+ * Statements slower than {@code metrics.slowQueryMs} are kept in a short in-memory list for the
+ * Diagnostics screen and appended to {@code metrics.slowLog}. Everything is also available as
+ * Prometheus text ({@link #prometheus}), served by the API under {@code /api/metrics} and by the desktop
+ * app on {@code metrics.port} when that is set. {@code metrics.enabled=false} turns tracing off.
+ */
+final class QueryMetrics {
+
+    static final boolean ENABLED = DbConfig.get().bool("metrics.enabled", true);
+
+    private static final Pattern VERB = Pattern.compile("^\\s*(?:/\\*.*?\\*/\\s*)?(\\w+)", Pattern.DOTALL);
+    private static final Pattern TABLE = Pattern.compile("\\b(?:FROM|INTO|UPDATE|JOIN)\\s+`?([A-Za-z_][A-Za-z0-9_]*)", Pattern.CASE_INSENSITIVE);
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int SLOW_KEPT = 200;
+
+    private static final Map<Key, Stats> STATS = new ConcurrentHashMap<>();
+    private static final Histogram POOL_WAIT = new Histogram();
+    private static final Deque<SlowQuery> SLOW = new ArrayDeque<>();
+    private static final ThreadLocal<String> LABEL = new ThreadLocal<>();
+    private static final long SLOW_NANOS = Math.max(0, DbConfig.get().longValue("metrics.slowQueryMs", 500)) * 1_000_000;
+    private static final String SLOW_LOG = DbConfig.get().str("metrics.slowLog", "");
+    private static volatile long since = System.currentTimeMillis();
+
+    private QueryMetrics() {}
+
+    record Key(String table, String operation) {}
+
+    /** Per table and operation; latencies in microseconds. */
+    static final class Stats {
+        final Histogram latency = new Histogram();
+        final LongAdder rows = new LongAdder(), bytes = new LongAdder(), errors = new LongAdder();
+    }
+
+    record SlowQuery(long at, String label, String table, double ms, long rows, String sql, String error) {}
+
+    // ---------- LABELS ----------
+    /** Scope in which statements on this thread are attributed to {@code label}; close it to restore the previous one. */
+    static Scope label(String label) {
+        String prev = LABEL.get();
+        LABEL.set(label);
+        return () -> { if (prev == null) LABEL.remove(); else LABEL.set(prev); };
+    }
+
+    /** {@code call} with its statements attributed to {@code label} (for {@link QueryExecutor#submit}). */
+    static <T> QueryExecutor.DbCall<T> as(String label, QueryExecutor.DbCall<T> call) {
+        return (con, task) -> {
+            Scope scope = label(label);
+            try { return call.run(con, task); } finally { scope.close(); }
+        };
+    }
+
+    @FunctionalInterface
+    interface Scope extends AutoCloseable { @Override void close(); }
+
+    // ---------- RECORDING ----------
+    static void recordPoolWait(long nanos) { POOL_WAIT.record(nanos / 1_000); }
+
+    static void record(String sql, long nanos, long rows, long bytes, SQLException error) {
+        String label = LABEL.get();
+        Matcher v = VERB.matcher(sql), t = TABLE.matcher(sql);
+        String verb = v.find() ? v.group(1).toUpperCase(Locale.ROOT) : "?";
+        String table = t.find() ? t.group(1) : "-";
+        Stats s = STATS.computeIfAbsent(new Key(table, label == null ? verb : label + " " + verb), k -> new Stats());
+        s.latency.record(nanos / 1_000);
+        if (rows > 0) s.rows.add(rows);
+        if (bytes > 0) s.bytes.add(bytes);
+        if (error != null) s.errors.increment();
+        if (nanos >= SLOW_NANOS && SLOW_NANOS > 0) slow(new SlowQuery(System.currentTimeMillis(), label, table, nanos / 1e6, rows,
+                sql.length() > 500 ? sql.substring(0, 500) + "…" : sql, error == null ? null : error.getMessage()));
+    }
+
+    private static void slow(SlowQuery q) {
+        synchronized (SLOW) {
+            SLOW.addFirst(q);
+            while (SLOW.size() > SLOW_KEPT) SLOW.removeLast();
+        }
+        if (SLOW_LOG.isBlank()) return;
+        String line = String.format(Locale.ROOT, "%s\t%.1f ms\t%s\t%s\trows=%d\t%s%s%n", LocalDateTime.now().format(TS), q.ms(),
+                q.label() == null ? "-" : q.label(), q.table(), q.rows(), q.sql().replaceAll("\\s+", " "),
+                q.error() == null ? "" : "\terror=" + q.error());
+        synchronized (SLOW_LOG) {
+            try { Files.writeString(Path.of(SLOW_LOG), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND); }
+            catch (IOException e) { System.err.println("[metrics] could not write " + SLOW_LOG + ": " + e.getMessage()); }
+        }
+    }
+
+    // ---------- READING ----------
+    static Map<Key, Stats> snapshot() {
+        Map<Key, Stats> out = new TreeMap<>(Comparator.comparing(Key::table).thenComparing(Key::operation));
+        out.putAll(STATS);
+        return out;
+    }
+    static Histogram poolWait() { return POOL_WAIT; }
+    static long since() { return since; }
+
+    static List<SlowQuery> slowQueries() {
+        synchronized (SLOW) { return new ArrayList<>(SLOW); }
+    }
+
+    static void reset() {
+        STATS.clear();
+        POOL_WAIT.reset();
+        synchronized (SLOW) { SLOW.clear(); }
+        since = System.currentTimeMillis();
+    }
+
+    // ---------- PROMETHEUS ----------
+    static String prometheus() {
+        StringBuilder sb = new StringBuilder(4_096);
+        Map<Key, Stats> snap = snapshot();
+        sb.append("# HELP wayanad_query_seconds Statement latency until the result set is closed.\n# TYPE wayanad_query_seconds summary\n");
+        snap.forEach((k, s) -> {
+            String l = "table=\"" + esc(k.table()) + "\",operation=\"" + esc(k.operation()) + "\"";
+            for (double q : new double[]{0.5, 0.95, 0.99})
+                sb.append("wayanad_query_seconds{").append(l).append(",quantile=\"").append(q).append("\"} ").append(s.latency.percentile(q * 100) / 1e6).append('\n');
+            sb.append("wayanad_query_seconds_sum{").append(l).append("} ").append(s.latency.sum() / 1e6).append('\n');
+            sb.append("wayanad_query_seconds_count{").append(l).append("} ").append(s.latency.count()).append('\n');
+        });
+        counter(sb, snap, "wayanad_query_rows_total", "Rows returned or changed.", s -> s.rows.sum());
+        counter(sb, snap, "wayanad_query_bytes_total", "Estimated bytes read from result sets.", s -> s.bytes.sum());
+        counter(sb, snap, "wayanad_query_errors_total", "Statements that failed.", s -> s.errors.sum());
+
+        ConnectionPool.Metrics p = ConnectionPool.shared().metrics();
+        sb.append("# HELP wayanad_pool_wait_seconds Time to borrow a pooled connection.\n# TYPE wayanad_pool_wait_seconds summary\n");
+        for (double q : new double[]{0.5, 0.95, 0.99})
+            sb.append("wayanad_pool_wait_seconds{quantile=\"").append(q).append("\"} ").append(POOL_WAIT.percentile(q * 100) / 1e6).append('\n');
+        sb.append("wayanad_pool_wait_seconds_sum ").append(POOL_WAIT.sum() / 1e6).append('\n');
+        sb.append("wayanad_pool_wait_seconds_count ").append(POOL_WAIT.count()).append('\n');
+        gauge(sb, "wayanad_pool_connections", "Open pooled connections.", p.total());
+        gauge(sb, "wayanad_pool_active", "Connections currently borrowed.", p.active());
+        gauge(sb, "wayanad_pool_waiting", "Threads waiting for a connection.", p.waiting());
+        gauge(sb, "wayanad_pool_timeouts_total", "Borrows that timed out.", p.timeouts());
+        gauge(sb, "wayanad_slow_queries", "Slow statements currently kept in memory.", slowQueries().size());
+        return sb.toString();
+    }
+
+    private interface Value { long of(Stats s); }
+
+    private static void counter(StringBuilder sb, Map<Key, Stats> snap, String name, String help, Value v) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append("\n# TYPE ").append(name).append(" counter\n");
+        snap.forEach((k, s) -> sb.append(name).append("{table=\"").append(esc(k.table())).append("\",operation=\"")
+                .append(esc(k.operation())).append("\"} ").append(v.of(s)).append('\n'));
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, long v) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append("\n# TYPE ").append(name).append(" gauge\n")
+                .append(name).append(' ').append(v).append('\n');
+    }
+
+    private static String esc(String s) { return s.replace("\\", "\\\\").replace("\"", "\\\""); }
+
+    /** Serves {@link #prometheus()} at {@code http://host:port/metrics} (the desktop app, {@code metrics.port}). */
+    static HttpServer serve(String host, int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), 16);
+        server.createContext("/metrics", ex -> { try (ex) { respond(ex); } });
+        server.start();
+        return server;
+    }
+
+    /** Writes {@link #prometheus()} as the response to {@code ex} (also {@code GET /api/metrics}). */
+    static void respond(HttpExchange ex) throws IOException {
+        byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) { out.write(body); }
+    }
+
+    // ---------- HISTOGRAM ----------
+    /**
+     * Log-linear histogram of non-negative longs (HdrHistogram's bucket layout with 32 sub-buckets per power
+     * of two): exact below 64, within about 3% above. Recording is a single atomic increment.
+     */
+    static final class Histogram {
+        private static final int SUB = 32, LINEAR = 2 * SUB, MAX_SHIFT = 40;
+        private final AtomicLongArray counts = new AtomicLongArray(LINEAR + MAX_SHIFT * SUB);
+        private final LongAdder sum = new LongAdder(), n = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long v) {
+            if (v < 0) v = 0;
+            counts.incrementAndGet(index(v));
+            sum.add(v); n.increment();
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        long count() { return n.sum(); }
+        long sum() { return sum.sum(); }
+        long max() { return max.get(); }
+        double mean() { long c = count(); return c == 0 ? 0 : (double) sum() / c; }
+
+        /** Smallest recorded-bucket upper bound at or below which {@code percent}% of the values fall. */
+        long percentile(double percent) {
+            long total = 0;
+            for (int i=0;i<counts.length();i++) total += counts.get(i);
+            if (total == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(percent / 100 * total)), seen = 0;
+            for (int i=0;i<counts.length();i++) {
+                seen += counts.get(i);
+                if (seen >= target) return Math.min(upper(i), max());
+            }
+            return max();
+        }
+
+        void reset() {
+            for (int i=0;i<counts.length();i++) counts.set(i, 0);
+            sum.reset(); n.reset(); max.set(0);
+        }
+
+        private static int index(long v) {
+            if (v < LINEAR) return (int) v;
+            int shift = Math.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(v) - 5);
+            long sub = Math.min(2L * SUB - 1, v >>> shift);
+            return LINEAR + (shift - 1) * SUB + (int) (sub - SUB);
+        }
+
+        private static long upper(int i) {
+            if (i < LINEAR) return i;
+            int shift = (i - LINEAR) / SUB + 1;
+            long sub = (i - LINEAR) % SUB + SUB;
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+
+    // ---------- TRACING ----------
+    /** Wraps a statement created on {@code connection} (the pooled proxy) so its executions are recorded. */
+    static Statement trace(Statement st, Connection connection, String sql) {
+        Class<?> type = st instanceof CallableStatement ? CallableStatement.class
+                : st instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        Traced h = new Traced(st, connection, sql);
+        Statement proxy = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, h::invoke);
+        h.proxy = proxy;
+        return proxy;
+    }
+
+    private static final class Traced {
+        final Statement raw;
+        final Connection connection;
+        final String prepared;
+        Statement proxy;
+        Fetch open;             // result set of the last query, recorded when it is closed
+        List<String> batch;     // Statement.addBatch(sql) texts
+
+        Traced(Statement raw, Connection connection, String prepared) { this.raw = raw; this.connection = connection; this.prepared = prepared; }
+
+        Object invoke(Object p, Method m, Object[] args) throws Throwable {
+            String name = m.getName();
+            switch (name) {
+                case "getConnection" -> { return connection; }
+                case "unwrap" -> { if (((Class<?>) args[0]).isInstance(p)) return p; }
+                case "isWrapperFor" -> { if (((Class<?>) args[0]).isInstance(p)) return true; }
+                case "equals" -> { return p == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(p); }
+                case "close" -> finishOpen();
+                case "addBatch" -> { if (args != null && args.length == 1 && args[0] instanceof String s) (batch == null ? batch = new ArrayList<>() : batch).add(s); }
+                default -> {}
+            }
+            if (!name.startsWith("execute")) {
+                Object r = call(m, args);
+                if (r instanceof ResultSet rs && name.equals("getResultSet")) return wrap(rs, sqlOf(args), System.nanoTime());
+                return r;
+            }
+
+            finishOpen();
+            String sql = name.equals("executeBatch") || name.equals("executeLargeBatch")
+                    ? (prepared != null ? prepared : batch == null || batch.isEmpty() ? "BATCH" : batch.get(0)) : sqlOf(args);
+            long start = System.nanoTime();
+            Object r;
+            try {
+                r = call(m, args);
+            } catch (SQLException e) {
+                record(sql, System.nanoTime() - start, 0, 0, e);
+                throw e;
+            } finally {
+                if (name.contains("Batch")) batch = null;
+            }
+            switch (r) {
+                case ResultSet rs -> { return wrap(rs, sql, start); }
+                case Boolean isQuery when isQuery -> open = new Fetch(sql, start);
+                case Boolean isQuery -> record(sql, System.nanoTime() - start, Math.max(0, raw.getUpdateCount()), 0, null);
+                case Integer n -> record(sql, System.nanoTime() - start, n, 0, null);
+                case Long n -> record(sql, System.nanoTime() - start, n, 0, null);
+                case int[] counts -> record(sql, System.nanoTime() - start, sum(counts), 0, null);
+                case long[] counts -> record(sql, System.nanoTime() - start, Arrays.stream(counts).filter(c -> c > 0).sum(), 0, null);
+                default -> record(sql, System.nanoTime() - start, 0, 0, null);
+            }
+            return r;
+        }
+
+        private String sqlOf(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String s ? s : prepared == null ? "?" : prepared;
+        }
+
+        private ResultSet wrap(ResultSet rs, String sql, long start) {
+            Fetch f = open != null && open.rs == null ? open : new Fetch(sql, start);
+            open = f;
+            f.rs = rs;
+            ResultSet proxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (rp, m, args) -> f.invoke(this.proxy, rp, m, args));
+            f.proxy = proxy;
+            return proxy;
+        }
+
+        private void finishOpen() {
+            Fetch f = open;
+            open = null;
+            if (f != null) f.finish(null);
+        }
+
+        private Object call(Method m, Object[] args) throws Throwable {
+            try { return m.invoke(raw, args); }
+            catch (InvocationTargetException e) { throw e.getCause(); }
+        }
+
+        private static long sum(int[] counts) {
+            long s = 0;
+            for (int c : counts) if (c > 0) s += c;
+            return s;
+        }
+    }
+
+    /** One query's result set: rows seen by {@code next()}, bytes seen by the getters. */
+    private static final class Fetch {
+        final String sql;
+        final long start;
+        ResultSet rs, proxy;
+        long rows, bytes;
+        boolean done;
+
+        Fetch(String sql, long start) { this.sql = sql; this.start = start; }
+
+        Object invoke(Statement statement, Object p, Method m, Object[] args) throws Throwable {
+            String name = m.getName();
+            switch (name) {
+                case "getStatement" -> { return statement; }
+                case "unwrap" -> { if (((Class<?>) args[0]).isInstance(p)) return p; }
+                case "isWrapperFor" -> { if (((Class<?>) args[0]).isInstance(p)) return true; }
+                case "equals" -> { return p == args[0]; }
+                case "hashCode" -> { return System.identityHashCode(p); }
+                default -> {}
+            }
+            Object r;
+            try {
+                r = m.invoke(rs, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException se && !name.startsWith("get")) finish(se);
+                throw e.getCause();
+            }
+            if (name.equals("next")) { if (Boolean.TRUE.equals(r)) rows++; }
+            else if (name.equals("close")) finish(null);
+            else if (name.startsWith("get") && args != null && args.length >= 1) bytes += size(r);
+            return r;
+        }
+
+        void finish(SQLException error) {
+            if (done) return;
+            done = true;
+            record(sql, System.nanoTime() - start, rows, bytes, error);
+        }
+
+        private static long size(Object v) {
+            return switch (v) {
+                case null -> 0;
+                case String s -> s.length();
+                case byte[] b -> b.length;
+                case Integer i -> 4;
+                case Short s -> 2;
+                case Byte b -> 1;
+                case Boolean b -> 1;
+                case java.math.BigDecimal d -> Math.max(1, d.precision() / 2 + 1);
+                default -> 8;
+            };
+        }
+    }
+}
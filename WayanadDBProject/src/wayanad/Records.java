@@ -0,0 +1,278 @@
+package wayanad;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.Item;
+import wayanad.Schema.TableSpec;
+
+/**
+ * Headless, {@link TableSpec}-driven data access: validation, CRUD, keyset paging and search.
+ *
+ * Used by the record managers, the CSV importer and the HTTP API alike, so every write path binds
+ * values the same way and publishes the same {@link DataEvents}. Callers supply the connection
+ * (normally borrowed from {@link ConnectionPool}); nothing here touches Swing. Statement texts come from
+ * {@link SqlTemplates}, so repeats are served from the connection's statement cache.
+ */
+final class Records {
+
+    private static final DateTimeFormatter DATETIME_OUT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter[] DATE_IN = {
+            DateTimeFormatter.ISO_LOCAL_DATE, DateTimeFormatter.ofPattern("d/M/uuuu"), DateTimeFormatter.ofPattern("d-M-uuuu") };
+    private static final DateTimeFormatter[] DATETIME_IN = {
+            DateTimeFormatter.ofPattern("uuuu-MM-dd H:mm[:ss][.SSS]"), DateTimeFormatter.ofPattern("d/M/uuuu H:mm[:ss]") };
+
+    private Records() {}
+
+    // ---------- FIELDS ----------
+    /** Columns an INSERT sets: everything except read-only columns and an auto-increment key. */
+    static List<FieldSpec> insertable(TableSpec spec) {
+        List<FieldSpec> out = new ArrayList<>();
+        for (FieldSpec f : spec.fields) if (!f.readonly && !(f.name.equals(spec.pk) && spec.pkAuto)) out.add(f);
+        return out;
+    }
+
+    /** Columns an UPDATE may set: everything except read-only columns and the key. */
+    static List<FieldSpec> updatable(TableSpec spec) {
+        List<FieldSpec> out = new ArrayList<>();
+        for (FieldSpec f : spec.fields) if (!f.readonly && !f.name.equals(spec.pk)) out.add(f);
+        return out;
+    }
+
+    static FieldSpec field(TableSpec spec, String name) {
+        for (FieldSpec f : spec.fields) if (f.name.equalsIgnoreCase(name)) return f;
+        return null;
+    }
+
+    // ---------- WRITES ----------
+    /** Inserts one row and returns its key (generated or supplied). */
+    static Object insert(Connection con, TableSpec spec, List<FieldSpec> fields, List<Object> values) throws SQLException {
+        return insert(con, spec, fields, values, DataEvents::publish);
+    }
+
+    /**
+     * As above, but hands the {@link DataEvents.RowChange} to {@code events} instead of publishing it, for
+     * callers inside a transaction that publish only once it commits.
+     */
+    static Object insert(Connection con, TableSpec spec, List<FieldSpec> fields, List<Object> values, DataEvents.Listener events) throws SQLException {
+        writable(spec);
+        String sql = SqlTemplates.of(spec).insert(fields);
+        boolean genKey = spec.pkAuto && !fields.contains(field(spec, spec.pk));
+        try (PreparedStatement ps = genKey ? con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : con.prepareStatement(sql)) {
+            bindParams(ps, fields, values);
+            ps.executeUpdate();
+            Object pk = null;
+            if (genKey) try (ResultSet k = ps.getGeneratedKeys()) { if (k.next()) pk = k.getObject(1); }
+            DataEvents.RowChange change = rowChange(spec, DataEvents.Op.INSERT, pk, fields, values);
+            events.rowChanged(change);
+            return change.pk();
+        }
+    }
+
+    /** Updates {@code fields} of the row with key {@code pk}; returns the number of rows changed. */
+    static int update(Connection con, TableSpec spec, Object pk, List<FieldSpec> fields, List<Object> values) throws SQLException {
+        return update(con, spec, pk, fields, values, DataEvents::publish);
+    }
+
+    static int update(Connection con, TableSpec spec, Object pk, List<FieldSpec> fields, List<Object> values, DataEvents.Listener events) throws SQLException {
+        writable(spec);
+        if (fields.isEmpty()) throw new SQLException("Nothing to update.");
+        try (PreparedStatement ps = con.prepareStatement(SqlTemplates.of(spec).update(fields))) {
+            int idx = bindParams(ps, fields, values);
+            ps.setObject(idx + 1, pk);
+            int n = ps.executeUpdate();
+            if (n > 0) events.rowChanged(rowChange(spec, DataEvents.Op.UPDATE, pk, fields, values));
+            return n;
+        }
+    }
+
+    /** One row's changed columns, for {@link #updateAll}. */
+    record Edit(Object pk, List<FieldSpec> fields, List<Object> values) {}
+
+    /**
+     * Applies {@code edits} in one transaction on {@code con}: rows changing the same columns share one
+     * batched UPDATE. A failure, or an edit whose row no longer exists, rolls all of them back. Events are
+     * published once committed. Returns the number of rows changed.
+     */
+    static int updateAll(Connection con, TableSpec spec, List<Edit> edits) throws SQLException {
+        writable(spec);
+        SqlTemplates sql = SqlTemplates.of(spec);
+        Map<String, List<Edit>> bySql = new LinkedHashMap<>();
+        for (Edit e : edits) if (!e.fields().isEmpty()) bySql.computeIfAbsent(sql.update(e.fields()), k -> new ArrayList<>()).add(e);
+        if (bySql.isEmpty()) throw new SQLException("Nothing to update.");
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(false);
+        int n = 0;
+        try {
+            for (Map.Entry<String, List<Edit>> g : bySql.entrySet()) {
+                try (PreparedStatement ps = con.prepareStatement(g.getKey())) {
+                    for (Edit e : g.getValue()) {
+                        int idx = bindParams(ps, e.fields(), e.values());
+                        ps.setObject(idx + 1, e.pk());
+                        ps.addBatch();
+                    }
+                    int[] counts = ps.executeBatch();
+                    for (int i=0;i<counts.length;i++) {
+                        if (counts[i] == 0) throw new SQLException(spec.table + " " + spec.pk + "=" + g.getValue().get(i).pk() + " no longer exists.");
+                        n += counts[i] == Statement.SUCCESS_NO_INFO ? 1 : counts[i];
+                    }
+                }
+            }
+            con.commit();
+        } catch (SQLException | RuntimeException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+        for (List<Edit> g : bySql.values()) for (Edit e : g) DataEvents.publish(rowChange(spec, DataEvents.Op.UPDATE, e.pk(), e.fields(), e.values()));
+        return n;
+    }
+
+    static int delete(Connection con, TableSpec spec, Object pk) throws SQLException {
+        return delete(con, spec, pk, DataEvents::publish);
+    }
+
+    static int delete(Connection con, TableSpec spec, Object pk, DataEvents.Listener events) throws SQLException {
+        writable(spec);
+        try (PreparedStatement ps = con.prepareStatement(SqlTemplates.of(spec).deleteByPk)) {
+            ps.setObject(1, pk);
+            int n = ps.executeUpdate();
+            if (n > 0) events.rowChanged(rowChange(spec, DataEvents.Op.DELETE, pk, List.of(), List.of()));
+            return n;
+        }
+    }
+
+    private static void writable(TableSpec spec) throws SQLException {
+        if (spec.readOnly) throw new SQLException(spec.table + " is read-only.");
+    }
+
+    // ---------- READS ----------
+    static Map<String, Object> get(Connection con, TableSpec spec, Object pk) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SqlTemplates.of(spec).selectByPk)) {
+            ps.setObject(1, pk);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? row(rs) : null; }
+        }
+    }
+
+    /** Up to {@code limit} rows with key greater than {@code afterPk} (null = from the start), in key order. */
+    static List<Map<String, Object>> page(Connection con, TableSpec spec, Object afterPk, int limit) throws SQLException {
+        SqlTemplates sql = SqlTemplates.of(spec);
+        try (PreparedStatement ps = con.prepareStatement(afterPk == null ? sql.firstPage : sql.pageAfter)) {
+            int i = 1;
+            if (afterPk != null) ps.setObject(i++, afterPk);
+            ps.setInt(i, limit);
+            return rows(ps, limit);
+        }
+    }
+
+    /** Indexed search as in the table viewer (see {@link SearchEngine}). */
+    static List<Map<String, Object>> search(Connection con, TableSpec spec, String term, int limit) throws SQLException {
+        SearchEngine.Query q = SearchEngine.plan(con, spec, term, limit);
+        try (PreparedStatement ps = con.prepareStatement(q.sql())) {
+            SearchEngine.bind(ps, q.params());
+            return rows(ps, limit);
+        }
+    }
+
+    private static List<Map<String, Object>> rows(PreparedStatement ps, int limit) throws SQLException {
+        List<Map<String, Object>> out = new ArrayList<>(Math.min(limit, 1_000));
+        try (ResultSet rs = ps.executeQuery()) {
+            while (out.size() < limit && rs.next()) out.add(row(rs));
+        }
+        return out;
+    }
+
+    private static Map<String, Object> row(ResultSet rs) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i=1;i<=md.getColumnCount();i++) m.put(md.getColumnLabel(i), rs.getObject(i));
+        return m;
+    }
+
+    // ---------- VALIDATION ----------
+    /** Form-style value for {@link #bindParams}, or null for an empty optional value. */
+    static Object parse(FieldSpec f, String raw, boolean optional) {
+        String s = raw == null ? "" : raw.trim();
+        if (s.isEmpty()) {
+            if (!optional) throw new IllegalArgumentException(f.label + " is required");
+            return null;
+        }
+        try {
+            return switch (f.type) {
+                case INT -> Integer.valueOf(s);
+                case FK -> Long.valueOf(s);
+                case DECIMAL -> new BigDecimal(s);
+                case DATE -> parseDate(s).toString();
+                case DATETIME -> parseDateTime(s).format(DATETIME_OUT);
+                case ENUM -> {
+                    for (String v : f.enumCSV.split("\\s*,\\s*")) if (v.equalsIgnoreCase(s)) yield v;
+                    throw new IllegalArgumentException(f.label + " must be one of " + f.enumCSV + ": " + s);
+                }
+                case BOOL -> switch (s.toLowerCase(Locale.ROOT)) {
+                    case "1", "true", "yes", "y" -> Boolean.TRUE;
+                    case "0", "false", "no", "n" -> Boolean.FALSE;
+                    default -> throw new IllegalArgumentException(f.label + " is not a yes/no value: " + s);
+                };
+                case TEXT -> s;
+            };
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            throw new IllegalArgumentException(f.label + " has an invalid " + f.type.name().toLowerCase(Locale.ROOT) + " value: " + s);
+        }
+    }
+
+    private static LocalDate parseDate(String s) {
+        for (DateTimeFormatter fmt : DATE_IN) {
+            try { return LocalDate.parse(s, fmt); } catch (DateTimeParseException ignore) {}
+        }
+        throw new DateTimeParseException("bad date", s, 0);
+    }
+
+    private static LocalDateTime parseDateTime(String s) {
+        String t = s.replace('T', ' ');
+        for (DateTimeFormatter fmt : DATETIME_IN) {
+            try { return LocalDateTime.parse(t, fmt); } catch (DateTimeParseException ignore) {}
+        }
+        return parseDate(s).atStartOfDay();
+    }
+
+    // ---------- BINDING ----------
+    // Typed snapshot of a write for DataEvents listeners (form text → Integer/BigDecimal, FK Item → id).
+    static DataEvents.RowChange rowChange(TableSpec spec, DataEvents.Op op, Object pk, List<FieldSpec> fields, List<Object> values) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i=0;i<fields.size();i++) m.put(fields.get(i).name, typedValue(fields.get(i), values.get(i)));
+        if (pk == null) pk = m.get(spec.pk);
+        if (pk instanceof String s && !s.isBlank()) pk = Long.parseLong(s.trim());
+        return new DataEvents.RowChange(spec.table, op, pk, Collections.unmodifiableMap(m));
+    }
+    static Object typedValue(FieldSpec f, Object v) {
+        if (v == null) return null;
+        return switch (f.type) {
+            case INT -> Integer.parseInt(v.toString());
+            case DECIMAL -> new BigDecimal(v.toString());
+            case FK -> v instanceof Item it ? it.id : v;
+            default -> v;
+        };
+    }
+
+    static int bindParams(PreparedStatement ps, List<FieldSpec> fields, List<Object> values) throws SQLException {
+        int idx=1;
+        for (int i=0;i<fields.size();i++) {
+            FieldSpec f = fields.get(i); Object v = values.get(i);
+            switch (f.type) {
+                case INT -> { if (v==null) ps.setNull(idx++, Types.INTEGER); else ps.setInt(idx++, Integer.parseInt(v.toString())); }
+                case DECIMAL -> { if (v==null) ps.setNull(idx++, Types.DECIMAL); else ps.setBigDecimal(idx++, new BigDecimal(v.toString())); }
+                case BOOL -> { if (v==null) ps.setNull(idx++, Types.TINYINT); else ps.setBoolean(idx++, (Boolean)v); }
+                case DATE, DATETIME, TEXT, ENUM -> { if (v==null) ps.setNull(idx++, Types.VARCHAR); else ps.setString(idx++, v.toString()); }
+                case FK -> { if (v==null) ps.setNull(idx++, Types.INTEGER); else ps.setObject(idx++, v instanceof Item it ? it.id : v); }
+            }
+        }
+        return idx-1;
+    }
+}
@@ -0,0 +1,123 @@
+package wayanad;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relief allocation rounds: one RehabAllocation row per victim currently in camp, written set-wise.
+ *
+ * Replaces calling {@code AllocateReliefToCamp} camp by camp (a cursor issuing one INSERT per victim, which
+ * also paid victims already released). Each camp is a single {@code INSERT ... SELECT} over its open
+ * Victim_Camp rows ({@code date_released IS NULL}); camps run in parallel on {@code relief.parallelism}
+ * threads, each statement auto-committed on its own pooled connection.
+ *
+ * A victim with open stays in several camps is paid only by the lowest-numbered of them, so camps never
+ * compete for a victim. A round is named ({@code allocation_round}); victims that already hold an
+ * allocation of that round are skipped, so re-running a round (after a failure, or twice by mistake) only
+ * fills in what is missing. Should two runs of a round overlap, the unique key
+ * {@code uq_rehab_round (victim_id, allocation_round)} turns the second insert of a victim into a no-op
+ * ({@code ON DUPLICATE KEY UPDATE}) rather than failing the camp. {@link #preview} computes the same numbers
+ * without writing.
+ */
+final class ReliefAllocator {
+
+    /** Per camp: victims in camp now, how many already have this round, and what a run would pay. */
+    record CampPlan(int campId, String name, int eligible, int alreadyAllocated) {
+        int toAllocate() { return eligible - alreadyAllocated; }
+    }
+
+    /** {@code error} is null when the camp's statement committed. */
+    record CampResult(int campId, String name, int allocated, String error) {}
+
+    @FunctionalInterface
+    interface Progress { void campDone(CampResult r, int done, int total); }
+
+    // the one camp that pays a victim: the lowest-numbered camp it is open in
+    private static final String PAYING_CAMP =
+            "vc.camp_id = (SELECT MIN(o.camp_id) FROM Victim_Camp o WHERE o.victim_id = vc.victim_id AND o.date_released IS NULL)";
+    private static final String ELIGIBLE =
+            " FROM Victim_Camp vc WHERE vc.camp_id = ? AND vc.date_released IS NULL AND " + PAYING_CAMP
+            + " AND NOT EXISTS (SELECT 1 FROM RehabAllocation r WHERE r.victim_id = vc.victim_id AND r.allocation_round = ?)";
+
+    private ReliefAllocator() {}
+
+    /** Dry run for every camp with victims in it, in camp order. */
+    static List<CampPlan> preview(Connection con, String round) throws SQLException {
+        String sql = "SELECT c.camp_id, c.name, COUNT(DISTINCT vc.victim_id), COUNT(DISTINCT r.victim_id)"
+                + " FROM Camp c JOIN Victim_Camp vc ON vc.camp_id = c.camp_id AND vc.date_released IS NULL AND " + PAYING_CAMP
+                + " LEFT JOIN RehabAllocation r ON r.victim_id = vc.victim_id AND r.allocation_round = ?"
+                + " GROUP BY c.camp_id, c.name ORDER BY c.camp_id";
+        checkSchema(con);
+        List<CampPlan> out = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, round);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(new CampPlan(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4)));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Allocates {@code amount} to every eligible victim of {@code camps}, reporting each camp as it finishes
+     * (on a worker thread). Blocks until all camps are done or {@code cancel} is set; camps not yet started
+     * when it is set are skipped.
+     */
+    static List<CampResult> run(String round, BigDecimal amount, LocalDate date, List<CampPlan> camps,
+                                AtomicBoolean cancel, Progress progress) throws InterruptedException {
+        if (round == null || round.isBlank()) throw new IllegalArgumentException("Round name is required");
+        if (amount == null || amount.signum() <= 0) throw new IllegalArgumentException("Amount must be positive");
+        int threads = Math.max(1, Math.min(camps.size(), DbConfig.get().integer("relief.parallelism", 4)));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "wayanad-relief"); t.setDaemon(true); return t;
+        });
+        List<CampResult> results = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (CampPlan c : camps) {
+                pool.execute(() -> {
+                    if (cancel.get()) return;
+                    CampResult r = allocate(round, amount, date, c);
+                    results.add(r);
+                    progress.campDone(r, results.size(), camps.size());
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.DAYS);
+        } finally {
+            pool.shutdownNow();
+        }
+        List<CampResult> out = new ArrayList<>(results);
+        out.sort(Comparator.comparingInt(CampResult::campId));
+        return out;
+    }
+
+    private static CampResult allocate(String round, BigDecimal amount, LocalDate date, CampPlan c) {
+        String sql = "INSERT INTO RehabAllocation(victim_id, house_id, allocation_date, amount_granted, allocation_round)"
+                + " SELECT DISTINCT vc.victim_id, NULL, ?, ?, ?" + ELIGIBLE
+                + " ON DUPLICATE KEY UPDATE allocation_round = allocation_round";
+        QueryMetrics.Scope label = QueryMetrics.label("relief");
+        try (Connection con = ConnectionPool.shared().getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setDate(1, java.sql.Date.valueOf(date)); ps.setBigDecimal(2, amount); ps.setString(3, round);
+            ps.setInt(4, c.campId()); ps.setString(5, round);
+            return new CampResult(c.campId(), c.name(), ps.executeUpdate(), null);
+        } catch (SQLException e) {
+            return new CampResult(c.campId(), c.name(), 0, e.getMessage());
+        } finally {
+            label.close();
+        }
+    }
+
+    private static void checkSchema(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.executeQuery("SELECT allocation_round FROM RehabAllocation WHERE 1 = 0").close();
+        } catch (SQLException e) {
+            throw new SQLException("RehabAllocation has no allocation_round column; apply section 1d of script mini.sql first", e);
+        }
+    }
+}
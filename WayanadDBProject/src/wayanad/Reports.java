@@ -0,0 +1,268 @@
+package wayanad;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-aggregated rollups behind the Reports screen: donations by type, supply flow by camp and by item,
+ * personnel-hours by rescue team, each kept as (group, day) → count and sum in memory.
+ *
+ * A rollup is built with one {@code GROUP BY group, day} query and then extended incrementally: every
+ * {@code reports.refreshSec}, or within a second of an insert seen through {@link DataEvents} or
+ * {@link ChangeFeed}, the same query re-aggregates only the rows above a settled primary key. Auto-increment
+ * ids can commit out of order, so a key is settled (folded into the fixed part of the rollup) only once it
+ * has been below the high-water mark for {@code reports.settleSec}; a row committing later than that is
+ * picked up by the next rebuild. Edits and deletes of rows already counted cannot be applied as deltas, so
+ * they trigger a rebuild; a rebuild also runs every {@code reports.rebuildMin} minutes.
+ * Reports re-bucket the daily cells by week, month or in total, which takes well under a millisecond.
+ */
+final class Reports {
+
+    enum Grain { DAY, WEEK, MONTH, TOTAL }
+
+    enum Rollup {
+        DONATIONS("Donations by type", "Donation", "Type", "Donations", "Amount (₹)",
+                "SELECT COALESCE(donation_type, '(none)'), date_received, COUNT(*), COALESCE(SUM(amount), 0), MAX(donation_id)"
+                + " FROM Donation WHERE donation_id > ? AND donation_id <= ? GROUP BY donation_type, date_received"),
+        SUPPLY_BY_CAMP("Supply flow by camp", "Supply_Movement", "Camp", "Movements", "Quantity",
+                "SELECT COALESCE(c.name, '(no camp)'), CAST(m.moved_on AS DATE), COUNT(*), COALESCE(SUM(m.qty), 0), MAX(m.move_id)"
+                + " FROM Supply_Movement m LEFT JOIN Camp c ON c.camp_id = m.to_camp_id WHERE m.move_id > ? AND m.move_id <= ?"
+                + " GROUP BY m.to_camp_id, c.name, CAST(m.moved_on AS DATE)"),
+        SUPPLY_BY_ITEM("Supply flow by item", "Supply_Movement", "Supply", "Movements", "Quantity",
+                "SELECT COALESCE(s.name, '(unknown)'), CAST(m.moved_on AS DATE), COUNT(*), COALESCE(SUM(m.qty), 0), MAX(m.move_id)"
+                + " FROM Supply_Movement m LEFT JOIN Supply s ON s.supply_id = m.supply_id WHERE m.move_id > ? AND m.move_id <= ?"
+                + " GROUP BY m.supply_id, s.name, CAST(m.moved_on AS DATE)"),
+        // operations still running (no end_time) count as operations but add no hours until they end
+        TEAM_HOURS("Personnel-hours by team", "RescueOperation", "Team", "Operations", "Personnel-hours",
+                "SELECT CONCAT(COALESCE(t.agency, 'Team'), ' #', o.team_id), CAST(o.start_time AS DATE), COUNT(*),"
+                + " COALESCE(SUM(o.personnel_count * TIMESTAMPDIFF(MINUTE, o.start_time, o.end_time)), 0) / 60.0, MAX(o.op_id)"
+                + " FROM RescueOperation o LEFT JOIN RescueTeam t ON t.team_id = o.team_id WHERE o.op_id > ? AND o.op_id <= ?"
+                + " GROUP BY o.team_id, t.agency, CAST(o.start_time AS DATE)");
+
+        final String title, table, groupLabel, countLabel, sumLabel, sql;
+        Rollup(String title, String table, String groupLabel, String countLabel, String sumLabel, String sql) {
+            this.title = title; this.table = table;
+            this.groupLabel = groupLabel; this.countLabel = countLabel; this.sumLabel = sumLabel; this.sql = sql;
+        }
+        @Override public String toString() { return title; }
+    }
+
+    /** One report line; {@code period} is a day, ISO week ({@code 2024-W31}), month ({@code 2024-08}) or "All". */
+    record Row(String period, String group, long count, double sum) {}
+
+    private record Cell(String group, LocalDate day) {}
+
+    /**
+     * Daily cells of one rollup; replaced wholesale by a rebuild, extended on the timer thread. {@code cells}
+     * is {@code base} (keys up to {@code settled}) plus the rows above it, re-read on every refresh.
+     */
+    private static final class Cube {
+        final Map<Cell, double[]> base = new HashMap<>();              // {count, sum}; timer thread only
+        volatile Map<Cell, double[]> cells = Map.of();                 // what reports read; never mutated once set
+        volatile long mark = -1;                                       // highest primary key counted; -1 = not built
+        long settled, candidate, candidateAt;                          // timer thread only
+    }
+
+    private static final Rollup[] ROLLUPS = Rollup.values();
+    private static volatile Reports shared;
+
+    static Reports shared() {
+        Reports r = shared;
+        if (r == null) {
+            synchronized (Reports.class) {
+                if (shared == null) {
+                    shared = new Reports(DbConfig.get());
+                    DataEvents.subscribe(shared::onRowChanged);
+                    ChangeFeed.subscribe(shared::onFeed);
+                }
+                r = shared;
+            }
+        }
+        return r;
+    }
+
+    private final Cube[] cubes = new Cube[ROLLUPS.length];
+    private final Set<Rollup> rebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final ScheduledExecutorService timer;
+    private final long rebuildMs, settleMs;
+    private volatile long refreshedAt, rebuiltAt, version;
+    private volatile String lastError;
+
+    private Reports(DbConfig cfg) {
+        for (int i=0;i<cubes.length;i++) cubes[i] = new Cube();
+        this.rebuildMs = TimeUnit.MINUTES.toMillis(Math.max(1, cfg.integer("reports.rebuildMin", 60)));
+        this.settleMs = TimeUnit.SECONDS.toMillis(Math.max(0, cfg.integer("reports.settleSec", 120)));
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-reports"); t.setDaemon(true); return t;
+        });
+        timer.scheduleWithFixedDelay(this::refreshQuietly, 0, Math.max(1, cfg.integer("reports.refreshSec", 10)), TimeUnit.SECONDS);
+    }
+
+    boolean ready(Rollup r) { return cubes[r.ordinal()].mark >= 0; }
+    long refreshedAt() { return refreshedAt; }
+    /** Changes whenever a refresh changed any rollup. */
+    long version() { return version; }
+    String lastError() { return lastError; }
+
+    // ---------- REPORTS ----------
+    /** Lines of {@code rollup} between {@code from} and {@code to} (inclusive, null = open), newest period first. */
+    List<Row> report(Rollup rollup, Grain grain, LocalDate from, LocalDate to) {
+        Map<Cell, double[]> out = new HashMap<>();
+        for (Map.Entry<Cell, double[]> e : cubes[rollup.ordinal()].cells.entrySet()) {
+            LocalDate day = e.getKey().day();
+            if (from != null && (day == null || day.isBefore(from))) continue;
+            if (to != null && (day == null || day.isAfter(to))) continue;
+            double[] acc = out.computeIfAbsent(new Cell(e.getKey().group(), bucket(day, grain)), k -> new double[2]);
+            double[] v = e.getValue();
+            acc[0] += v[0]; acc[1] += v[1];
+        }
+        List<Row> rows = new ArrayList<>(out.size());
+        out.forEach((c, v) -> rows.add(new Row(label(c.day(), grain), c.group(), (long) v[0], v[1])));
+        rows.sort(Comparator.comparing(Row::period, Comparator.reverseOrder()).thenComparing(Comparator.comparingDouble(Row::sum).reversed()));
+        return rows;
+    }
+
+    // first day of the bucket; an undated row stays undated except in the total
+    private static LocalDate bucket(LocalDate day, Grain g) {
+        if (g == Grain.TOTAL) return LocalDate.MIN;
+        if (day == null) return null;
+        return switch (g) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            case TOTAL -> LocalDate.MIN;
+        };
+    }
+
+    private static String label(LocalDate b, Grain g) {
+        if (g == Grain.TOTAL) return "All";
+        if (b == null) return "(no date)";
+        return switch (g) {
+            case WEEK -> String.format("%d-W%02d", b.get(IsoFields.WEEK_BASED_YEAR), b.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH -> b.toString().substring(0, 7);
+            default -> b.toString();
+        };
+    }
+
+    // ---------- INCREMENTAL ----------
+    private void onRowChanged(DataEvents.RowChange c) {
+        for (Rollup r : ROLLUPS) {
+            if (!r.table.equalsIgnoreCase(c.table())) continue;
+            if (c.op() != DataEvents.Op.INSERT) rebuild.add(r);
+            refreshSoon();
+        }
+    }
+
+    private void onFeed(List<ChangeFeed.Change> changes) {
+        for (ChangeFeed.Change c : changes) {
+            for (Rollup r : ROLLUPS) {
+                if (!r.table.equalsIgnoreCase(c.table())) continue;
+                if (c.op() != DataEvents.Op.INSERT) rebuild.add(r);
+                refreshSoon();
+            }
+        }
+    }
+
+    private void refreshSoon() {
+        if (refreshPending.compareAndSet(false, true)) timer.schedule(this::refreshQuietly, 1, TimeUnit.SECONDS);
+    }
+
+    private void refreshQuietly() {
+        try { refresh(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("[reports] refresh failed: " + e.getMessage());
+        }
+    }
+
+    void refresh() throws SQLException {
+        refreshPending.set(false);
+        long now = System.currentTimeMillis();
+        boolean all = now - rebuiltAt > rebuildMs, changed = false;
+        QueryMetrics.Scope label = QueryMetrics.label("reports");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            for (Rollup r : ROLLUPS) {
+                int i = r.ordinal();
+                Cube cube = cubes[i];
+                if (all || rebuild.remove(r) || cube.mark < 0) {
+                    Cube fresh = new Cube();
+                    if (cube.mark < 0) {
+                        // first build: everything committed so far counts as settled
+                        fresh.settled = load(con, r, fresh.base, 0, Long.MAX_VALUE);
+                        fresh.candidate = fresh.settled;
+                        fresh.candidateAt = now;
+                    } else {
+                        load(con, r, fresh.base, 0, cube.settled);
+                        fresh.settled = cube.settled;
+                        fresh.candidate = cube.candidate;
+                        fresh.candidateAt = cube.candidateAt;
+                    }
+                    extend(con, r, fresh, now);
+                    changed |= cube.mark < 0 || !sameCells(fresh.cells, cube.cells);
+                    cubes[i] = fresh;
+                } else {
+                    Map<Cell, double[]> before = cube.cells;
+                    extend(con, r, cube, now);
+                    changed |= !sameCells(cube.cells, before);
+                }
+            }
+        } finally {
+            label.close();
+        }
+        if (all) rebuiltAt = System.currentTimeMillis();
+        if (changed) version++;
+        refreshedAt = System.currentTimeMillis();
+        lastError = null;
+    }
+
+    private static boolean sameCells(Map<Cell, double[]> a, Map<Cell, double[]> b) {
+        if (a.size() != b.size()) return false;
+        for (Map.Entry<Cell, double[]> e : a.entrySet()) if (!Arrays.equals(e.getValue(), b.get(e.getKey()))) return false;
+        return true;
+    }
+
+    // Settles the keys that have been below the mark for settleMs, then re-reads everything above the
+    // settled key and publishes base + that tail as the cube's cells.
+    private void extend(Connection con, Rollup r, Cube cube, long now) throws SQLException {
+        if (now - cube.candidateAt >= settleMs) {
+            if (cube.candidate > cube.settled) {
+                load(con, r, cube.base, cube.settled, cube.candidate);
+                cube.settled = cube.candidate;
+            }
+            cube.candidate = Math.max(cube.settled, cube.mark);
+            cube.candidateAt = now;
+        }
+        Map<Cell, double[]> cells = new HashMap<>(cube.base);
+        long top = load(con, r, cells, cube.settled, Long.MAX_VALUE);
+        cube.cells = cells;
+        cube.mark = Math.max(cube.settled, top);
+    }
+
+    // Adds the rows with keys in (from, to] to cells; returns the highest key read (0 if none).
+    private static long load(Connection con, Rollup r, Map<Cell, double[]> cells, long from, long to) throws SQLException {
+        long mark = 0;
+        try (PreparedStatement ps = con.prepareStatement(r.sql)) {
+            ps.setLong(1, Math.max(0, from));
+            ps.setLong(2, to);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    java.sql.Date d = rs.getDate(2);
+                    cells.merge(new Cell(rs.getString(1), d == null ? null : d.toLocalDate()),
+                            new double[]{rs.getLong(3), rs.getDouble(4)}, (a, b) -> new double[]{a[0] + b[0], a[1] + b[1]});
+                    mark = Math.max(mark, rs.getLong(5));
+                }
+            }
+        }
+        return mark;
+    }
+}
@@ -0,0 +1,531 @@
+package wayanad;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Family reunification: open MissingPerson reports linked to registered victims and unidentified bodies,
+ * as a ranked match queue for the desk to confirm or dismiss.
+ *
+ * Candidates come from blocking, never from comparing every report with every record:
+ * - victims (Person + Victim, with the location of the camp they are in) are blocked by gender, five-year
+ *   age band and name token (first three letters, after {@link NameIndex#normalize} folding). A report
+ *   looks in its own and the neighbouring bands; an unknown age or gender looks in all of them
+ * - bodies (BodyIdentification not yet identified) have no name, age or gender; they are candidates when
+ *   they carry a provisional {@code missing_id} for the report or their notes name a place within
+ *   {@code match.radiusKm} of where the person was last seen ({@link GeoIndex})
+ *
+ * Victim pairs score on name similarity (trigram Dice), age, distance from the last-seen place to the
+ * victim's camp, registration date against report date, and whether the victim's family ({@code family_id})
+ * includes someone with the reported surname. Body pairs score on the provisional link, place and
+ * identification date. Each report keeps its best {@code match.perPerson} candidates at or above
+ * {@code match.minScore}.
+ *
+ * A full build scores all open reports on a fork-join pool of {@code match.parallelism} threads (0 = all
+ * cores). After that, Victim, Person, BodyIdentification and MissingPerson changes (from {@link DataEvents}
+ * and {@link ChangeFeed}) re-read only the changed rows and re-score the reports they can affect; a full
+ * rebuild also runs every {@code match.rebuildMin} minutes. Dismissals are kept for the session only.
+ */
+final class Reunification {
+
+    enum Kind { VICTIM, BODY }
+
+    /** One candidate pair; {@code why} lists the evidence for the desk. */
+    record Match(int missingId, String missingName, Kind kind, int candidateId, String candidateName, double score, String why) {}
+
+    /** A MissingPerson, victim or body as the matcher sees it; immutable once built. */
+    private record Rec(Kind kind, int id, String name, int[] grams, String[] prefixes, String surname, Integer age,
+                       String gender, String family, LocalDate date, GeoIndex.Point place, Integer link) {}
+
+    private static final String[] GENDERS = {"M", "F", "O", "?"};
+    private static final int BANDS = 26;   // 0-4 … 125-129
+
+    private static final String VICTIMS = "SELECT p.person_id, p.name, p.age, p.gender, v.family_id, v.registration_date, c.location"
+            + " FROM Victim v JOIN Person p ON p.person_id = v.victim_id"
+            + " LEFT JOIN Victim_Camp vc ON vc.victim_id = v.victim_id AND vc.date_released IS NULL"
+            + " LEFT JOIN Camp c ON c.camp_id = vc.camp_id";
+    private static final String BODIES = "SELECT body_id, dna_sample_id, missing_id, id_date, notes FROM BodyIdentification"
+            + " WHERE COALESCE(identified, FALSE) = FALSE";
+    private static final String MISSING = "SELECT missing_id, name, age, gender, last_seen_location, date_reported"
+            + " FROM MissingPerson WHERE status = 'missing'";
+
+    private static volatile Reunification shared;
+
+    static Reunification shared() {
+        Reunification r = shared;
+        if (r == null) {
+            synchronized (Reunification.class) {
+                if (shared == null) {
+                    shared = new Reunification(DbConfig.get());
+                    DataEvents.subscribe(c -> shared.dirty(c.table(), c.pk()));
+                    ChangeFeed.subscribe(cs -> { for (ChangeFeed.Change c : cs) shared.dirty(c.table(), c.pk()); });
+                }
+                r = shared;
+            }
+        }
+        return r;
+    }
+
+    // ---------- STATE (matcher thread only, except best/dismissed) ----------
+    private final Map<Integer, Rec> missing = new HashMap<>(), victims = new HashMap<>(), bodies = new HashMap<>();
+    private final Map<String, List<Rec>> victimBlocks = new HashMap<>(), missingBlocks = new HashMap<>();
+    private final Map<GeoIndex.Point, List<Rec>> bodiesAt = new HashMap<>(), missingAt = new HashMap<>();
+    private final Map<Integer, List<Rec>> bodiesFor = new HashMap<>();                 // provisional missing_id -> bodies
+    private final Map<String, Map<String, Integer>> surnames = new HashMap<>();          // family_id -> surname -> members
+    private final Map<Integer, List<Match>> best = new ConcurrentHashMap<>();            // missing_id -> top candidates
+    private final Set<String> dismissed = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyMissing = ConcurrentHashMap.newKeySet(), dirtyVictims = ConcurrentHashMap.newKeySet(),
+            dirtyBodies = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService timer;
+    private final AtomicBoolean applyPending = new AtomicBoolean(), rebuildPending = new AtomicBoolean();
+    private final AtomicLong version = new AtomicLong();
+    private final int parallelism, perPerson;
+    private final double minScore, radiusKm;
+    private final int dateDays;
+    private volatile boolean ready;
+    private volatile long builtAt, buildMs, comparisons;
+    private volatile String lastError;
+    private volatile List<Match> queue = List.of();
+    private volatile long queueVersion = -1;
+
+    private Reunification(DbConfig cfg) {
+        int p = cfg.integer("match.parallelism", 0);
+        this.parallelism = p > 0 ? p : Runtime.getRuntime().availableProcessors();
+        this.perPerson = Math.max(1, cfg.integer("match.perPerson", 3));
+        this.minScore = Math.max(0, Math.min(1, Double.parseDouble(cfg.str("match.minScore", "0.55"))));
+        this.radiusKm = Math.max(1, cfg.integer("match.radiusKm", 25));
+        this.dateDays = Math.max(1, cfg.integer("match.dateDays", 60));
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-match"); t.setDaemon(true); return t;
+        });
+        timer.schedule(this::rebuildQuietly, 0, TimeUnit.SECONDS);
+        long every = Math.max(1, cfg.integer("match.rebuildMin", 60));
+        timer.scheduleWithFixedDelay(this::rebuildQuietly, every, every, TimeUnit.MINUTES);
+    }
+
+    boolean ready() { return ready; }
+    long builtAt() { return builtAt; }
+    long buildMs() { return buildMs; }
+    /** Pairs scored by the last full build. */
+    long comparisons() { return comparisons; }
+    String lastError() { return lastError; }
+    /** Changes whenever the queue may have changed. */
+    long version() { return version.get(); }
+    int openReports() { return best.size(); }
+
+    // ---------- QUEUE ----------
+    /** All queued candidates (dismissed ones left out), best score first. */
+    List<Match> queue() {
+        long v = version.get();
+        if (v != queueVersion) {
+            List<Match> all = new ArrayList<>();
+            for (List<Match> ms : best.values()) for (Match m : ms) if (!dismissed.contains(pairKey(m))) all.add(m);
+            all.sort(Comparator.comparingDouble(Match::score).reversed().thenComparingInt(Match::missingId));
+            queue = all;
+            queueVersion = v;
+        }
+        return queue;
+    }
+
+    void dismiss(Match m) {
+        dismissed.add(pairKey(m));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records a confirmed match in one transaction: a victim marks the report found; a body is linked to the
+     * report and marked identified, and the report identified. The report then leaves the queue. Events are
+     * published once committed.
+     */
+    void confirm(Connection con, Match m) throws SQLException {
+        Schema.TableSpec missingSpec = Schema.spec("MissingPerson"), bodySpec = Schema.spec("BodyIdentification");
+        List<DataEvents.RowChange> changes = new ArrayList<>(2);
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try {
+            if (m.kind() == Kind.BODY)
+                Records.update(con, bodySpec, m.candidateId(), List.of(field(bodySpec, "missing_id"), field(bodySpec, "identified")),
+                        List.of(m.missingId(), Boolean.TRUE), changes::add);
+            Records.update(con, missingSpec, m.missingId(), List.of(field(missingSpec, "status")),
+                    List.of(m.kind() == Kind.BODY ? "identified" : "found"), changes::add);
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+        for (DataEvents.RowChange c : changes) DataEvents.publish(c);
+    }
+
+    private static Schema.FieldSpec field(Schema.TableSpec spec, String name) {
+        for (Schema.FieldSpec f : spec.fields) if (f.name.equals(name)) return f;
+        throw new IllegalStateException(spec.table + " has no field " + name);
+    }
+
+    private static String pairKey(Match m) { return m.missingId() + "/" + m.kind() + "/" + m.candidateId(); }
+
+    // ---------- INCREMENTAL ----------
+    private void dirty(String table, Object pk) {
+        if (!(pk instanceof Number n)) return;
+        Set<Integer> set = switch (table) {
+            case "MissingPerson" -> dirtyMissing;
+            case "Victim", "Person" -> dirtyVictims;     // victim_id is the person_id
+            case "BodyIdentification" -> dirtyBodies;
+            default -> null;
+        };
+        if (set == null) return;
+        set.add(n.intValue());
+        if (applyPending.compareAndSet(false, true)) timer.schedule(this::applyQuietly, 1, TimeUnit.SECONDS);
+    }
+
+    /** Schedules a full rebuild (the Re-run button). */
+    void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) timer.execute(this::rebuildQuietly);
+    }
+
+    private void applyQuietly() {
+        try { apply(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("[match] incremental update failed: " + e.getMessage());
+        }
+    }
+
+    // Re-reads the changed rows and re-scores the reports they touch (or touched before the change).
+    private void apply() throws SQLException {
+        applyPending.set(false);
+        if (!ready) return;   // the build in progress reads them anyway
+        List<Integer> vIds = drain(dirtyVictims), bIds = drain(dirtyBodies), mIds = drain(dirtyMissing);
+        if (vIds.isEmpty() && bIds.isEmpty() && mIds.isEmpty()) return;
+        Set<Integer> rescore = new HashSet<>(mIds);
+        for (Integer id : vIds) { Rec old = victims.remove(id); if (old != null) { unindexVictim(old); rescore.addAll(listing(Kind.VICTIM, id)); } }
+        for (Integer id : bIds) { Rec old = bodies.remove(id); if (old != null) { unindexBody(old); rescore.addAll(listing(Kind.BODY, id)); } }
+        for (Integer id : mIds) { Rec old = missing.remove(id); if (old != null) unindexMissing(old); }
+        QueryMetrics.Scope label = QueryMetrics.label("match");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            for (Rec v : load(con, Kind.VICTIM, VICTIMS + " WHERE v.victim_id IN ", vIds)) {
+                indexVictim(v);
+                for (Rec m : candidatesFor(v)) rescore.add(m.id());
+            }
+            for (Rec b : load(con, Kind.BODY, BODIES + " AND body_id IN ", bIds)) {
+                indexBody(b);
+                for (Rec m : candidatesFor(b)) rescore.add(m.id());
+            }
+            for (Rec m : load(con, null, MISSING + " AND missing_id IN ", mIds)) indexMissing(m);
+        } finally {
+            label.close();
+        }
+        for (Integer id : rescore) {
+            Rec m = missing.get(id);
+            if (m == null) best.remove(id);
+            else best.put(id, score(m, new long[1]));
+        }
+        version.incrementAndGet();
+    }
+
+    private static List<Integer> drain(Set<Integer> dirty) {
+        List<Integer> out = new ArrayList<>(dirty);
+        dirty.removeAll(out);
+        return out;
+    }
+
+    // reports whose queue lists this candidate
+    private List<Integer> listing(Kind kind, int id) {
+        List<Integer> out = new ArrayList<>();
+        best.forEach((m, ms) -> { for (Match x : ms) if (x.kind() == kind && x.candidateId() == id) { out.add(m); break; } });
+        return out;
+    }
+
+    // ---------- FULL BUILD ----------
+    private void rebuildQuietly() {
+        try { rebuild(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("[match] build failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void rebuild() throws SQLException, InterruptedException {
+        rebuildPending.set(false);
+        long t0 = System.currentTimeMillis();
+        List<Rec> vs, bs, ms;
+        QueryMetrics.Scope label = QueryMetrics.label("match");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            vs = load(con, Kind.VICTIM, VICTIMS, null);
+            bs = load(con, Kind.BODY, BODIES, null);
+            ms = load(con, null, MISSING, null);
+        } finally {
+            label.close();
+        }
+        missing.clear(); victims.clear(); bodies.clear();
+        victimBlocks.clear(); missingBlocks.clear(); bodiesAt.clear(); missingAt.clear(); bodiesFor.clear(); surnames.clear();
+        for (Rec v : vs) indexVictim(v);
+        for (Rec b : bs) indexBody(b);
+        for (Rec m : ms) indexMissing(m);
+
+        Map<Integer, List<Match>> fresh = new ConcurrentHashMap<>();
+        AtomicLong pairs = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> ms.parallelStream().forEach(m -> {
+                long[] n = new long[1];
+                fresh.put(m.id(), score(m, n));
+                pairs.addAndGet(n[0]);
+            })).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        best.clear();
+        best.putAll(fresh);
+        comparisons = pairs.get();
+        buildMs = System.currentTimeMillis() - t0;
+        builtAt = System.currentTimeMillis();
+        lastError = null;
+        ready = true;
+        version.incrementAndGet();
+        apply();   // changes that arrived while loading
+    }
+
+    // Reads victims, bodies or (kind null) open reports; ids != null appends an IN list (chunked).
+    private static List<Rec> load(Connection con, Kind kind, String sql, List<Integer> ids) throws SQLException {
+        List<Rec> out = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        if (ids == null) {
+            try (PreparedStatement ps = RowStream.prepare(con, sql); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) { Rec r = rec(kind, rs); if (seen.add(r.id())) out.add(r); }
+            }
+            return out;
+        }
+        for (int from = 0; from < ids.size(); from += 500) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + 500));
+            try (PreparedStatement ps = con.prepareStatement(sql + "(" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                for (int i = 0; i < chunk.size(); i++) ps.setInt(i + 1, chunk.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) { Rec r = rec(kind, rs); if (seen.add(r.id())) out.add(r); }
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Rec rec(Kind kind, ResultSet rs) throws SQLException {
+        if (kind == Kind.BODY) {
+            java.sql.Date d = rs.getDate(4);
+            Object link = rs.getObject(3);
+            return new Rec(Kind.BODY, rs.getInt(1), Objects.toString(rs.getString(2), "Body #" + rs.getInt(1)), new int[0], new String[0],
+                    null, null, null, null, d == null ? null : d.toLocalDate(), GeoIndex.locate(rs.getString(5)),
+                    link instanceof Number n ? n.intValue() : null);
+        }
+        String name = rs.getString(2);
+        String norm = NameIndex.normalize(name);
+        String[] tokens = norm.isEmpty() ? new String[0] : norm.split(" ");
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String t : tokens) if (t.length() >= 2) prefixes.add(t.substring(0, Math.min(3, t.length())));
+        Object age = rs.getObject(3);
+        String gender = rs.getString(4);
+        boolean victim = kind == Kind.VICTIM;
+        java.sql.Date d = rs.getDate(6);
+        return new Rec(victim ? Kind.VICTIM : null, rs.getInt(1), name, NameIndex.grams(norm), prefixes.toArray(new String[0]),
+                tokens.length == 0 ? null : tokens[tokens.length - 1], age instanceof Number n ? n.intValue() : null,
+                gender == null || gender.isBlank() ? null : gender, victim ? rs.getString(5) : null,
+                d == null ? null : d.toLocalDate(), GeoIndex.locate(rs.getString(victim ? 7 : 5)), null);
+    }
+
+    // ---------- BLOCKING ----------
+    private static String band(Integer age) { return age == null ? "?" : String.valueOf(Math.min(BANDS - 1, Math.max(0, age / 5))); }
+
+    // the block keys a record is filed under: gender|band|name prefix
+    private static List<String> keys(Rec r) {
+        List<String> out = new ArrayList<>(r.prefixes().length);
+        String g = r.gender() == null ? "?" : r.gender(), b = band(r.age());
+        for (String p : r.prefixes()) out.add(g + "|" + b + "|" + p);
+        return out;
+    }
+
+    // the block keys a record can match in: same or unknown gender, neighbouring or unknown age band
+    private static List<String> probes(Rec r) {
+        String[] genders = r.gender() == null ? GENDERS : new String[]{r.gender(), "?"};
+        List<String> bands = new ArrayList<>();
+        bands.add("?");
+        if (r.age() == null) for (int b = 0; b < BANDS; b++) bands.add(String.valueOf(b));
+        else {
+            int b = Integer.parseInt(band(r.age()));
+            for (int x = Math.max(0, b - 1); x <= Math.min(BANDS - 1, b + 1); x++) bands.add(String.valueOf(x));
+        }
+        List<String> out = new ArrayList<>();
+        for (String p : r.prefixes()) for (String g : genders) for (String b : bands) out.add(g + "|" + b + "|" + p);
+        return out;
+    }
+
+    private void indexVictim(Rec v) {
+        victims.put(v.id(), v);
+        for (String k : keys(v)) victimBlocks.computeIfAbsent(k, x -> new ArrayList<>()).add(v);
+        if (v.family() != null && v.surname() != null) surnames.computeIfAbsent(v.family(), x -> new HashMap<>()).merge(v.surname(), 1, Integer::sum);
+    }
+
+    private void unindexVictim(Rec v) {
+        for (String k : keys(v)) remove(victimBlocks, k, v);
+        if (v.family() != null && v.surname() != null) {
+            Map<String, Integer> s = surnames.get(v.family());
+            if (s != null && s.merge(v.surname(), -1, Integer::sum) <= 0) { s.remove(v.surname()); if (s.isEmpty()) surnames.remove(v.family()); }
+        }
+    }
+
+    private void indexBody(Rec b) {
+        bodies.put(b.id(), b);
+        if (b.place() != null) bodiesAt.computeIfAbsent(b.place(), x -> new ArrayList<>()).add(b);
+        if (b.link() != null) bodiesFor.computeIfAbsent(b.link(), x -> new ArrayList<>()).add(b);
+    }
+
+    private void unindexBody(Rec b) {
+        if (b.place() != null) remove(bodiesAt, b.place(), b);
+        if (b.link() != null) remove(bodiesFor, b.link(), b);
+    }
+
+    private void indexMissing(Rec m) {
+        missing.put(m.id(), m);
+        for (String k : keys(m)) missingBlocks.computeIfAbsent(k, x -> new ArrayList<>()).add(m);
+        if (m.place() != null) missingAt.computeIfAbsent(m.place(), x -> new ArrayList<>()).add(m);
+    }
+
+    private void unindexMissing(Rec m) {
+        for (String k : keys(m)) remove(missingBlocks, k, m);
+        if (m.place() != null) remove(missingAt, m.place(), m);
+    }
+
+    private static <K> void remove(Map<K, List<Rec>> blocks, K key, Rec r) {
+        List<Rec> l = blocks.get(key);
+        if (l == null) return;
+        l.removeIf(x -> x.id() == r.id());
+        if (l.isEmpty()) blocks.remove(key);
+    }
+
+    // reports a new victim or body could match (the reverse of the probes in score())
+    private List<Rec> candidatesFor(Rec c) {
+        Set<Rec> out = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (c.kind() == Kind.VICTIM) {
+            for (String k : probes(c)) out.addAll(missingBlocks.getOrDefault(k, List.of()));
+        } else {
+            if (c.link() != null && missing.containsKey(c.link())) out.add(missing.get(c.link()));
+            if (c.place() != null)
+                missingAt.forEach((p, ms) -> { if (GeoIndex.km(p, c.place()) <= radiusKm) out.addAll(ms); });
+        }
+        return new ArrayList<>(out);
+    }
+
+    // ---------- SCORING ----------
+    // Best candidates of one report; n[0] counts the pairs scored. Reads the indexes only.
+    private List<Match> score(Rec m, long[] n) {
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+        Set<Rec> seen = Collections.newSetFromMap(new IdentityHashMap<>(1024));
+        for (String k : probes(m)) {
+            for (Rec v : victimBlocks.getOrDefault(k, List.of())) {
+                if (!seen.add(v)) continue;
+                n[0]++;
+                offer(top, m, v);
+            }
+        }
+        List<Rec> near = new ArrayList<>(bodiesFor.getOrDefault(m.id(), List.of()));
+        if (m.place() != null) bodiesAt.forEach((p, bs) -> { if (GeoIndex.km(p, m.place()) <= radiusKm) near.addAll(bs); });
+        for (Rec b : near) {
+            if (!seen.add(b)) continue;
+            n[0]++;
+            offer(top, m, b);
+        }
+        List<Match> out = new ArrayList<>(top);
+        out.sort(Comparator.comparingDouble(Match::score).reversed());
+        return out;
+    }
+
+    // Scores the pair and keeps it if it makes the report's top list; the evidence text is built only then.
+    private void offer(PriorityQueue<Match> top, Rec m, Rec c) {
+        double score = c.kind() == Kind.VICTIM ? victimScore(m, c) : bodyScore(m, c);
+        // the family bonus needs a lookup; only worth it when it could still get the pair in
+        if (c.kind() == Kind.VICTIM && !below(top, score + 0.10) && familyHas(c, m.surname())) score += 0.10;
+        if (below(top, score)) return;
+        top.add(c.kind() == Kind.VICTIM ? victimMatch(m, c, score) : bodyMatch(m, c, score));
+        if (top.size() > perPerson) top.poll();
+    }
+
+    private boolean below(PriorityQueue<Match> top, double score) {
+        return score < minScore || top.size() == perPerson && score <= top.peek().score();
+    }
+
+    // without the family bonus (see offer)
+    private double victimScore(Rec m, Rec v) {
+        double name = dice(m.grams(), v.grams());
+        if (0.55 * name + 0.45 < minScore) return 0;     // cannot reach the threshold whatever else agrees
+        double age = m.age() == null || v.age() == null ? 0.5 : Math.max(0, 1 - Math.abs(m.age() - v.age()) / 10.0);
+        double place = m.place() == null || v.place() == null ? 0.5 : Math.max(0, 1 - GeoIndex.km(m.place(), v.place()) / radiusKm);
+        double date = m.date() == null || v.date() == null ? 0.5
+                : Math.max(0, 1 - Math.abs(ChronoUnit.DAYS.between(m.date(), v.date())) / (double) dateDays);
+        return 0.55 * name + 0.15 * age + 0.10 * place + 0.10 * date;
+    }
+
+    private double bodyScore(Rec m, Rec b) {
+        boolean linked = b.link() != null && b.link() == m.id();
+        double place = m.place() == null || b.place() == null ? 0.5 : Math.max(0, 1 - GeoIndex.km(m.place(), b.place()) / radiusKm);
+        // a body identified well before the person was reported missing is unlikely to be them
+        long days = m.date() == null || b.date() == null ? Long.MIN_VALUE : ChronoUnit.DAYS.between(m.date(), b.date());
+        double date = days == Long.MIN_VALUE ? 0.5 : days < -2 ? 0 : Math.max(0, 1 - Math.max(0, days) / (double) dateDays);
+        return (linked ? 0.40 : 0) + 0.35 * place + 0.25 * date;
+    }
+
+    private Match victimMatch(Rec m, Rec v, double score) {
+        double km = m.place() == null || v.place() == null ? -1 : GeoIndex.km(m.place(), v.place());
+        long days = m.date() == null || v.date() == null ? Long.MIN_VALUE : ChronoUnit.DAYS.between(m.date(), v.date());
+        boolean family = familyHas(v, m.surname());
+        StringBuilder why = new StringBuilder(String.format("name %.2f", dice(m.grams(), v.grams())));
+        if (m.age() != null && v.age() != null) why.append(" · age ").append(m.age()).append('/').append(v.age());
+        if (km >= 0) why.append(String.format(" · camp %.0f km from last seen", km));
+        if (days != Long.MIN_VALUE) why.append(" · registered ").append(days >= 0 ? days + " d after" : -days + " d before").append(" report");
+        if (family) why.append(" · family ").append(v.family()).append(" has a ").append(m.surname());
+        return new Match(m.id(), m.name(), Kind.VICTIM, v.id(), v.name(), score, why.toString());
+    }
+
+    private Match bodyMatch(Rec m, Rec b, double score) {
+        boolean linked = b.link() != null && b.link() == m.id();
+        double km = m.place() == null || b.place() == null ? -1 : GeoIndex.km(m.place(), b.place());
+        long days = m.date() == null || b.date() == null ? Long.MIN_VALUE : ChronoUnit.DAYS.between(m.date(), b.date());
+        StringBuilder why = new StringBuilder(linked ? "provisionally linked" : "not linked");
+        if (km >= 0) why.append(String.format(" · found %.0f km from last seen", km));
+        if (days != Long.MIN_VALUE) why.append(" · ").append(days >= 0 ? days + " d after" : -days + " d before").append(" report");
+        return new Match(m.id(), m.name(), Kind.BODY, b.id(), b.name(), score, why.toString());
+    }
+
+    // another member of the victim's family carries the reported surname
+    private boolean familyHas(Rec v, String surname) {
+        if (v.family() == null || surname == null) return false;
+        Map<String, Integer> s = surnames.get(v.family());
+        int n = s == null ? 0 : s.getOrDefault(surname, 0);
+        return n - (surname.equals(v.surname()) ? 1 : 0) > 0;
+    }
+
+    // Dice similarity of two sorted, distinct trigram code arrays
+    static double dice(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0;
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) { common++; i++; j++; }
+            else if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return 2.0 * common / (a.length + b.length);
+    }
+}
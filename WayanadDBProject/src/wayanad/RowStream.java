@@ -0,0 +1,107 @@
+package wayanad;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming (non-buffered) reads for large result sets.
+ *
+ * By default MySQL Connector/J buffers the whole result in the client heap before the first
+ * {@code rs.next()} returns. Statements from {@link #prepare} are forward-only/read-only and either
+ * - use a server-side cursor with {@code stream.fetchSize} rows per round trip when the JDBC URL
+ *   carries {@code useCursorFetch=true}, or
+ * - use Connector/J row streaming ({@code fetchSize = Integer.MIN_VALUE}) otherwise.
+ * Other drivers just get the positive fetch size.
+ *
+ * Rows are emitted to the EDT as they arrive; {@link #firstRowsLatency()} tracks how long it took
+ * from the user's click until the first rows were on screen.
+ */
+final class RowStream {
+
+    private RowStream() {}
+
+    /** First thing emitted by {@link #emitRows}: the column names. */
+    record Header(String[] columns) {}
+
+    static PreparedStatement prepare(Connection con, String sql) throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize());
+        return ps;
+    }
+
+    static int fetchSize() {
+        DbConfig cfg = DbConfig.get();
+        int size = Math.max(1, cfg.integer("stream.fetchSize", 500));
+        String url = cfg.url();
+        if (url.startsWith("jdbc:mysql:") && !url.contains("useCursorFetch=true")) return Integer.MIN_VALUE;
+        return size;
+    }
+
+    static int maxRows() { return Math.max(1, DbConfig.get().integer("stream.maxRows", 100_000)); }
+
+    /** Emits a {@link Header} and then each row as an {@code Object[]}; returns the row count. */
+    static int emitRows(ResultSet rs, QueryExecutor.QueryTask<?> task, int limit) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int cols = meta.getColumnCount();
+        String[] names = new String[cols];
+        for (int i=1;i<=cols;i++) names[i-1] = meta.getColumnName(i);
+        task.emit(new Header(names));
+        int n = 0;
+        while (n < limit && !task.isCancelled() && rs.next()) {
+            Object[] row = new Object[cols];
+            for (int i=1;i<=cols;i++) row[i-1] = rs.getObject(i);
+            task.emit(row);
+            n++;
+        }
+        return n;
+    }
+
+    // ---------- EXPORT ----------
+    /** Streams {@code sql} into a UTF-8 CSV file; emits the running row count every few thousand rows. */
+    static long exportCsv(Connection con, QueryExecutor.QueryTask<?> task, String sql, Path file)
+            throws SQLException, IOException {
+        long n = 0;
+        try (PreparedStatement ps = task.track(prepare(con, sql));
+             ResultSet rs = ps.executeQuery();
+             BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int cols = meta.getColumnCount();
+            for (int i=1;i<=cols;i++) { if (i>1) w.write(','); writeCsv(w, meta.getColumnName(i)); }
+            w.write("\r\n");
+            while (!task.isCancelled() && rs.next()) {
+                for (int i=1;i<=cols;i++) { if (i>1) w.write(','); writeCsv(w, rs.getString(i)); }
+                w.write("\r\n");
+                if (++n % 5_000 == 0) task.emit(n);
+            }
+        }
+        return n;
+    }
+
+    static void writeCsv(Writer w, String v) throws IOException {
+        if (v == null) return;
+        boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+        if (!quote) { w.write(v); return; }
+        w.write('"'); w.write(v.replace("\"", "\"\"")); w.write('"');
+    }
+
+    // ---------- FIRST-ROWS LATENCY ----------
+    private static final AtomicLong samples = new AtomicLong(), totalMs = new AtomicLong(), maxMs = new AtomicLong();
+    private static volatile long lastMs = -1;
+
+    static void recordFirstRows(long ms) {
+        samples.incrementAndGet(); totalMs.addAndGet(ms); maxMs.accumulateAndGet(ms, Math::max); lastMs = ms;
+    }
+
+    static String firstRowsLatency() {
+        long n = samples.get();
+        if (n == 0) return "first rows visible: no samples";
+        return String.format("first rows visible: last %d ms, avg %.1f ms, max %d ms (%d loads)",
+                lastMs, (double) totalMs.get() / n, maxMs.get(), n);
+    }
+}
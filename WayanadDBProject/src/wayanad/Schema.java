@@ -0,0 +1,196 @@
+package wayanad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table metadata shared by the Swing screens, the bulk importer and the HTTP API.
+ *
+ * A {@link TableSpec} lists the columns of one table with their input type, nullability and (for FKs)
+ * the lookup query. Nothing here depends on Swing, so headless code can use it.
+ */
+final class Schema {
+
+    /** Every table the app knows, in dashboard order. */
+    static final List<String> TABLES = List.of(
+            "Person", "Victim", "Camp", "Victim_Camp", "Supply", "Supply_Movement",
+            "Donation", "MissingPerson", "BodyIdentification", "RehabAllocation", "RescueTeam", "RescueOperation",
+            "Activity_Log", "Supply_Audit", "Transfer_Error_Log");
+
+    private Schema() {}
+
+    // ---------- TYPES ----------
+    enum InputType { TEXT, INT, DECIMAL, DATE, DATETIME, ENUM, BOOL, FK }
+
+    static class FieldSpec {
+        final String name, label; final InputType type;
+        final boolean nullable; final String enumCSV; final String fkQuery;
+        boolean readonly=false;
+        FieldSpec(String n, String l, InputType t, boolean nul, String e, String fk){name=n;label=l;type=t;nullable=nul;enumCSV=e;fkQuery=fk;}
+        FieldSpec readonly(){ this.readonly=true; return this; }
+    }
+    static class TableSpec {
+        final String table; final String pk; final boolean pkAuto;
+        final List<FieldSpec> fields = new ArrayList<>();
+        boolean readOnly=false;
+        TableSpec(String t,String p,boolean a){table=t;pk=p;pkAuto=a;}
+        TableSpec field(FieldSpec f){fields.add(f); return this;}
+        TableSpec readOnly(boolean ro){readOnly=ro; return this;}
+    }
+
+    // FK item holder
+    static class Item {
+        final Object id; final String label;
+        Item(Object id, String label){ this.id=id; this.label=label; }
+        public String toString(){ return label; }
+    }
+
+    // ---------- TABLE SPECS ----------
+    /** Spec for {@code table} (exact name as in {@link #TABLES}), or null if unknown. */
+    static TableSpec spec(String table) {
+        return switch (table) {
+            case "Person" -> personSpec();
+            case "Victim" -> victimSpec();
+            case "Camp" -> campSpec();
+            case "Victim_Camp" -> victimCampSpec();
+            case "Supply" -> supplySpec();
+            case "Supply_Movement" -> supplyMovementSpec();
+            case "Donation" -> donationSpec();
+            case "MissingPerson" -> missingSpec();
+            case "BodyIdentification" -> bodyIdSpec();
+            case "RehabAllocation" -> rehabSpec();
+            case "RescueTeam" -> teamSpec();
+            case "RescueOperation" -> opSpec();
+            case "Activity_Log" -> activityLogSpec();
+            case "Supply_Audit" -> supplyAuditSpec();
+            case "Transfer_Error_Log" -> errorLogSpec();
+            default -> null;
+        };
+    }
+
+    private static TableSpec personSpec(){ return new TableSpec("Person","person_id", false)
+            .field(new FieldSpec("person_id","Person ID",InputType.INT,false,null,null))
+            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
+            .field(new FieldSpec("age","Age",InputType.INT,true,null,null))
+            .field(new FieldSpec("gender","Gender",InputType.ENUM,true,"M,F,O",null))
+            .field(new FieldSpec("aadhar_no","Aadhar",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("phone","Phone",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("role","Role",InputType.ENUM,false,"victim,volunteer,rescuer,donor,admin",null))
+            .field(new FieldSpec("created_on","Created On",InputType.DATETIME,true,null,null).readonly());
+    }
+    private static TableSpec victimSpec(){ return new TableSpec("Victim","victim_id", false)
+            .field(new FieldSpec("victim_id","Victim (Person ID)",InputType.FK,false,null,
+                    "SELECT person_id AS id, CONCAT(person_id,' - ',name) AS label FROM Person WHERE role='victim'"))
+            .field(new FieldSpec("family_id","Family ID",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("status","Status",InputType.ENUM,true,"missing,rescued,deceased,hospitalized,relocated",null))
+            .field(new FieldSpec("injuries","Injuries",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("displaced","Displaced",InputType.BOOL,true,null,null))
+            .field(new FieldSpec("registration_date","Reg Date",InputType.DATE,true,null,null));
+    }
+    private static TableSpec campSpec(){ return new TableSpec("Camp","camp_id", true)
+            .field(new FieldSpec("camp_id","Camp ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
+            .field(new FieldSpec("location","Location",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("capacity","Capacity",InputType.INT,true,null,null))
+            .field(new FieldSpec("established_date","Established",InputType.DATE,true,null,null))
+            .field(new FieldSpec("current_occupancy","Current Occupancy",InputType.INT,true,null,null).readonly());
+    }
+    private static TableSpec victimCampSpec(){ return new TableSpec("Victim_Camp","vc_id", true)
+            .field(new FieldSpec("vc_id","VC ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("victim_id","Victim",InputType.FK,false,null,"SELECT victim_id AS id, victim_id AS label FROM Victim"))
+            .field(new FieldSpec("camp_id","Camp",InputType.FK,false,null,"SELECT camp_id AS id, CONCAT(camp_id,' - ',name) AS label FROM Camp"))
+            .field(new FieldSpec("date_admitted","Date Admitted",InputType.DATE,true,null,null))
+            .field(new FieldSpec("date_released","Date Released",InputType.DATE,true,null,null));
+    }
+    private static TableSpec supplySpec(){ return new TableSpec("Supply","supply_id", true)
+            .field(new FieldSpec("supply_id","Supply ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
+            .field(new FieldSpec("quantity_on_hand","Quantity",InputType.INT,false,null,null))
+            .field(new FieldSpec("unit","Unit",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec supplyMovementSpec(){ return new TableSpec("Supply_Movement","move_id", true)
+            .field(new FieldSpec("move_id","Move ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("supply_id","Supply",InputType.FK,false,null,"SELECT supply_id AS id, CONCAT(supply_id,' - ',name) AS label FROM Supply"))
+            .field(new FieldSpec("from_location","From Location",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("to_camp_id","To Camp",InputType.FK,true,null,"SELECT camp_id AS id, CONCAT(camp_id,' - ',name) AS label FROM Camp"))
+            .field(new FieldSpec("qty","Quantity",InputType.INT,false,null,null))
+            .field(new FieldSpec("moved_on","Moved On (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null));
+    }
+    private static TableSpec donationSpec(){ return new TableSpec("Donation","donation_id", true)
+            .field(new FieldSpec("donation_id","Donation ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("donor_id","Donor (Person)",InputType.FK,false,null,"SELECT person_id AS id, CONCAT(person_id,' - ',name) AS label FROM Person WHERE role='donor'"))
+            .field(new FieldSpec("amount","Amount",InputType.DECIMAL,false,null,null))
+            .field(new FieldSpec("donation_type","Type",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("date_received","Date",InputType.DATE,true,null,null))
+            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec missingSpec(){ return new TableSpec("MissingPerson","missing_id", true)
+            .field(new FieldSpec("missing_id","Missing ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
+            .field(new FieldSpec("age","Age",InputType.INT,true,null,null))
+            .field(new FieldSpec("gender","Gender",InputType.ENUM,true,"M,F,O",null))
+            .field(new FieldSpec("last_seen_location","Last Seen Location",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("date_reported","Date Reported",InputType.DATE,true,null,null))
+            .field(new FieldSpec("status","Status",InputType.ENUM,true,"missing,found,identified",null));
+    }
+    private static TableSpec bodyIdSpec(){ return new TableSpec("BodyIdentification","body_id", true)
+            .field(new FieldSpec("body_id","Body ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("missing_id","Missing Ref",InputType.FK,true,null,"SELECT missing_id AS id, CONCAT(missing_id,' - ',name) AS label FROM MissingPerson"))
+            .field(new FieldSpec("dna_sample_id","DNA Sample ID",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("identified","Identified",InputType.BOOL,true,null,null))
+            .field(new FieldSpec("id_date","Identified Date",InputType.DATE,true,null,null))
+            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec rehabSpec(){ return new TableSpec("RehabAllocation","alloc_id", true)
+            .field(new FieldSpec("alloc_id","Alloc ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("victim_id","Victim",InputType.FK,false,null,"SELECT victim_id AS id, victim_id AS label FROM Victim"))
+            .field(new FieldSpec("house_id","House ID",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("allocation_date","Allocation Date",InputType.DATE,true,null,null))
+            .field(new FieldSpec("amount_granted","Amount Granted",InputType.DECIMAL,true,null,null))
+            .field(new FieldSpec("allocation_round","Relief Round",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec teamSpec(){ return new TableSpec("RescueTeam","team_id", true)
+            .field(new FieldSpec("team_id","Team ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("agency","Agency",InputType.TEXT,false,null,null))
+            .field(new FieldSpec("team_type","Team Type",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("contact","Contact",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec opSpec(){ return new TableSpec("RescueOperation","op_id", true)
+            .field(new FieldSpec("op_id","Op ID (auto)",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("team_id","Team",InputType.FK,false,null,"SELECT team_id AS id, CONCAT(team_id,' - ',agency) AS label FROM RescueTeam"))
+            .field(new FieldSpec("location","Location",InputType.TEXT,true,null,null))
+            .field(new FieldSpec("start_time","Start Time (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null))
+            .field(new FieldSpec("end_time","End Time (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null))
+            .field(new FieldSpec("personnel_count","Personnel Count",InputType.INT,true,null,null))
+            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
+    }
+    private static TableSpec activityLogSpec(){ return new TableSpec("Activity_Log","log_id", true)
+            .readOnly(true)
+            .field(new FieldSpec("log_id","Log ID",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("table_name","Table",InputType.TEXT,true,null,null).readonly())
+            .field(new FieldSpec("action_type","Action",InputType.ENUM,true,"INSERT,UPDATE,DELETE",null).readonly())
+            .field(new FieldSpec("record_id","Record ID",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("action_timestamp","Timestamp",InputType.DATETIME,true,null,null).readonly());
+    }
+    private static TableSpec supplyAuditSpec(){ return new TableSpec("Supply_Audit","audit_id", true)
+            .readOnly(true)
+            .field(new FieldSpec("audit_id","Audit ID",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("supply_id","Supply",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("change_qty","Change",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("new_qty","New Qty",InputType.INT,true,null,null).readonly())
+            .field(new FieldSpec("changed_on","Changed On",InputType.DATETIME,true,null,null).readonly())
+            .field(new FieldSpec("reason","Reason",InputType.TEXT,true,null,null).readonly());
+    }
+
+    // NEW: Transfer_Error_Log spec (read-only)
+    private static TableSpec errorLogSpec(){
+        return new TableSpec("Transfer_Error_Log","log_id", true)
+                .readOnly(true)
+                .field(new FieldSpec("log_id","Log ID",InputType.INT,true,null,null).readonly())
+                .field(new FieldSpec("supply_id","Supply ID",InputType.INT,true,null,null).readonly())
+                .field(new FieldSpec("requested_qty","Requested Qty",InputType.INT,true,null,null).readonly())
+                .field(new FieldSpec("adjusted_qty","Adjusted Qty",InputType.INT,true,null,null).readonly())
+                .field(new FieldSpec("message","Message",InputType.TEXT,true,null,null).readonly())
+                .field(new FieldSpec("log_time","Log Time",InputType.DATETIME,true,null,null).readonly());
+    }
+}
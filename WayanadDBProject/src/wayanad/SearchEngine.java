@@ -0,0 +1,207 @@
+package wayanad;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.InputType;
+import wayanad.Schema.TableSpec;
+
+/**
+ * Builds indexed, parameterised search queries for the table viewer.
+ *
+ * Replaces {@code LOWER(CONCAT(all columns)) LIKE '%term%'} (a full scan that also built a string per row)
+ * with typed predicates on the columns that have an index:
+ * - integer term      → {@code id = ?} on PK / FK / INT columns
+ * - {@code 2024-08-01}, {@code 2024-08}, {@code 2024-08-01..2024-08-10} → date range on DATE/DATETIME columns
+ * - enum value        → {@code status = ?}
+ * - text              → {@code MATCH ... AGAINST} where a FULLTEXT index exists, else {@code col LIKE 'term%'}
+ * {@code column:value} restricts the search to one column. Only when nothing indexed applies does it fall
+ * back to {@code LIKE '%term%'} over the text columns.
+ *
+ * Several indexed predicates are not OR-ed: MySQL cannot merge a FULLTEXT index with others, so one OR would
+ * scan the table again. Each gets its own keyed SELECT, limited, and their keys are UNIONed (which removes
+ * duplicates) and joined back to the table.
+ *
+ * Index information per table is read once from the database and cached; see section 1b of
+ * {@code script mini.sql} for the indexes this relies on.
+ */
+final class SearchEngine {
+
+    record Query(String sql, List<Object> params) {}
+
+    private record TableMeta(Set<String> indexed, List<List<String>> fulltext) {}
+
+    private static final Pattern DATE_RANGE = Pattern.compile("(\\d{4}-\\d{2}(?:-\\d{2})?)\\s*\\.\\.\\s*(\\d{4}-\\d{2}(?:-\\d{2})?)");
+    private static final Pattern DATE_ONE = Pattern.compile("\\d{4}-\\d{2}(?:-\\d{2})?");
+    private static final Pattern INTEGER = Pattern.compile("-?\\d{1,10}");
+    private static final Pattern COLUMN_TERM = Pattern.compile("([A-Za-z_][A-Za-z0-9_]*)\\s*:\\s*(.+)");
+
+    private static final Map<String, TableMeta> META = new ConcurrentHashMap<>();
+
+    private SearchEngine() {}
+
+    static void invalidate() { META.clear(); }
+
+    /** At most {@code limit} rows matching {@code term}. */
+    static Query plan(Connection con, TableSpec spec, String term, int limit) throws SQLException {
+        TableMeta meta = META.get(spec.table);
+        if (meta == null) { meta = loadMeta(con, spec.table); META.put(spec.table, meta); }
+
+        String t = term.trim();
+        List<FieldSpec> candidates = spec.fields;
+        boolean explicit = false;
+        Matcher cm = COLUMN_TERM.matcher(t);
+        if (cm.matches()) {
+            for (FieldSpec f : spec.fields) {
+                if (f.name.equalsIgnoreCase(cm.group(1))) { candidates = List.of(f); t = cm.group(2).trim(); explicit = true; break; }
+            }
+        }
+
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        Set<List<String>> matched = new HashSet<>();
+        for (FieldSpec f : candidates) {
+            boolean indexed = explicit || f.name.equals(spec.pk) || meta.indexed().contains(f.name.toLowerCase(Locale.ROOT));
+            switch (f.type) {
+                case INT, FK -> {
+                    if (indexed && INTEGER.matcher(t).matches()) { where.add(f.name + " = ?"); params.add(Long.parseLong(t)); }
+                }
+                case DECIMAL -> {
+                    if (explicit) try { params.add(new java.math.BigDecimal(t)); where.add(f.name + " = ?"); } catch (NumberFormatException ignore) {}
+                }
+                case DATE, DATETIME -> {
+                    LocalDate[] r = dateRange(t);
+                    if (r != null && indexed) {
+                        where.add("(" + f.name + " >= ? AND " + f.name + " < ?)");
+                        params.add(java.sql.Date.valueOf(r[0])); params.add(java.sql.Date.valueOf(r[1]));
+                    }
+                }
+                case ENUM -> {
+                    for (String v : f.enumCSV.split("\\s*,\\s*"))
+                        if (v.equalsIgnoreCase(t)) { where.add(f.name + " = ?"); params.add(v); break; }
+                }
+                case TEXT -> {
+                    List<String> ft = explicit ? null : fulltextFor(meta, f.name);
+                    String q = ft == null ? "" : booleanQuery(t);
+                    if (!q.isEmpty()) {
+                        if (matched.add(ft)) { where.add("MATCH(" + String.join(",", ft) + ") AGAINST (? IN BOOLEAN MODE)"); params.add(q); }
+                    } else if (indexed) {
+                        where.add(f.name + " LIKE ?"); params.add(escapeLike(t) + "%");
+                    }
+                }
+                case BOOL -> {}
+            }
+        }
+
+        if (where.isEmpty()) {
+            // nothing indexed applies: explicit (but CONCAT-free) substring scan over the text columns
+            List<String> scan = new ArrayList<>();
+            for (FieldSpec f : candidates) {
+                if (f.type == InputType.TEXT) { scan.add(f.name + " LIKE ?"); params.add("%" + escapeLike(t) + "%"); }
+            }
+            if (!scan.isEmpty()) where.add(String.join(" OR ", scan));
+        }
+        if (where.isEmpty()) where.add("1=0");
+        if (where.size() == 1) {
+            params.add(limit);
+            return new Query("SELECT * FROM " + spec.table + " WHERE " + where.get(0) + " LIMIT ?", params);
+        }
+        StringBuilder sql = new StringBuilder("SELECT t.* FROM ").append(spec.table).append(" t JOIN (");
+        List<Object> bound = new ArrayList<>(params.size() + where.size() + 1);
+        int p = 0;
+        for (int i=0;i<where.size();i++) {
+            String w = where.get(i);
+            if (i > 0) sql.append(" UNION ");
+            sql.append("(SELECT ").append(spec.pk).append(" FROM ").append(spec.table).append(" WHERE ").append(w).append(" LIMIT ?)");
+            for (int n = placeholders(w); n > 0; n--) bound.add(params.get(p++));
+            bound.add(limit);
+        }
+        sql.append(") hit ON t.").append(spec.pk).append(" = hit.").append(spec.pk).append(" LIMIT ?");
+        bound.add(limit);
+        return new Query(sql.toString(), bound);
+    }
+
+    private static int placeholders(String predicate) {
+        int n = 0;
+        for (int i=0;i<predicate.length();i++) if (predicate.charAt(i) == '?') n++;
+        return n;
+    }
+
+    static void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i=0;i<params.size();i++) ps.setObject(i+1, params.get(i));
+    }
+
+    // ---------- TERM PARSING ----------
+    /** Half-open [from, to) range for a day, a month, or {@code a..b}; null if the term is not a date. */
+    static LocalDate[] dateRange(String t) {
+        try {
+            Matcher m = DATE_RANGE.matcher(t);
+            if (m.matches()) return new LocalDate[]{ start(m.group(1)), end(m.group(2)) };
+            if (DATE_ONE.matcher(t).matches()) return new LocalDate[]{ start(t), end(t) };
+        } catch (DateTimeParseException ignore) {}
+        return null;
+    }
+    private static LocalDate start(String d) { return d.length() == 7 ? LocalDate.parse(d + "-01") : LocalDate.parse(d); }
+    private static LocalDate end(String d) { return d.length() == 7 ? start(d).plusMonths(1) : LocalDate.parse(d).plusDays(1); }
+
+    /**
+     * "anu joseph" → "+anu* +joseph*" (every word required, prefix match). Words shorter than
+     * InnoDB's default innodb_ft_min_token_size (3) are never indexed, so such terms return "".
+     */
+    static String booleanQuery(String t) {
+        StringBuilder sb = new StringBuilder();
+        for (String w : t.split("\\s+")) {
+            String clean = w.replaceAll("[+\\-<>()~*\"@]", "");
+            if (clean.length() < 3) return "";
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('+').append(clean).append('*');
+        }
+        return sb.toString();
+    }
+
+    static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static List<String> fulltextFor(TableMeta meta, String column) {
+        for (List<String> idx : meta.fulltext()) if (idx.contains(column.toLowerCase(Locale.ROOT))) return idx;
+        return null;
+    }
+
+    // ---------- METADATA ----------
+    private static TableMeta loadMeta(Connection con, String table) throws SQLException {
+        Set<String> indexed = new HashSet<>();
+        DatabaseMetaData md = con.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT)}) {
+            try (ResultSet rs = md.getIndexInfo(con.getCatalog(), null, name, false, true)) {
+                while (rs.next()) {
+                    // only the leading column of an index can serve an equality/prefix lookup
+                    String col = rs.getString("COLUMN_NAME");
+                    if (col != null && rs.getShort("ORDINAL_POSITION") == 1) indexed.add(col.toLowerCase(Locale.ROOT));
+                }
+            }
+            if (!indexed.isEmpty()) break;
+        }
+
+        Map<String, List<String>> ft = new LinkedHashMap<>();
+        if (md.getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql")) {
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_TYPE = 'FULLTEXT' " +
+                    "ORDER BY INDEX_NAME, SEQ_IN_INDEX")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next())
+                        ft.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(rs.getString(2).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new TableMeta(indexed, new ArrayList<>(ft.values()));
+    }
+}
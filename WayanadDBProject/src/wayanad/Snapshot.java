@@ -0,0 +1,596 @@
+package wayanad;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Whole-database snapshots in a compact columnar format, for handing the data to NDMA, insurers and auditors
+ * and for restoring it: {@code java -cp ... wayanad.Snapshot export <dir>} or {@code import <dir> [--replace]}.
+ *
+ * A snapshot is a directory with one {@code <Table>.wcol} file per table of {@link Schema#TABLES} and a
+ * {@code snapshot.properties} manifest. All tables are read from one point in time, as mysqldump
+ * {@code --single-transaction} does in parallel: under a brief global read lock each of
+ * {@code snapshot.parallelism} reader connections starts a transaction WITH CONSISTENT SNAPSHOT, and the lock
+ * is dropped once they all have, so live writers wait only that long and the snapshot has no orphan child rows
+ * or occupancy and stock counts that disagree with them. Each table is read by one statement through a
+ * forward-only {@link RowStream} cursor and written in row groups of {@code snapshot.rowGroup} rows, which
+ * bounds memory to one group per reader whatever the table size. Within a group every column is encoded on
+ * its own and deflated:
+ * - integers, dates and timestamps as zig-zag varint deltas (ids and dates mostly ascend),
+ * - strings through a per-group dictionary when they repeat (ENUMs such as Victim.status and Person.role),
+ *   otherwise as length-prefixed UTF-8,
+ * - decimals as scale and unscaled value, doubles raw, nulls as a bitmap.
+ *
+ * Import reads the files back in parallel and writes multi-row INSERTs, one transaction per group, with
+ * {@code foreign_key_checks} off and {@code @wayanad_restore} set, so the triggers of script mini.sql neither
+ * re-apply occupancy and stock changes nor log the restored rows to Activity_Log. Target tables must be
+ * empty unless {@code replace} is given, which clears them first.
+ */
+final class Snapshot {
+
+    static final String EXT = ".wcol", MANIFEST = "snapshot.properties";
+    private static final byte[] MAGIC = {'W', 'C', 'O', 'L', 1};
+
+    /** One table written or restored. */
+    record Table(String name, long rows, long bytes) {}
+
+    record Result(List<Table> tables, long millis) {
+        long rows() { return tables.stream().mapToLong(Table::rows).sum(); }
+        long bytes() { return tables.stream().mapToLong(Table::bytes).sum(); }
+    }
+
+    @FunctionalInterface
+    interface Progress { void tableDone(Table t, int done, int total); }
+
+    private enum Kind { LONG, BOOL, DOUBLE, DECIMAL, DATE, TIMESTAMP, STRING, BYTES }
+
+    private Snapshot() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !(args[0].equals("export") || args[0].equals("import"))) {
+            System.err.println("usage: Snapshot export <dir> | import <dir> [--replace]");
+            System.exit(2);
+        }
+        Class.forName("com.mysql.cj.jdbc.Driver");
+        Path dir = Paths.get(args[1]);
+        Progress p = (t, done, total) -> System.out.printf("  %-20s %,12d rows %,14d bytes  (%d/%d)%n", t.name(), t.rows(), t.bytes(), done, total);
+        Result r = args[0].equals("export") ? export(dir, p)
+                : restore(dir, args.length > 2 && args[2].equals("--replace"), p);
+        System.out.printf("%,d rows, %,d bytes in %.1f s%n", r.rows(), r.bytes(), r.millis() / 1000.0);
+    }
+
+    // ---------- EXPORT ----------
+    /** Writes every table to {@code dir}; a table's file only appears once it is complete. */
+    static Result export(Path dir, Progress progress) throws Exception {
+        Files.createDirectories(dir);
+        DbConfig cfg = DbConfig.get();
+        int rowGroup = Math.max(1, cfg.integer("snapshot.rowGroup", 65_536));
+        int level = Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, cfg.integer("snapshot.level", 1)));
+        long started = System.nanoTime();
+        List<Connection> readers = openConsistent(Math.min(parallelism(cfg), Schema.TABLES.size()), cfg.url().startsWith("jdbc:mysql:"));
+        BlockingQueue<Connection> free = new LinkedBlockingQueue<>(readers);
+        List<Table> tables;
+        try {
+            tables = inParallel(Schema.TABLES, readers.size(), t -> {
+                Connection con = free.take();
+                try { return write(t, con, dir, rowGroup, level); } finally { free.add(con); }
+            }, progress);
+        } finally {
+            closeConsistent(readers);
+        }
+        Properties m = new Properties();
+        m.setProperty("format", "WCOL1");
+        m.setProperty("created", Instant.now().toString());
+        for (Table t : tables) m.setProperty(t.name() + ".rows", String.valueOf(t.rows()));
+        try (Writer w = Files.newBufferedWriter(dir.resolve(MANIFEST), StandardCharsets.UTF_8)) { m.store(w, "Wayanad snapshot"); }
+        return new Result(tables, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // ---------- CONSISTENT READ ----------
+    /**
+     * {@code n} connections inside REPEATABLE READ transactions that all see the same committed state. On MySQL
+     * they start WITH CONSISTENT SNAPSHOT while FLUSH TABLES WITH READ LOCK (or, without the RELOAD privilege,
+     * LOCK TABLES … READ on the snapshot tables) holds writers back; other databases get one connection.
+     */
+    private static List<Connection> openConsistent(int n, boolean mysql) throws SQLException {
+        List<Connection> readers = new ArrayList<>();
+        try {
+            // every connection is borrowed before the lock is taken, so writers never wait on the pool
+            for (int i = 0; i < (mysql ? n : 1); i++) readers.add(prepareRead(ConnectionPool.shared().getConnection()));
+            if (!mysql) return readers;
+            try (Connection lock = ConnectionPool.shared().getConnection(); Statement st = lock.createStatement()) {
+                ConnectionPool.sessionChanged(lock);    // the pool unlocks it if UNLOCK TABLES below does not run
+                try {
+                    st.execute("FLUSH TABLES WITH READ LOCK");
+                } catch (SQLException noReload) {
+                    st.execute("LOCK TABLES " + String.join(" READ, ", Schema.TABLES) + " READ");
+                }
+                try {
+                    for (Connection con : readers) {
+                        try (Statement begin = con.createStatement()) { begin.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY"); }
+                    }
+                } finally {
+                    st.execute("UNLOCK TABLES");
+                }
+            }
+            return readers;
+        } catch (SQLException | RuntimeException e) {
+            closeConsistent(readers);
+            throw e;
+        }
+    }
+
+    private static Connection prepareRead(Connection con) throws SQLException {
+        try {
+            ConnectionPool.sessionChanged(con);
+            con.setAutoCommit(false);
+            con.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            return con;
+        } catch (SQLException | RuntimeException e) {
+            con.close();
+            throw e;
+        }
+    }
+
+    // ends the read transactions; the pool puts the isolation level back (see prepareRead)
+    private static void closeConsistent(List<Connection> readers) {
+        for (Connection con : readers) {
+            try { con.close(); } catch (SQLException ignore) {}
+        }
+    }
+
+    private static Table write(String table, Connection con, Path dir, int rowGroup, int level) throws SQLException, IOException {
+        Path file = dir.resolve(table + EXT), part = dir.resolve(table + EXT + ".part");
+        long rows = 0;
+        Deflater z = new Deflater(level);
+        QueryMetrics.Scope label = QueryMetrics.label("snapshot");
+        try (PreparedStatement ps = RowStream.prepare(con, "SELECT * FROM " + table);
+             ResultSet rs = ps.executeQuery();
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(part), 1 << 16))) {
+            ResultSetMetaData md = rs.getMetaData();
+            Col[] cols = new Col[md.getColumnCount()];
+            for (int i = 0; i < cols.length; i++) {
+                cols[i] = new Col(md.getColumnLabel(i + 1), kindOf(md.getColumnType(i + 1)), md.getColumnTypeName(i + 1));
+                cols[i].allocate(rowGroup);
+            }
+            out.write(MAGIC);
+            out.writeUTF(table);
+            out.writeShort(cols.length);
+            for (Col c : cols) { out.writeUTF(c.name); out.writeByte(c.kind.ordinal()); out.writeUTF(c.sqlType); }
+            Buf raw = new Buf(), packed = new Buf();
+            int n = 0;
+            while (rs.next()) {
+                for (int i = 0; i < cols.length; i++) cols[i].read(rs, i + 1, n);
+                if (++n == rowGroup) { writeGroup(out, cols, n, raw, packed, z); rows += n; n = 0; }
+            }
+            if (n > 0) { writeGroup(out, cols, n, raw, packed, z); rows += n; }
+            out.writeInt(0);
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        } finally {
+            z.end();
+            label.close();
+        }
+        Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Table(table, rows, Files.size(file));
+    }
+
+    // group: row count, then per column the raw and deflated lengths and the deflated bytes
+    private static void writeGroup(DataOutputStream out, Col[] cols, int n, Buf raw, Buf packed, Deflater z) throws IOException {
+        out.writeInt(n);
+        for (Col c : cols) {
+            raw.n = 0;
+            c.encode(raw, n);
+            z.reset();
+            z.setInput(raw.a, 0, raw.n);
+            z.finish();
+            packed.n = 0;
+            while (!z.finished()) {
+                packed.room(8192);
+                packed.n += z.deflate(packed.a, packed.n, packed.a.length - packed.n);
+            }
+            out.writeInt(raw.n);
+            out.writeInt(packed.n);
+            out.write(packed.a, 0, packed.n);
+        }
+    }
+
+    private static Kind kindOf(int sqlType) {
+        return switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> Kind.LONG;
+            case Types.BIT, Types.BOOLEAN -> Kind.BOOL;
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> Kind.DOUBLE;
+            case Types.DECIMAL, Types.NUMERIC -> Kind.DECIMAL;
+            case Types.DATE -> Kind.DATE;
+            case Types.TIMESTAMP -> Kind.TIMESTAMP;
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> Kind.BYTES;
+            default -> Kind.STRING;   // CHAR/VARCHAR/TEXT, ENUM, TIME and anything else as text
+        };
+    }
+
+    // ---------- IMPORT ----------
+    /** Restores every {@code .wcol} file of {@code dir} into the table it was taken from. */
+    static Result restore(Path dir, boolean replace, Progress progress) throws Exception {
+        DbConfig cfg = DbConfig.get();
+        boolean mysql = cfg.url().startsWith("jdbc:mysql:");
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (String t : Schema.TABLES) {
+            Path f = dir.resolve(t + EXT);
+            if (Files.isRegularFile(f)) files.put(t, f);
+        }
+        if (files.isEmpty()) throw new FileNotFoundException("No " + EXT + " files in " + dir);
+        long started = System.nanoTime();
+        prepareTargets(files.keySet(), replace, mysql);
+        List<String> order = new ArrayList<>(files.keySet());
+        int threads = 1;
+        if (mysql) {
+            // foreign key checks are off, so tables can load in any order: biggest first balances the threads
+            order.sort(Comparator.comparingLong((String t) -> files.get(t).toFile().length()).reversed());
+            threads = parallelism(cfg);
+        }
+        int insertRows = Math.max(1, cfg.integer("snapshot.insertRows", 1_000));
+        List<Table> tables = inParallel(order, threads, t -> read(t, files.get(t), insertRows, mysql), progress);
+        return new Result(tables, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // other databases keep their foreign keys on: clear children first, load parents first (Schema.TABLES order)
+    private static void prepareTargets(Collection<String> tables, boolean replace, boolean mysql) throws SQLException {
+        try (Connection con = ConnectionPool.shared().getConnection(); Statement st = con.createStatement()) {
+            if (!replace) {
+                for (String t : tables) {
+                    try (ResultSet rs = st.executeQuery("SELECT 1 FROM " + t + " LIMIT 1")) {
+                        if (rs.next()) throw new IllegalStateException(t + " already has rows; restore with --replace to overwrite it");
+                    }
+                }
+                return;
+            }
+            List<String> reverse = new ArrayList<>(tables);
+            Collections.reverse(reverse);
+            if (mysql) {
+                ConnectionPool.sessionChanged(con);
+                st.execute("SET foreign_key_checks=0, @wayanad_restore=1");
+            }
+            try {
+                for (String t : reverse) st.executeUpdate((mysql ? "TRUNCATE TABLE " : "DELETE FROM ") + t);
+            } finally {
+                if (mysql) st.execute("SET foreign_key_checks=1, @wayanad_restore=NULL");
+            }
+        }
+    }
+
+    private static Table read(String table, Path file, int insertRows, boolean mysql) throws Exception {
+        long rows = 0;
+        Inflater z = new Inflater();
+        QueryMetrics.Scope label = QueryMetrics.label("snapshot");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+             Connection con = ConnectionPool.shared().getConnection()) {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException(file + " is not a " + EXT + " snapshot file");
+            if (!in.readUTF().equalsIgnoreCase(table)) throw new IOException(file + " holds a different table");
+            Col[] cols = new Col[in.readUnsignedShort()];
+            for (int i = 0; i < cols.length; i++) cols[i] = new Col(in.readUTF(), Kind.values()[in.readByte()], in.readUTF());
+            String[] names = targetColumns(con, table, cols);
+            // MySQL allows at most 65535 placeholders per statement
+            int perStatement = Math.max(1, Math.min(insertRows, 65_535 / cols.length));
+            Buf raw = new Buf(), packed = new Buf();
+            try (Statement st = con.createStatement()) {
+                if (mysql) {
+                    ConnectionPool.sessionChanged(con);
+                    st.execute("SET foreign_key_checks=0, unique_checks=0, @wayanad_restore=1");
+                }
+                con.setAutoCommit(false);
+                try (PreparedStatement full = con.prepareStatement(insertSql(table, names, perStatement))) {
+                    Object[][] values = new Object[cols.length][];
+                    for (int n; (n = in.readInt()) > 0; ) {
+                        for (int c = 0; c < cols.length; c++) values[c] = cols[c].decode(inflate(in, z, raw, packed), n);
+                        for (int r = 0; r < n; r += perStatement) {
+                            int k = Math.min(perStatement, n - r);
+                            if (k == perStatement) insert(full, values, r, k);
+                            else try (PreparedStatement ps = con.prepareStatement(insertSql(table, names, k))) { insert(ps, values, r, k); }
+                        }
+                        con.commit();
+                        rows += n;
+                    }
+                } catch (Exception e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    con.setAutoCommit(true);
+                    if (mysql) st.execute("SET foreign_key_checks=1, unique_checks=1, @wayanad_restore=NULL");
+                }
+            }
+        } finally {
+            z.end();
+            label.close();
+        }
+        return new Table(table, rows, Files.size(file));
+    }
+
+    // the table's own spelling of each snapshot column; a column the table lacks means another schema version
+    private static String[] targetColumns(Connection con, String table, Col[] cols) throws SQLException {
+        Map<String, String> have = new HashMap<>();
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+            ResultSetMetaData md = rs.getMetaData();
+            for (int i = 1; i <= md.getColumnCount(); i++) have.put(md.getColumnLabel(i).toLowerCase(Locale.ROOT), md.getColumnLabel(i));
+        }
+        String[] names = new String[cols.length];
+        for (int i = 0; i < cols.length; i++) {
+            names[i] = have.get(cols[i].name.toLowerCase(Locale.ROOT));
+            if (names[i] == null) throw new SQLException(table + " has no column " + cols[i].name + "; the snapshot is from another schema version");
+        }
+        return names;
+    }
+
+    private static String insertSql(String table, String[] cols, int rows) {
+        String tuple = "(" + "?,".repeat(cols.length - 1) + "?)";
+        StringBuilder sb = new StringBuilder("INSERT INTO ").append(table).append(" (").append(String.join(",", cols)).append(") VALUES ");
+        for (int r = 0; r < rows; r++) sb.append(r == 0 ? "" : ",").append(tuple);
+        return sb.toString();
+    }
+
+    private static void insert(PreparedStatement ps, Object[][] values, int from, int rows) throws SQLException {
+        int p = 1;
+        for (int r = from; r < from + rows; r++) for (Object[] col : values) ps.setObject(p++, col[r]);
+        ps.executeUpdate();
+    }
+
+    private static Buf inflate(DataInputStream in, Inflater z, Buf raw, Buf packed) throws IOException {
+        int rawLen = in.readInt(), packedLen = in.readInt();
+        packed.n = 0;
+        packed.room(packedLen);
+        in.readFully(packed.a, 0, packedLen);
+        raw.n = 0;
+        raw.room(rawLen);
+        z.reset();
+        z.setInput(packed.a, 0, packedLen);
+        try {
+            int got = 0;
+            while (got < rawLen && !z.finished()) got += z.inflate(raw.a, got, rawLen - got);
+            if (got != rawLen) throw new IOException("Truncated column chunk");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk", e);
+        }
+        raw.n = 0;
+        raw.limit = rawLen;
+        return raw;
+    }
+
+    // ---------- PARALLEL ----------
+    private interface Job { Table run(String table) throws Exception; }
+
+    private static int parallelism(DbConfig cfg) {
+        return Math.max(1, cfg.integer("snapshot.parallelism", 4));
+    }
+
+    // runs one job per table; the first failure cancels the rest and is rethrown. Results come back in input order.
+    private static List<Table> inParallel(List<String> tables, int threads, Job job, Progress progress) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tables.size()), r -> {
+            Thread t = new Thread(r, "wayanad-snapshot"); t.setDaemon(true); return t;
+        });
+        List<Table> done = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<Table>> futures = new ArrayList<>();
+            for (String t : tables) {
+                futures.add(pool.submit(() -> {
+                    Table r = job.run(t);
+                    done.add(r);
+                    if (progress != null) progress.tableDone(r, done.size(), tables.size());
+                    return r;
+                }));
+            }
+            List<Table> out = new ArrayList<>();
+            for (Future<Table> f : futures) {
+                try {
+                    out.add(f.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception x) throw x;
+                    throw e;
+                }
+            }
+            return out;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ---------- COLUMNS ----------
+    /** One column of the current row group; only the arrays its kind needs are allocated. */
+    private static final class Col {
+        final String name, sqlType;
+        final Kind kind;
+        boolean[] nulls;
+        long[] longs;       // LONG, BOOL (0/1), DATE (epoch day), TIMESTAMP (epoch second)
+        int[] nanos;        // TIMESTAMP
+        double[] doubles;
+        Object[] objects;   // DECIMAL, STRING, BYTES
+
+        Col(String name, Kind kind, String sqlType) { this.name = name; this.kind = kind; this.sqlType = sqlType; }
+
+        void allocate(int rows) {
+            nulls = new boolean[rows];
+            switch (kind) {
+                case LONG, BOOL, DATE -> longs = new long[rows];
+                case TIMESTAMP -> { longs = new long[rows]; nanos = new int[rows]; }
+                case DOUBLE -> doubles = new double[rows];
+                default -> objects = new Object[rows];
+            }
+        }
+
+        void read(ResultSet rs, int c, int r) throws SQLException {
+            switch (kind) {
+                case LONG -> { longs[r] = rs.getLong(c); nulls[r] = rs.wasNull(); }
+                case BOOL -> { longs[r] = rs.getBoolean(c) ? 1 : 0; nulls[r] = rs.wasNull(); }
+                case DOUBLE -> { doubles[r] = rs.getDouble(c); nulls[r] = rs.wasNull(); }
+                case DATE -> {
+                    LocalDate d = rs.getObject(c, LocalDate.class);
+                    if (!(nulls[r] = d == null)) longs[r] = d.toEpochDay();
+                }
+                case TIMESTAMP -> {
+                    LocalDateTime t = rs.getObject(c, LocalDateTime.class);
+                    if (!(nulls[r] = t == null)) { longs[r] = t.toEpochSecond(ZoneOffset.UTC); nanos[r] = t.getNano(); }
+                }
+                case DECIMAL -> nulls[r] = (objects[r] = rs.getBigDecimal(c)) == null;
+                case STRING -> nulls[r] = (objects[r] = rs.getString(c)) == null;
+                case BYTES -> nulls[r] = (objects[r] = rs.getBytes(c)) == null;
+            }
+        }
+
+        void encode(Buf b, int n) {
+            int nullCount = 0;
+            for (int r = 0; r < n; r++) if (nulls[r]) nullCount++;
+            b.varint(nullCount);
+            if (nullCount > 0) {
+                for (int r = 0; r < n; r += 8) {
+                    int bits = 0;
+                    for (int k = 0; k < 8 && r + k < n; k++) if (nulls[r + k]) bits |= 1 << k;
+                    b.put(bits);
+                }
+            }
+            long prev = 0;
+            switch (kind) {
+                case LONG, BOOL, DATE, TIMESTAMP -> {
+                    for (int r = 0; r < n; r++) {
+                        if (nulls[r]) continue;
+                        b.zigzag(longs[r] - prev);
+                        prev = longs[r];
+                        if (kind == Kind.TIMESTAMP) b.varint(nanos[r]);
+                    }
+                }
+                case DOUBLE -> { for (int r = 0; r < n; r++) if (!nulls[r]) b.fixed64(Double.doubleToRawLongBits(doubles[r])); }
+                case DECIMAL -> {
+                    for (int r = 0; r < n; r++) {
+                        if (nulls[r]) continue;
+                        BigDecimal d = (BigDecimal) objects[r];
+                        b.zigzag(d.scale());
+                        b.bytes(d.unscaledValue().toByteArray());
+                    }
+                }
+                case BYTES -> { for (int r = 0; r < n; r++) if (!nulls[r]) b.bytes((byte[]) objects[r]); }
+                case STRING -> encodeStrings(b, n);
+            }
+        }
+
+        // dictionary when at most a quarter of the values are distinct, plain otherwise
+        private void encodeStrings(Buf b, int n) {
+            Map<String, Integer> dict = new HashMap<>();
+            int limit = Math.max(1, n / 4);
+            for (int r = 0; r < n && dict != null; r++) {
+                if (!nulls[r] && dict.putIfAbsent((String) objects[r], dict.size()) == null && dict.size() > limit) dict = null;
+            }
+            if (dict == null) {
+                b.put(0);
+                for (int r = 0; r < n; r++) if (!nulls[r]) b.bytes(((String) objects[r]).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            b.put(1);
+            String[] words = new String[dict.size()];
+            dict.forEach((s, i) -> words[i] = s);
+            b.varint(words.length);
+            for (String w : words) b.bytes(w.getBytes(StandardCharsets.UTF_8));
+            for (int r = 0; r < n; r++) if (!nulls[r]) b.varint(dict.get((String) objects[r]));
+        }
+
+        /** The column's values for one group, as JDBC parameters. */
+        Object[] decode(Buf b, int n) throws IOException {
+            boolean[] isNull = new boolean[n];
+            if (b.varint() > 0) {
+                for (int r = 0; r < n; r += 8) {
+                    int bits = b.get();
+                    for (int k = 0; k < 8 && r + k < n; k++) isNull[r + k] = (bits >> k & 1) != 0;
+                }
+            }
+            Object[] v = new Object[n];
+            long prev = 0;
+            switch (kind) {
+                case LONG, BOOL, DATE, TIMESTAMP -> {
+                    for (int r = 0; r < n; r++) {
+                        if (isNull[r]) continue;
+                        prev += b.zigzag();
+                        v[r] = switch (kind) {
+                            case BOOL -> prev != 0;
+                            case DATE -> LocalDate.ofEpochDay(prev);
+                            case TIMESTAMP -> LocalDateTime.ofEpochSecond(prev, (int) b.varint(), ZoneOffset.UTC);
+                            default -> prev;
+                        };
+                    }
+                }
+                case DOUBLE -> { for (int r = 0; r < n; r++) if (!isNull[r]) v[r] = Double.longBitsToDouble(b.fixed64()); }
+                case DECIMAL -> {
+                    for (int r = 0; r < n; r++) {
+                        if (isNull[r]) continue;
+                        int scale = (int) b.zigzag();
+                        v[r] = new BigDecimal(new BigInteger(b.bytes()), scale);
+                    }
+                }
+                case BYTES -> { for (int r = 0; r < n; r++) if (!isNull[r]) v[r] = b.bytes(); }
+                case STRING -> {
+                    if (b.get() == 1) {
+                        String[] words = new String[(int) b.varint()];
+                        for (int i = 0; i < words.length; i++) words[i] = new String(b.bytes(), StandardCharsets.UTF_8);
+                        for (int r = 0; r < n; r++) if (!isNull[r]) v[r] = words[(int) b.varint()];
+                    } else {
+                        for (int r = 0; r < n; r++) if (!isNull[r]) v[r] = new String(b.bytes(), StandardCharsets.UTF_8);
+                    }
+                }
+            }
+            if (b.n != b.limit) throw new IOException("Corrupt column chunk for " + name);
+            return v;
+        }
+    }
+
+    /** Growable byte buffer; written with put/varint/..., then read back from the start with get/varint/... */
+    private static final class Buf {
+        byte[] a = new byte[1 << 16];
+        int n, limit;   // write position, or read position and end of the data being read
+
+        void room(int more) {
+            if (n + more > a.length) a = Arrays.copyOf(a, Math.max(a.length * 2, n + more));
+        }
+        void put(int v) { room(1); a[n++] = (byte) v; }
+        void varint(long v) {
+            room(10);
+            while ((v & ~0x7FL) != 0) { a[n++] = (byte) ((v & 0x7F) | 0x80); v >>>= 7; }
+            a[n++] = (byte) v;
+        }
+        void zigzag(long v) { varint((v << 1) ^ (v >> 63)); }
+        void fixed64(long v) { room(8); for (int i = 0; i < 8; i++) a[n++] = (byte) (v >>> (8 * i)); }
+        void bytes(byte[] v) {
+            varint(v.length);
+            room(v.length);
+            System.arraycopy(v, 0, a, n, v.length);
+            n += v.length;
+        }
+
+        int get() { return a[n++] & 0xFF; }
+        long varint() {
+            long v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte x = a[n++];
+                v |= (long) (x & 0x7F) << shift;
+                if (x >= 0) return v;
+            }
+        }
+        long zigzag() { long v = varint(); return (v >>> 1) ^ -(v & 1); }
+        long fixed64() { long v = 0; for (int i = 0; i < 8; i++) v |= (long) (a[n++] & 0xFF) << (8 * i); return v; }
+        byte[] bytes() {
+            int len = (int) varint();
+            byte[] v = Arrays.copyOfRange(a, n, n + len);
+            n += len;
+            return v;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package wayanad;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.TableSpec;
+
+/**
+ * The statements {@link Records} runs against one table, compiled once from its {@link TableSpec}:
+ * INSERT, UPDATE, DELETE and SELECT by primary key, and the two keyset-page queries.
+ *
+ * Every text is fixed per table (and per column list for INSERT/UPDATE), so repeat operations hand the
+ * same string to the pooled connection's statement cache and to the server's prepared-statement cache,
+ * and skip parsing and planning. The insertable and updatable column lists are compiled up front; other
+ * lists (CSV headers, partial API updates) are compiled on first use and kept, up to {@link #MAX_VARIANTS}.
+ */
+final class SqlTemplates {
+
+    private static final int MAX_VARIANTS = 64;
+    private static final Map<String, SqlTemplates> BY_TABLE = new ConcurrentHashMap<>();
+
+    /** Templates for {@code spec}'s table; {@link Schema#spec} builds a new spec per call, so they are kept by table name. */
+    static SqlTemplates of(TableSpec spec) {
+        return BY_TABLE.computeIfAbsent(spec.table, t -> new SqlTemplates(spec));
+    }
+
+    final String selectByPk, deleteByPk, firstPage, pageAfter;
+    private final String table, pk;
+    private final Map<List<String>, String> inserts = new ConcurrentHashMap<>(), updates = new ConcurrentHashMap<>();
+
+    private SqlTemplates(TableSpec spec) {
+        table = spec.table; pk = spec.pk;
+        selectByPk = "SELECT * FROM " + table + " WHERE " + pk + "=?";
+        deleteByPk = "DELETE FROM " + table + " WHERE " + pk + "=?";
+        firstPage = "SELECT * FROM " + table + " ORDER BY " + pk + " LIMIT ?";
+        pageAfter = "SELECT * FROM " + table + " WHERE " + pk + " > ? ORDER BY " + pk + " LIMIT ?";
+        insert(Records.insertable(spec));
+        update(Records.updatable(spec));
+    }
+
+    /** {@code INSERT INTO t (a,b,…) VALUES (?,?,…)} for {@code fields}, in that order. */
+    String insert(List<FieldSpec> fields) {
+        return compiled(inserts, fields, cols -> "INSERT INTO " + table + " (" + String.join(",", cols) + ") VALUES ("
+                + String.join(",", Collections.nCopies(cols.size(), "?")) + ")");
+    }
+
+    /** {@code UPDATE t SET a=?,b=?,… WHERE pk=?} for {@code fields}, in that order. */
+    String update(List<FieldSpec> fields) {
+        return compiled(updates, fields, cols -> "UPDATE " + table + " SET " + String.join("=?,", cols) + "=? WHERE " + pk + "=?");
+    }
+
+    private interface Builder { String build(List<String> cols); }
+
+    private static String compiled(Map<List<String>, String> cache, List<FieldSpec> fields, Builder b) {
+        List<String> cols = new ArrayList<>(fields.size());
+        for (FieldSpec f : fields) cols.add(f.name);
+        String sql = cache.get(cols);
+        if (sql != null) return sql;
+        sql = b.build(cols);
+        if (cache.size() < MAX_VARIANTS) cache.putIfAbsent(List.copyOf(cols), sql);
+        return sql;
+    }
+}
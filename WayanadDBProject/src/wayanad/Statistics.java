@@ -0,0 +1,109 @@
+package wayanad;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory row counts behind the statistics dashboard.
+ *
+ * The dashboard used to run six {@code SELECT COUNT(*)} (each a full index scan in InnoDB) every time it
+ * was shown. Here the counts are loaded once with a single round trip, adjusted by ±1 for every insert or
+ * delete reported through {@link DataEvents}, and reconciled with the database every
+ * {@code stats.refreshSec} seconds on a background thread (which also picks up writes made by other
+ * clients). Reading them is a few array loads, so the screen can redraw every couple of seconds.
+ */
+final class Statistics {
+
+    enum Counter {
+        VICTIMS("Total Victims", "Victim"),
+        TEAMS("Rescue Teams", "RescueTeam"),
+        CAMPS("Relief Camps", "Camp"),
+        DONATIONS("Total Donations", "Donation"),
+        MISSING("Missing Persons", "MissingPerson"),
+        REHAB("Rehab Allocations", "RehabAllocation");
+
+        final String label, table;
+        Counter(String label, String table) { this.label = label; this.table = table; }
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+    private static volatile Statistics shared;
+
+    static Statistics shared() {
+        Statistics s = shared;
+        if (s == null) {
+            synchronized (Statistics.class) {
+                if (shared == null) {
+                    shared = new Statistics(Math.max(5, DbConfig.get().integer("stats.refreshSec", 60)));
+                    DataEvents.subscribe(shared::onRowChanged);
+                }
+                s = shared;
+            }
+        }
+        return s;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTERS.length);
+    private volatile long refreshedAt;       // System.currentTimeMillis() of the last reconcile, 0 = never
+    private volatile String lastError;
+
+    private Statistics(int refreshSec) {
+        // tables in the local replica show last session's count until the first reconcile
+        for (int i=0;i<COUNTERS.length;i++) counts.set(i, LocalReplica.shared().count(COUNTERS[i].table));
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-stats"); t.setDaemon(true); return t;
+        });
+        timer.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshSec, TimeUnit.SECONDS);
+    }
+
+    /** Current count, or -1 before the first load. */
+    long get(Counter c) { return counts.get(c.ordinal()); }
+
+    long refreshedAt() { return refreshedAt; }
+    String lastError() { return lastError; }
+
+    // ---------- INCREMENTAL ----------
+    private void onRowChanged(DataEvents.RowChange c) {
+        int delta = switch (c.op()) { case INSERT -> 1; case DELETE -> -1; case UPDATE -> 0; };
+        if (delta == 0) return;
+        for (Counter k : COUNTERS) {
+            if (!k.table.equalsIgnoreCase(c.table())) continue;
+            int i = k.ordinal();
+            long v;
+            do { v = counts.get(i); } while (v >= 0 && !counts.compareAndSet(i, v, Math.max(0, v + delta)));
+        }
+    }
+
+    // ---------- RECONCILE ----------
+    /** Reloads every count in one statement; writes racing with it are corrected by the next run. */
+    void refresh() throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i=0;i<COUNTERS.length;i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(SELECT COUNT(*) FROM ").append(COUNTERS[i].table).append(')');
+        }
+        QueryMetrics.Scope label = QueryMetrics.label("stats");
+        try (Connection con = ConnectionPool.shared().getConnection();
+             Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql.toString())) {
+            if (rs.next()) for (int i=0;i<COUNTERS.length;i++) counts.set(i, rs.getLong(i + 1));
+        } finally {
+            label.close();
+        }
+        refreshedAt = System.currentTimeMillis();
+        lastError = null;
+    }
+
+    private void refreshQuietly() {
+        try { refresh(); }
+        catch (SQLException | RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("[stats] refresh failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package wayanad;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only table model filled incrementally from {@link RowStream} chunks on the EDT.
+ */
+final class StreamingTableModel extends AbstractTableModel {
+
+    private String[] columns = new String[0];
+    private final List<Object[]> rows = new ArrayList<>();
+
+    /** Applies chunks emitted by {@link RowStream#emitRows}; returns how many rows were added. */
+    int accept(List<Object> chunks) {
+        int before = rows.size();
+        for (Object c : chunks) {
+            if (c instanceof RowStream.Header h) {
+                columns = h.columns(); rows.clear();
+                fireTableStructureChanged();
+                before = 0;
+            } else if (c instanceof Object[] row) {
+                rows.add(row);
+            }
+        }
+        int added = rows.size() - before;
+        if (added > 0) fireTableRowsInserted(before, rows.size() - 1);
+        return added;
+    }
+
+    @Override public int getRowCount() { return rows.size(); }
+    @Override public int getColumnCount() { return columns.length; }
+    @Override public String getColumnName(int c) { return columns[c]; }
+    @Override public Object getValueAt(int r, int c) { return rows.get(r)[c]; }
+}
@@ -0,0 +1,239 @@
+package wayanad;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Supply dispatches (Supply_Movement rows) allocated and written in the Java tier, in group-committed batches.
+ *
+ * Each movement used to be its own transaction: {@code trg_supply_movement_before_insert_adjust} locked the
+ * Supply row ({@code FOR UPDATE}), {@code trg_supply_movement_deduct} updated it and {@code trg_supply_update_audit}
+ * logged the change, so concurrent dispatches of one item (drinking water, food packs) queued on that row
+ * one commit at a time. Here requesters enqueue and a single writer thread drains whatever has arrived:
+ *
+ * - one {@code SELECT ... FOR UPDATE} locks the batch's supplies (in key order) and loads the reservation ledger
+ * - requests are allocated against the ledger in arrival order, with the triggers' rules: a missing or
+ *   non-positive qty means 1, more than available is cut to what is left and logged to Transfer_Error_Log
+ * - error-log rows, movements, one UPDATE per supply and one Supply_Audit row per movement are written as
+ *   multi-row batches and committed once
+ *
+ * The writer sets {@code @wayanad_dispatch} on its connection, which the three triggers check to stay out of
+ * the way; forms, imports and the seed procedure still go through them. A batch that fails on a constraint
+ * (bad camp id) is retried one request at a time so only the offending request fails.
+ */
+final class SupplyDispatchService {
+
+    /** {@code qty} null or below 1 dispatches 1, as the trigger did; {@code movedOn} null means now. */
+    record Request(int supplyId, Integer qty, String fromLocation, Integer toCampId, Timestamp movedOn) {}
+
+    /** {@code dispatched} may be less than {@code requested} (or 0) when stock ran short; {@code moveId} may be null. */
+    record Dispatch(Object moveId, int supplyId, int requested, int dispatched, long remaining) {
+        boolean adjusted() { return dispatched < requested; }
+    }
+
+    private record Pending(Request request, CompletableFuture<Dispatch> result) {}
+
+    private static volatile SupplyDispatchService shared;
+
+    static SupplyDispatchService shared() {
+        SupplyDispatchService s = shared;
+        if (s == null) {
+            synchronized (SupplyDispatchService.class) {
+                if (shared == null) shared = new SupplyDispatchService(DbConfig.get());
+                s = shared;
+            }
+        }
+        return s;
+    }
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final int maxBatch;
+    private final long lingerMs;
+    private volatile long batches, dispatched;
+
+    private SupplyDispatchService(DbConfig cfg) {
+        this.maxBatch = Math.max(1, cfg.integer("dispatch.maxBatch", 500));
+        this.lingerMs = Math.max(0, cfg.longValue("dispatch.lingerMs", 0));
+        Thread writer = new Thread(this::run, "wayanad-dispatch");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Queues a dispatch; completes once its batch has committed (or failed). */
+    CompletableFuture<Dispatch> dispatch(Request r) {
+        CompletableFuture<Dispatch> f = new CompletableFuture<>();
+        queue.add(new Pending(r, f));
+        return f;
+    }
+
+    long batches() { return batches; }
+    long dispatched() { return dispatched; }
+
+    // ---------- WRITER ----------
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                // without a linger the batch is whatever queued up while the previous one committed
+                long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) continue;
+                    long left = until - System.nanoTime();
+                    Pending p = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (p == null) break;
+                    batch.add(p);
+                }
+                commitOrSplit(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                for (Pending p : batch) p.result().completeExceptionally(e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commitOrSplit(List<Pending> batch) {
+        try {
+            commit(batch);
+        } catch (SQLException e) {
+            if (batch.size() > 1 && !WriteJournal.retryable(e)) {
+                for (Pending p : batch) commitOrSplit(List.of(p));
+                return;
+            }
+            for (Pending p : batch) p.result().completeExceptionally(e);
+        }
+    }
+
+    private void commit(List<Pending> batch) throws SQLException {
+        List<Dispatch> done = new ArrayList<>(batch.size());
+        Map<Integer, Long> ledger = new TreeMap<>();
+        QueryMetrics.Scope label = QueryMetrics.label("dispatch");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            con.setAutoCommit(false);
+            try (Statement st = con.createStatement()) {
+                ConnectionPool.sessionChanged(con);
+                st.execute("SET @wayanad_dispatch = 1");
+                try {
+                    lock(con, batch, ledger);
+                    write(con, batch, ledger, done);
+                    con.commit();
+                } catch (SQLException | RuntimeException e) {
+                    con.rollback();
+                    throw e;
+                } finally {
+                    st.execute("SET @wayanad_dispatch = NULL");
+                    con.setAutoCommit(true);
+                }
+            }
+        } finally {
+            label.close();
+        }
+        batches++;
+        dispatched += done.size();
+        Map<Integer, Long> left = new HashMap<>();
+        for (int i=0;i<done.size();i++) {
+            Dispatch d = done.get(i);
+            Request r = batch.get(i).request();
+            left.put(d.supplyId(), d.remaining());
+            if (d.moveId() != null) {
+                Map<String, Object> v = new LinkedHashMap<>();
+                v.put("supply_id", d.supplyId()); v.put("from_location", r.fromLocation()); v.put("to_camp_id", r.toCampId());
+                v.put("qty", d.dispatched());
+                DataEvents.publish(new DataEvents.RowChange("Supply_Movement", DataEvents.Op.INSERT, d.moveId(), v));
+            }
+        }
+        left.forEach((id, q) -> DataEvents.publish(new DataEvents.RowChange("Supply", DataEvents.Op.UPDATE, id,
+                Map.of("quantity_on_hand", q))));
+        for (int i=0;i<done.size();i++) batch.get(i).result().complete(done.get(i));
+    }
+
+    // Locks the supplies in key order (no deadlocks between batches and forms) and reads what is on hand.
+    private static void lock(Connection con, List<Pending> batch, Map<Integer, Long> ledger) throws SQLException {
+        SortedSet<Integer> ids = new TreeSet<>();
+        for (Pending p : batch) ids.add(p.request().supplyId());
+        String sql = "SELECT supply_id, quantity_on_hand FROM Supply WHERE supply_id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ") ORDER BY supply_id FOR UPDATE";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : ids) ps.setInt(i++, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ledger.put(rs.getInt(1), Math.max(0, rs.getLong(2)));
+            }
+        }
+        for (Integer id : ids)
+            if (!ledger.containsKey(id)) throw new SQLIntegrityConstraintViolationException("No Supply with supply_id=" + id, "23000");
+    }
+
+    private static void write(Connection con, List<Pending> batch, Map<Integer, Long> ledger, List<Dispatch> done) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int n = batch.size();
+        Map<Integer, Long> before = new HashMap<>(ledger);
+        int[] requested = new int[n], granted = new int[n];
+        long[] after = new long[n];
+        for (int i=0;i<n;i++) {
+            Request r = batch.get(i).request();
+            requested[i] = r.qty() == null || r.qty() <= 0 ? 1 : r.qty();
+            long avail = ledger.get(r.supplyId());
+            granted[i] = (int) Math.min(requested[i], avail);
+            after[i] = avail - granted[i];
+            ledger.put(r.supplyId(), after[i]);
+        }
+
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO Transfer_Error_Log(supply_id, requested_qty, adjusted_qty, message) VALUES (?,?,?,?)")) {
+            boolean any = false;
+            for (int i=0;i<n;i++) {
+                if (granted[i] == requested[i]) continue;
+                ps.setInt(1, batch.get(i).request().supplyId()); ps.setInt(2, requested[i]); ps.setInt(3, granted[i]);
+                ps.setString(4, "Requested " + requested[i] + " but only " + granted[i] + " available; adjusted.");
+                ps.addBatch(); any = true;
+            }
+            if (any) ps.executeBatch();
+        }
+
+        Object[] moveIds = new Object[n];
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO Supply_Movement(supply_id, from_location, to_camp_id, qty, moved_on) VALUES (?,?,?,?,?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i=0;i<n;i++) {
+                Request r = batch.get(i).request();
+                ps.setInt(1, r.supplyId()); ps.setString(2, r.fromLocation()); ps.setObject(3, r.toCampId(), Types.INTEGER);
+                ps.setInt(4, granted[i]); ps.setTimestamp(5, r.movedOn() != null ? r.movedOn() : now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (int i=0;i<n && keys.next();i++) moveIds[i] = keys.getObject(1);
+            }
+        }
+
+        try (PreparedStatement ps = con.prepareStatement("UPDATE Supply SET quantity_on_hand = ? WHERE supply_id = ?")) {
+            boolean any = false;
+            for (Map.Entry<Integer, Long> e : ledger.entrySet()) {
+                if (e.getValue().equals(before.get(e.getKey()))) continue;
+                ps.setLong(1, e.getValue()); ps.setInt(2, e.getKey()); ps.addBatch(); any = true;
+            }
+            if (any) ps.executeBatch();
+        }
+
+        // one audit row per movement, as trg_supply_update_audit wrote when each movement updated Supply
+        try (PreparedStatement ps = con.prepareStatement(
+                "INSERT INTO Supply_Audit(supply_id, change_qty, new_qty, changed_on, reason) VALUES (?,?,?,?,'Auto Audit: Quantity adjusted')")) {
+            boolean any = false;
+            for (int i=0;i<n;i++) {
+                if (granted[i] == 0) continue;
+                ps.setInt(1, batch.get(i).request().supplyId()); ps.setInt(2, -granted[i]); ps.setLong(3, after[i]); ps.setTimestamp(4, now);
+                ps.addBatch(); any = true;
+            }
+            if (any) ps.executeBatch();
+        }
+
+        for (int i=0;i<n;i++) done.add(new Dispatch(moveIds[i], batch.get(i).request().supplyId(), requested[i], granted[i], after[i]));
+    }
+}
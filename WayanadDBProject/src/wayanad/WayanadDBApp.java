@@ -2,12 +2,23 @@ package wayanad;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellEditor;
+import javax.swing.table.TableCellRenderer;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.Item;
+import wayanad.Schema.TableSpec;
 
 /**
  * Wayanad Disaster Management System – Full CRUD (single-file)
@@ -22,8 +33,9 @@ import java.util.List;
  */
 public class WayanadDBApp extends JFrame {
 
-    // ---------- DB CONFIG ----------
-    static final String JDBC_URL = "jdbc:mysql://localhost:3306/wayanad_disaster";
+    // ---------- DB CONFIG (defaults; override in wayanad.properties, see DbConfig) ----------
+    static final String JDBC_URL = "jdbc:mysql://localhost:3306/wayanad_disaster?rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048";
     static final String JDBC_USER = "root";
     static final String JDBC_PASSWORD = "Secretkey@19"; // <--- change if needed
 
@@ -32,9 +44,13 @@ public class WayanadDBApp extends JFrame {
     private JTextField searchField;
     private JButton loadButton, searchButton, backButton;
     private JButton addButton, updateButton, deleteButton; // opens manager
+    private JButton exportButton;
     private JTable table;
-    private DefaultTableModel model;
+    private TableModel model;
     private String currentTable = "";
+    private StatusBar viewerStatus;
+    private QueryExecutor.QueryTask<?> viewerTask;
+    private javax.swing.Timer screenTimer; // repaints the live screens (statistics, occupancy) while shown
 
     public WayanadDBApp(boolean startDashboard) {
         if (startDashboard) showMainDashboard();
@@ -43,6 +59,9 @@ public class WayanadDBApp extends JFrame {
 
     // ---------- DASHBOARD ----------
     private void showMainDashboard() {
+        cancelViewerTask();
+        if (screenTimer != null) { screenTimer.stop(); screenTimer = null; }
+        if (model instanceof PagedTableModel pm) pm.close();
         getContentPane().removeAll();
         setTitle("Wayanad Disaster Management System – Home");
         setSize(1200, 780);
@@ -63,8 +82,16 @@ public class WayanadDBApp extends JFrame {
         topButtons.setOpaque(false);
         JButton viewerBtn = createStyledButton("🧭 Open Table Viewer");
         JButton statsBtn  = createStyledButton("📊 Statistics Dashboard");
+        JButton reportsBtn = createStyledButton("📈 Reports");
+        JButton campsBtn  = createStyledButton("🏕 Camp Occupancy");
+        JButton findBtn   = createStyledButton("🔎 Find Person");
+        JButton matchBtn  = createStyledButton("🔗 Reunification");
+        JButton reliefBtn = createStyledButton("💸 Relief Allocation");
+        JButton diagBtn   = createStyledButton("🩺 Diagnostics");
+        JButton snapBtn   = createStyledButton("💾 Snapshot");
         JButton aboutBtn  = createStyledButton("ℹ About");
-        topButtons.add(viewerBtn); topButtons.add(statsBtn); topButtons.add(aboutBtn);
+        topButtons.add(viewerBtn); topButtons.add(statsBtn); topButtons.add(reportsBtn); topButtons.add(campsBtn); topButtons.add(findBtn); topButtons.add(matchBtn); topButtons.add(reliefBtn);
+        topButtons.add(diagBtn); topButtons.add(snapBtn); topButtons.add(aboutBtn);
 
         JPanel grid = new JPanel(new GridLayout(5, 3, 12, 12));
         grid.setOpaque(false);
@@ -91,6 +118,13 @@ public class WayanadDBApp extends JFrame {
 
         viewerBtn.addActionListener(e -> showTableViewer());
         statsBtn.addActionListener(e -> showStatisticsDashboard());
+        reportsBtn.addActionListener(e -> showReports());
+        campsBtn.addActionListener(e -> showOccupancyBoard());
+        findBtn.addActionListener(e -> showFuzzyLookup());
+        matchBtn.addActionListener(e -> showReunification());
+        reliefBtn.addActionListener(e -> showReliefAllocation());
+        diagBtn.addActionListener(e -> showDiagnostics());
+        snapBtn.addActionListener(e -> exportSnapshot());
         aboutBtn.addActionListener(e -> showAboutDialog());
 
         revalidate(); repaint();
@@ -143,13 +177,15 @@ public class WayanadDBApp extends JFrame {
         });
         loadButton = new JButton("Load");
         searchField = new JTextField(18);
+        searchField.setToolTipText("Name / phone prefix, id, enum value, 2024-08-01, 2024-08, 2024-08-01..2024-08-10 or column:value");
         searchButton = new JButton("Search");
         backButton = new JButton("Home");
         addButton = new JButton("➕ Add");
         updateButton = new JButton("✏ Update");
         deleteButton = new JButton("🗑 Delete");
+        exportButton = new JButton("⬇ Export CSV");
 
-        for (JButton b : new JButton[]{loadButton, searchButton, addButton, updateButton, deleteButton}) {
+        for (JButton b : new JButton[]{loadButton, searchButton, addButton, updateButton, deleteButton, exportButton}) {
             b.setBackground(new Color(100,150,255)); b.setForeground(Color.WHITE); b.setFocusPainted(false);
         }
         backButton.setBackground(new Color(255,120,100)); backButton.setForeground(Color.WHITE);
@@ -157,7 +193,7 @@ public class WayanadDBApp extends JFrame {
         top.add(new JLabel("Table:")); top.add(tableSelector); top.add(loadButton);
         top.add(new JLabel("Search:")); top.add(searchField); top.add(searchButton);
         top.add(addButton); top.add(updateButton); top.add(deleteButton);
-        top.add(backButton);
+        top.add(exportButton); top.add(backButton);
 
         model = new DefaultTableModel();
         table = new JTable(model);
@@ -167,12 +203,17 @@ public class WayanadDBApp extends JFrame {
         table.setSelectionBackground(new Color(160,200,255));
         JScrollPane scroll = new JScrollPane(table);
         scroll.getViewport().setBackground(new Color(240,248,255));
+        viewerStatus = new StatusBar();
 
         add(top, BorderLayout.NORTH);
         add(scroll, BorderLayout.CENTER);
+        add(viewerStatus, BorderLayout.SOUTH);
 
+        // switching tables abandons whatever is still loading for the previous one
+        tableSelector.addActionListener(e -> { if (cancelViewerTask()) viewerStatus.idle("Cancelled"); });
         loadButton.addActionListener(e -> loadTableData());
         searchButton.addActionListener(e -> searchInCurrentTable());
+        exportButton.addActionListener(e -> exportCurrentTable());
         backButton.addActionListener(e -> showMainDashboard());
 
         // Launch CRUD manager windows from viewer buttons
@@ -188,54 +229,130 @@ public class WayanadDBApp extends JFrame {
         revalidate(); repaint();
     }
 
+    // Rows are paged in as the table scrolls, so even Activity_Log/Supply_Audit open instantly.
     private void loadTableData() {
         currentTable = (String) tableSelector.getSelectedItem();
-        model.setRowCount(0); model.setColumnCount(0);
-        try (Connection con = getConnection();
-             Statement st = con.createStatement();
-             ResultSet rs = st.executeQuery("SELECT * FROM " + currentTable)) {
-            ResultSetMetaData meta = rs.getMetaData();
-            int cols = meta.getColumnCount();
-            for (int i=1;i<=cols;i++) model.addColumn(meta.getColumnName(i));
-            int count=0;
-            while (rs.next()) {
-                Object[] row = new Object[cols];
-                for (int i=1;i<=cols;i++) row[i-1]=rs.getObject(i);
-                model.addRow(row); count++;
-            }
-            JOptionPane.showMessageDialog(this, "Loaded " + count + " rows from " + currentTable);
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Error loading table: " + ex.getMessage());
+        String t = currentTable;
+        TableSpec spec = specFor(t);
+        cancelViewerTask();
+        LocalReplica replica = LocalReplica.shared();
+        TableModel local = replica.tableModel(t);
+        if (local != null) { // reference tables: the local replica, kept in sync in the background
+            setViewerModel(local);
+            long at = replica.syncedAt();
+            viewerStatus.idle("Loaded " + local.getRowCount() + " rows from " + t + " (local copy"
+                    + (at == 0 ? ", not yet synced this session)" : ", synced " + (System.currentTimeMillis() - at) / 1000 + " s ago)"));
+            return;
         }
+        viewerStatus.busy("Loading " + t + "…");
+        PagedTableModel m = new PagedTableModel(t, spec.pk, false);
+        viewerTask = m.open(() -> {
+            setViewerModel(m);
+            viewerStatus.idle("Loaded " + (m.exactCount() ? "" : "~") + m.getRowCount() + " rows from " + t);
+        }, ex -> {
+            viewerStatus.idle("Failed");
+            JOptionPane.showMessageDialog(this, "Error loading table: " + ex.getMessage());
+        });
     }
 
     private void searchInCurrentTable() {
         String search = searchField.getText().trim();
         if (search.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter a search term"); return; }
         currentTable = (String) tableSelector.getSelectedItem();
-        model.setRowCount(0); model.setColumnCount(0);
-        try (Connection con = getConnection(); Statement st = con.createStatement()) {
-            ResultSetMetaData meta = con.createStatement()
-                    .executeQuery("SELECT * FROM " + currentTable + " LIMIT 1").getMetaData();
-            int colCount = meta.getColumnCount();
-            StringBuilder concat = new StringBuilder("CONCAT(");
-            for (int i=1;i<=colCount;i++){ concat.append(meta.getColumnName(i)); if (i<colCount) concat.append(", '|', "); }
-            concat.append(")");
-            String query = "SELECT * FROM " + currentTable + " WHERE LOWER(" + concat + ") LIKE LOWER('%" +
-                    search.replace("'", "''") + "%')";
-            ResultSet rs = st.executeQuery(query);
-            for (int i=1;i<=colCount;i++) model.addColumn(meta.getColumnName(i));
-            int hits=0;
-            while (rs.next()) {
-                Object[] row = new Object[colCount];
-                for (int i=1;i<=colCount;i++) row[i-1]=rs.getObject(i);
-                model.addRow(row); hits++;
+        String t = currentTable;
+        int limit = RowStream.maxRows();
+        StreamingTableModel m = new StreamingTableModel();
+        long clicked = System.nanoTime();
+        boolean[] shown = {false};
+        cancelViewerTask();
+        viewerStatus.busy("Searching " + t + " for '" + search + "'…");
+        // hits stream into the table as they arrive instead of after the whole result is buffered
+        TableSpec spec = specFor(t);
+        viewerTask = QueryExecutor.shared().<Integer>submit(QueryMetrics.as("search", (con, task) -> {
+            SearchEngine.Query q = SearchEngine.plan(con, spec, search, limit);
+            try (PreparedStatement ps = task.track(RowStream.prepare(con, q.sql()))) {
+                SearchEngine.bind(ps, q.params());
+                try (ResultSet rs = ps.executeQuery()) { return RowStream.emitRows(rs, task, limit); }
+            }
+        }), chunks -> {
+            if (!shown[0]) { setViewerModel(m); }
+            if (m.accept(chunks) > 0 && !shown[0]) {
+                shown[0] = true;
+                long ms = (System.nanoTime() - clicked) / 1_000_000;
+                RowStream.recordFirstRows(ms);
+                viewerStatus.busy("Searching " + t + "… first rows in " + ms + " ms");
             }
-            JOptionPane.showMessageDialog(this, "Found " + hits + " records.");
-        } catch (SQLException ex) {
+        }, n -> {
+            if (!shown[0]) setViewerModel(m);
+            viewerStatus.idle("Found " + n + " records." + (n >= limit ? " (first " + limit + " shown)" : ""));
+        }, ex -> {
+            viewerStatus.idle("Failed");
             JOptionPane.showMessageDialog(this, "Search Error: " + ex.getMessage());
-        }
+        });
+    }
+
+    // Streams the selected table to a CSV file without holding it in memory.
+    private void exportCurrentTable() {
+        String t = (String) tableSelector.getSelectedItem();
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File(t + ".csv"));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.nio.file.Path file = fc.getSelectedFile().toPath();
+        cancelViewerTask();
+        viewerStatus.busy("Exporting " + t + "…");
+        viewerTask = QueryExecutor.shared().<Long>submit(
+                QueryMetrics.as("export", (con, task) -> RowStream.exportCsv(con, task, "SELECT * FROM " + t, file)),
+                chunks -> viewerStatus.busy("Exporting " + t + "… " + chunks.get(chunks.size() - 1) + " rows"),
+                n -> viewerStatus.idle("Exported " + n + " rows from " + t + " to " + file),
+                ex -> {
+                    viewerStatus.idle("Export failed");
+                    JOptionPane.showMessageDialog(this, "Export failed: " + ex.getMessage());
+                });
+    }
+    // Writes every table to a snapshot folder (Snapshot); restoring is done offline with `Snapshot import`.
+    private void exportSnapshot() {
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Snapshot folder");
+        fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.nio.file.Path dir = fc.getSelectedFile().toPath();
+        JDialog dlg = new JDialog(this, "💾 Snapshot", false);
+        JProgressBar bar = new JProgressBar(0, Schema.TABLES.size());
+        bar.setStringPainted(true);
+        bar.setString("Exporting to " + dir + "…");
+        DefaultListModel<String> done = new DefaultListModel<>();
+        JList<String> list = new JList<>(done);
+        list.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        dlg.add(bar, BorderLayout.NORTH);
+        dlg.add(new JScrollPane(list), BorderLayout.CENTER);
+        dlg.setSize(560, 380);
+        dlg.setLocationRelativeTo(this);
+        dlg.setVisible(true);
+        QueryExecutor.shared().<Snapshot.Result>submitUnpooled(
+                QueryMetrics.as("snapshot", (none, task) -> Snapshot.export(dir, (t, n, total) -> task.emit(t))),
+                chunks -> {
+                    for (Object o : chunks) {
+                        Snapshot.Table t = (Snapshot.Table) o;
+                        done.addElement(String.format("%-20s %,12d rows %,14d bytes", t.name(), t.rows(), t.bytes()));
+                        bar.setValue(bar.getValue() + 1);
+                    }
+                },
+                r -> bar.setString(String.format("%,d rows, %,d bytes in %.1f s", r.rows(), r.bytes(), r.millis() / 1000.0)),
+                ex -> {
+                    bar.setString("Snapshot failed");
+                    JOptionPane.showMessageDialog(dlg, "Snapshot failed: " + ex.getMessage());
+                });
+    }
+    private void setViewerModel(TableModel m) {
+        if (model instanceof PagedTableModel old && old != m) old.close();
+        model = m; table.setModel(m);
+    }
+    private boolean cancelViewerTask() {
+        QueryExecutor.QueryTask<?> t = viewerTask;
+        viewerTask = null;
+        return t != null && !t.isDone() && t.abort();
     }
+
     // ---------- STATS ----------
     private void showStatisticsDashboard() {
         getContentPane().removeAll();
@@ -254,41 +371,647 @@ public class WayanadDBApp extends JFrame {
         statsPanel.setBackground(new Color(225, 240, 255));
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 60, 20, 60));
 
-        String[][] stats = {
-                {"Total Victims", "SELECT COUNT(*) FROM Victim"},
-                {"Rescue Teams", "SELECT COUNT(*) FROM RescueTeam"},
-                {"Relief Camps", "SELECT COUNT(*) FROM Camp"},
-                {"Total Donations", "SELECT COUNT(*) FROM Donation"},
-                {"Missing Persons", "SELECT COUNT(*) FROM MissingPerson"},
-                {"Rehab Allocations", "SELECT COUNT(*) FROM RehabAllocation"}
+        // counts come from the in-memory Statistics counters, so redrawing is free; the wall display
+        // simply repaints every stats.uiRefreshMs
+        Statistics stats = Statistics.shared();
+        Map<Statistics.Counter, JLabel> values = new EnumMap<>(Statistics.Counter.class);
+        for (Statistics.Counter c : Statistics.Counter.values()) {
+            JLabel v = new JLabel("…", SwingConstants.CENTER);
+            statsPanel.add(createStatCard(c.label, v));
+            values.put(c, v);
+        }
+        JLabel updated = new JLabel(" ", SwingConstants.CENTER);
+        Runnable paint = () -> {
+            values.forEach((c, v) -> { long n = stats.get(c); v.setText(n < 0 ? "…" : String.valueOf(n)); });
+            long at = stats.refreshedAt();
+            updated.setText(stats.lastError() != null ? "Database refresh failed: " + stats.lastError()
+                    : at == 0 ? "Loading…" : "Live · reconciled with database " + (System.currentTimeMillis() - at) / 1000 + " s ago");
         };
-        for (String[] s : stats) statsPanel.add(createStatCard(s[0], fetchCount(s[1])));
+        paint.run();
+        if (screenTimer != null) screenTimer.stop();
+        screenTimer = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("stats.uiRefreshMs", 2_000)), e -> paint.run());
+        screenTimer.start();
 
+        JButton reportsBtn = createStyledButton("📈 Reports");
+        reportsBtn.addActionListener(e -> showReports());
         JButton backBtn = createStyledButton("⬅ Back");
         backBtn.setBackground(new Color(255,120,100));
         backBtn.addActionListener(e -> showMainDashboard());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        buttons.setOpaque(false);
+        buttons.add(reportsBtn); buttons.add(backBtn);
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(updated, BorderLayout.NORTH); south.add(buttons, BorderLayout.SOUTH);
 
         add(title, BorderLayout.NORTH);
         add(statsPanel, BorderLayout.CENTER);
-        add(backBtn, BorderLayout.SOUTH);
+        add(south, BorderLayout.SOUTH);
+
+        revalidate(); repaint();
+    }
+    // ---------- REPORTS ----------
+    // Group-by / time-bucket reports over the in-memory rollups (Reports); re-bucketing needs no database.
+    private void showReports() {
+        getContentPane().removeAll();
+        setTitle("Wayanad – Reports");
+        getContentPane().setBackground(new Color(225, 240, 255));
+        setLayout(new BorderLayout());
+
+        JLabel title = new JLabel("📈 Reports", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        title.setForeground(new Color(20, 60, 120));
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        JComboBox<Reports.Rollup> rollup = new JComboBox<>(Reports.Rollup.values());
+        JComboBox<Reports.Grain> grain = new JComboBox<>(Reports.Grain.values());
+        String[] ranges = {"Last 7 days", "Last 30 days", "Last 90 days", "All time"};
+        int[] rangeDays = {7, 30, 90, -1};
+        JComboBox<String> range = new JComboBox<>(ranges);
+        range.setSelectedIndex(3);
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        controls.setOpaque(false);
+        controls.add(new JLabel("Report:")); controls.add(rollup);
+        controls.add(new JLabel("By:")); controls.add(grain);
+        controls.add(new JLabel("Range:")); controls.add(range);
+        JPanel north = new JPanel(new BorderLayout());
+        north.setOpaque(false);
+        north.add(title, BorderLayout.NORTH); north.add(controls, BorderLayout.SOUTH);
+
+        DefaultTableModel lines = new DefaultTableModel() {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+            @Override public Class<?> getColumnClass(int c) { return c == 2 ? Long.class : c == 3 ? Double.class : String.class; }
+        };
+        JTable table = new JTable(lines);
+        table.setAutoCreateRowSorter(true);
+        JLabel info = new JLabel(" ", SwingConstants.CENTER);
+
+        Reports reports = Reports.shared();
+        long[] shown = {-1};
+        Runnable age = () -> {
+            Reports.Rollup r = (Reports.Rollup) rollup.getSelectedItem();
+            String err = reports.lastError();
+            info.setText(!reports.ready(r) ? (err != null ? "Loading failed: " + err : "Building rollup…")
+                    : table.getRowCount() + " line(s) · live, refreshed " + (System.currentTimeMillis() - reports.refreshedAt()) / 1000
+                    + " s ago" + (err != null ? " · last refresh failed: " + err : ""));
+        };
+        Runnable paint = () -> {
+            Reports.Rollup r = (Reports.Rollup) rollup.getSelectedItem();
+            int days = rangeDays[range.getSelectedIndex()];
+            LocalDate from = days < 0 ? null : LocalDate.now().minusDays(days - 1);
+            long t0 = System.nanoTime();
+            List<Reports.Row> rows = reports.report(r, (Reports.Grain) grain.getSelectedItem(), from, null);
+            double ms = (System.nanoTime() - t0) / 1e6;
+            shown[0] = reports.version();
+            lines.setDataVector(new Object[0][], new Object[]{"Period", r.groupLabel, r.countLabel, r.sumLabel});
+            for (Reports.Row row : rows) lines.addRow(new Object[]{row.period(), row.group(), row.count(), Math.round(row.sum() * 100) / 100.0});
+            age.run();
+            if (reports.ready(r)) info.setText(info.getText() + " · computed in " + String.format("%.2f", ms) + " ms");
+        };
+        rollup.addActionListener(e -> paint.run());
+        grain.addActionListener(e -> paint.run());
+        range.addActionListener(e -> paint.run());
+        paint.run();
+        if (screenTimer != null) screenTimer.stop();
+        // redraw only when the rollups changed, so sorting and scrolling survive between refreshes
+        screenTimer = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("reports.uiRefreshMs", 2_000)), e -> {
+            if (reports.version() != shown[0]) paint.run(); else age.run();
+        });
+        screenTimer.start();
+
+        JButton backBtn = createStyledButton("⬅ Back");
+        backBtn.setBackground(new Color(255,120,100));
+        backBtn.addActionListener(e -> showMainDashboard());
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(info, BorderLayout.NORTH); south.add(backBtn, BorderLayout.SOUTH);
+
+        add(north, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+        revalidate(); repaint();
+    }
+
+    // ---------- REUNIFICATION ----------
+    // Ranked queue of likely matches for open missing-person reports; the desk confirms or dismisses each.
+    private void showReunification() {
+        getContentPane().removeAll();
+        setTitle("Wayanad – Family Reunification");
+        getContentPane().setBackground(new Color(225, 240, 255));
+        setLayout(new BorderLayout());
+
+        JLabel title = new JLabel("🔗 Family Reunification – Match Queue", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        title.setForeground(new Color(20, 60, 120));
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        JComboBox<String> kind = new JComboBox<>(new String[]{"Victims and bodies", "Victims only", "Bodies only"});
+        JTextField filter = new JTextField(18);
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        controls.setOpaque(false);
+        controls.add(new JLabel("Show:")); controls.add(kind);
+        controls.add(new JLabel("Name contains:")); controls.add(filter);
+        JPanel north = new JPanel(new BorderLayout());
+        north.setOpaque(false);
+        north.add(title, BorderLayout.NORTH); north.add(controls, BorderLayout.SOUTH);
+
+        DefaultTableModel rows = new DefaultTableModel(new Object[]{"Score", "Missing ID", "Reported missing", "Candidate", "ID", "Candidate name", "Evidence"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+            @Override public Class<?> getColumnClass(int c) { return c == 0 ? Double.class : c == 1 || c == 4 ? Integer.class : String.class; }
+        };
+        JTable table = new JTable(rows);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(6).setPreferredWidth(420);
+        JLabel info = new JLabel(" ", SwingConstants.CENTER);
+
+        Reunification matcher = Reunification.shared();
+        List<Reunification.Match> shownRows = new ArrayList<>();
+        long[] shown = {-1};
+        int limit = DbConfig.get().integer("match.uiRows", 2_000);
+        Runnable age = () -> {
+            String err = matcher.lastError();
+            info.setText(!matcher.ready() ? (err != null ? "Matching failed: " + err : "Matching reports against victims and bodies…")
+                    : shownRows.size() + " candidate(s) shown for " + matcher.openReports() + " open report(s) · full match of "
+                    + matcher.comparisons() + " pairs took " + matcher.buildMs() / 1000.0 + " s, "
+                    + (System.currentTimeMillis() - matcher.builtAt()) / 1000 + " s ago" + (err != null ? " · last update failed: " + err : ""));
+        };
+        Runnable paint = () -> {
+            shown[0] = matcher.version();
+            String term = filter.getText().trim().toLowerCase(Locale.ROOT);
+            int k = kind.getSelectedIndex();
+            shownRows.clear();
+            rows.setRowCount(0);
+            for (Reunification.Match m : matcher.queue()) {
+                if (shownRows.size() >= limit) break;
+                if (k == 1 && m.kind() != Reunification.Kind.VICTIM || k == 2 && m.kind() != Reunification.Kind.BODY) continue;
+                if (!term.isEmpty() && !String.valueOf(m.missingName()).toLowerCase(Locale.ROOT).contains(term)
+                        && !String.valueOf(m.candidateName()).toLowerCase(Locale.ROOT).contains(term)) continue;
+                shownRows.add(m);
+                rows.addRow(new Object[]{Math.round(m.score() * 100) / 100.0, m.missingId(), m.missingName(),
+                        m.kind() == Reunification.Kind.VICTIM ? "Victim" : "Body", m.candidateId(), m.candidateName(), m.why()});
+            }
+            age.run();
+        };
+        kind.addActionListener(e -> paint.run());
+        filter.addActionListener(e -> paint.run());
+        paint.run();
+        if (screenTimer != null) screenTimer.stop();
+        // redraw only when the queue changed, so the selection survives between refreshes
+        screenTimer = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("match.uiRefreshMs", 2_000)), e -> {
+            if (matcher.version() != shown[0]) paint.run(); else age.run();
+        });
+        screenTimer.start();
+
+        java.util.function.Supplier<Reunification.Match> selected = () -> {
+            int r = table.getSelectedRow();
+            return r < 0 ? null : shownRows.get(table.convertRowIndexToModel(r));
+        };
+        JButton confirmBtn = createStyledButton("✔ Confirm Match");
+        confirmBtn.addActionListener(e -> {
+            Reunification.Match m = selected.get();
+            if (m == null) { JOptionPane.showMessageDialog(this, "Select a candidate first."); return; }
+            String what = m.kind() == Reunification.Kind.VICTIM
+                    ? "Mark report #" + m.missingId() + " (" + m.missingName() + ") as found – registered victim #" + m.candidateId() + " " + m.candidateName() + "?"
+                    : "Identify body #" + m.candidateId() + " as " + m.missingName() + " (report #" + m.missingId() + ")?";
+            if (JOptionPane.showConfirmDialog(this, what, "Confirm match", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) return;
+            QueryExecutor.shared().<Void>submit(QueryMetrics.as("match", (con, task) -> { matcher.confirm(con, m); return null; }),
+                    v -> info.setText("Confirmed report #" + m.missingId() + "; the queue updates in a moment"),
+                    ex -> JOptionPane.showMessageDialog(this, "Confirm failed:\n" + ex.getMessage()));
+        });
+        JButton dismissBtn = createStyledButton("✖ Dismiss");
+        dismissBtn.addActionListener(e -> {
+            Reunification.Match m = selected.get();
+            if (m != null) { matcher.dismiss(m); paint.run(); }
+        });
+        JButton rerunBtn = createStyledButton("🔄 Re-run Matching");
+        rerunBtn.addActionListener(e -> { matcher.requestRebuild(); info.setText("Full match queued…"); });
+        JButton backBtn = createStyledButton("⬅ Back");
+        backBtn.setBackground(new Color(255,120,100));
+        backBtn.addActionListener(e -> showMainDashboard());
+        JPanel buttons = new JPanel(new GridLayout(1, 4, 10, 0));
+        buttons.setOpaque(false);
+        buttons.add(confirmBtn); buttons.add(dismissBtn); buttons.add(rerunBtn); buttons.add(backBtn);
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(info, BorderLayout.NORTH); south.add(buttons, BorderLayout.SOUTH);
+
+        add(north, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+        revalidate(); repaint();
+    }
+
+    // ---------- CAMP OCCUPANCY BOARD ----------
+    // Drawn from the in-memory CampOccupancy index; redraws only when the index version changes.
+    private void showOccupancyBoard() {
+        getContentPane().removeAll();
+        setTitle("Wayanad – Camp Occupancy");
+        setSize(1100, 720);
+        setLocationRelativeTo(null);
+        getContentPane().setBackground(new Color(225, 240, 255));
+        setLayout(new BorderLayout());
+
+        JLabel title = new JLabel("🏕 Live Camp Occupancy", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        title.setForeground(new Color(20, 60, 120));
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        int nearFullPct = DbConfig.get().integer("occupancy.nearFullPct", 90);
+        DefaultTableModel locations = new DefaultTableModel(new Object[]{"Location", "Camps", "Capacity", "Occupancy", "Free"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        DefaultTableModel nearFull = new DefaultTableModel(new Object[]{"Camp ID", "Camp", "Location", "Occupancy", "Capacity", "% Full"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable nearFullTable = new JTable(nearFull);
+        nearFullTable.setDefaultRenderer(Object.class, new javax.swing.table.DefaultTableCellRenderer() {
+            @Override public Component getTableCellRendererComponent(JTable t, Object v, boolean sel, boolean focus, int r, int c) {
+                super.getTableCellRendererComponent(t, v, sel, focus, r, c);
+                if (!sel) setBackground(Integer.valueOf(100).equals(t.getValueAt(r, 5)) ? new Color(255, 190, 180) : new Color(255, 235, 200));
+                return this;
+            }
+        });
+        JScrollPane locPane = new JScrollPane(new JTable(locations));
+        locPane.setBorder(BorderFactory.createTitledBorder("Free capacity by location"));
+        JScrollPane nearPane = new JScrollPane(nearFullTable);
+        nearPane.setBorder(BorderFactory.createTitledBorder("Camps at or above " + nearFullPct + "% full"));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, locPane, nearPane);
+        split.setResizeWeight(0.5);
+
+        CampOccupancy occ = CampOccupancy.shared();
+        JLabel updated = new JLabel(" ", SwingConstants.CENTER);
+        long[] drawn = {-1};
+        Runnable paint = () -> {
+            long at = occ.reconciledAt();
+            updated.setText(occ.lastError() != null ? "Database reconcile failed: " + occ.lastError()
+                    : at == 0 ? "Loading…" : "Live · reconciled with database " + (System.currentTimeMillis() - at) / 1000 + " s ago");
+            long v = occ.version();
+            if (v == drawn[0]) return;
+            drawn[0] = v;
+            locations.setRowCount(0);
+            for (CampOccupancy.LocationSummary l : occ.byLocation())
+                locations.addRow(new Object[]{l.location(), l.camps(), l.capacity(), l.occupancy(), l.free()});
+            nearFull.setRowCount(0);
+            for (CampOccupancy.Camp c : occ.nearFull(nearFullPct))
+                nearFull.addRow(new Object[]{c.id, c.name, c.location, c.occupancy.get(), c.capacity, c.percentFull()});
+        };
+        paint.run();
+        if (screenTimer != null) screenTimer.stop();
+        screenTimer = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("occupancy.uiRefreshMs", 1_000)), e -> paint.run());
+        screenTimer.start();
+
+        JButton backBtn = createStyledButton("⬅ Back");
+        backBtn.setBackground(new Color(255,120,100));
+        backBtn.addActionListener(e -> showMainDashboard());
+        JButton nearestBtn = createStyledButton("📍 Nearest Camp");
+        nearestBtn.addActionListener(e -> showNearestCamp());
+        JPanel buttons = new JPanel(new GridLayout(1, 2, 10, 0));
+        buttons.setOpaque(false);
+        buttons.add(nearestBtn); buttons.add(backBtn);
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(updated, BorderLayout.NORTH); south.add(buttons, BorderLayout.SOUTH);
+
+        add(title, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        revalidate(); repaint();
+    }
+
+    // ---------- DIAGNOSTICS ----------
+    // Per table/operation latency percentiles, pool health and slow queries from QueryMetrics.
+    private void showDiagnostics() {
+        getContentPane().removeAll();
+        setTitle("Wayanad – Diagnostics");
+        setSize(1200, 760);
+        setLocationRelativeTo(null);
+        getContentPane().setBackground(new Color(225, 240, 255));
+        setLayout(new BorderLayout());
+
+        JLabel title = new JLabel("🩺 Query Diagnostics", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        title.setForeground(new Color(20, 60, 120));
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        DefaultTableModel queries = new DefaultTableModel(new Object[]{"Table", "Operation", "Count", "Errors",
+                "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)", "Rows", "Bytes"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        DefaultTableModel slow = new DefaultTableModel(new Object[]{"At", "Label", "Table", "ms", "Rows", "SQL", "Error"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable queryTable = new JTable(queries);
+        queryTable.setAutoCreateRowSorter(true);
+        JScrollPane queryPane = new JScrollPane(queryTable);
+        queryPane.setBorder(BorderFactory.createTitledBorder("Statements by table and operation"));
+        JScrollPane slowPane = new JScrollPane(new JTable(slow));
+        slowPane.setBorder(BorderFactory.createTitledBorder("Slow queries (≥ " + DbConfig.get().longValue("metrics.slowQueryMs", 500) + " ms, newest first)"));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, queryPane, slowPane);
+        split.setResizeWeight(0.6);
+
+        JLabel pool = new JLabel(" ", SwingConstants.CENTER), waits = new JLabel(" ", SwingConstants.CENTER);
+        JLabel journal = new JLabel(" ", SwingConstants.CENTER);
+        Runnable paint = () -> {
+            pool.setText(ConnectionPool.shared().metrics().toString());
+            if (WriteJournal.enabled()) {
+                WriteJournal j = WriteJournal.shared();
+                journal.setText("offline journal: " + j.pending() + " pending, " + j.conflicts().size() + " conflict(s)"
+                        + (j.lastError() != null ? " · replay waiting: " + j.lastError()
+                        : j.lastReplayAt() > 0 ? " · last replay " + new Timestamp(j.lastReplayAt()) : ""));
+            }
+            QueryMetrics.Histogram w = QueryMetrics.poolWait();
+            waits.setText(String.format("pool wait p50 %.2f ms, p99 %.2f ms, max %.2f ms (%d borrows) · %s · since %s",
+                    w.percentile(50) / 1e3, w.percentile(99) / 1e3, w.max() / 1e3, w.count(),
+                    RowStream.firstRowsLatency(), new Timestamp(QueryMetrics.since())));
+            queries.setRowCount(0);
+            QueryMetrics.snapshot().forEach((k, st) -> {
+                QueryMetrics.Histogram h = st.latency;
+                queries.addRow(new Object[]{k.table(), k.operation(), h.count(), st.errors.sum(),
+                        h.percentile(50) / 1e3, h.percentile(95) / 1e3, h.percentile(99) / 1e3, h.max() / 1e3,
+                        st.rows.sum(), st.bytes.sum()});
+            });
+            slow.setRowCount(0);
+            for (QueryMetrics.SlowQuery q : QueryMetrics.slowQueries())
+                slow.addRow(new Object[]{new Timestamp(q.at()), q.label(), q.table(), q.ms(), q.rows(), q.sql(), q.error()});
+        };
+        paint.run();
+        if (screenTimer != null) screenTimer.stop();
+        screenTimer = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("metrics.uiRefreshMs", 1_000)), e -> paint.run());
+        screenTimer.start();
+
+        JButton resetBtn = createStyledButton("♻ Reset");
+        resetBtn.addActionListener(e -> { QueryMetrics.reset(); paint.run(); });
+        JButton backBtn = createStyledButton("⬅ Back");
+        backBtn.setBackground(new Color(255,120,100));
+        backBtn.addActionListener(e -> showMainDashboard());
+        JPanel info = new JPanel(new GridLayout(3, 1));
+        info.setOpaque(false);
+        info.add(pool); info.add(waits); info.add(journal);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        buttons.setOpaque(false);
+        buttons.add(resetBtn); buttons.add(backBtn);
+        JPanel south = new JPanel(new BorderLayout());
+        south.setOpaque(false);
+        south.add(info, BorderLayout.NORTH); south.add(buttons, BorderLayout.SOUTH);
+
+        add(title, BorderLayout.NORTH);
+        add(split, BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        revalidate(); repaint();
+    }
+
+    // ---------- RELIEF ALLOCATION ----------
+    // Preview, then one INSERT ... SELECT per camp in parallel (ReliefAllocator); re-running a round only fills gaps.
+    private void showReliefAllocation() {
+        cancelViewerTask();
+        if (screenTimer != null) { screenTimer.stop(); screenTimer = null; }
+        getContentPane().removeAll();
+        setTitle("Wayanad – Relief Allocation");
+        getContentPane().setBackground(new Color(225, 240, 255));
+        setLayout(new BorderLayout());
+
+        JLabel title = new JLabel("💸 Relief Allocation", SwingConstants.CENTER);
+        title.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        title.setForeground(new Color(20, 60, 120));
+        title.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
+
+        JTextField round = new JTextField("relief-" + LocalDate.now(), 16);
+        JTextField amount = new JTextField(DbConfig.get().str("relief.defaultAmount", "5000"), 10);
+        JTextField date = new JTextField(LocalDate.now().toString(), 10);
+        JButton previewBtn = createStyledButton("🔍 Preview");
+        JButton runBtn = createStyledButton("💸 Allocate");
+        JButton cancelBtn = createStyledButton("■ Cancel");
+        JButton backBtn = createStyledButton("⬅ Back");
+        backBtn.setBackground(new Color(255,120,100));
+        runBtn.setEnabled(false); cancelBtn.setEnabled(false);
+        JPanel form = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        form.setOpaque(false);
+        form.add(new JLabel("Round:")); form.add(round);
+        form.add(new JLabel("Amount (₹) per victim:")); form.add(amount);
+        form.add(new JLabel("Date:")); form.add(date);
+        form.add(previewBtn); form.add(runBtn); form.add(cancelBtn); form.add(backBtn);
+        JPanel north = new JPanel(new BorderLayout());
+        north.setOpaque(false);
+        north.add(title, BorderLayout.NORTH); north.add(form, BorderLayout.SOUTH);
+
+        DefaultTableModel camps = new DefaultTableModel(new Object[]{"Camp ID", "Camp", "In camp", "Already in round",
+                "To allocate", "Allocated", "Status"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable table = new JTable(camps);
+        table.setAutoCreateRowSorter(true);
+        JProgressBar progress = new JProgressBar();
+        progress.setStringPainted(true);
+        StatusBar info = new StatusBar();
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(progress, BorderLayout.NORTH); south.add(info, BorderLayout.SOUTH);
+
+        List<ReliefAllocator.CampPlan> plan = new ArrayList<>();
+        java.util.concurrent.atomic.AtomicBoolean cancel = new java.util.concurrent.atomic.AtomicBoolean();
+        Runnable preview = () -> {
+            String r = round.getText().trim();
+            runBtn.setEnabled(false);
+            info.busy("Counting victims in camp…");
+            viewerTask = QueryExecutor.shared().<List<ReliefAllocator.CampPlan>>submit(
+                    QueryMetrics.as("relief", (con, task) -> ReliefAllocator.preview(con, r)), p -> {
+                plan.clear(); plan.addAll(p);
+                camps.setRowCount(0);
+                long victims = 0;
+                for (ReliefAllocator.CampPlan c : p) {
+                    camps.addRow(new Object[]{c.campId(), c.name(), c.eligible(), c.alreadyAllocated(), c.toAllocate(), "", ""});
+                    victims += c.toAllocate();
+                }
+                progress.setValue(0); progress.setString("");
+                BigDecimal each = parseAmount(amount.getText());
+                info.idle("Dry run for round '" + r + "': " + victims + " victim(s) in " + p.size() + " camp(s) to allocate"
+                        + (each == null ? "" : ", ₹" + each.multiply(BigDecimal.valueOf(victims)).toPlainString() + " in total"));
+                runBtn.setEnabled(victims > 0);
+            }, ex -> {
+                info.idle("Preview failed");
+                JOptionPane.showMessageDialog(this, "Preview failed: " + ex.getMessage());
+            });
+        };
+        previewBtn.addActionListener(e -> preview.run());
+        round.addActionListener(e -> preview.run());
+        cancelBtn.addActionListener(e -> { cancel.set(true); info.busy("Cancelling after the running camps finish…"); });
+        backBtn.addActionListener(e -> { cancel.set(true); showMainDashboard(); });
+        runBtn.addActionListener(e -> {
+            String r = round.getText().trim();
+            BigDecimal each = parseAmount(amount.getText());
+            LocalDate on;
+            try { on = LocalDate.parse(date.getText().trim()); }
+            catch (java.time.format.DateTimeParseException ex) { JOptionPane.showMessageDialog(this, "Date must be YYYY-MM-DD"); return; }
+            if (each == null || each.signum() <= 0 || r.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter a round name and a positive amount"); return; }
+            List<ReliefAllocator.CampPlan> todo = new ArrayList<>();
+            for (ReliefAllocator.CampPlan c : plan) if (c.toAllocate() > 0) todo.add(c);
+            long victims = todo.stream().mapToLong(ReliefAllocator.CampPlan::toAllocate).sum();
+            if (JOptionPane.showConfirmDialog(this, "Allocate ₹" + each.toPlainString() + " to " + victims + " victim(s) in "
+                    + todo.size() + " camp(s) as round '" + r + "'?", "Confirm allocation", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+            cancel.set(false);
+            runBtn.setEnabled(false); previewBtn.setEnabled(false); cancelBtn.setEnabled(true);
+            progress.setMaximum(todo.size()); progress.setValue(0); progress.setString("0 / " + todo.size() + " camps");
+            info.busy("Allocating…");
+            long t0 = System.nanoTime();
+            QueryExecutor.shared().<List<ReliefAllocator.CampResult>>submitUnpooled(
+                    QueryMetrics.as("relief", (none, task) -> ReliefAllocator.run(r, each, on, todo, cancel, (res, done, total) -> task.emit(res))),
+                    chunks -> {
+                        for (Object o : chunks) {
+                            ReliefAllocator.CampResult res = (ReliefAllocator.CampResult) o;
+                            for (int i=0;i<camps.getRowCount();i++) {
+                                if (!camps.getValueAt(i, 0).equals(res.campId())) continue;
+                                camps.setValueAt(res.allocated(), i, 5);
+                                camps.setValueAt(res.error() == null ? "✔ done" : "✖ " + res.error(), i, 6);
+                            }
+                            progress.setValue(progress.getValue() + 1);
+                        }
+                        progress.setString(progress.getValue() + " / " + todo.size() + " camps");
+                    },
+                    results -> {
+                        long n = results.stream().mapToLong(ReliefAllocator.CampResult::allocated).sum();
+                        long failed = results.stream().filter(x -> x.error() != null).count();
+                        info.idle("Round '" + r + "': " + n + " allocation(s) in " + results.size() + " camp(s), "
+                                + (System.nanoTime() - t0) / 1_000_000 + " ms" + (failed > 0 ? ", " + failed + " camp(s) failed (run again to retry)" : "")
+                                + (results.size() < todo.size() ? ", cancelled" : ""));
+                        previewBtn.setEnabled(true); cancelBtn.setEnabled(false);
+                    }, ex -> {
+                        info.idle("Allocation failed");
+                        previewBtn.setEnabled(true); cancelBtn.setEnabled(false);
+                        JOptionPane.showMessageDialog(this, "Allocation failed: " + ex.getMessage());
+                    });
+        });
 
+        add(north, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
         revalidate(); repaint();
+        preview.run();
+    }
+
+    private static BigDecimal parseAmount(String s) {
+        try { return new BigDecimal(s.trim()); }
+        catch (NumberFormatException e) { return null; }
     }
-    private JPanel createStatCard(String label, String value) {
+
+    private JPanel createStatCard(String label, JLabel v) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(new Color(190, 220, 255));
         card.setBorder(BorderFactory.createLineBorder(new Color(100, 140, 220), 2, true));
         JLabel l = new JLabel(label, SwingConstants.CENTER); l.setFont(new Font("Segoe UI", Font.BOLD, 16));
-        JLabel v = new JLabel(value, SwingConstants.CENTER); v.setFont(new Font("Segoe UI", Font.BOLD, 26));
+        v.setFont(new Font("Segoe UI", Font.BOLD, 26));
         v.setForeground(new Color(10, 50, 160));
         card.add(l, BorderLayout.NORTH); card.add(v, BorderLayout.CENTER);
         return card;
     }
-    private String fetchCount(String q) {
-        try (Connection c=getConnection(); Statement s=c.createStatement(); ResultSet r=s.executeQuery(q)) {
-            if (r.next()) return String.valueOf(r.getInt(1));
-        } catch (SQLException e){ return "Error"; }
-        return "0";
+    // ---------- NEAREST CAMP ----------
+    // Nearest camps with room, for routing evacuees from a place (or an operation's / missing person's location).
+    private void showNearestCamp() {
+        JDialog d = new JDialog(this, "Nearest Camp with Free Places", false);
+        d.setLayout(new BorderLayout(8,8));
+        JComboBox<String> place = new JComboBox<>(GeoIndex.places().toArray(new String[0]));
+        place.setEditable(true);
+        place.setSelectedItem("");
+        JSpinner k = new JSpinner(new SpinnerNumberModel(5, 1, DbConfig.get().integer("geo.maxNearest", 50), 1));
+        JSpinner minFree = new JSpinner(new SpinnerNumberModel(1, 0, 100_000, 1));
+        JSpinner radius = new JSpinner(new SpinnerNumberModel(10.0, 0.5, 200.0, 0.5));
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        top.add(new JLabel("From:")); top.add(place);
+        top.add(new JLabel("Camps:")); top.add(k);
+        top.add(new JLabel("Min. free places:")); top.add(minFree);
+        top.add(new JLabel("Coverage radius (km):")); top.add(radius);
+        DefaultTableModel m = new DefaultTableModel(new Object[]{"Camp ID", "Camp", "Location", "Km", "Free", "Capacity"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable results = new JTable(m);
+        StatusBar info = new StatusBar();
+        info.idle("Type or pick a place (a camp, village or an operation's location)");
+
+        GeoIndex geo = GeoIndex.shared();
+        Runnable lookup = () -> {
+            Object sel = place.getEditor().getItem();
+            String text = sel == null ? "" : sel.toString().trim();
+            m.setRowCount(0);
+            if (text.isEmpty()) return;
+            GeoIndex.Point from = GeoIndex.locate(text);
+            if (from == null) { info.idle("\"" + text + "\" is not a known place"); return; }
+            int need = (Integer) minFree.getValue();
+            long t0 = System.nanoTime();
+            List<GeoIndex.Nearby> hits = geo.nearest(from, (Integer) k.getValue(), need);
+            double us = (System.nanoTime() - t0) / 1e3;
+            List<GeoIndex.Nearby> around = geo.within(from, (Double) radius.getValue(), need);
+            for (GeoIndex.Nearby n : hits)
+                m.addRow(new Object[]{n.camp().id, n.camp().name, n.camp().location, String.format("%.1f", n.km()), n.free(), n.camp().capacity});
+            long free = around.stream().mapToLong(GeoIndex.Nearby::free).sum();
+            info.idle(hits.size() + " camps in " + String.format("%.0f", us) + " µs · within " + radius.getValue() + " km: "
+                    + around.size() + " camps, " + free + " free places"
+                    + (geo.unlocated().isEmpty() ? "" : " · not on the map: " + String.join(", ", geo.unlocated())));
+        };
+        place.addActionListener(e -> lookup.run());
+        ((JTextField) place.getEditor().getEditorComponent()).getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { SwingUtilities.invokeLater(lookup); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { SwingUtilities.invokeLater(lookup); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { SwingUtilities.invokeLater(lookup); }
+        });
+        k.addChangeListener(e -> lookup.run());
+        minFree.addChangeListener(e -> lookup.run());
+        radius.addChangeListener(e -> lookup.run());
+        // free places change with every admission; keep the list current while the dialog is open
+        javax.swing.Timer live = new javax.swing.Timer(Math.max(250, DbConfig.get().integer("occupancy.uiRefreshMs", 1_000)), e -> lookup.run());
+        live.start();
+        d.addWindowListener(new WindowAdapter() {
+            @Override public void windowClosed(WindowEvent e) { live.stop(); }
+        });
+        d.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+
+        d.add(top, BorderLayout.NORTH);
+        d.add(new JScrollPane(results), BorderLayout.CENTER);
+        d.add(info, BorderLayout.SOUTH);
+        d.setSize(980, 480);
+        d.setLocationRelativeTo(this);
+        d.setVisible(true);
+    }
+
+    // ---------- FUZZY LOOKUP (help desk) ----------
+    // Answers from the in-memory NameIndex as the user types; no database round trip.
+    private void showFuzzyLookup() {
+        JDialog d = new JDialog(this, "Find Person / Missing Person", false);
+        d.setLayout(new BorderLayout(8,8));
+        JTextField q = new JTextField(30);
+        q.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        top.add(new JLabel("Name, place, phone or Aadhaar:")); top.add(q);
+        DefaultTableModel m = new DefaultTableModel(new Object[]{"Score", "Table", "Field", "ID", "Text"}, 0) {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        JTable results = new JTable(m);
+        StatusBar info = new StatusBar();
+        info.idle(NameIndex.shared().isReady() ? NameIndex.shared().size() + " names indexed" : "Index still loading…");
+
+        Runnable lookup = () -> {
+            String term = q.getText().trim();
+            m.setRowCount(0);
+            if (term.isEmpty()) return;
+            long t0 = System.nanoTime();
+            List<NameIndex.Match> hits = NameIndex.shared().search(term, 50, 0.25f, null);
+            double ms = (System.nanoTime() - t0) / 1e6;
+            for (NameIndex.Match h : hits)
+                m.addRow(new Object[]{String.format("%.2f", h.score()), h.source().table, h.source().column, h.id(), h.text()});
+            info.idle(hits.size() + " matches in " + String.format("%.2f", ms) + " ms ("
+                    + NameIndex.shared().size() + " names indexed" + (NameIndex.shared().isReady() ? "" : ", still loading") + ")");
+        };
+        q.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { lookup.run(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { lookup.run(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { lookup.run(); }
+        });
+
+        d.add(top, BorderLayout.NORTH);
+        d.add(new JScrollPane(results), BorderLayout.CENTER);
+        d.add(info, BorderLayout.SOUTH);
+        d.setSize(820, 520);
+        d.setLocationRelativeTo(this);
+        d.setVisible(true);
     }
 
     // ---------- ABOUT ----------
@@ -308,183 +1031,34 @@ public class WayanadDBApp extends JFrame {
     }
 
     // ---------- DB ----------
+    // Pooled: closing the returned connection hands it back to ConnectionPool.
     private Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD);
+        return ConnectionPool.shared().getConnection();
     }
 
     // ---------- OPEN MANAGERS ----------
     private void openManagerByName(String label) {
         if (label.contains("(Read-only)")) label = label.split(" ")[0];
-        switch (label) {
-            case "Person" -> openManager(personSpec());
-            case "Victim" -> openManager(victimSpec());
-            case "Camp" -> openManager(campSpec());
-            case "Victim_Camp" -> openManager(victimCampSpec());
-            case "Supply" -> openManager(supplySpec());
-            case "Supply_Movement" -> openManager(supplyMovementSpec());
-            case "Donation" -> openManager(donationSpec());
-            case "MissingPerson" -> openManager(missingSpec());
-            case "BodyIdentification" -> openManager(bodyIdSpec());
-            case "RehabAllocation" -> openManager(rehabSpec());
-            case "RescueTeam" -> openManager(teamSpec());
-            case "RescueOperation" -> openManager(opSpec());
-            case "Activity_Log" -> openManager(activityLogSpec());
-            case "Supply_Audit" -> openManager(supplyAuditSpec());
-            case "Transfer_Error_Log" -> openManager(errorLogSpec());
-            default -> JOptionPane.showMessageDialog(this, "Unknown manager: " + label);
-        }
+        TableSpec spec = specFor(label);
+        if (spec == null) JOptionPane.showMessageDialog(this, "Unknown manager: " + label);
+        else openManager(spec);
     }
+    private TableSpec specFor(String table) { return Schema.spec(table); }
     private void openManager(TableSpec spec) { new RecordManager(this, spec).setVisible(true); }
 
-    // ---------- TABLE SPECS ----------
-    enum InputType { TEXT, INT, DECIMAL, DATE, DATETIME, ENUM, BOOL, FK }
-
-    static class FieldSpec {
-        final String name, label; final InputType type;
-        final boolean nullable; final String enumCSV; final String fkQuery;
-        boolean readonly=false;
-        FieldSpec(String n, String l, InputType t, boolean nul, String e, String fk){name=n;label=l;type=t;nullable=nul;enumCSV=e;fkQuery=fk;}
-        FieldSpec readonly(){ this.readonly=true; return this; }
-    }
-    static class TableSpec {
-        final String table; final String pk; final boolean pkAuto;
-        final java.util.List<FieldSpec> fields = new ArrayList<>();
-        boolean readOnly=false;
-        TableSpec(String t,String p,boolean a){table=t;pk=p;pkAuto=a;}
-        TableSpec field(FieldSpec f){fields.add(f); return this;}
-        TableSpec readOnly(boolean ro){readOnly=ro; return this;}
-    }
-
-    private TableSpec personSpec(){ return new TableSpec("Person","person_id", false)
-            .field(new FieldSpec("person_id","Person ID",InputType.INT,false,null,null))
-            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
-            .field(new FieldSpec("age","Age",InputType.INT,true,null,null))
-            .field(new FieldSpec("gender","Gender",InputType.ENUM,true,"M,F,O",null))
-            .field(new FieldSpec("aadhar_no","Aadhar",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("phone","Phone",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("role","Role",InputType.ENUM,false,"victim,volunteer,rescuer,donor,admin",null))
-            .field(new FieldSpec("created_on","Created On",InputType.DATETIME,true,null,null).readonly());
-    }
-    private TableSpec victimSpec(){ return new TableSpec("Victim","victim_id", false)
-            .field(new FieldSpec("victim_id","Victim (Person ID)",InputType.FK,false,null,
-                    "SELECT person_id AS id, CONCAT(person_id,' - ',name) AS label FROM Person WHERE role='victim'"))
-            .field(new FieldSpec("family_id","Family ID",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("status","Status",InputType.ENUM,true,"missing,rescued,deceased,hospitalized,relocated",null))
-            .field(new FieldSpec("injuries","Injuries",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("displaced","Displaced",InputType.BOOL,true,null,null))
-            .field(new FieldSpec("registration_date","Reg Date",InputType.DATE,true,null,null));
-    }
-    private TableSpec campSpec(){ return new TableSpec("Camp","camp_id", true)
-            .field(new FieldSpec("camp_id","Camp ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
-            .field(new FieldSpec("location","Location",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("capacity","Capacity",InputType.INT,true,null,null))
-            .field(new FieldSpec("established_date","Established",InputType.DATE,true,null,null))
-            .field(new FieldSpec("current_occupancy","Current Occupancy",InputType.INT,true,null,null).readonly());
-    }
-    private TableSpec victimCampSpec(){ return new TableSpec("Victim_Camp","vc_id", true)
-            .field(new FieldSpec("vc_id","VC ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("victim_id","Victim",InputType.FK,false,null,"SELECT victim_id AS id, victim_id AS label FROM Victim"))
-            .field(new FieldSpec("camp_id","Camp",InputType.FK,false,null,"SELECT camp_id AS id, CONCAT(camp_id,' - ',name) AS label FROM Camp"))
-            .field(new FieldSpec("date_admitted","Date Admitted",InputType.DATE,true,null,null))
-            .field(new FieldSpec("date_released","Date Released",InputType.DATE,true,null,null));
-    }
-    private TableSpec supplySpec(){ return new TableSpec("Supply","supply_id", true)
-            .field(new FieldSpec("supply_id","Supply ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
-            .field(new FieldSpec("quantity_on_hand","Quantity",InputType.INT,false,null,null))
-            .field(new FieldSpec("unit","Unit",InputType.TEXT,true,null,null));
-    }
-    private TableSpec supplyMovementSpec(){ return new TableSpec("Supply_Movement","move_id", true)
-            .field(new FieldSpec("move_id","Move ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("supply_id","Supply",InputType.FK,false,null,"SELECT supply_id AS id, CONCAT(supply_id,' - ',name) AS label FROM Supply"))
-            .field(new FieldSpec("from_location","From Location",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("to_camp_id","To Camp",InputType.FK,true,null,"SELECT camp_id AS id, CONCAT(camp_id,' - ',name) AS label FROM Camp"))
-            .field(new FieldSpec("qty","Quantity",InputType.INT,false,null,null))
-            .field(new FieldSpec("moved_on","Moved On (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null));
-    }
-    private TableSpec donationSpec(){ return new TableSpec("Donation","donation_id", true)
-            .field(new FieldSpec("donation_id","Donation ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("donor_id","Donor (Person)",InputType.FK,false,null,"SELECT person_id AS id, CONCAT(person_id,' - ',name) AS label FROM Person WHERE role='donor'"))
-            .field(new FieldSpec("amount","Amount",InputType.DECIMAL,false,null,null))
-            .field(new FieldSpec("donation_type","Type",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("date_received","Date",InputType.DATE,true,null,null))
-            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
-    }
-    private TableSpec missingSpec(){ return new TableSpec("MissingPerson","missing_id", true)
-            .field(new FieldSpec("missing_id","Missing ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("name","Name",InputType.TEXT,false,null,null))
-            .field(new FieldSpec("age","Age",InputType.INT,true,null,null))
-            .field(new FieldSpec("gender","Gender",InputType.ENUM,true,"M,F,O",null))
-            .field(new FieldSpec("last_seen_location","Last Seen Location",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("date_reported","Date Reported",InputType.DATE,true,null,null))
-            .field(new FieldSpec("status","Status",InputType.ENUM,true,"missing,found,identified",null));
-    }
-    private TableSpec bodyIdSpec(){ return new TableSpec("BodyIdentification","body_id", true)
-            .field(new FieldSpec("body_id","Body ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("missing_id","Missing Ref",InputType.FK,true,null,"SELECT missing_id AS id, CONCAT(missing_id,' - ',name) AS label FROM MissingPerson"))
-            .field(new FieldSpec("dna_sample_id","DNA Sample ID",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("identified","Identified",InputType.BOOL,true,null,null))
-            .field(new FieldSpec("id_date","Identified Date",InputType.DATE,true,null,null))
-            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
-    }
-    private TableSpec rehabSpec(){ return new TableSpec("RehabAllocation","alloc_id", true)
-            .field(new FieldSpec("alloc_id","Alloc ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("victim_id","Victim",InputType.FK,false,null,"SELECT victim_id AS id, victim_id AS label FROM Victim"))
-            .field(new FieldSpec("house_id","House ID",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("allocation_date","Allocation Date",InputType.DATE,true,null,null))
-            .field(new FieldSpec("amount_granted","Amount Granted",InputType.DECIMAL,true,null,null));
-    }
-    private TableSpec teamSpec(){ return new TableSpec("RescueTeam","team_id", true)
-            .field(new FieldSpec("team_id","Team ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("agency","Agency",InputType.TEXT,false,null,null))
-            .field(new FieldSpec("team_type","Team Type",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("contact","Contact",InputType.TEXT,true,null,null));
-    }
-    private TableSpec opSpec(){ return new TableSpec("RescueOperation","op_id", true)
-            .field(new FieldSpec("op_id","Op ID (auto)",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("team_id","Team",InputType.FK,false,null,"SELECT team_id AS id, CONCAT(team_id,' - ',agency) AS label FROM RescueTeam"))
-            .field(new FieldSpec("location","Location",InputType.TEXT,true,null,null))
-            .field(new FieldSpec("start_time","Start Time (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null))
-            .field(new FieldSpec("end_time","End Time (YYYY-MM-DD HH:MM:SS)",InputType.DATETIME,true,null,null))
-            .field(new FieldSpec("personnel_count","Personnel Count",InputType.INT,true,null,null))
-            .field(new FieldSpec("notes","Notes",InputType.TEXT,true,null,null));
-    }
-    private TableSpec activityLogSpec(){ return new TableSpec("Activity_Log","log_id", true)
-            .readOnly(true)
-            .field(new FieldSpec("log_id","Log ID",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("table_name","Table",InputType.TEXT,true,null,null).readonly())
-            .field(new FieldSpec("action_type","Action",InputType.ENUM,true,"INSERT,UPDATE,DELETE",null).readonly())
-            .field(new FieldSpec("record_id","Record ID",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("action_timestamp","Timestamp",InputType.DATETIME,true,null,null).readonly());
-    }
-    private TableSpec supplyAuditSpec(){ return new TableSpec("Supply_Audit","audit_id", true)
-            .readOnly(true)
-            .field(new FieldSpec("audit_id","Audit ID",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("supply_id","Supply",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("change_qty","Change",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("new_qty","New Qty",InputType.INT,true,null,null).readonly())
-            .field(new FieldSpec("changed_on","Changed On",InputType.DATETIME,true,null,null).readonly())
-            .field(new FieldSpec("reason","Reason",InputType.TEXT,true,null,null).readonly());
-    }
-
-    // NEW: Transfer_Error_Log spec (read-only)
-    private TableSpec errorLogSpec(){
-        return new TableSpec("Transfer_Error_Log","log_id", true)
-                .readOnly(true)
-                .field(new FieldSpec("log_id","Log ID",InputType.INT,true,null,null).readonly())
-                .field(new FieldSpec("supply_id","Supply ID",InputType.INT,true,null,null).readonly())
-                .field(new FieldSpec("requested_qty","Requested Qty",InputType.INT,true,null,null).readonly())
-                .field(new FieldSpec("adjusted_qty","Adjusted Qty",InputType.INT,true,null,null).readonly())
-                .field(new FieldSpec("message","Message",InputType.TEXT,true,null,null).readonly())
-                .field(new FieldSpec("log_time","Log Time",InputType.DATETIME,true,null,null).readonly());
-    }
-
     // ---------- MANAGER WINDOW ----------
     class RecordManager extends JDialog {
         final TableSpec spec;
-        JTable grid; DefaultTableModel gridModel;
+        JTable grid; PagedTableModel gridModel;
         Map<String, JComponent> inputs = new LinkedHashMap<>();
+        final StatusBar status = new StatusBar();
+        QueryExecutor.QueryTask<?> gridTask;
+        Object selectedPk;      // kept across live reloads of the grid (ChangeFeed)
+        boolean restoring;
+        JButton editBtn, saveEditsBtn, discardEditsBtn;
+        boolean editing, savingEdits;   // edit-in-grid mode; a staged batch is being written
+        final Map<String, TableCellEditor> enumEditors = new HashMap<>();
+        static final Color STAGED = new Color(255, 244, 200);
 
         RecordManager(JFrame owner, TableSpec spec) {
             super(owner, "Manage " + spec.table, true);
@@ -493,6 +1067,15 @@ public class WayanadDBApp extends JFrame {
             loadGrid();
             setMinimumSize(new Dimension(1000, 680));
             setLocationRelativeTo(owner);
+            setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+            addWindowListener(new WindowAdapter() {
+                @Override public void windowClosing(WindowEvent e) {
+                    int n = gridModel.stagedRows();
+                    if (n > 0 && JOptionPane.showConfirmDialog(RecordManager.this, "Discard unsaved edits to " + n + " row(s)?",
+                            "Unsaved edits", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+                    dispose();
+                }
+            });
             pack(); // ensure actions visible
         }
 
@@ -529,12 +1112,30 @@ public class WayanadDBApp extends JFrame {
             JButton delBtn = createStyledButton("🗑 Delete");
             JButton clrBtn = createStyledButton("⟲ Clear");
             JButton refBtn = createStyledButton("🔄 Refresh");
-            if (spec.readOnly){ addBtn.setEnabled(false); updBtn.setEnabled(false); delBtn.setEnabled(false); }
-            actions.add(addBtn); actions.add(updBtn); actions.add(delBtn); actions.add(clrBtn); actions.add(refBtn);
-
-            // Grid
-            gridModel = new DefaultTableModel();
-            grid = new JTable(gridModel);
+            JButton impBtn = createStyledButton("📥 Import CSV");
+            editBtn = createStyledButton("✎ Edit in Grid");
+            saveEditsBtn = createStyledButton("💾 Save Edits");
+            discardEditsBtn = createStyledButton("↺ Discard Edits");
+            saveEditsBtn.setEnabled(false); discardEditsBtn.setEnabled(false);
+            if (spec.readOnly){ addBtn.setEnabled(false); updBtn.setEnabled(false); delBtn.setEnabled(false); impBtn.setEnabled(false); editBtn.setEnabled(false); }
+            actions.add(addBtn); actions.add(updBtn); actions.add(delBtn); actions.add(clrBtn); actions.add(refBtn); actions.add(impBtn);
+            actions.add(editBtn); actions.add(saveEditsBtn); actions.add(discardEditsBtn);
+
+            // Grid: staged (unsaved) cells are tinted; ENUM columns edit through a drop-down
+            gridModel = new PagedTableModel(spec.table, spec.pk, true);
+            grid = new JTable(gridModel) {
+                @Override public Component prepareRenderer(TableCellRenderer r, int row, int col) {
+                    Component c = super.prepareRenderer(r, row, col);
+                    if (!isRowSelected(row)) c.setBackground(((PagedTableModel) getModel()).isStaged(row, convertColumnIndexToModel(col)) ? STAGED : getBackground());
+                    return c;
+                }
+                @Override public TableCellEditor getCellEditor(int row, int col) {
+                    FieldSpec f = Records.field(spec, getColumnName(col));
+                    if (f == null || f.type != Schema.InputType.ENUM) return super.getCellEditor(row, col);
+                    return enumEditors.computeIfAbsent(f.name, k -> new DefaultCellEditor(new JComboBox<>(f.enumCSV.split("\\s*,\\s*"))));
+                }
+            };
+            follow(gridModel);
             grid.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
             JScrollPane sp = new JScrollPane(grid);
 
@@ -545,6 +1146,7 @@ public class WayanadDBApp extends JFrame {
 
             add(form, BorderLayout.NORTH);
             add(centerPanel, BorderLayout.CENTER);
+            add(status, BorderLayout.SOUTH);
 
             // Listeners
             addBtn.addActionListener(e -> doInsert());
@@ -552,9 +1154,16 @@ public class WayanadDBApp extends JFrame {
             delBtn.addActionListener(e -> doDelete());
             clrBtn.addActionListener(e -> clearForm());
             refBtn.addActionListener(e -> loadGrid());
+            impBtn.addActionListener(e -> doImport());
+            editBtn.addActionListener(e -> toggleGridEditing());
+            saveEditsBtn.addActionListener(e -> saveGridEdits());
+            discardEditsBtn.addActionListener(e -> { gridModel.discardStaged(); status.idle("Edits discarded"); });
 
             grid.getSelectionModel().addListSelectionListener(e -> {
-                if (!e.getValueIsAdjusting()) fillFormFromSelection();
+                if (e.getValueIsAdjusting() || restoring) return;
+                int sel = grid.getSelectedRow();
+                if (sel >= 0) selectedPk = gridModel.getValueAt(sel, gridModel.findColumn(spec.pk));
+                fillFormFromSelection();
             });
         }
 
@@ -566,7 +1175,8 @@ public class WayanadDBApp extends JFrame {
                 case DATE -> { JTextField tf = new JTextField(); tf.setToolTipText("YYYY-MM-DD"); return tf; }
                 case DATETIME -> { JTextField tf = new JTextField(); tf.setToolTipText("YYYY-MM-DD HH:MM:SS"); return tf; }
                 case FK -> {
-                    JComboBox<Item> cb = new JComboBox<>();
+                    JComboBox<Item> cb = new JComboBox<>(new FkLookup.FkComboModel());
+                    cb.setPrototypeDisplayValue(new Item(0, "0000000 - XXXXXXXXXXXXXXXXXXXX"));
                     cb.setRenderer(new DefaultListCellRenderer(){
                         @Override public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
                             super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
@@ -574,37 +1184,156 @@ public class WayanadDBApp extends JFrame {
                             return this;
                         }
                     });
-                    loadFK(cb, f.fkQuery); cb.setSelectedIndex(-1); return cb;
+                    loadFK(cb, f); return cb;
                 }
             }
             return new JTextField();
         }
 
-        private void loadFK(JComboBox<Item> cb, String query) {
-            if (query == null) return;
-            try (Connection con = getConnection(); Statement st = con.createStatement(); ResultSet rs = st.executeQuery(query)) {
-                while (rs.next()) cb.addItem(new Item(rs.getObject("id"), Objects.toString(rs.getObject("label"), "")));
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, "FK load failed: " + e.getMessage());
-            }
+        // shared, cached per FK query (FkLookup); parents above fk.eagerLimit rows get a type-ahead box instead
+        private void loadFK(JComboBox<Item> cb, FieldSpec f) {
+            if (f.fkQuery == null) return;
+            FkLookup.get(f.fkQuery).whenComplete((l, ex) -> SwingUtilities.invokeLater(() -> {
+                if (ex != null) {
+                    Throwable c = ex instanceof java.util.concurrent.CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(this, "FK load failed: " + c.getMessage());
+                    return;
+                }
+                cb.putClientProperty(FkLookup.KEY, l);
+                FkLookup.FkComboModel m = (FkLookup.FkComboModel) cb.getModel();
+                m.setItems(l.items);
+                if (!l.complete) FkLookup.enableTypeAhead(cb, l);
+                m.setSelectedItem(null);
+                // a row may have been picked while the list was still loading
+                int r = grid.getSelectedRow(), col = gridModel.findColumn(f.name);
+                if (r >= 0 && col >= 0) selectFK(cb, gridModel.getValueAt(r, col));
+            }));
         }
 
+        // newest first, paged by primary key (was SELECT * ... ORDER BY 1 DESC)
         private void loadGrid() {
-            gridModel.setRowCount(0); gridModel.setColumnCount(0);
-            try (Connection con = getConnection();
-                 Statement st = con.createStatement();
-                 ResultSet rs = st.executeQuery("SELECT * FROM " + spec.table + " ORDER BY 1 DESC")) {
-                ResultSetMetaData m = rs.getMetaData();
-                int c = m.getColumnCount();
-                for (int i=1;i<=c;i++) gridModel.addColumn(m.getColumnName(i));
-                while (rs.next()) {
-                    Object[] row = new Object[c];
-                    for (int i=1;i<=c;i++) row[i-1]=rs.getObject(i);
-                    gridModel.addRow(row);
-                }
-            } catch (SQLException e) {
+            if (gridTask != null) gridTask.abort();
+            status.busy("Loading " + spec.table + "…");
+            PagedTableModel m = new PagedTableModel(spec.table, spec.pk, true);
+            gridTask = m.open(() -> {
+                m.adoptEdits(gridModel);
+                gridModel.close();
+                gridModel = m; grid.setModel(m);
+                follow(m);
+                status.idle((m.exactCount() ? "" : "~") + m.getRowCount() + " rows");
+            }, e -> {
+                status.idle("Load failed");
                 JOptionPane.showMessageDialog(this, "Load failed: " + e.getMessage());
+            });
+        }
+
+        // Rows changed elsewhere reset the model's pages; put the selection back once its row is loaded again,
+        // without refilling the form the user may be editing.
+        private void follow(PagedTableModel m) {
+            m.addTableModelListener(e -> showStaged(m));
+            m.addTableModelListener(e -> SwingUtilities.invokeLater(() -> {
+                if (m != gridModel || selectedPk == null || grid.getSelectedRow() >= 0) return;
+                int r = m.rowOf(selectedPk);
+                if (r < 0) return;
+                restoring = true;
+                try { grid.setRowSelectionInterval(r, r); } finally { restoring = false; }
+            }));
+        }
+
+        // ---------- EDIT IN GRID ----------
+        // Cells edited in the grid are staged by the model and written together by Save Edits.
+        private void toggleGridEditing() {
+            if (grid.isEditing()) grid.getCellEditor().stopCellEditing();
+            editing = !editing;
+            editBtn.setText(editing ? "✎ Editing in Grid" : "✎ Edit in Grid");
+            if (!savingEdits) gridModel.setEditable(editing ? editableColumns() : List.of());
+            status.idle(editing ? "Double-click a cell to edit; changes are kept until Save Edits" : " ");
+        }
+
+        private List<String> editableColumns() {
+            List<String> cols = new ArrayList<>();
+            for (FieldSpec f : Records.updatable(spec)) cols.add(f.name);
+            return cols;
+        }
+
+        private void showStaged(PagedTableModel m) {
+            if (m != gridModel) return;
+            int n = m.stagedRows();
+            saveEditsBtn.setEnabled(n > 0 && !savingEdits);
+            discardEditsBtn.setEnabled(n > 0 && !savingEdits);
+            saveEditsBtn.setText(n > 0 ? "💾 Save Edits (" + n + ")" : "💾 Save Edits");
+        }
+
+        // Validates every staged cell as its FieldSpec type, then writes all rows in one transaction (Records.updateAll)
+        // and patches the saved values into the grid instead of reloading it.
+        private void saveGridEdits() {
+            if (grid.isEditing() && !grid.getCellEditor().stopCellEditing()) return;
+            Map<Object, Map<String, Object>> staged = gridModel.staged();
+            if (staged.isEmpty() || savingEdits) return;
+            if (WriteJournal.enabled() && WriteJournal.shared().pending() > 0) {
+                JOptionPane.showMessageDialog(this, WriteJournal.shared().pending() + " earlier change(s) are still waiting for the database;"
+                        + "\nsave the grid edits once they have been applied.");
+                return;
             }
+            List<Records.Edit> edits = new ArrayList<>(staged.size());
+            List<String> errors = new ArrayList<>();
+            staged.forEach((pk, cells) -> {
+                List<FieldSpec> fields = new ArrayList<>(); List<Object> values = new ArrayList<>();
+                cells.forEach((col, raw) -> {
+                    FieldSpec f = Records.field(spec, col);
+                    try {
+                        values.add(Records.parse(f, raw == null ? null : raw.toString(), f.nullable));
+                        fields.add(f);
+                    } catch (IllegalArgumentException ex) {
+                        errors.add(spec.pk + " " + pk + ": " + ex.getMessage());
+                    }
+                });
+                edits.add(new Records.Edit(pk, fields, values));
+            });
+            if (!errors.isEmpty()) {
+                String shown = String.join("\n", errors.subList(0, Math.min(15, errors.size())));
+                JOptionPane.showMessageDialog(this, "Nothing saved; fix these first:\n" + shown
+                        + (errors.size() > 15 ? "\n… and " + (errors.size() - 15) + " more" : ""));
+                return;
+            }
+            savingEdits = true;
+            gridModel.setEditable(List.of());
+            showStaged(gridModel);
+            status.busy("Saving " + edits.size() + " row(s)…");
+            long t0 = System.nanoTime();
+            QueryExecutor.shared().<Integer>submit(QueryMetrics.as("crud", (con, task) -> Records.updateAll(con, spec, edits)), n -> {
+                Map<Object, Map<String, Object>> saved = new LinkedHashMap<>();
+                for (Records.Edit e : edits) saved.put(e.pk(), typedCells(e.fields(), e.values()));
+                savingEdits = false;
+                gridModel.applyCommitted(saved);
+                gridModel.setEditable(editing ? editableColumns() : List.of());
+                showStaged(gridModel);
+                status.idle("Updated " + n + " row(s) in one transaction, " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+            }, ex -> {
+                savingEdits = false;
+                gridModel.setEditable(editing ? editableColumns() : List.of());
+                showStaged(gridModel);
+                status.idle("Nothing saved");
+                JOptionPane.showMessageDialog(this, "Update failed, nothing was saved: " + ex.getMessage());
+            });
+        }
+
+        private static Map<String, Object> typedCells(List<FieldSpec> fields, List<Object> values) {
+            Map<String, Object> cells = new LinkedHashMap<>();
+            for (int i=0;i<fields.size();i++) cells.put(fields.get(i).name, Records.typedValue(fields.get(i), values.get(i)));
+            return cells;
+        }
+
+        // a form update changes one known row: patch it in place rather than reloading the grid
+        private void afterWrite(DataEvents.Op op, Object pk, List<FieldSpec> fields, List<Object> values) {
+            if (op == DataEvents.Op.UPDATE) gridModel.applyCommitted(Map.of(pk, typedCells(fields, values)));
+            else loadGrid();
+        }
+
+        @Override public void dispose() {
+            if (gridTask != null) gridTask.abort();
+            gridModel.close();
+            super.dispose();
         }
 
         private void clearForm() {
@@ -614,6 +1343,7 @@ public class WayanadDBApp extends JFrame {
                 else if (comp instanceof JComboBox<?> cb) cb.setSelectedIndex(-1);
                 else if (comp instanceof JCheckBox ch) ch.setSelected(false);
             }
+            selectedPk = null;
             grid.clearSelection();
         }
 
@@ -635,39 +1365,21 @@ public class WayanadDBApp extends JFrame {
                 } catch (Exception ignore) {}
             }
         }
+        // O(1) via the lookup's id map (setSelectedItem on the model skips JComboBox's linear scan)
         private void selectFK(JComboBox<Item> cb, Object id) {
-            for (int i=0;i<cb.getItemCount();i++) {
-                Item it = cb.getItemAt(i);
-                if (Objects.equals(String.valueOf(it.id), String.valueOf(id))) { cb.setSelectedIndex(i); return; }
-            }
-            cb.setSelectedIndex(-1);
+            ComboBoxModel<Item> m = cb.getModel();
+            if (!(cb.getClientProperty(FkLookup.KEY) instanceof FkLookup.Lookup l) || id == null) { m.setSelectedItem(null); return; }
+            Item it = l.find(id);
+            if (it != null || l.complete) { m.setSelectedItem(it); return; }
+            m.setSelectedItem(null);
+            int row = grid.getSelectedRow();
+            FkLookup.resolve(l, id, found -> { if (grid.getSelectedRow() == row) m.setSelectedItem(found); });
         }
 
         private void doInsert() {
             if (spec.readOnly) return;
-            try (Connection con = getConnection()) {
-                List<FieldSpec> insertables = new ArrayList<>();
-                for (FieldSpec f : spec.fields) {
-                    if (f.readonly) continue;
-                    if (f.name.equals(spec.pk) && spec.pkAuto) continue;
-                    insertables.add(f);
-                }
-                StringBuilder cols = new StringBuilder();
-                StringBuilder qs = new StringBuilder();
-                for (int i=0;i<insertables.size();i++) {
-                    cols.append(insertables.get(i).name); qs.append("?");
-                    if (i<insertables.size()-1) { cols.append(","); qs.append(","); }
-                }
-                String sql = "INSERT INTO " + spec.table + " (" + cols + ") VALUES (" + qs + ")";
-                try (PreparedStatement ps = con.prepareStatement(sql)) {
-                    setParams(ps, insertables);
-                    int n = ps.executeUpdate();
-                    JOptionPane.showMessageDialog(this, "Inserted " + n + " row(s).");
-                    loadGrid();
-                }
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(this, "Insert failed: " + ex.getMessage());
-            }
+            List<FieldSpec> insertables = Records.insertable(spec);
+            runWrite(DataEvents.Op.INSERT, null, insertables, (con, values) -> { Records.insert(con, spec, insertables, values); return 1; }, "Inserted ", "Insert failed: ");
         }
 
         private void doUpdate() {
@@ -675,25 +1387,8 @@ public class WayanadDBApp extends JFrame {
             int r = grid.getSelectedRow();
             if (r < 0) { JOptionPane.showMessageDialog(this, "Select a row to update."); return; }
             Object pkVal = gridModel.getValueAt(r, gridModel.findColumn(spec.pk));
-            try (Connection con = getConnection()) {
-                List<FieldSpec> updatable = new ArrayList<>();
-                for (FieldSpec f : spec.fields) if (!f.readonly && !f.name.equals(spec.pk)) updatable.add(f);
-                StringBuilder set = new StringBuilder();
-                for (int i=0;i<updatable.size();i++) {
-                    set.append(updatable.get(i).name).append("=?");
-                    if (i<updatable.size()-1) set.append(",");
-                }
-                String sql = "UPDATE " + spec.table + " SET " + set + " WHERE " + spec.pk + "=?";
-                try (PreparedStatement ps = con.prepareStatement(sql)) {
-                    int idx = setParams(ps, updatable);
-                    ps.setObject(idx+1, pkVal);
-                    int n = ps.executeUpdate();
-                    JOptionPane.showMessageDialog(this, "Updated " + n + " row(s).");
-                    loadGrid();
-                }
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(this, "Update failed: " + ex.getMessage());
-            }
+            List<FieldSpec> updatable = Records.updatable(spec);
+            runWrite(DataEvents.Op.UPDATE, pkVal, updatable, (con, values) -> Records.update(con, spec, pkVal, updatable, values), "Updated ", "Update failed: ");
         }
 
         private void doDelete() {
@@ -703,33 +1398,108 @@ public class WayanadDBApp extends JFrame {
             Object pkVal = gridModel.getValueAt(r, gridModel.findColumn(spec.pk));
             if (JOptionPane.showConfirmDialog(this, "Delete " + spec.table + " where " + spec.pk + "=" + pkVal + " ?",
                     "Confirm", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) return;
-            try (Connection con = getConnection();
-                 PreparedStatement ps = con.prepareStatement("DELETE FROM " + spec.table + " WHERE " + spec.pk + "=?")) {
-                ps.setObject(1, pkVal);
-                int n = ps.executeUpdate();
-                JOptionPane.showMessageDialog(this, "Deleted " + n + " row(s).");
-                loadGrid();
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(this, "Delete failed: " + ex.getMessage());
+            runWrite(DataEvents.Op.DELETE, pkVal, List.of(), (con, values) -> Records.delete(con, spec, pkVal), "Deleted ", "Delete failed: ");
+        }
+
+        // Spreadsheet intake: batched, validated against this spec, bad rows written to <file>.rejects.csv
+        private void doImport() {
+            if (spec.readOnly) return;
+            JFileChooser fc = new JFileChooser();
+            fc.setDialogTitle("Import CSV into " + spec.table);
+            if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            java.nio.file.Path file = fc.getSelectedFile().toPath();
+            status.busy("Importing " + file.getFileName() + "…");
+            QueryExecutor.shared().<BulkImporter.Result>submit(
+                    QueryMetrics.as("import", (con, task) -> BulkImporter.importCsv(con, task, spec, file)),
+                    chunks -> status.busy("Importing " + file.getFileName() + "… " + chunks.get(chunks.size() - 1) + " rows"),
+                    res -> {
+                        String msg = "Imported " + res.inserted() + " of " + res.read() + " rows into " + spec.table
+                                + " (" + res.rowsPerSecond() + " rows/s)";
+                        status.idle(msg);
+                        if (res.rejects() != null) msg += "\n" + res.rejected() + " rejected row(s) written to " + res.rejects();
+                        JOptionPane.showMessageDialog(this, msg);
+                        loadGrid();
+                    }, ex -> {
+                        status.idle("Import failed");
+                        JOptionPane.showMessageDialog(this, "Import failed: " + ex.getMessage());
+                        loadGrid();
+                    });
+        }
+
+        @FunctionalInterface
+        private interface Write { int run(Connection con, List<Object> values) throws SQLException; }
+
+        // Form values are read here on the EDT; the statement itself runs on a worker (see Records).
+        // With the journal on, the write is journaled locally first and survives a dropped link (see WriteJournal).
+        private void runWrite(DataEvents.Op op, Object pk, List<FieldSpec> fields, Write write, String okPrefix, String errPrefix) {
+            List<Object> values;
+            try { values = readValues(fields); }
+            catch (SQLException ex) { JOptionPane.showMessageDialog(this, errPrefix + ex.getMessage()); return; }
+            if (WriteJournal.enabled()) { journalWrite(op, pk, fields, values, okPrefix, errPrefix); return; }
+            status.busy("Saving…");
+            QueryExecutor.shared().<Integer>submit(QueryMetrics.as("crud", (con, task) -> write.run(con, values)), n -> {
+                status.idle(okPrefix + n + " row(s).");
+                JOptionPane.showMessageDialog(this, okPrefix + n + " row(s).");
+                afterWrite(op, pk, fields, values);
+            }, ex -> {
+                status.idle(" ");
+                JOptionPane.showMessageDialog(this, errPrefix + ex.getMessage());
+            });
+        }
+
+        private void journalWrite(DataEvents.Op op, Object pk, List<FieldSpec> fields, List<Object> values, String okPrefix, String errPrefix) {
+            WriteJournal journal;
+            WriteJournal.Entry entry;
+            try {
+                journal = WriteJournal.shared();
+                entry = journal.append(spec, op, pk, fields, values);
+            } catch (IOException | RuntimeException ex) {
+                JOptionPane.showMessageDialog(this, errPrefix + ex.getMessage());
+                return;
+            }
+            if (journal.writeBehind) {
+                journal.flushSoon();
+                status.idle("Saved locally · " + journal.pending() + " change(s) waiting for the database");
+                return;
             }
+            status.busy("Saving…");
+            journal.flush(entry).whenComplete((r, ex) -> SwingUtilities.invokeLater(() -> {
+                if (ex != null) {
+                    status.idle(" ");
+                    JOptionPane.showMessageDialog(this, errPrefix + ex.getMessage());
+                    return;
+                }
+                switch (r.outcome()) {
+                    case APPLIED -> {
+                        status.idle(okPrefix + r.rows() + " row(s).");
+                        JOptionPane.showMessageDialog(this, okPrefix + r.rows() + " row(s).");
+                        afterWrite(op, pk, fields, values);
+                    }
+                    case CONFLICT -> {
+                        status.idle(" ");
+                        JOptionPane.showMessageDialog(this, errPrefix + r.message());
+                    }
+                    case DEFERRED -> {
+                        String msg = "Database unreachable (" + r.message() + ").\nSaved locally: " + journal.pending()
+                                + " change(s) will be sent when the connection returns.";
+                        status.idle("Saved offline · " + journal.pending() + " change(s) waiting for the database");
+                        JOptionPane.showMessageDialog(this, msg);
+                    }
+                }
+            }));
         }
 
-        private int setParams(PreparedStatement ps, List<FieldSpec> fields) throws SQLException {
-            int idx=1;
+        private List<Object> readValues(List<FieldSpec> fields) throws SQLException {
+            List<Object> values = new ArrayList<>(fields.size());
             for (FieldSpec f : fields) {
                 Object v = readInputValue(f);
                 if (v == null && !f.nullable) throw new SQLException("Field '" + f.label + "' is required.");
-                switch (f.type) {
-                    case INT -> { if (v==null) ps.setNull(idx++, Types.INTEGER); else ps.setInt(idx++, Integer.parseInt(v.toString())); }
-                    case DECIMAL -> { if (v==null) ps.setNull(idx++, Types.DECIMAL); else ps.setBigDecimal(idx++, new BigDecimal(v.toString())); }
-                    case BOOL -> { if (v==null) ps.setNull(idx++, Types.TINYINT); else ps.setBoolean(idx++, (Boolean)v); }
-                    case DATE, DATETIME, TEXT, ENUM -> { if (v==null) ps.setNull(idx++, Types.VARCHAR); else ps.setString(idx++, v.toString()); }
-                    case FK -> { if (v==null) ps.setNull(idx++, Types.INTEGER); else ps.setObject(idx++, ((Item)v).id); }
-                }
+                values.add(v);
             }
-            return idx-1;
+            return values;
         }
 
+        private static final Pattern LEADING_ID = Pattern.compile("^\\s*(\\d+)");
         private Object readInputValue(FieldSpec f) {
             JComponent c = inputs.get(f.name);
             switch (f.type) {
@@ -742,24 +1512,51 @@ public class WayanadDBApp extends JFrame {
                     return cb.getSelectedItem() == null ? null : cb.getSelectedItem().toString();
                 }
                 case BOOL -> { JCheckBox ch = (JCheckBox) c; return ch.isSelected(); }
-                case FK -> { @SuppressWarnings("unchecked") JComboBox<Item> cb = (JComboBox<Item>) c; return cb.getSelectedItem(); }
+                case FK -> {
+                    Object sel = ((JComboBox<?>) c).getSelectedItem();
+                    if (sel instanceof String s) { // typed into a type-ahead box: accept a leading id
+                        Matcher m = LEADING_ID.matcher(s);
+                        return m.find() ? new Item(Long.parseLong(m.group(1)), s) : null;
+                    }
+                    return sel;
+                }
             }
             return null;
         }
     }
 
-    // FK item holder
-    static class Item {
-        final Object id; final String label;
-        Item(Object id, String label){ this.id=id; this.label=label; }
-        public String toString(){ return label; }
+    // Status line with a busy indicator (replaces the old "Loaded N rows" popups)
+    static class StatusBar extends JPanel {
+        final JLabel text = new JLabel(" ");
+        final JProgressBar bar = new JProgressBar();
+        StatusBar() {
+            super(new BorderLayout(8, 0));
+            setBorder(BorderFactory.createEmptyBorder(3, 8, 3, 8));
+            bar.setPreferredSize(new Dimension(160, 14));
+            bar.setVisible(false);
+            add(text, BorderLayout.CENTER); add(bar, BorderLayout.EAST);
+        }
+        void busy(String msg) { text.setText(msg); bar.setIndeterminate(true); bar.setVisible(true); }
+        void idle(String msg) { text.setText(msg); bar.setIndeterminate(false); bar.setVisible(false); }
     }
 
     // ---------- MAIN ----------
     public static void main(String[] args) {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
-            SwingUtilities.invokeLater(() -> new WayanadDBApp(true).setVisible(true));
+            SwingUtilities.invokeLater(() -> {
+                new WayanadDBApp(true).setVisible(true);
+                if (DbConfig.get().bool("nameIndex.enabled", true)) NameIndex.shared().startLoading();
+                Statistics.shared(); // first count loads in the background before the screen is opened
+                Reports.shared();    // rollups build in the background too
+                CampOccupancy.shared();
+                if (DbConfig.get().bool("match.enabled", true)) Reunification.shared(); // match queue builds in the background
+            });
+            LocalReplica.shared(); // last session's reference tables, then a background sync
+            if (WriteJournal.enabled()) WriteJournal.shared(); // replays writes left over from an offline session
+            ChangeFeed.start(); // open grids, FK lists and counts follow writes made by other clients
+            int metricsPort = DbConfig.get().integer("metrics.port", 0);
+            if (metricsPort > 0) QueryMetrics.serve(DbConfig.get().str("metrics.host", "127.0.0.1"), metricsPort);
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(null, "Failed to start application:\n" + e.getMessage());
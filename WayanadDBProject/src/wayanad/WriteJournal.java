@@ -0,0 +1,383 @@
+package wayanad;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import wayanad.Schema.FieldSpec;
+import wayanad.Schema.TableSpec;
+
+/**
+ * Local write-ahead journal for record-manager writes, so data entry survives a dropped MySQL link.
+ *
+ * Every insert/update/delete from a form is first appended to {@code journal.dir/writes.jsonl} (one JSON
+ * line, forced to disk when {@code journal.fsync}) and then replayed to MySQL by a single journal thread:
+ * in order, {@code journal.batchSize} entries per transaction, each under a savepoint. An entry's
+ * idempotency key is inserted into {@code Journal_Applied} in the same transaction as the write, so an
+ * entry replayed again after a crash or a lost commit acknowledgement is skipped rather than applied twice.
+ *
+ * - link failures, pool timeouts, deadlocks: the batch is rolled back and retried every {@code journal.retrySec}
+ * - any other error (constraint, trigger, missing row): the entry is dropped and reported as a {@link Conflict},
+ *   both in memory and appended to {@code journal.dir/conflicts.jsonl}
+ *
+ * {@code journal.pos} records how far the journal has been applied; the file is truncated once it is drained.
+ * By default ({@code journal.writeBehind=true}) forms return as soon as the entry is on disk and never wait for
+ * MySQL; conflicts then show up on the dashboard. With {@code false} a form waits for its own entry to be
+ * replayed, so a conflict is reported to it directly, at the cost of waiting out the link (up to
+ * {@code pool.borrowTimeoutMs} when it is down).
+ */
+final class WriteJournal {
+
+    enum Outcome { APPLIED, CONFLICT, DEFERRED }
+
+    /** One journaled write; {@code values} are typed as in {@link DataEvents.RowChange} (FKs as raw ids). */
+    record Entry(String key, long at, String table, DataEvents.Op op, Object pk, Map<String, Object> values) {}
+
+    /** What became of an entry; {@code rows} as from the JDBC update count, {@code pk} of an applied insert. */
+    record Result(Outcome outcome, int rows, Object pk, String message) {}
+
+    record Conflict(long at, Entry entry, String reason) {}
+
+    private static final int CONFLICTS_KEPT = 200;
+    private static final String DDL = "CREATE TABLE IF NOT EXISTS Journal_Applied ("
+            + "write_key CHAR(36) PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private static volatile WriteJournal shared;
+
+    static WriteJournal shared() {
+        WriteJournal j = shared;
+        if (j == null) {
+            synchronized (WriteJournal.class) {
+                if (shared == null) {
+                    try { shared = new WriteJournal(DbConfig.get()); }
+                    catch (IOException e) { throw new IllegalStateException("Could not open the write journal: " + e.getMessage(), e); }
+                    Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "wayanad-journal-shutdown"));
+                }
+                j = shared;
+            }
+        }
+        return j;
+    }
+
+    /** Off with {@code journal.enabled=false}: record managers then write straight to MySQL as before. */
+    static boolean enabled() { return DbConfig.get().bool("journal.enabled", true); }
+
+    // ---------- STATE ----------
+    final boolean writeBehind;
+    private final boolean fsync;
+    private final int batchSize, keepKeysDays;
+    private final Path file, posFile, conflictFile;
+    private final FileChannel channel;
+    private final ScheduledExecutorService replayer;
+    private final Deque<Pending> queue = new ArrayDeque<>();      // guarded by this
+    private final Map<String, CompletableFuture<Result>> waiters = new ConcurrentHashMap<>();
+    private final Deque<Conflict> conflicts = new ArrayDeque<>();   // guarded by itself
+    private long appliedPos;                                        // guarded by this
+    private boolean tableReady;                                     // replayer thread only
+    private volatile long lastReplayAt;
+    private volatile String lastError;
+
+    private record Pending(Entry entry, long end) {}
+
+    private WriteJournal(DbConfig cfg) throws IOException {
+        this.writeBehind = cfg.bool("journal.writeBehind", true);
+        this.fsync = cfg.bool("journal.fsync", true);
+        this.batchSize = Math.max(1, cfg.integer("journal.batchSize", 200));
+        this.keepKeysDays = cfg.integer("journal.keepKeysDays", 30);
+        Path dir = Path.of(cfg.str("journal.dir", "journal"));
+        Files.createDirectories(dir);
+        file = dir.resolve("writes.jsonl");
+        posFile = dir.resolve("journal.pos");
+        conflictFile = dir.resolve("conflicts.jsonl");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+
+        replayer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wayanad-journal"); t.setDaemon(true); return t;
+        });
+        long retry = Math.max(1, cfg.integer("journal.retrySec", 5));
+        replayer.scheduleWithFixedDelay(this::replay, 0, retry, TimeUnit.SECONDS);
+    }
+
+    // Reloads unapplied entries; a torn last line (crash mid-append) is cut off.
+    private void recover() throws IOException {
+        long pos = 0;
+        if (Files.isRegularFile(posFile)) {
+            try { pos = Long.parseLong(Files.readString(posFile).trim()); }
+            catch (NumberFormatException e) { System.err.println("[journal] ignoring unreadable " + posFile); }
+        }
+        long size = channel.size();
+        if (pos > size) pos = 0;
+        ByteBuffer buf = ByteBuffer.allocate((int) (size - pos));
+        while (buf.hasRemaining() && channel.read(buf, pos + buf.position()) >= 0) {}
+        byte[] bytes = buf.array();
+        int start = 0;
+        for (int i=0;i<bytes.length;i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            try { queue.add(new Pending(decode(line), pos + i + 1)); }
+            catch (RuntimeException e) { System.err.println("[journal] skipping unreadable entry at byte " + (pos + start) + ": " + e.getMessage()); }
+            start = i + 1;
+        }
+        if (start < bytes.length) {
+            System.err.println("[journal] discarding " + (bytes.length - start) + " bytes of an incomplete entry");
+            channel.truncate(pos + start);
+        }
+        appliedPos = pos;
+        channel.position(channel.size());
+        if (!queue.isEmpty()) System.out.println("[journal] " + queue.size() + " write(s) waiting to be replayed");
+    }
+
+    // ---------- APPEND ----------
+    /** Journals a write (durably, before returning); it is replayed by {@link #flush} or the retry timer. */
+    Entry append(TableSpec spec, DataEvents.Op op, Object pk, List<FieldSpec> fields, List<Object> values) throws IOException {
+        DataEvents.RowChange typed = Records.rowChange(spec, op, pk, fields, values);
+        Entry e = new Entry(UUID.randomUUID().toString(), System.currentTimeMillis(), spec.table, op,
+                op == DataEvents.Op.INSERT ? null : typed.pk(), typed.values());
+        ByteBuffer buf = ByteBuffer.wrap((encode(e) + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            while (buf.hasRemaining()) channel.write(buf);
+            if (fsync) channel.force(false);
+            queue.add(new Pending(e, channel.position()));
+        }
+        return e;
+    }
+
+    /** Replays everything up to and including {@code e} now; completes with the entry's {@link Result}. */
+    CompletableFuture<Result> flush(Entry e) {
+        CompletableFuture<Result> f = new CompletableFuture<>();
+        waiters.put(e.key(), f);
+        replayer.execute(this::replay);
+        return f;
+    }
+
+    /** Starts a replay without waiting for it (write-behind). */
+    void flushSoon() { replayer.execute(this::replay); }
+
+    synchronized int pending() { return queue.size(); }
+    long lastReplayAt() { return lastReplayAt; }
+    /** Why the last replay stopped, or null once it got through. */
+    String lastError() { return lastError; }
+
+    List<Conflict> conflicts() {
+        synchronized (conflicts) { return new ArrayList<>(conflicts); }
+    }
+
+    // ---------- REPLAY ----------
+    private void replay() {
+        if (pending() == 0) return;
+        QueryMetrics.Scope label = QueryMetrics.label("journal");
+        try (Connection con = ConnectionPool.shared().getConnection()) {
+            prepare(con);
+            List<Pending> batch;
+            while (!(batch = next()).isEmpty()) {
+                List<Result> results = applyBatch(con, batch);
+                advance(batch, results);
+            }
+            lastReplayAt = System.currentTimeMillis();
+            lastError = null;
+        } catch (SQLException e) {
+            if (!retryable(e)) System.err.println("[journal] replay failed: " + e);
+            lastError = e.getMessage();
+            Result deferred = new Result(Outcome.DEFERRED, 0, null, e.getMessage());
+            for (CompletableFuture<Result> f : waiters.values()) f.complete(deferred);
+            waiters.clear();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[journal] replay failed: " + e);
+            lastError = e.toString();
+            for (CompletableFuture<Result> f : waiters.values()) f.completeExceptionally(e);
+            waiters.clear();
+        } finally {
+            label.close();
+        }
+    }
+
+    private void prepare(Connection con) throws SQLException {
+        if (tableReady) return;
+        try (Statement st = con.createStatement()) {
+            st.execute(DDL);
+            if (keepKeysDays > 0) {
+                Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(keepKeysDays));
+                try (PreparedStatement ps = con.prepareStatement("DELETE FROM Journal_Applied WHERE applied_at < ?")) {
+                    ps.setTimestamp(1, cutoff);
+                    ps.executeUpdate();
+                }
+            }
+        }
+        tableReady = true;
+    }
+
+    private synchronized List<Pending> next() {
+        List<Pending> out = new ArrayList<>(Math.min(batchSize, queue.size()));
+        for (Pending p : queue) { if (out.size() == batchSize) break; out.add(p); }
+        return out;
+    }
+
+    // One transaction; a failing entry is rolled back to its savepoint, a lost link aborts the whole batch.
+    // Events are published only after the commit, and only for entries that were not rolled back.
+    private List<Result> applyBatch(Connection con, List<Pending> batch) throws SQLException {
+        List<Result> results = new ArrayList<>(batch.size());
+        List<DataEvents.RowChange> changes = new ArrayList<>();
+        con.setAutoCommit(false);
+        try {
+            for (Pending p : batch) {
+                Savepoint sp = con.setSavepoint();
+                List<DataEvents.RowChange> entryChanges = new ArrayList<>(1);
+                try {
+                    results.add(apply(con, p.entry(), entryChanges::add));
+                    changes.addAll(entryChanges);
+                } catch (SQLException e) {
+                    if (retryable(e)) throw e;
+                    con.rollback(sp);
+                    results.add(new Result(Outcome.CONFLICT, 0, null, e.getMessage()));
+                }
+            }
+            con.commit();
+        } catch (SQLException | RuntimeException e) {
+            try { con.rollback(); } catch (SQLException ignore) {}
+            throw e;
+        } finally {
+            try { con.setAutoCommit(true); } catch (SQLException ignore) {}
+        }
+        for (DataEvents.RowChange c : changes) DataEvents.publish(c);
+        return results;
+    }
+
+    private static Result apply(Connection con, Entry e, DataEvents.Listener events) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO Journal_Applied (write_key) VALUES (?)")) {
+            ps.setString(1, e.key());
+            ps.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException dup) {
+            return new Result(Outcome.APPLIED, 0, e.pk(), "already applied");
+        }
+        TableSpec spec = Schema.spec(e.table());
+        if (spec == null) throw new SQLException("Unknown table " + e.table());
+        List<FieldSpec> fields = new ArrayList<>(e.values().size());
+        List<Object> values = new ArrayList<>(e.values().size());
+        for (Map.Entry<String, Object> v : e.values().entrySet()) {
+            FieldSpec f = Records.field(spec, v.getKey());
+            if (f == null) throw new SQLException("Unknown column " + e.table() + "." + v.getKey());
+            fields.add(f); values.add(v.getValue());
+        }
+        return switch (e.op()) {
+            case INSERT -> new Result(Outcome.APPLIED, 1, Records.insert(con, spec, fields, values, events), null);
+            case UPDATE -> {
+                int n = Records.update(con, spec, e.pk(), fields, values, events);
+                if (n == 0) throw new SQLException(spec.table + " " + spec.pk + "=" + e.pk() + " no longer exists");
+                yield new Result(Outcome.APPLIED, n, e.pk(), null);
+            }
+            case DELETE -> new Result(Outcome.APPLIED, Records.delete(con, spec, e.pk(), events), e.pk(), null);
+        };
+    }
+
+    // Drops the applied batch from the queue, persists the position and reports results and conflicts.
+    private void advance(List<Pending> batch, List<Result> results) throws IOException {
+        StringBuilder log = new StringBuilder();
+        for (int i=0;i<batch.size();i++) {
+            Entry e = batch.get(i).entry();
+            Result r = results.get(i);
+            if (r.outcome() == Outcome.CONFLICT) {
+                Conflict c = new Conflict(System.currentTimeMillis(), e, r.message());
+                synchronized (conflicts) {
+                    conflicts.addFirst(c);
+                    while (conflicts.size() > CONFLICTS_KEPT) conflicts.removeLast();
+                }
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("at", new Timestamp(c.at()).toString());
+                line.put("reason", c.reason());
+                line.put("entry", Json.parse(encode(e)));
+                log.append(Json.write(line)).append('\n');
+                System.err.println("[journal] conflict: " + e.op() + " " + e.table() + (e.pk() == null ? "" : " " + e.pk()) + ": " + c.reason());
+            }
+        }
+        if (log.length() > 0) Files.writeString(conflictFile, log, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        // The position is persisted under the lock: once the file is truncated, no append may land before
+        // journal.pos says 0, or recovery after a crash would start reading from the old offset.
+        synchronized (this) {
+            for (int i=0;i<batch.size();i++) queue.removeFirst();
+            if (queue.isEmpty()) {
+                channel.truncate(0);
+                channel.position(0);
+                if (fsync) channel.force(true);
+                appliedPos = 0;
+            } else {
+                appliedPos = batch.get(batch.size() - 1).end();
+            }
+            writePos(appliedPos);
+        }
+
+        for (int i=0;i<batch.size();i++) {
+            CompletableFuture<Result> f = waiters.remove(batch.get(i).entry().key());
+            if (f != null) f.complete(results.get(i));
+        }
+    }
+
+    private void writePos(long pos) throws IOException {
+        Path tmp = posFile.resolveSibling(posFile.getFileName() + ".tmp");
+        try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(Long.toString(pos).getBytes(StandardCharsets.US_ASCII));
+            while (buf.hasRemaining()) c.write(buf);
+            if (fsync) c.force(false);
+        }
+        Files.move(tmp, posFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Errors worth retrying later: lost link, pool timeout, deadlock or lock wait (not bad data). */
+    static boolean retryable(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof SQLRecoverableException || t instanceof SQLTransientException
+                    || t instanceof SQLNonTransientConnectionException) return true;
+            if (t instanceof SQLException s && s.getSQLState() != null && s.getSQLState().startsWith("08")) return true;
+        }
+        return false;
+    }
+
+    private void close() {
+        replayer.shutdownNow();
+        synchronized (this) {
+            try { channel.close(); } catch (IOException ignore) {}
+        }
+    }
+
+    // ---------- ENCODING ----------
+    private static String encode(Entry e) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("key", e.key());
+        m.put("at", e.at());
+        m.put("table", e.table());
+        m.put("op", e.op().name());
+        m.put("pk", e.pk());
+        m.put("values", e.values());
+        return Json.write(m);
+    }
+
+    // Json reads numbers as BigDecimal; ids go back to Long so they bind and compare like form values.
+    private static Entry decode(String line) {
+        if (!(Json.parse(line) instanceof Map<?, ?> m)) throw new IllegalArgumentException("not a JSON object");
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (m.get("values") instanceof Map<?, ?> vs) vs.forEach((k, v) -> values.put(String.valueOf(k), id(v)));
+        return new Entry(String.valueOf(m.get("key")), ((BigDecimal) m.get("at")).longValue(), String.valueOf(m.get("table")),
+                DataEvents.Op.valueOf(String.valueOf(m.get("op"))), id(m.get("pk")), values);
+    }
+
+    private static Object id(Object v) {
+        if (v instanceof BigDecimal d && d.scale() <= 0) {
+            try { return d.longValueExact(); } catch (ArithmeticException ignore) {}
+        }
+        return v;
+    }
+}
@@ -122,6 +122,7 @@ CREATE TABLE RehabAllocation (
   house_id VARCHAR(100),
   allocation_date DATE,
   amount_granted DECIMAL(12,2),
+  allocation_round VARCHAR(64),
   FOREIGN KEY (victim_id) REFERENCES Victim(victim_id)
 );
 
@@ -154,6 +155,59 @@ CREATE TABLE Transfer_Error_Log (
   FOREIGN KEY (supply_id) REFERENCES Supply(supply_id)
 );
 
+-- =========================================================
+-- 1b) SEARCH INDEXES (used by the viewer search, SearchEngine.java)
+-- =========================================================
+CREATE INDEX idx_person_name ON Person(name);
+CREATE INDEX idx_person_phone ON Person(phone);
+CREATE FULLTEXT INDEX ft_person_name ON Person(name);
+CREATE INDEX idx_victim_family ON Victim(family_id);
+CREATE INDEX idx_victim_status ON Victim(status);
+CREATE INDEX idx_camp_name ON Camp(name);
+CREATE INDEX idx_camp_location ON Camp(location);
+CREATE INDEX idx_supply_name ON Supply(name);
+CREATE INDEX idx_movement_moved_on ON Supply_Movement(moved_on);
+CREATE INDEX idx_donation_date ON Donation(date_received);
+CREATE INDEX idx_missing_status ON MissingPerson(status);
+CREATE INDEX idx_missing_reported ON MissingPerson(date_reported);
+CREATE FULLTEXT INDEX ft_missing_name_location ON MissingPerson(name, last_seen_location);
+CREATE INDEX idx_body_dna ON BodyIdentification(dna_sample_id);
+CREATE INDEX idx_team_agency ON RescueTeam(agency);
+CREATE INDEX idx_op_location ON RescueOperation(location);
+CREATE INDEX idx_op_start ON RescueOperation(start_time);
+CREATE INDEX idx_audit_changed_on ON Supply_Audit(changed_on);
+CREATE INDEX idx_activity_table_record ON Activity_Log(table_name, record_id);
+
+-- =========================================================
+-- 1c) OFFLINE WRITE JOURNAL (WriteJournal.java)
+-- =========================================================
+-- idempotency keys of replayed form writes; the app also creates this table on first use
+CREATE TABLE Journal_Applied (
+  write_key CHAR(36) PRIMARY KEY,
+  applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- =========================================================
+-- 1d) RELIEF ALLOCATION ROUNDS (ReliefAllocator.java)
+-- =========================================================
+-- one allocation per victim per named round; NULL rounds (manual entries) are not constrained
+-- existing databases: ALTER TABLE RehabAllocation ADD COLUMN allocation_round VARCHAR(64);
+CREATE UNIQUE INDEX uq_rehab_round ON RehabAllocation(victim_id, allocation_round);
+-- victims currently in a camp
+CREATE INDEX idx_vc_camp_open ON Victim_Camp(camp_id, date_released, victim_id);
+
+-- =========================================================
+-- 1e) CHANGE FEED RETENTION (ChangeFeed.java)
+-- =========================================================
+-- how far each running client has read Activity_Log. Only used when changes.keepDays is set (off by default,
+-- Activity_Log is the audit trail): rows older than that which every client seen within that time has read
+-- past are deleted. The app also creates this table on first use.
+CREATE TABLE ChangeFeed_Cursor (
+  client_id CHAR(36) PRIMARY KEY,
+  log_id INT NOT NULL,
+  seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- =========================================================
 -- 2) SEED DATA (small seeds from report)
 -- =========================================================
@@ -195,6 +249,8 @@ INSERT INTO Donation (donor_id,amount,donation_type,date_received,notes) VALUES
 -- =========================================================
 -- 3) TRIGGERS (safe versions + logs)
 -- =========================================================
+-- Every trigger stands aside when @wayanad_restore is set: a snapshot restore (Snapshot.java) writes rows
+-- whose occupancy, stock and log entries are already part of the snapshot.
 DELIMITER //
 
 -- 3.1 Log Person insert into Activity_Log
@@ -202,8 +258,10 @@ CREATE TRIGGER trg_log_person_insert
 AFTER INSERT ON Person
 FOR EACH ROW
 BEGIN
-  INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
-  VALUES ('Person', 'INSERT', NEW.person_id, NOW());
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Person', 'INSERT', NEW.person_id, NOW());
+  END IF;
 END//
 
 -- 3.2 When victim added to a camp -> increase occupancy (never below 0)
@@ -211,9 +269,11 @@ CREATE TRIGGER trg_victim_camp_add
 AFTER INSERT ON Victim_Camp
 FOR EACH ROW
 BEGIN
-  UPDATE Camp
-  SET current_occupancy = LEAST(current_occupancy + 1, capacity)
-  WHERE camp_id = NEW.camp_id;
+  IF @wayanad_restore IS NULL THEN
+    UPDATE Camp
+    SET current_occupancy = LEAST(current_occupancy + 1, capacity)
+    WHERE camp_id = NEW.camp_id;
+  END IF;
 END//
 
 -- 3.3 When victim released -> decrease occupancy but not below 0
@@ -221,7 +281,7 @@ CREATE TRIGGER trg_victim_camp_release
 AFTER UPDATE ON Victim_Camp
 FOR EACH ROW
 BEGIN
-  IF NEW.date_released IS NOT NULL AND OLD.date_released IS NULL THEN
+  IF NEW.date_released IS NOT NULL AND OLD.date_released IS NULL AND @wayanad_restore IS NULL THEN
     UPDATE Camp
     SET current_occupancy = GREATEST(current_occupancy - 1, 0)
     WHERE camp_id = NEW.camp_id;
@@ -230,33 +290,37 @@ END//
 
 -- 3.4 BEFORE INSERT on Supply_Movement: Option B behaviour
 -- If requested qty > available, adjust NEW.qty to available and log adjustment
+-- 3.4-3.6 stand aside when @wayanad_dispatch is set: the app's dispatch engine (SupplyDispatchService.java)
+-- locks, adjusts, deducts and audits whole batches itself
 CREATE TRIGGER trg_supply_movement_before_insert_adjust
 BEFORE INSERT ON Supply_Movement
 FOR EACH ROW
 BEGIN
   DECLARE avail INT DEFAULT 0;
-  -- get current available quantity (use FOR UPDATE to lock row in transactional contexts)
-  SELECT quantity_on_hand INTO avail FROM Supply WHERE supply_id = NEW.supply_id FOR UPDATE;
-  IF avail IS NULL THEN
-    SET avail = 0;
-  END IF;
+  IF @wayanad_dispatch IS NULL AND @wayanad_restore IS NULL THEN
+    -- get current available quantity (use FOR UPDATE to lock row in transactional contexts)
+    SELECT quantity_on_hand INTO avail FROM Supply WHERE supply_id = NEW.supply_id FOR UPDATE;
+    IF avail IS NULL THEN
+      SET avail = 0;
+    END IF;
 
-  IF NEW.qty IS NULL OR NEW.qty <= 0 THEN
-    -- ensure positive qty; if none provided, set to 1 (or you can set to 0)
-    SET NEW.qty = 1;
-  END IF;
+    IF NEW.qty IS NULL OR NEW.qty <= 0 THEN
+      -- ensure positive qty; if none provided, set to 1 (or you can set to 0)
+      SET NEW.qty = 1;
+    END IF;
 
-  IF NEW.qty > avail THEN
-    -- adjust to available (may be 0)
-    INSERT INTO Transfer_Error_Log(supply_id, requested_qty, adjusted_qty, message)
-    VALUES (NEW.supply_id, NEW.qty, GREATEST(avail,0),
-            CONCAT('Requested ', NEW.qty, ' but only ', GREATEST(avail,0), ' available; adjusted.'));
-    SET NEW.qty = GREATEST(avail, 0);
-  END IF;
+    IF NEW.qty > avail THEN
+      -- adjust to available (may be 0)
+      INSERT INTO Transfer_Error_Log(supply_id, requested_qty, adjusted_qty, message)
+      VALUES (NEW.supply_id, NEW.qty, GREATEST(avail,0),
+              CONCAT('Requested ', NEW.qty, ' but only ', GREATEST(avail,0), ' available; adjusted.'));
+      SET NEW.qty = GREATEST(avail, 0);
+    END IF;
 
-  -- Ensure moved_on is set
-  IF NEW.moved_on IS NULL THEN
-    SET NEW.moved_on = NOW();
+    -- Ensure moved_on is set
+    IF NEW.moved_on IS NULL THEN
+      SET NEW.moved_on = NOW();
+    END IF;
   END IF;
 END//
 
@@ -265,7 +329,7 @@ CREATE TRIGGER trg_supply_movement_deduct
 AFTER INSERT ON Supply_Movement
 FOR EACH ROW
 BEGIN
-  IF NEW.qty > 0 THEN
+  IF NEW.qty > 0 AND @wayanad_dispatch IS NULL AND @wayanad_restore IS NULL THEN
     UPDATE Supply
     SET quantity_on_hand = GREATEST(quantity_on_hand - NEW.qty, 0)
     WHERE supply_id = NEW.supply_id;
@@ -277,12 +341,368 @@ CREATE TRIGGER trg_supply_update_audit
 AFTER UPDATE ON Supply
 FOR EACH ROW
 BEGIN
-  IF NEW.quantity_on_hand <> OLD.quantity_on_hand THEN
+  IF NEW.quantity_on_hand <> OLD.quantity_on_hand AND @wayanad_dispatch IS NULL AND @wayanad_restore IS NULL THEN
     INSERT INTO Supply_Audit(supply_id, change_qty, new_qty, changed_on, reason)
     VALUES (NEW.supply_id, NEW.quantity_on_hand - OLD.quantity_on_hand, NEW.quantity_on_hand, NOW(), 'Auto Audit: Quantity adjusted');
   END IF;
 END//
 
+-- 3.7 Change capture: every managed table logs its row changes to Activity_Log,
+-- which the app tails by log_id to update open grids and caches (ChangeFeed.java).
+-- Person inserts are already logged by trg_log_person_insert (3.1).
+-- MySQL does not fire triggers for ON DELETE CASCADE, so Victim rows removed with their Person are not logged.
+-- Rows are kept unless changes.keepDays is set (see 1e).
+
+CREATE TRIGGER trg_log_person_update
+AFTER UPDATE ON Person
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Person', 'UPDATE', NEW.person_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_person_delete
+AFTER DELETE ON Person
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Person', 'DELETE', OLD.person_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_insert
+AFTER INSERT ON Victim
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim', 'INSERT', NEW.victim_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_update
+AFTER UPDATE ON Victim
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim', 'UPDATE', NEW.victim_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_delete
+AFTER DELETE ON Victim
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim', 'DELETE', OLD.victim_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_camp_insert
+AFTER INSERT ON Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Camp', 'INSERT', NEW.camp_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_camp_update
+AFTER UPDATE ON Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Camp', 'UPDATE', NEW.camp_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_camp_delete
+AFTER DELETE ON Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Camp', 'DELETE', OLD.camp_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_camp_insert
+AFTER INSERT ON Victim_Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim_Camp', 'INSERT', NEW.vc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_camp_update
+AFTER UPDATE ON Victim_Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim_Camp', 'UPDATE', NEW.vc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_victim_camp_delete
+AFTER DELETE ON Victim_Camp
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Victim_Camp', 'DELETE', OLD.vc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_insert
+AFTER INSERT ON Supply
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply', 'INSERT', NEW.supply_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_update
+AFTER UPDATE ON Supply
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply', 'UPDATE', NEW.supply_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_delete
+AFTER DELETE ON Supply
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply', 'DELETE', OLD.supply_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_movement_insert
+AFTER INSERT ON Supply_Movement
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply_Movement', 'INSERT', NEW.move_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_movement_update
+AFTER UPDATE ON Supply_Movement
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply_Movement', 'UPDATE', NEW.move_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_supply_movement_delete
+AFTER DELETE ON Supply_Movement
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Supply_Movement', 'DELETE', OLD.move_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_donation_insert
+AFTER INSERT ON Donation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Donation', 'INSERT', NEW.donation_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_donation_update
+AFTER UPDATE ON Donation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Donation', 'UPDATE', NEW.donation_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_donation_delete
+AFTER DELETE ON Donation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('Donation', 'DELETE', OLD.donation_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_missingperson_insert
+AFTER INSERT ON MissingPerson
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('MissingPerson', 'INSERT', NEW.missing_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_missingperson_update
+AFTER UPDATE ON MissingPerson
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('MissingPerson', 'UPDATE', NEW.missing_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_missingperson_delete
+AFTER DELETE ON MissingPerson
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('MissingPerson', 'DELETE', OLD.missing_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_bodyidentification_insert
+AFTER INSERT ON BodyIdentification
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('BodyIdentification', 'INSERT', NEW.body_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_bodyidentification_update
+AFTER UPDATE ON BodyIdentification
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('BodyIdentification', 'UPDATE', NEW.body_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_bodyidentification_delete
+AFTER DELETE ON BodyIdentification
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('BodyIdentification', 'DELETE', OLD.body_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rehaballocation_insert
+AFTER INSERT ON RehabAllocation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RehabAllocation', 'INSERT', NEW.alloc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rehaballocation_update
+AFTER UPDATE ON RehabAllocation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RehabAllocation', 'UPDATE', NEW.alloc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rehaballocation_delete
+AFTER DELETE ON RehabAllocation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RehabAllocation', 'DELETE', OLD.alloc_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueteam_insert
+AFTER INSERT ON RescueTeam
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueTeam', 'INSERT', NEW.team_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueteam_update
+AFTER UPDATE ON RescueTeam
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueTeam', 'UPDATE', NEW.team_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueteam_delete
+AFTER DELETE ON RescueTeam
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueTeam', 'DELETE', OLD.team_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueoperation_insert
+AFTER INSERT ON RescueOperation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueOperation', 'INSERT', NEW.op_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueoperation_update
+AFTER UPDATE ON RescueOperation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueOperation', 'UPDATE', NEW.op_id, NOW());
+  END IF;
+END//
+
+CREATE TRIGGER trg_log_rescueoperation_delete
+AFTER DELETE ON RescueOperation
+FOR EACH ROW
+BEGIN
+  IF @wayanad_restore IS NULL THEN
+    INSERT INTO Activity_Log(table_name, action_type, record_id, action_timestamp)
+    VALUES ('RescueOperation', 'DELETE', OLD.op_id, NOW());
+  END IF;
+END//
+
 DELIMITER ;
 
 -- =========================================================
@@ -290,27 +710,14 @@ DELIMITER ;
 -- =========================================================
 DELIMITER //
 
--- 4.1 Allocate relief to camp procedure (unchanged, safe)
+-- 4.1 Allocate relief to camp procedure: one set-wise insert for the victims still in the camp
+-- (the app's Relief Allocation screen does the same for all camps, in named rounds that can be re-run)
 CREATE PROCEDURE AllocateReliefToCamp(IN p_camp_id INT, IN p_amount DECIMAL(12,2))
 BEGIN
-  DECLARE done INT DEFAULT FALSE;
-  DECLARE v_victim INT;
-  DECLARE cur CURSOR FOR
-    SELECT v.victim_id FROM Victim v
-    JOIN Victim_Camp vc ON v.victim_id = vc.victim_id
-    WHERE vc.camp_id = p_camp_id;
-  DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
-
-  OPEN cur;
-  read_loop: LOOP
-    FETCH cur INTO v_victim;
-    IF done THEN
-      LEAVE read_loop;
-    END IF;
-    INSERT INTO RehabAllocation(victim_id, house_id, allocation_date, amount_granted)
-    VALUES (v_victim, NULL, CURDATE(), p_amount);
-  END LOOP;
-  CLOSE cur;
+  INSERT INTO RehabAllocation(victim_id, house_id, allocation_date, amount_granted)
+  SELECT DISTINCT vc.victim_id, NULL, CURDATE(), p_amount
+  FROM Victim_Camp vc
+  WHERE vc.camp_id = p_camp_id AND vc.date_released IS NULL;
 END//
 
 -- 4.2 Generate_Wayanad_Data: safe generator with positive numbers